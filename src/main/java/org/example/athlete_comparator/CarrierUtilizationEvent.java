@@ -0,0 +1,39 @@
+package org.example.athlete_comparator;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Percentage;
+import jdk.jfr.Period;
+import jdk.jfr.StackTrace;
+
+/**
+ * Periodic JFR event with the latest carrier-thread sample taken by VirtualThreadDiagnostics.
+ * Shows up next to jdk.VirtualThreadPinned in any recording, e.g. -XX:StartFlightRecording.
+ */
+@Name("athlete_comparator.CarrierUtilization")
+@Label("Carrier Utilization")
+@Description("How busy the carrier threads that run virtual threads were over the last sample")
+@Category({"Athlete Comparator", "Virtual Threads"})
+@Period("10 s")
+@StackTrace(false)
+class CarrierUtilizationEvent extends jdk.jfr.Event {
+
+    @Label("Parallelism")
+    @Description("Target number of carrier threads")
+    int parallelism;
+
+    @Label("Carriers")
+    @Description("Carrier threads alive")
+    int carriers;
+
+    @Label("Mounted")
+    @Description("Carrier threads running a virtual thread when sampled")
+    int mounted;
+
+    @Label("CPU Utilization")
+    @Description("Carrier CPU time over the sample interval, relative to parallelism")
+    @Percentage
+    double cpuUtilization;
+}
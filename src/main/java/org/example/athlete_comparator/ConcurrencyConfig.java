@@ -0,0 +1,30 @@
+package org.example.athlete_comparator;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Configuration for the executor used to fan out upstream calls.
+ *
+ * Fan-out tasks run on virtual threads, since they mostly wait on ESPN. How many calls hit a
+ * host at once is up to HostConcurrencyLimiter, not this executor.
+ * Scheduling is enabled here too, for background jobs like the search index refresh.
+ */
+@Configuration
+@EnableScheduling
+public class ConcurrencyConfig {
+
+    /**
+     * Executor that starts one virtual thread per submitted task.
+     *
+     * @return ExecutorService shared by all service-level fan-out
+     */
+    @Bean(destroyMethod = "close")
+    public ExecutorService fanOutExecutor() {
+        return Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("fanout-", 0).factory());
+    }
+}
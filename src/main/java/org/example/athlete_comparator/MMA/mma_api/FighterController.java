@@ -1,13 +1,22 @@
 package org.example.athlete_comparator.MMA.mma_api;
 
+import org.example.athlete_comparator.MMA.mma_dto.FighterBundleDTO;
 import org.example.athlete_comparator.MMA.mma_dto.FighterInfoDTO;
 import org.example.athlete_comparator.MMA.mma_dto.FighterRecordDTO;
 import org.example.athlete_comparator.MMA.mma_dto.FighterSearchResultDTO;
 import org.example.athlete_comparator.MMA.mma_dto.FighterStatDTO;
+import org.example.athlete_comparator.MMA.mma_service.FighterBundleService;
 import org.example.athlete_comparator.MMA.mma_service.MMARecordsService;
 import org.example.athlete_comparator.MMA.mma_service.MMASearchService;
 import org.example.athlete_comparator.MMA.mma_service.MMAStatsService;
+import org.example.athlete_comparator.shared_api.CachePolicy;
+import org.example.athlete_comparator.shared_api.ETagResponses;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
 
 import java.util.List;
 
@@ -18,30 +27,59 @@ public class FighterController {
     private final MMASearchService mmaSearchService;
     private final MMAStatsService mmaStatsService;
     private final MMARecordsService mmaRecordsService;
+    private final FighterBundleService fighterBundleService;
+    private final ETagResponses eTagResponses;
+    private final int maxBundleFighters;
 
-    public FighterController(MMASearchService mmaSearchService, MMAStatsService  mmaStatsService, MMARecordsService mmaRecordsService) {
+    public FighterController(MMASearchService mmaSearchService, MMAStatsService  mmaStatsService, MMARecordsService mmaRecordsService,
+                             FighterBundleService fighterBundleService, ETagResponses eTagResponses,
+                             @Value("${mma.bundle.max-fighters:10}") int maxBundleFighters) {
         this.mmaSearchService = mmaSearchService;
         this.mmaStatsService = mmaStatsService;
         this.mmaRecordsService = mmaRecordsService;
+        this.fighterBundleService = fighterBundleService;
+        this.eTagResponses = eTagResponses;
+        this.maxBundleFighters = maxBundleFighters;
     }
 
     @GetMapping("/search")
-    public List<FighterSearchResultDTO> searchResultDTOS(@RequestParam("q") String searchText) {
-        return mmaSearchService.search(searchText);
+    public ResponseEntity<List<FighterSearchResultDTO>> searchResultDTOS(@RequestParam("q") String searchText,
+                                                                         @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        return eTagResponses.respond(mmaSearchService.search(searchText), ifNoneMatch, CachePolicy.SEARCH);
     }
 
     @GetMapping("/fighters/{id}/record")
-    public FighterRecordDTO getFighterRecord(@PathVariable("id") long fighterID) {
-        return mmaRecordsService.getFighterRecord(fighterID);
+    public ResponseEntity<FighterRecordDTO> getFighterRecord(@PathVariable("id") long fighterID,
+                                                             @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        return eTagResponses.respond(mmaRecordsService.getFighterRecord(fighterID), ifNoneMatch, CachePolicy.SHORT);
     }
 
+    // Profile data (name, height, reach) rarely changes, unless the lookup failed
     @GetMapping("/fighters/{id}/info")
-    public FighterInfoDTO getFighterInfo(@PathVariable("id") long fighterID) {
-        return mmaStatsService.getFighterInfo(fighterID);
+    public ResponseEntity<FighterInfoDTO> getFighterInfo(@PathVariable("id") long fighterID,
+                                                         @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        FighterInfoDTO info = mmaStatsService.getFighterInfo(fighterID);
+        return eTagResponses.respond(info, ifNoneMatch, info != null ? CachePolicy.LONG : CachePolicy.SHORT);
     }
 
     @GetMapping("/fighters/{id}/stats")
-    public FighterStatDTO getStatistics(@PathVariable("id") long fighterID) {
-        return mmaStatsService.getStatistics(fighterID);
+    public ResponseEntity<FighterStatDTO> getStatistics(@PathVariable("id") long fighterID,
+                                                        @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        return eTagResponses.respond(mmaStatsService.getStatistics(fighterID), ifNoneMatch, CachePolicy.SHORT);
+    }
+
+    /**
+     * Info, stats and record for one or more fighters in a single response.
+     * Example: GET /api/mma/fighters/bundle?ids=3088812,2335639
+     */
+    @GetMapping("/fighters/bundle")
+    public ResponseEntity<List<FighterBundleDTO>> getFighterBundles(
+            @RequestParam("ids") List<Long> fighterIDs,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        if (fighterIDs.isEmpty() || fighterIDs.size() > maxBundleFighters) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "Between 1 and " + maxBundleFighters + " fighter IDs are allowed");
+        }
+        return eTagResponses.respond(fighterBundleService.getBundles(fighterIDs), ifNoneMatch, CachePolicy.SHORT);
     }
 }
@@ -3,19 +3,28 @@ package org.example.athlete_comparator.MMA.mma_api;
 import org.example.athlete_comparator.shared_dto.CompareResultDTO;
 import org.example.athlete_comparator.MMA.mma_service.MMAComparisonService;
 import org.example.athlete_comparator.shared_dto.CompareRequestDTO;
+import org.example.athlete_comparator.shared_api.CompareStreamEmitter;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 @RestController
 @RequestMapping("/api/mma")
+@ConditionalOnProperty(name = "reactive.enabled", havingValue = "false", matchIfMissing = true)
 public class MMACompareController {
 
     private final MMAComparisonService mmaComparisonService;
+    private final CompareStreamEmitter compareStreamEmitter;
 
-    public MMACompareController(MMAComparisonService mmaComparisonService) {
+    public MMACompareController(MMAComparisonService mmaComparisonService, CompareStreamEmitter compareStreamEmitter) {
         this.mmaComparisonService = mmaComparisonService;
+        this.compareStreamEmitter = compareStreamEmitter;
     }
 
     @PostMapping("/compare")
@@ -25,4 +34,9 @@ public class MMACompareController {
                 compareRequestDTO.getbID()
         );
     }
-}
\ No newline at end of file
+
+    @GetMapping(path = "/compare/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter compareFightersStream(@RequestParam("a") long aID, @RequestParam("b") long bID) {
+        return compareStreamEmitter.stream(listener -> mmaComparisonService.compareFighters(aID, bID, listener));
+    }
+}
@@ -0,0 +1,51 @@
+package org.example.athlete_comparator.MMA.mma_api;
+
+import org.example.athlete_comparator.MMA.mma_service.MMAComparisonService;
+import org.example.athlete_comparator.shared_api.CompareStreamEmitter;
+import org.example.athlete_comparator.shared_api.PartialContentAdvice;
+import org.example.athlete_comparator.shared_client.Deadline;
+import org.example.athlete_comparator.shared_dto.CompareRequestDTO;
+import org.example.athlete_comparator.shared_dto.CompareResultDTO;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.codec.ServerSentEvent;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Reactive variant of MMACompareController, on the same URLs, active when reactive.enabled is set.
+ * No request thread waits for ESPN or OpenAI; Spring MVC writes the Mono or Flux once it completes.
+ */
+@RestController
+@RequestMapping("/api/mma")
+@ConditionalOnProperty(name = "reactive.enabled", havingValue = "true")
+public class MMAReactiveCompareController {
+
+    private final MMAComparisonService mmaComparisonService;
+    private final CompareStreamEmitter compareStreamEmitter;
+
+    public MMAReactiveCompareController(MMAComparisonService mmaComparisonService, CompareStreamEmitter compareStreamEmitter) {
+        this.mmaComparisonService = mmaComparisonService;
+        this.compareStreamEmitter = compareStreamEmitter;
+    }
+
+    @PostMapping("/compare")
+    public Mono<ResponseEntity<CompareResultDTO>> compareFighters(@RequestBody CompareRequestDTO compareRequestDTO) {
+        Deadline deadline = Deadline.current();
+        return mmaComparisonService.compareFightersReactive(compareRequestDTO.getaID(), compareRequestDTO.getbID(), null)
+                .map(result -> PartialContentAdvice.respond(deadline, result))
+                .contextWrite(Deadline.toContext());
+    }
+
+    @GetMapping(path = "/compare/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public Flux<ServerSentEvent<Object>> compareFightersStream(@RequestParam("a") long aID, @RequestParam("b") long bID) {
+        return compareStreamEmitter.streamReactive(listener -> mmaComparisonService.compareFightersReactive(aID, bID, listener));
+    }
+}
@@ -3,11 +3,13 @@ package org.example.athlete_comparator.MMA.mma_client;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.example.athlete_comparator.MMA.mma_dto.FighterSearchResultDTO;
+import org.example.athlete_comparator.shared_client.EspnFetcher;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.http.client.SimpleClientHttpRequestFactory;
 import org.springframework.stereotype.Component;
-import org.springframework.web.client.RestClient;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.regex.Matcher;
@@ -16,25 +18,24 @@ import java.util.regex.Pattern;
 @Component
 public class EspnMMASearchClient {
 
-    private final RestClient restClient;
     private final ObjectMapper objectMapper;
     private final String searchBase;
+    private final String siteBase;
+    private final EspnFetcher espnFetcher;
+    private final Duration searchTtl;
     private static final Pattern UID_ATHLETE = Pattern.compile("a:(\\d+)");
 
     public EspnMMASearchClient(@Value("${espn.mma.api.search}") String searchBase,
-                               @Value("${espn.api.timeout:5000}") int timeout,
+                               @Value("${espn.mma.api.site}") String siteBase,
+                               @Value("${espn.cache.search-ttl:3600}") long searchTtlSeconds,
+                               EspnFetcher espnFetcher,
                                ObjectMapper objectMapper)
     {
         this.searchBase = searchBase;
+        this.siteBase = siteBase;
         this.objectMapper = objectMapper;
-
-        var reqFactory = new SimpleClientHttpRequestFactory();
-        reqFactory.setConnectTimeout(timeout);
-        reqFactory.setReadTimeout(timeout);
-
-        this.restClient = RestClient.builder()
-                .requestFactory(reqFactory)
-                .build();
+        this.espnFetcher = espnFetcher;
+        this.searchTtl = Duration.ofSeconds(searchTtlSeconds);
     }
 
     private static long parseAthleteID(String uid) {
@@ -50,15 +51,30 @@ public class EspnMMASearchClient {
         }
     }
 
+    private JsonNode fetch(String endpoint, String url) {
+        byte[] body = espnFetcher.fetch(endpoint, url, searchTtl);
+        if (body == null || body.length == 0) return null;
+        try {
+            return objectMapper.readTree(body);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Invalid search response from " + url, e);
+        }
+    }
+
     public List<FighterSearchResultDTO> searchFighters(String query) {
         String url = searchBase + "?limit=50&query=" + encode(query);
 
-        JsonNode root = restClient.get()
-                .uri(url)
-                .retrieve()
-                .body(JsonNode.class);
+        JsonNode root = fetch("mma:/search", url);
         if (root == null) return List.of();
+        return toSearchResults(root);
+    }
 
+    /**
+     * Maps an ESPN search response to fighter results
+     * @param root Parsed search response
+     * @return One result per MMA fighter hit, in ESPN's order, without nickname
+     */
+    static List<FighterSearchResultDTO> toSearchResults(JsonNode root) {
         List<FighterSearchResultDTO> out = new ArrayList<>();
 
         JsonNode results = root.path("results");
@@ -85,4 +101,35 @@ public class EspnMMASearchClient {
         }
         return out;
     }
+
+    /**
+     * Fighters on the UFC cards currently on ESPN's scoreboard (the latest and upcoming events).
+     * ESPN has no UFC roster endpoint, so this is the best list of active fighters available.
+     * @return One result per fighter, without nickname
+     */
+    public List<FighterSearchResultDTO> getScoreboardFighters() {
+        JsonNode root = fetch("mma:/scoreboard", siteBase + "/scoreboard");
+        if (root == null) return List.of();
+
+        List<FighterSearchResultDTO> out = new ArrayList<>();
+        for (JsonNode event : root.path("events")) {
+            for (JsonNode competition : event.path("competitions")) {
+                String weightClass = competition.path("type").path("text").asText("");
+                for (JsonNode competitor : competition.path("competitors")) {
+                    long athleteID = competitor.path("id").asLong(-1);
+                    if (athleteID <= 0) continue;
+
+                    JsonNode athlete = competitor.path("athlete");
+                    FighterSearchResultDTO dto = new FighterSearchResultDTO();
+                    dto.setID(athleteID);
+                    dto.setName(athlete.path("displayName").asText(""));
+                    dto.setWeightClass(weightClass);
+                    dto.setNickname("");
+                    dto.setHeadshotUrl(athlete.path("headshot").path("href").asText(""));
+                    out.add(dto);
+                }
+            }
+        }
+        return out;
+    }
 }
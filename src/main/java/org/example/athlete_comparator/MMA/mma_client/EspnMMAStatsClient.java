@@ -1,21 +1,32 @@
 package org.example.athlete_comparator.MMA.mma_client;
 
 import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.example.athlete_comparator.shared_client.EspnFetcher;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.http.client.SimpleClientHttpRequestFactory;
 import org.springframework.stereotype.Component;
-import org.springframework.web.client.RestClient;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
 
 @Component
 public class EspnMMAStatsClient {
 
-    private final RestClient restClient;
+    private final EspnFetcher espnFetcher;
+    private final ObjectMapper objectMapper;
     private final String coreBase;
     private final String ufcBase;
+    private final Duration longTtl;
+    private final Duration shortTtl;
 
     public EspnMMAStatsClient(@Value("${espn.mma.api.base}") String coreBase,
                               @Value("${espn.mma.api.league}") String ufcBase,
-                              @Value("${espn.api.timeout:5000}") int timeout) {
+                              @Value("${espn.cache.ttl:86400}") long longTtlSeconds,
+                              @Value("${espn.cache.current-season-ttl:900}") long shortTtlSeconds,
+                              EspnFetcher espnFetcher,
+                              ObjectMapper objectMapper) {
         if (coreBase == null || coreBase.isBlank()) {
             throw new IllegalStateException("espn.mma.api.base is not set");
         }
@@ -25,49 +36,117 @@ public class EspnMMAStatsClient {
 
         this.coreBase = coreBase;
         this.ufcBase = ufcBase;
+        this.longTtl = Duration.ofSeconds(longTtlSeconds);
+        this.shortTtl = Duration.ofSeconds(shortTtlSeconds);
 
-        var reqFactory = new SimpleClientHttpRequestFactory();
-        reqFactory.setConnectTimeout(timeout);
-        reqFactory.setReadTimeout(timeout);
-
-        this.restClient = RestClient.builder()
-                .requestFactory(reqFactory)
-                .build();
+        this.espnFetcher = espnFetcher;
+        this.objectMapper = objectMapper;
     }
 
-    public JsonNode getFighterInfo(long fighterID) {
-        String url = coreBase + "/athletes/" + fighterID;
+    /**
+     * Fetches a URL through the response cache
+     * @param endpoint Endpoint template, used as the metrics tag
+     * @param url Full request URL
+     * @param ttl How long the response may be served from cache
+     * @return Raw response body, or null if ESPN has nothing at the URL (404)
+     * @throws RuntimeException if the request fails or is not sent, see EspnFetcher.fetch
+     */
+    private byte[] fetchBytes(String endpoint, String url, Duration ttl) {
         try {
-            return restClient.get()
-                    .uri(url)
-                    .retrieve()
-                    .body(JsonNode.class);
-        } catch (Exception e) {
+            return espnFetcher.fetch(endpoint, url, ttl);
+        } catch (HttpClientErrorException.NotFound e) {
             return null;
         }
     }
 
-    public JsonNode getFightRecords(long fighterID) {
-        String url = coreBase + "/athletes/" + fighterID + "/records?lang=en&region=us";
+    private JsonNode fetch(String endpoint, String url, Duration ttl) {
+        return parse(fetchBytes(endpoint, url, ttl));
+    }
+
+    private JsonNode parse(byte[] body) {
+        if (body == null) return null;
         try {
-            return restClient.get()
-                    .uri(url)
-                    .retrieve()
-                    .body(JsonNode.class);
-        }  catch (Exception e) {
-            return  null;
+            return objectMapper.readTree(body);
+        } catch (Exception e) {
+            return null;
         }
     }
 
-    public JsonNode getStatistics(long fighterID) {
-        String url = coreBase + "/athletes/" + fighterID + "/statistics/0?lang=en&region=us";
+    /**
+     * Reactive counterpart of fetchBytes: a 404 completes empty, other failures are passed on
+     */
+    private Mono<byte[]> fetchBytesReactive(String endpoint, String url, Duration ttl) {
+        return espnFetcher.fetchReactive(endpoint, url, ttl)
+                .onErrorResume(WebClientResponseException.NotFound.class, e -> Mono.empty());
+    }
+
+    private Mono<JsonNode> fetchReactive(String endpoint, String url, Duration ttl) {
+        return fetchBytesReactive(endpoint, url, ttl).mapNotNull(this::parse);
+    }
+
+    public JsonNode getFighterInfo(long fighterID) {
+        return fetch("mma:/athletes/{id}", fighterInfoUrl(fighterID), longTtl);
+    }
+
+    /**
+     * Reactive counterpart of getFighterInfo, empty if ESPN has none
+     */
+    public Mono<JsonNode> getFighterInfoReactive(long fighterID) {
+        return fetchReactive("mma:/athletes/{id}", fighterInfoUrl(fighterID), longTtl);
+    }
+
+    /**
+     * Returns fighter info only if it is already cached, never calls ESPN
+     */
+    public JsonNode getCachedFighterInfo(long fighterID) {
+        byte[] body = espnFetcher.peek(fighterInfoUrl(fighterID));
+        if (body == null) return null;
         try {
-            return restClient.get()
-                    .uri(url)
-                    .retrieve()
-                    .body(JsonNode.class);
+            return objectMapper.readTree(body);
         } catch (Exception e) {
             return null;
         }
     }
+
+    private String fighterInfoUrl(long fighterID) {
+        return coreBase + "/athletes/" + fighterID;
+    }
+
+    // Records and statistics change after every fight, so they are kept for a shorter time
+    public JsonNode getFightRecords(long fighterID) {
+        return fetch("mma:/athletes/{id}/records", fightRecordsUrl(fighterID), shortTtl);
+    }
+
+    /**
+     * Reactive counterpart of getFightRecords, empty if ESPN has none
+     */
+    public Mono<JsonNode> getFightRecordsReactive(long fighterID) {
+        return fetchReactive("mma:/athletes/{id}/records", fightRecordsUrl(fighterID), shortTtl);
+    }
+
+    private String fightRecordsUrl(long fighterID) {
+        return coreBase + "/athletes/" + fighterID + "/records?lang=en&region=us";
+    }
+
+    public JsonNode getStatistics(long fighterID) {
+        return parse(getStatisticsPayload(fighterID));
+    }
+
+    /**
+     * Raw body of the statistics endpoint, for decoding with a streaming parser
+     */
+    public byte[] getStatisticsPayload(long fighterID) {
+        return fetchBytes("mma:/athletes/{id}/statistics", statisticsUrl(fighterID), shortTtl);
+    }
+
+    /**
+     * Reactive counterpart of getStatisticsPayload, empty if ESPN has none
+     */
+    public Mono<byte[]> getStatisticsPayloadReactive(long fighterID) {
+        return fetchBytesReactive("mma:/athletes/{id}/statistics", statisticsUrl(fighterID), shortTtl);
+    }
+
+    private String statisticsUrl(long fighterID) {
+        return coreBase + "/athletes/" + fighterID + "/statistics/0?lang=en&region=us";
+    }
 }
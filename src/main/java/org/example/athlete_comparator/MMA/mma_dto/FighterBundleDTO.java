@@ -0,0 +1,50 @@
+package org.example.athlete_comparator.MMA.mma_dto;
+
+public class FighterBundleDTO {
+    private long id;
+    private FighterInfoDTO info;
+    private FighterStatDTO stats;
+    private FighterRecordDTO record;
+
+    public FighterBundleDTO() {
+    }
+
+    public FighterBundleDTO(long id, FighterInfoDTO info, FighterStatDTO stats, FighterRecordDTO record) {
+        this.id = id;
+        this.info = info;
+        this.stats = stats;
+        this.record = record;
+    }
+
+    public long getId() {
+        return id;
+    }
+
+    public void setId(long id) {
+        this.id = id;
+    }
+
+    public FighterInfoDTO getInfo() {
+        return info;
+    }
+
+    public void setInfo(FighterInfoDTO info) {
+        this.info = info;
+    }
+
+    public FighterStatDTO getStats() {
+        return stats;
+    }
+
+    public void setStats(FighterStatDTO stats) {
+        this.stats = stats;
+    }
+
+    public FighterRecordDTO getRecord() {
+        return record;
+    }
+
+    public void setRecord(FighterRecordDTO record) {
+        this.record = record;
+    }
+}
@@ -0,0 +1,86 @@
+package org.example.athlete_comparator.MMA.mma_service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import org.example.athlete_comparator.MMA.mma_client.EspnMMAStatsClient;
+import org.example.athlete_comparator.MMA.mma_dto.FighterBundleDTO;
+import org.example.athlete_comparator.MMA.mma_dto.FighterStatDTO;
+import org.example.athlete_comparator.shared_client.FetchScope;
+import org.example.athlete_comparator.shared_client.ParallelFetcher;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+
+/**
+ * Builds info, stats and record for several fighters in one call.
+ * All lookups run side by side, a fighter requested twice is fetched once, and the raw
+ * documents land in the ESPN response cache for the single-view endpoints to reuse.
+ */
+@Service
+public class FighterBundleService {
+
+    private static final Logger log = LoggerFactory.getLogger(FighterBundleService.class);
+    private final EspnMMAStatsClient espnMMAStatsClient;
+    private final MMAStatsService mmaStatsService;
+    private final MMARecordsService mmaRecordsService;
+    private final ParallelFetcher parallelFetcher;
+    private final Duration budget;
+
+    private record Lookups(Future<JsonNode> info, Future<FighterStatDTO> stats, Future<JsonNode> records) {
+    }
+
+    public FighterBundleService(EspnMMAStatsClient espnMMAStatsClient, MMAStatsService mmaStatsService,
+                                MMARecordsService mmaRecordsService, ParallelFetcher parallelFetcher,
+                                @Value("${mma.bundle.budget-ms:8000}") long budgetMs) {
+        this.espnMMAStatsClient = espnMMAStatsClient;
+        this.mmaStatsService = mmaStatsService;
+        this.mmaRecordsService = mmaRecordsService;
+        this.parallelFetcher = parallelFetcher;
+        this.budget = Duration.ofMillis(budgetMs);
+    }
+
+    /**
+     * Fetches info, stats and record for every fighter
+     * @param fighterIDs ESPN fighter IDs
+     * @return One bundle per distinct ID, in request order; parts not loaded in time are empty
+     */
+    public List<FighterBundleDTO> getBundles(List<Long> fighterIDs) {
+        try (FetchScope scope = parallelFetcher.openScope()) {
+            Map<Long, Lookups> lookups = new LinkedHashMap<>();
+            for (long fighterID : fighterIDs) {
+                lookups.computeIfAbsent(fighterID, id -> new Lookups(
+                        scope.forkOptional(() -> espnMMAStatsClient.getFighterInfo(id)),
+                        scope.forkOptional(() -> mmaStatsService.getStatistics(id)),
+                        scope.forkOptional(() -> espnMMAStatsClient.getFightRecords(id))));
+            }
+
+            try {
+                if (!scope.join(budget)) {
+                    log.warn("Fighter bundle for {} took longer than {} ms, returning partial data",
+                            fighterIDs, budget.toMillis());
+                }
+            } catch (ExecutionException e) {
+                // The lookups handle their own errors, so this is unexpected; serve what arrived
+                log.error("Error loading fighter bundle for {}", fighterIDs, e.getCause());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+
+            List<FighterBundleDTO> bundles = new ArrayList<>(lookups.size());
+            lookups.forEach((id, l) -> bundles.add(new FighterBundleDTO(id,
+                    mmaStatsService.toFighterInfo(id, FetchScope.resultOr(l.info(), null)),
+                    Objects.requireNonNullElseGet(FetchScope.resultOr(l.stats(), null), FighterStatDTO::new),
+                    mmaRecordsService.toFighterRecord(id, FetchScope.resultOr(l.records(), null)))));
+            return bundles;
+        }
+    }
+}
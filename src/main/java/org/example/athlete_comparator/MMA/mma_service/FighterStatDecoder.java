@@ -0,0 +1,126 @@
+package org.example.athlete_comparator.MMA.mma_service;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import org.example.athlete_comparator.MMA.mma_dto.FighterStatDTO;
+
+import java.io.IOException;
+
+/**
+ * Single-pass decoder for the ESPN fighter statistics payload (athletes/{id}/statistics/0).
+ * Streams through splits.categories[].stats[] once, with the same rules as the old tree walk:
+ * exact stat names, later occurrences win, and anything that is not a number counts as 0.
+ */
+final class FighterStatDecoder {
+
+    private static final JsonFactory JSON = new JsonFactory();
+
+    private FighterStatDecoder() {
+    }
+
+    /**
+     * Result of decoding: the DTO plus whether any categories were present at all
+     */
+    record Decoded(FighterStatDTO stats, boolean hasCategories) {
+    }
+
+    /**
+     * @param payload Raw response body
+     * @return Decoded stats; hasCategories is false if splits.categories is missing or empty
+     * @throws IOException if the payload is not valid JSON
+     */
+    static Decoded decode(byte[] payload) throws IOException {
+        FighterStatDTO dto = new FighterStatDTO();
+        boolean hasCategories = false;
+
+        try (JsonParser parser = JSON.createParser(payload)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                return new Decoded(dto, false);
+            }
+
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.currentName();
+                JsonToken token = parser.nextToken();
+
+                if (!"splits".equals(field) || token != JsonToken.START_OBJECT) {
+                    parser.skipChildren();
+                    continue;
+                }
+
+                while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                    String splitField = parser.currentName();
+                    JsonToken splitToken = parser.nextToken();
+                    if ("categories".equals(splitField) && splitToken == JsonToken.START_ARRAY) {
+                        hasCategories |= readCategories(parser, dto);
+                    } else {
+                        parser.skipChildren();
+                    }
+                }
+            }
+        }
+        return new Decoded(dto, hasCategories);
+    }
+
+    /**
+     * @return true if the array contained at least one category
+     */
+    private static boolean readCategories(JsonParser parser, FighterStatDTO dto) throws IOException {
+        boolean any = false;
+        while (parser.nextToken() != JsonToken.END_ARRAY) {
+            any = true;
+            if (parser.currentToken() != JsonToken.START_OBJECT) {
+                parser.skipChildren();
+                continue;
+            }
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.currentName();
+                JsonToken token = parser.nextToken();
+                if ("stats".equals(field) && token == JsonToken.START_ARRAY) {
+                    while (parser.nextToken() != JsonToken.END_ARRAY) {
+                        readStat(parser, dto);
+                    }
+                } else {
+                    parser.skipChildren();
+                }
+            }
+        }
+        return any;
+    }
+
+    private static void readStat(JsonParser parser, FighterStatDTO dto) throws IOException {
+        if (parser.currentToken() != JsonToken.START_OBJECT) {
+            parser.skipChildren();
+            return;
+        }
+
+        String name = "";
+        double value = 0.0;
+
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            JsonToken token = parser.nextToken();
+
+            if ("name".equals(field) && token.isScalarValue()) {
+                name = parser.getValueAsString("");
+            } else if ("value".equals(field) && token.isScalarValue()) {
+                value = parser.getValueAsDouble(0.0);
+            } else {
+                parser.skipChildren();
+            }
+        }
+
+        switch (name) {
+            case "takedownAccuracy" -> dto.setTakedownAccuracy(value);
+            case "strikeLPM" -> dto.setStrikeLPM(value);
+            case "strikeAccuracy" -> dto.setStrikeAccuracy(value);
+            case "takedownAvg" -> dto.setTakedownAvg(value);
+            case "submissionAvg" -> dto.setSubmissionAvg(value);
+            case "koPercentage" -> dto.setKoPercentage(value);
+            case "tkoPercentage" -> dto.setTkoPercentage(value);
+            case "decisionPercentage" -> dto.setDecisionPercentage(value);
+            default -> {
+            }
+        }
+    }
+}
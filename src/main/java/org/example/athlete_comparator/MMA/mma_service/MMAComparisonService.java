@@ -4,10 +4,23 @@ import com.fasterxml.jackson.databind.JsonNode;
 import org.example.athlete_comparator.MMA.mma_client.EspnMMAStatsClient;
 import org.example.athlete_comparator.MMA.mma_dto.FighterStatDTO;
 import org.example.athlete_comparator.shared_dto.CompareResultDTO;
+import org.example.athlete_comparator.shared_client.Deadline;
 import org.example.athlete_comparator.shared_client.OpenAiClient;
+import org.example.athlete_comparator.shared_client.ParallelFetcher;
+import org.example.athlete_comparator.shared_service.CompareResultCache;
+import org.example.athlete_comparator.shared_service.CompareStreamListener;
+import org.example.athlete_comparator.shared_service.SectionStreamParser;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 @Service
 public class MMAComparisonService {
@@ -16,13 +29,31 @@ public class MMAComparisonService {
     private final MMAStatsService mmaStatsService;
     private final EspnMMAStatsClient espnMMAStatsClient;
     private final OpenAiClient openAiClient;
+    private final CompareResultCache compareResultCache;
+    private final ParallelFetcher parallelFetcher;
+    private final Duration gatherBudget;
 
-    public MMAComparisonService(MMAStatsService mmaStatsService, EspnMMAStatsClient espnMMAStatsClient, OpenAiClient openAiClient) {
+    public MMAComparisonService(MMAStatsService mmaStatsService, EspnMMAStatsClient espnMMAStatsClient, OpenAiClient openAiClient,
+                                CompareResultCache compareResultCache, ParallelFetcher parallelFetcher,
+                                @Value("${mma.compare.gather-budget-ms:10000}") long gatherBudgetMs) {
         this.mmaStatsService = mmaStatsService;
         this.espnMMAStatsClient = espnMMAStatsClient;
         this.openAiClient = openAiClient;
+        this.compareResultCache = compareResultCache;
+        this.parallelFetcher = parallelFetcher;
+        this.gatherBudget = Duration.ofMillis(gatherBudgetMs);
     }
 
+    /**
+     * Section headers of the AI response and the CompareResultDTO property each one fills
+     */
+    private static final Map<String, String> SECTION_FIELDS = Map.of(
+            "OVERALL_WINNER", "overallWinner",
+            "ONE_VS_ONE", "oneVsOnePrediction",
+            "FIGHTER1_STRENGTHS", "athlete1Strengths",
+            "FIGHTER2_STRENGTHS", "athlete2Strengths",
+            "CONCLUSION", "conclusion");
+
     final static String SYSTEM_PROMPT = """
             You are an expert MMA analyst with deep knowledge of mixed martial arts, fighting styles, and fighter performance metrics.
             Your task is to provide objective, data-driven comparisons between MMA fighters.
@@ -83,23 +114,32 @@ public class MMAComparisonService {
             Be specific with numbers and metrics.
             """;
 
-    private String getFighterName(long fighterID) {
-        try {
-            JsonNode fighterInfo = espnMMAStatsClient.getFighterInfo(fighterID);
-            if (fighterInfo != null) {
-                String fullName = fighterInfo.path("displayName").asText("");
-                if (!fullName.isEmpty()) {
-                    return fullName;
-                }
-            }
-        } catch (Exception e) {
-            log.warn("Failed to fetch the Fighter name for fighter {}", fighterID, e);
-        }
+    private static CompareResultDTO unavailableResult(String reason) {
+        CompareResultDTO errorResult = new CompareResultDTO();
+        errorResult.setAnalysis("Unable to compare: " + reason);
+        return errorResult;
+    }
+
+    /**
+     * Ends a reactive compare whose data could not be gathered, carrying the reason for
+     * unavailableResult. Raised only by the gather step, so errors of the comparison itself
+     * are never turned into an "unavailable" answer.
+     */
+    private static final class Unavailable extends RuntimeException {
 
-        return "Fighter " + fighterID;
+        private static final long serialVersionUID = 1L;
+
+        Unavailable(String reason) {
+            super(reason, null, false, false);
+        }
     }
 
     private void appendFighterSummary(StringBuilder sb, FighterStatDTO stats) {
+        // ESPN has no statistics for many retired fighters; zeros would read as a terrible record
+        if (isEmpty(stats)) {
+            sb.append("  Statistics: not available\n");
+            return;
+        }
         sb.append(String.format("  Takedown Accuracy: %.1f%%\n", stats.getTakedownAccuracy()));
         sb.append(String.format("  Striking: %.2f strikes/min, %.1f%% accuracy\n", 
                 stats.getStrikeLPM(), stats.getStrikeAccuracy()));
@@ -109,11 +149,17 @@ public class MMAComparisonService {
                 stats.getKoPercentage(), stats.getTkoPercentage(), stats.getDecisionPercentage()));
     }
 
-    private String appendFighterInfo(StringBuilder sb, long fighterID) {
+    private static boolean isEmpty(FighterStatDTO stats) {
+        return stats.getTakedownAccuracy() == 0 && stats.getStrikeLPM() == 0 && stats.getStrikeAccuracy() == 0
+                && stats.getTakedownAvg() == 0 && stats.getSubmissionAvg() == 0 && stats.getKoPercentage() == 0
+                && stats.getTkoPercentage() == 0 && stats.getDecisionPercentage() == 0;
+    }
+
+    private String appendFighterInfo(StringBuilder sb, MMAFetchContext.Fighter fighter) {
         String weightClass = null;
         try {
-            JsonNode fighterInfo = espnMMAStatsClient.getFighterInfo(fighterID);
-            JsonNode recordsInfo = espnMMAStatsClient.getFightRecords(fighterID);
+            JsonNode fighterInfo = fighter.info();
+            JsonNode recordsInfo = fighter.records();
             
             if (fighterInfo != null) {
                 // Weight Class
@@ -144,27 +190,28 @@ public class MMAComparisonService {
                 }
             }
         } catch (Exception e) {
-            log.warn("Failed to fetch additional fighter info for {}", fighterID, e);
+            log.warn("Failed to read additional fighter info for {}", fighter.id(), e);
         }
         return weightClass;
     }
 
-    private String buildUserPrompt(FighterStatDTO fighter1Stats, FighterStatDTO fighter2Stats,
-                                    String fighter1Name, String fighter2Name,
-                                    long fighter1ID, long fighter2ID) {
+    String buildUserPrompt(MMAFetchContext.Fighter fighter1, MMAFetchContext.Fighter fighter2) {
+        String fighter1Name = fighter1.name();
+        String fighter2Name = fighter2.name();
+
         StringBuilder prompt = new StringBuilder();
         prompt.append("Compare these two MMA fighters based ONLY on the data provided below.\n");
         prompt.append("IGNORE any prior knowledge you have about these fighters. Use ONLY this current data.\n\n");
 
         prompt.append("FIGHTER 1 (").append(fighter1Name).append("):\n");
-        String weightClass1 = appendFighterInfo(prompt, fighter1ID);
-        appendFighterSummary(prompt, fighter1Stats);
+        String weightClass1 = appendFighterInfo(prompt, fighter1);
+        appendFighterSummary(prompt, fighter1.stats());
 
         prompt.append("\n");
 
         prompt.append("FIGHTER 2 (").append(fighter2Name).append("):\n");
-        String weightClass2 = appendFighterInfo(prompt, fighter2ID);
-        appendFighterSummary(prompt, fighter2Stats);
+        String weightClass2 = appendFighterInfo(prompt, fighter2);
+        appendFighterSummary(prompt, fighter2.stats());
 
         prompt.append("\n");
         
@@ -216,7 +263,7 @@ public class MMAComparisonService {
         }
     }
 
-    private CompareResultDTO parseAiResponse(String response, String fighter1Name, String fighter2Name) {
+    CompareResultDTO parseAiResponse(String response, String fighter1Name, String fighter2Name) {
         CompareResultDTO result = new CompareResultDTO();
         result.setAthlete1Name(fighter1Name);
         result.setAthlete2Name(fighter2Name);
@@ -280,26 +327,135 @@ public class MMAComparisonService {
     }
 
     public CompareResultDTO compareFighters(long fighter1ID, long fighter2ID) {
-        String fighter1Name = getFighterName(fighter1ID);
-        String fighter2Name = getFighterName(fighter2ID);
+        return compareFighters(fighter1ID, fighter2ID, null);
+    }
 
-        FighterStatDTO fighter1Stats = mmaStatsService.getStatistics(fighter1ID);
-        FighterStatDTO fighter2Stats = mmaStatsService.getStatistics(fighter2ID);
+    /**
+     * Compares two fighters, streaming the AI answer to a listener as it is generated.
+     * Cached results are replayed to the listener section by section.
+     *
+     * @param fighter1ID ESPN ID for first fighter
+     * @param fighter2ID ESPN ID for second fighter
+     * @param listener   Receives tokens and completed sections, null to wait for the whole answer
+     * @return CompareResultDTO with analysis and comparison results
+     */
+    public CompareResultDTO compareFighters(long fighter1ID, long fighter2ID, CompareStreamListener listener) {
+        // Info, records and stats for both fighters, fetched once and concurrently
+        MMAFetchContext context;
+        try {
+            context = MMAFetchContext.load(fighter1ID, fighter2ID, espnMMAStatsClient, mmaStatsService,
+                    parallelFetcher, gatherBudget);
+        } catch (ExecutionException e) {
+            log.info("Cannot compare {} vs {}: {}", fighter1ID, fighter2ID, e.getCause().getMessage());
+            return unavailableResult("One or both fighters have no available statistics.");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return unavailableResult("The request was cancelled.");
+        }
 
-        if (fighter1Stats == null || fighter2Stats == null) {
-            CompareResultDTO errorResult = new CompareResultDTO();
-            errorResult.setAnalysis("Unable to compare: One or both fighters have no available statistics.");
-            return errorResult;
+        if (context.fighter1().stats() == null || context.fighter2().stats() == null) {
+            return unavailableResult("Statistics took too long to load, please try again.");
         }
 
+        // Results are cached with the lower ID as fighter 1, so A vs B and B vs A share one entry
+        boolean swapped = fighter1ID > fighter2ID;
+        MMAFetchContext.Fighter first = swapped ? context.fighter2() : context.fighter1();
+        MMAFetchContext.Fighter second = swapped ? context.fighter1() : context.fighter2();
+        long firstID = first.id();
+        long secondID = second.id();
+        String firstName = first.name();
+        String secondName = second.name();
+
         String systemPrompt = SYSTEM_PROMPT;
-        String userPrompt = buildUserPrompt(fighter1Stats, fighter2Stats, fighter1Name, fighter2Name, fighter1ID, fighter2ID);
+        String userPrompt = buildUserPrompt(first, second);
+
+        // Streamed sections are in canonical order too, so a swapped request gets them mirrored
+        CompareStreamListener sink = listener == null ? null : swapped ? listener.mirrored("Fighter") : listener;
+        AtomicBoolean streamed = new AtomicBoolean(false);
+
+        CompareResultDTO result = compareResultCache.get("mma", firstID, secondID, 0, userPrompt, () -> {
+            String aiResponse;
+            if (sink == null) {
+                aiResponse = openAiClient.sendPrompt(systemPrompt, userPrompt);
+            } else {
+                streamed.set(true);
+                SectionStreamParser parser = new SectionStreamParser(SECTION_FIELDS, sink);
+                aiResponse = openAiClient.streamPrompt(systemPrompt, userPrompt, delta -> {
+                    sink.onToken(delta);
+                    parser.feed(delta);
+                });
+                parser.finish();
+            }
+
+            log.debug("OpenAI Response: {}", aiResponse);
 
-        String aiResponse = openAiClient.sendPrompt(systemPrompt, userPrompt);
+            return parseAiResponse(aiResponse, firstName, secondName);
+        });
 
-        log.debug("OpenAI Response: {}", aiResponse);
+        CompareResultDTO ordered = swapped ? CompareResultCache.mirror(result, "Fighter") : result;
+        // Cache hit, or the answer came from an identical compare that was already running
+        if (listener != null && !streamed.get()) {
+            listener.replay(ordered);
+        }
+        return ordered;
+    }
 
-        return parseAiResponse(aiResponse, fighter1Name, fighter2Name);
+    /**
+     * Reactive counterpart of compareFighters, used when reactive.enabled is set. The fighters are
+     * loaded without blocking a thread, bounded by the gather budget and the Deadline in the
+     * Reactor context.
+     *
+     * @param fighter1ID ESPN ID for first fighter
+     * @param fighter2ID ESPN ID for second fighter
+     * @param listener   Receives tokens and completed sections, null to wait for the whole answer
+     * @return CompareResultDTO with analysis and comparison results
+     */
+    public Mono<CompareResultDTO> compareFightersReactive(long fighter1ID, long fighter2ID, CompareStreamListener listener) {
+        return Mono.deferContextual(ctx -> MMAFetchContext.loadReactive(fighter1ID, fighter2ID, espnMMAStatsClient, mmaStatsService)
+                        .timeout(Deadline.clamp(Deadline.from(ctx), gatherBudget))
+                        .onErrorMap(TimeoutException.class, e -> {
+                            log.warn("Loading fighters {} and {} took longer than {} ms", fighter1ID, fighter2ID,
+                                    gatherBudget.toMillis());
+                            return new Unavailable("Statistics took too long to load, please try again.");
+                        })
+                        .onErrorMap(IllegalStateException.class, e -> {
+                            log.info("Cannot compare {} vs {}: {}", fighter1ID, fighter2ID, e.getMessage());
+                            return new Unavailable("One or both fighters have no available statistics.");
+                        }))
+                .flatMap(context -> {
+                    // Results are cached with the lower ID as fighter 1, so A vs B and B vs A share one entry
+                    boolean swapped = fighter1ID > fighter2ID;
+                    MMAFetchContext.Fighter first = swapped ? context.fighter2() : context.fighter1();
+                    MMAFetchContext.Fighter second = swapped ? context.fighter1() : context.fighter2();
+                    String firstName = first.name();
+                    String secondName = second.name();
+                    String userPrompt = buildUserPrompt(first, second);
+
+                    CompareStreamListener sink = listener == null ? null : swapped ? listener.mirrored("Fighter") : listener;
+                    AtomicBoolean streamed = new AtomicBoolean(false);
+
+                    return compareResultCache.getReactive("mma", first.id(), second.id(), 0, userPrompt, () -> {
+                                Mono<String> aiResponse;
+                                if (sink == null) {
+                                    aiResponse = openAiClient.sendPromptReactive(SYSTEM_PROMPT, userPrompt);
+                                } else {
+                                    streamed.set(true);
+                                    SectionStreamParser parser = new SectionStreamParser(SECTION_FIELDS, sink);
+                                    aiResponse = openAiClient.streamPromptReactive(SYSTEM_PROMPT, userPrompt, delta -> {
+                                        sink.onToken(delta);
+                                        parser.feed(delta);
+                                    }).doOnNext(full -> parser.finish());
+                                }
+                                return aiResponse.map(response -> parseAiResponse(response, firstName, secondName));
+                            })
+                            .map(result -> {
+                                CompareResultDTO ordered = swapped ? CompareResultCache.mirror(result, "Fighter") : result;
+                                if (listener != null && !streamed.get()) {
+                                    listener.replay(ordered);
+                                }
+                                return ordered;
+                            });
+                })
+                .onErrorResume(Unavailable.class, e -> Mono.just(unavailableResult(e.getMessage())));
     }
 }
-
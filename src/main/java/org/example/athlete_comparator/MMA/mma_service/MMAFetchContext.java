@@ -0,0 +1,132 @@
+package org.example.athlete_comparator.MMA.mma_service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import org.example.athlete_comparator.MMA.mma_client.EspnMMAStatsClient;
+import org.example.athlete_comparator.MMA.mma_dto.FighterStatDTO;
+import org.example.athlete_comparator.shared_client.Deadline;
+import org.example.athlete_comparator.shared_client.FetchScope;
+import org.example.athlete_comparator.shared_client.ParallelFetcher;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+
+/**
+ * Everything one MMA compare needs from ESPN, loaded once per fighter.
+ * Info, records and statistics for both fighters are fetched side by side in one FetchScope.
+ */
+final class MMAFetchContext {
+
+    private static final Logger log = LoggerFactory.getLogger(MMAFetchContext.class);
+
+    /**
+     * Data for one fighter. Info and records are null when ESPN did not return them,
+     * stats is null only if the time budget ran out.
+     */
+    record Fighter(long id, JsonNode info, JsonNode records, FighterStatDTO stats) {
+
+        /**
+         * @return Display name from the fighter info, or "Fighter {id}" if not available
+         */
+        String name() {
+            String fullName = info != null ? info.path("displayName").asText("") : "";
+            return fullName.isEmpty() ? "Fighter " + id : fullName;
+        }
+    }
+
+    private final Fighter fighter1;
+    private final Fighter fighter2;
+
+    private MMAFetchContext(Fighter fighter1, Fighter fighter2) {
+        this.fighter1 = fighter1;
+        this.fighter2 = fighter2;
+    }
+
+    /**
+     * Loads both fighters concurrently
+     * @param fighter1ID ESPN ID for first fighter
+     * @param fighter2ID ESPN ID for second fighter
+     * @param client ESPN client for info and records
+     * @param statsService Service that fetches and decodes statistics
+     * @param fetcher Opens the scope the lookups run in
+     * @param budget Maximum time to spend loading
+     * @return Context with both fighters
+     * @throws ExecutionException if a fighter has no statistics; lookups still running are left to finish
+     * @throws InterruptedException if the request was interrupted while loading
+     */
+    static MMAFetchContext load(long fighter1ID, long fighter2ID, EspnMMAStatsClient client,
+                                MMAStatsService statsService, ParallelFetcher fetcher, Duration budget)
+            throws ExecutionException, InterruptedException {
+        try (FetchScope scope = fetcher.openScope()) {
+            Future<JsonNode> info1 = scope.forkOptional(() -> client.getFighterInfo(fighter1ID));
+            Future<JsonNode> info2 = scope.forkOptional(() -> client.getFighterInfo(fighter2ID));
+            Future<JsonNode> records1 = scope.forkOptional(() -> client.getFightRecords(fighter1ID));
+            Future<JsonNode> records2 = scope.forkOptional(() -> client.getFightRecords(fighter2ID));
+            Future<FighterStatDTO> stats1 = scope.fork(() -> requireStats(statsService, fighter1ID));
+            Future<FighterStatDTO> stats2 = scope.fork(() -> requireStats(statsService, fighter2ID));
+
+            if (!scope.join(budget)) {
+                log.warn("Loading fighters {} and {} took longer than {} ms", fighter1ID, fighter2ID, budget.toMillis());
+            }
+
+            return new MMAFetchContext(
+                    new Fighter(fighter1ID, FetchScope.resultOr(info1, null),
+                            FetchScope.resultOr(records1, null), FetchScope.resultOr(stats1, null)),
+                    new Fighter(fighter2ID, FetchScope.resultOr(info2, null),
+                            FetchScope.resultOr(records2, null), FetchScope.resultOr(stats2, null)));
+        }
+    }
+
+    /**
+     * Reactive counterpart of load. The caller applies the time budget; lookups that fail
+     * leave info or records null as in load.
+     * @return Context with both fighters, an IllegalStateException if a fighter has no statistics
+     */
+    static Mono<MMAFetchContext> loadReactive(long fighter1ID, long fighter2ID, EspnMMAStatsClient client,
+                                              MMAStatsService statsService) {
+        // An empty source would empty the whole zip, so optional lookups are wrapped
+        return Mono.zip(optional(client.getFighterInfoReactive(fighter1ID)),
+                        optional(client.getFighterInfoReactive(fighter2ID)),
+                        optional(client.getFightRecordsReactive(fighter1ID)),
+                        optional(client.getFightRecordsReactive(fighter2ID)),
+                        requireStatsReactive(statsService, fighter1ID),
+                        requireStatsReactive(statsService, fighter2ID))
+                .map(t -> new MMAFetchContext(
+                        new Fighter(fighter1ID, t.getT1().orElse(null), t.getT3().orElse(null), t.getT5()),
+                        new Fighter(fighter2ID, t.getT2().orElse(null), t.getT4().orElse(null), t.getT6())));
+    }
+
+    private static <T> Mono<Optional<T>> optional(Mono<T> lookup) {
+        return lookup.map(Optional::of)
+                .defaultIfEmpty(Optional.empty())
+                .onErrorResume(e -> Mono.deferContextual(ctx -> {
+                    Deadline.markPartial(ctx);
+                    return Mono.just(Optional.empty());
+                }));
+    }
+
+    private static Mono<FighterStatDTO> requireStatsReactive(MMAStatsService statsService, long fighterID) {
+        return statsService.getStatisticsReactive(fighterID)
+                .switchIfEmpty(Mono.error(() -> new IllegalStateException("No statistics available for fighter " + fighterID)));
+    }
+
+    private static FighterStatDTO requireStats(MMAStatsService statsService, long fighterID) {
+        FighterStatDTO stats = statsService.getStatistics(fighterID);
+        if (stats == null) {
+            throw new IllegalStateException("No statistics available for fighter " + fighterID);
+        }
+        return stats;
+    }
+
+    Fighter fighter1() {
+        return fighter1;
+    }
+
+    Fighter fighter2() {
+        return fighter2;
+    }
+}
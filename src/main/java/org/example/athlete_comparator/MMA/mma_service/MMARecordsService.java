@@ -16,8 +16,16 @@ public class MMARecordsService {
     }
 
     public FighterRecordDTO getFighterRecord(long fighterID) {
-        JsonNode recordsData = espnMMAStatsClient.getFightRecords(fighterID);
+        return toFighterRecord(fighterID, espnMMAStatsClient.getFightRecords(fighterID));
+    }
 
+    /**
+     * Maps fight records the caller has already fetched
+     * @param fighterID ESPN fighter ID
+     * @param recordsData Records document from ESPN, may be null
+     * @return FighterRecordDTO, empty if there was no data
+     */
+    public FighterRecordDTO toFighterRecord(long fighterID, JsonNode recordsData) {
         FighterRecordDTO record = new FighterRecordDTO();
         
         if (recordsData == null || !recordsData.has("items")) {
@@ -4,37 +4,182 @@ import com.fasterxml.jackson.databind.JsonNode;
 import org.example.athlete_comparator.MMA.mma_client.EspnMMASearchClient;
 import org.example.athlete_comparator.MMA.mma_client.EspnMMAStatsClient;
 import org.example.athlete_comparator.MMA.mma_dto.FighterSearchResultDTO;
+import org.example.athlete_comparator.shared_client.Deadline;
+import org.example.athlete_comparator.shared_client.ParallelFetcher;
+import org.example.athlete_comparator.shared_client.RefreshScheduler;
+import org.example.athlete_comparator.shared_service.TypeaheadIndex;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Locale;
+import java.util.Set;
 
+/**
+ * Fighter search for the MMA page.
+ * Works like the NBA SearchService. ESPN has no UFC roster, so the index is seeded from the
+ * current scoreboard and otherwise grows from ESPN search results, up to search.index.max-learned.
+ */
 @Service
 public class MMASearchService {
 
+    private static final Logger log = LoggerFactory.getLogger(MMASearchService.class);
+    private static final int RESULT_LIMIT = 50;
     private final EspnMMASearchClient espnMMASearchClient;
     private final EspnMMAStatsClient espnMMAStatsClient;
+    private final ParallelFetcher parallelFetcher;
+    private final RefreshScheduler refreshScheduler;
+    private final int enrichTop;
+    private final Duration enrichmentBudget;
+    private final boolean indexEnabled;
+    private final int learnBelow;
+    private final TypeaheadIndex<FighterSearchResultDTO> index;
 
-    public MMASearchService(EspnMMASearchClient espnMMASearchClient, EspnMMAStatsClient espnMMAStatsClient) {
+    public MMASearchService(EspnMMASearchClient espnMMASearchClient, EspnMMAStatsClient espnMMAStatsClient,
+                            ParallelFetcher parallelFetcher,
+                            RefreshScheduler refreshScheduler,
+                            @Value("${mma.search.enrich-top:10}") int enrichTop,
+                            @Value("${mma.search.enrichment-budget-ms:800}") long enrichmentBudgetMs,
+                            @Value("${search.index.enabled:true}") boolean indexEnabled,
+                            @Value("${search.index.learn-below:5}") int learnBelow,
+                            @Value("${search.index.min-similarity:0.45}") double minSimilarity,
+                            @Value("${search.index.max-learned:5000}") int maxLearned) {
         this.espnMMASearchClient = espnMMASearchClient;
         this.espnMMAStatsClient = espnMMAStatsClient;
+        this.parallelFetcher = parallelFetcher;
+        this.refreshScheduler = refreshScheduler;
+        this.enrichTop = enrichTop;
+        this.enrichmentBudget = Duration.ofMillis(enrichmentBudgetMs);
+        this.indexEnabled = indexEnabled;
+        this.learnBelow = learnBelow;
+        this.index = new TypeaheadIndex<>(minSimilarity, maxLearned);
+    }
+
+    private static FighterSearchResultDTO copy(FighterSearchResultDTO f) {
+        FighterSearchResultDTO dto = new FighterSearchResultDTO();
+        dto.setID(f.getID());
+        dto.setName(f.getName());
+        dto.setNickname(f.getNickname());
+        dto.setWeightClass(f.getWeightClass());
+        dto.setHeadshotUrl(f.getHeadshotUrl());
+        return dto;
+    }
+
+    private void learn(List<FighterSearchResultDTO> fighters) {
+        index.learn(fighters.stream()
+                .map(f -> new TypeaheadIndex.Entry<>(f.getID(), f.getName(), copy(f)))
+                .toList());
+    }
+
+    /**
+     * Adds the fighters on ESPN's current UFC scoreboard to the search index.
+     * Runs at startup and then every search.index.refresh-ms.
+     */
+    @Scheduled(initialDelayString = "${search.index.initial-delay-ms:0}",
+            fixedDelayString = "${search.index.refresh-ms:21600000}")
+    public void refreshIndex() {
+        if (!indexEnabled) return;
+        try {
+            List<FighterSearchResultDTO> fighters = espnMMASearchClient.getScoreboardFighters();
+            learn(fighters);
+            log.info("MMA search index refreshed with {} scoreboard fighters ({} total)", fighters.size(), index.size());
+        } catch (Exception e) {
+            log.warn("Could not refresh MMA search index: {}", e.getMessage());
+        }
+    }
+
+    private static void applyNickname(FighterSearchResultDTO fighter, JsonNode bio) {
+        String nickname = bio.path("nickname").asText("");
+        if (!nickname.isEmpty()) {
+            fighter.setNickname(nickname);
+        }
     }
 
     public List<FighterSearchResultDTO> search(String searchText) {
         if (searchText == null || searchText.isBlank()) return List.of();
+        String query = searchText.trim();
 
-        List<FighterSearchResultDTO> results = espnMMASearchClient.searchFighters(searchText.trim());
+        if (!indexEnabled) {
+            return searchEspn(query);
+        }
 
+        TypeaheadIndex.Matches<FighterSearchResultDTO> local = index.match(query, RESULT_LIMIT);
+        if (!local.prefix().isEmpty()) {
+            if (local.prefix().size() < learnBelow) {
+                refreshScheduler.submit("search:mma:" + query.toLowerCase(Locale.ROOT),
+                        () -> learn(searchEspn(query)));
+            }
+            return withCachedNicknames(local.all());
+        }
+
+        // Only similar-looking names: ESPN decides, retired fighters are rarely indexed yet
+        List<FighterSearchResultDTO> results;
+        try {
+            results = searchEspn(query);
+        } catch (RuntimeException e) {
+            if (local.fuzzy().isEmpty()) throw e;
+            // Similar names are better than nothing, but must not be cached as the answer
+            log.debug("ESPN search for '{}' failed, answering from the index: {}", query, e.getMessage());
+            Deadline.markCurrentPartial();
+            return withCachedNicknames(local.fuzzy());
+        }
+        learn(results);
+
+        // ESPN's results first, then the indexed names that look similar
+        List<FighterSearchResultDTO> merged = new ArrayList<>(results);
+        Set<Long> seen = new HashSet<>();
+        results.forEach(f -> seen.add(f.getID()));
+        List<FighterSearchResultDTO> similar = new ArrayList<>();
+        for (FighterSearchResultDTO fighter : local.fuzzy()) {
+            if (merged.size() + similar.size() >= RESULT_LIMIT) break;
+            if (seen.add(fighter.getID())) similar.add(fighter);
+        }
+        merged.addAll(withCachedNicknames(similar));
+        return merged;
+    }
+
+    /**
+     * Copies indexed fighters for the response. Scoreboard entries have no nickname, so cached
+     * fighter info fills it in where there is some.
+     */
+    private List<FighterSearchResultDTO> withCachedNicknames(List<FighterSearchResultDTO> fighters) {
+        List<FighterSearchResultDTO> results = fighters.stream().map(MMASearchService::copy).toList();
+        for (FighterSearchResultDTO fighter : results) {
+            if (fighter.getNickname() == null || fighter.getNickname().isEmpty()) {
+                JsonNode bio = espnMMAStatsClient.getCachedFighterInfo(fighter.getID());
+                if (bio != null) applyNickname(fighter, bio);
+            }
+        }
+        return results;
+    }
+
+    private List<FighterSearchResultDTO> searchEspn(String query) {
+        List<FighterSearchResultDTO> results = espnMMASearchClient.searchFighters(query);
+
+        // Cached fighter info costs nothing, so every result gets its nickname from the cache if possible.
+        // Only the first mma.search.enrich-top uncached results are fetched; the rest come back without one.
+        List<FighterSearchResultDTO> toFetch = new ArrayList<>();
         for (FighterSearchResultDTO fighter : results) {
-            try {
-                JsonNode bio = espnMMAStatsClient.getFighterInfo(fighter.getID());
-                if (bio != null) {
-                    String nickname = bio.path("nickname").asText("");
-                    if (!nickname.isEmpty()) {
-                        fighter.setNickname(nickname);
-                    }
-                }
-            } catch (Exception e) {
-                // Continue without extra info if the fetch fails
+            JsonNode bio = espnMMAStatsClient.getCachedFighterInfo(fighter.getID());
+            if (bio != null) {
+                applyNickname(fighter, bio);
+            } else if (toFetch.size() < enrichTop) {
+                toFetch.add(fighter);
+            }
+        }
+
+        // Fetched concurrently (ESPN load is capped per host); slow lookups are dropped after the budget
+        List<JsonNode> bios = parallelFetcher.mapOrdered(toFetch,
+                fighter -> espnMMAStatsClient.getFighterInfo(fighter.getID()), enrichmentBudget);
+        for (int i = 0; i < toFetch.size(); i++) {
+            if (bios.get(i) != null) {
+                applyNickname(toFetch.get(i), bios.get(i));
             }
         }
 
@@ -5,6 +5,9 @@ import org.example.athlete_comparator.MMA.mma_client.EspnMMAStatsClient;
 import org.example.athlete_comparator.MMA.mma_dto.FighterInfoDTO;
 import org.example.athlete_comparator.MMA.mma_dto.FighterStatDTO;
 import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+
+import java.io.IOException;
 
 @Service
 public class MMAStatsService {
@@ -16,55 +19,17 @@ public class MMAStatsService {
         this.espnMMAStatsClient = espnMMAStatsClient;
     }
 
-    private FighterStatDTO mapToDto(JsonNode root) {
-        FighterStatDTO dto = new FighterStatDTO();
-
-        JsonNode categories = root.path("splits").path("categories");
-        if (!categories.isArray() || categories.isEmpty()) {
-            log.warn("No categories found in statistics");
-            return dto;
-        }
-
-        for (JsonNode category : categories) {
-            for (JsonNode stat : category.path("stats")) {
-                String name = stat.path("name").asText("");
-                double value = stat.path("value").asDouble(0.0);
-
-                switch (name) {
-                    case "takedownAccuracy":
-                        dto.setTakedownAccuracy(value);
-                        break;
-                    case "strikeLPM":
-                        dto.setStrikeLPM(value);
-                        break;
-                    case "strikeAccuracy":
-                        dto.setStrikeAccuracy(value);
-                        break;
-                    case "takedownAvg":
-                        dto.setTakedownAvg(value);
-                        break;
-                    case "submissionAvg":
-                        dto.setSubmissionAvg(value);
-                        break;
-                    case "koPercentage":
-                        dto.setKoPercentage(value);
-                        break;
-                    case "tkoPercentage":
-                        dto.setTkoPercentage(value);
-                        break;
-                    case "decisionPercentage":
-                        dto.setDecisionPercentage(value);
-                        break;
-                }
-            }
-        }
-
-        return dto;
-    }
-
     public FighterInfoDTO getFighterInfo(long fighterID) {
-        JsonNode fighterData = espnMMAStatsClient.getFighterInfo(fighterID);
+        return toFighterInfo(fighterID, espnMMAStatsClient.getFighterInfo(fighterID));
+    }
 
+    /**
+     * Maps fighter info the caller has already fetched
+     * @param fighterID ESPN fighter ID
+     * @param fighterData Athlete document from ESPN, may be null
+     * @return FighterInfoDTO, or null if there was no data
+     */
+    public FighterInfoDTO toFighterInfo(long fighterID, JsonNode fighterData) {
         if (fighterData == null) {
             log.warn("Failed to fetch fighter info for {}", fighterID);
             return null;
@@ -135,14 +100,33 @@ public class MMAStatsService {
     }
 
     public FighterStatDTO getStatistics(long fighterID) {
-        JsonNode stats = espnMMAStatsClient.getStatistics(fighterID);
+        return toStatistics(fighterID, espnMMAStatsClient.getStatisticsPayload(fighterID));
+    }
+
+    /**
+     * Reactive counterpart of getStatistics, always completes with a DTO
+     */
+    public Mono<FighterStatDTO> getStatisticsReactive(long fighterID) {
+        return espnMMAStatsClient.getStatisticsPayloadReactive(fighterID)
+                .map(stats -> toStatistics(fighterID, stats))
+                .switchIfEmpty(Mono.fromSupplier(() -> toStatistics(fighterID, null)));
+    }
 
+    private FighterStatDTO toStatistics(long fighterID, byte[] stats) {
         if (stats == null) {
             log.warn("No statistics available for fighter {} (likely retired)", fighterID);
             return new FighterStatDTO(); // Return empty DTO instead of null
         }
 
-        return mapToDto(stats);
+        try {
+            FighterStatDecoder.Decoded decoded = FighterStatDecoder.decode(stats);
+            if (!decoded.hasCategories()) {
+                log.warn("No categories found in statistics");
+            }
+            return decoded.stats();
+        } catch (IOException e) {
+            log.warn("Unreadable statistics for fighter {}: {}", fighterID, e.getMessage());
+            return new FighterStatDTO();
+        }
     }
 }
-
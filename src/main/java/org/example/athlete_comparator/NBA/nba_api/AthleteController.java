@@ -1,23 +1,34 @@
 package org.example.athlete_comparator.NBA.nba_api;
 
 import org.example.athlete_comparator.NBA.nba_dto.AccoladesDTO;
+import org.example.athlete_comparator.NBA.nba_client.EspnNBAStatsClient;
+import org.example.athlete_comparator.NBA.nba_dto.MatchupDTO;
 import org.example.athlete_comparator.NBA.nba_dto.PlayerSearchResultDTO;
 import org.example.athlete_comparator.NBA.nba_dto.SeasonStatDTO;
 import org.example.athlete_comparator.NBA.nba_service.AccoladesService;
+import org.example.athlete_comparator.NBA.nba_service.MatchupService;
 import org.example.athlete_comparator.NBA.nba_service.SearchService;
 import org.example.athlete_comparator.NBA.nba_service.StatsService;
+import org.example.athlete_comparator.shared_api.CachePolicy;
+import org.example.athlete_comparator.shared_api.ETagResponses;
+import org.example.athlete_comparator.shared_client.Deadline;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.List;
 
 /**
  * REST Controller for athlete-related endpoints.
-
+ *
  * Handles HTTP requests for:
  * - Searching for NBA players
  * - Retrieving individual player statistics
-
+ *
  * All endpoints are prefixed with /api (defined by @RequestMapping)
+ *
+ * Read endpoints return an ETag (304 on a matching If-None-Match) and a Cache-Control
+ * lifetime that depends on how often the data can change.
  */
 @RestController
 @RequestMapping("/api/nba")  // All endpoints in this controller start with /api/nba
@@ -26,11 +37,16 @@ public class AthleteController {
     private final SearchService searchService;
     private final StatsService statsService;
     private final AccoladesService accoladesService;
+    private final MatchupService matchupService;
+    private final ETagResponses eTagResponses;
 
-    public AthleteController(SearchService searchService, StatsService statsService, AccoladesService accoladesService) {
+    public AthleteController(SearchService searchService, StatsService statsService, AccoladesService accoladesService,
+                             MatchupService matchupService, ETagResponses eTagResponses) {
         this.searchService = searchService;
         this.statsService = statsService;
         this.accoladesService = accoladesService;
+        this.matchupService = matchupService;
+        this.eTagResponses = eTagResponses;
     }
 
     /**
@@ -43,8 +59,9 @@ public class AthleteController {
      * @return List of matching players with their basic info and headshot URLs
      */
     @GetMapping("/search")
-    public List<PlayerSearchResultDTO> search(@RequestParam("q") String searchText) {
-        return searchService.search(searchText);
+    public ResponseEntity<List<PlayerSearchResultDTO>> search(@RequestParam("q") String searchText,
+                                                              @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        return eTagResponses.respond(searchService.search(searchText), ifNoneMatch, CachePolicy.SEARCH);
     }
 
     /**
@@ -58,9 +75,11 @@ public class AthleteController {
      * @return List of statistics for each season the player has data
      */
     @GetMapping("/athletes/{athleteID}/season-stats")
-    public List<SeasonStatDTO> getSeasonStats(@PathVariable long athleteID,
-                                              @RequestParam(defaultValue = "2") int type) {
-        return statsService.getSeasonStats(athleteID, type);
+    public ResponseEntity<List<SeasonStatDTO>> getSeasonStats(@PathVariable long athleteID,
+                                                              @RequestParam(defaultValue = "2") int type,
+                                                              @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        List<SeasonStatDTO> stats = statsService.getSeasonStats(athleteID, type);
+        return eTagResponses.respond(stats, ifNoneMatch, seasonPolicy(stats));
     }
 
     /**
@@ -73,7 +92,54 @@ public class AthleteController {
      * @return AccoladesDTO containing player name and list of awards/accolades
      */
     @GetMapping("/athletes/{id}/accolades")
-    public AccoladesDTO getAccolades(@PathVariable long id) {
-        return accoladesService.getAccolades(id);
+    public ResponseEntity<AccoladesDTO> getAccolades(@PathVariable long id,
+                                                     @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        AccoladesDTO accolades = accoladesService.getAccolades(id);
+        return eTagResponses.respond(accolades, ifNoneMatch, accoladesPolicy(accolades));
+    }
+
+    /**
+     * Get season stats and accolades for two players in one response.
+     *
+     * Endpoint: GET /api/nba/matchup?a={id}&b={id}&type={type}
+     * Example: GET /api/nba/matchup?a=1966&b=3975&type=2
+     * The response carries an ETag; a request with a matching If-None-Match gets 304 Not Modified.
+     *
+     * @param a ESPN ID of the first player
+     * @param b ESPN ID of the second player
+     * @param type Stats type: 0 = all stats | 2 = regular season only | 3 = playoffs only (default: 2)
+     * @param ifNoneMatch ETag the browser already has, if any
+     * @return Season stats and accolades for both players
+     */
+    @GetMapping("/matchup")
+    public ResponseEntity<MatchupDTO> getMatchup(@RequestParam long a,
+                                                 @RequestParam long b,
+                                                 @RequestParam(defaultValue = "2") int type,
+                                                 @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        MatchupDTO matchup = matchupService.getMatchup(a, b, type);
+        CachePolicy policy = seasonPolicy(matchup.getAthleteA().getSeasonStats()) == CachePolicy.LONG
+                && seasonPolicy(matchup.getAthleteB().getSeasonStats()) == CachePolicy.LONG
+                && accoladesPolicy(matchup.getAthleteA().getAccolades()) == CachePolicy.LONG
+                && accoladesPolicy(matchup.getAthleteB().getAccolades()) == CachePolicy.LONG
+                ? CachePolicy.LONG : CachePolicy.SHORT;
+        return eTagResponses.respond(matchup, ifNoneMatch, policy);
+    }
+
+    /**
+     * Completed careers never change; anything with a current season (or nothing at all,
+     * which may be an ESPN hiccup) is only cached briefly, as is a list missing a season
+     * whose fetch failed
+     */
+    private static CachePolicy seasonPolicy(List<SeasonStatDTO> stats) {
+        if (stats.isEmpty() || Deadline.isCurrentPartial()) return CachePolicy.SHORT;
+        int current = EspnNBAStatsClient.currentSeason();
+        return stats.stream().allMatch(s -> s.getSeason() < current) ? CachePolicy.LONG : CachePolicy.SHORT;
+    }
+
+    /**
+     * Awards change at most a few times a year; an empty list may be a failed lookup
+     */
+    private static CachePolicy accoladesPolicy(AccoladesDTO accolades) {
+        return accolades.getAwards().isEmpty() || Deadline.isCurrentPartial() ? CachePolicy.SHORT : CachePolicy.LONG;
     }
 }
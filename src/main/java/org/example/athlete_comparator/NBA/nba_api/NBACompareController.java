@@ -3,10 +3,16 @@ package org.example.athlete_comparator.NBA.nba_api;
 import org.example.athlete_comparator.shared_dto.CompareRequestDTO;
 import org.example.athlete_comparator.shared_dto.CompareResultDTO;
 import org.example.athlete_comparator.NBA.nba_service.ComparisonService;
+import org.example.athlete_comparator.shared_api.CompareStreamEmitter;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 /**
  * REST Controller for player comparison functionality.
@@ -19,12 +25,15 @@ import org.springframework.web.bind.annotation.RestController;
  */
 @RestController
 @RequestMapping("/api/nba")  // All endpoints start with /api/nba
+@ConditionalOnProperty(name = "reactive.enabled", havingValue = "false", matchIfMissing = true)
 public class NBACompareController {
 
     private final ComparisonService comparisonService;
+    private final CompareStreamEmitter compareStreamEmitter;
 
-    public NBACompareController(ComparisonService comparisonService) {
+    public NBACompareController(ComparisonService comparisonService, CompareStreamEmitter compareStreamEmitter) {
         this.comparisonService = comparisonService;
+        this.compareStreamEmitter = compareStreamEmitter;
     }
 
     /**
@@ -49,4 +58,23 @@ public class NBACompareController {
                 request.getType()   // Stats type (0, 2, or 3)
         );
     }
+
+    /**
+     * Streaming version of compare, for EventSource in the browser.
+     *
+     * Endpoint: GET /api/nba/compare/stream?a=1966&b=3975&type=0
+     * Sends "token" events while OpenAI is writing, a "section" event as soon as each part
+     * of the answer (winner, 1v1, strengths, conclusion) is complete, then the full "result".
+     *
+     * @param aID  Player A's ESPN ID
+     * @param bID  Player B's ESPN ID
+     * @param type Stats type (0, 2, or 3)
+     * @return Server-sent event stream
+     */
+    @GetMapping(path = "/compare/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter compareAthletesStream(@RequestParam("a") long aID,
+                                           @RequestParam("b") long bID,
+                                           @RequestParam(value = "type", defaultValue = "0") int type) {
+        return compareStreamEmitter.stream(listener -> comparisonService.compareAthletes(aID, bID, type, listener));
+    }
 }
@@ -0,0 +1,53 @@
+package org.example.athlete_comparator.NBA.nba_api;
+
+import org.example.athlete_comparator.NBA.nba_service.ComparisonService;
+import org.example.athlete_comparator.shared_api.CompareStreamEmitter;
+import org.example.athlete_comparator.shared_api.PartialContentAdvice;
+import org.example.athlete_comparator.shared_client.Deadline;
+import org.example.athlete_comparator.shared_dto.CompareRequestDTO;
+import org.example.athlete_comparator.shared_dto.CompareResultDTO;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.codec.ServerSentEvent;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Reactive variant of NBACompareController, on the same URLs, active when reactive.enabled is set.
+ * No request thread waits for ESPN or OpenAI; Spring MVC writes the Mono or Flux once it completes.
+ */
+@RestController
+@RequestMapping("/api/nba")
+@ConditionalOnProperty(name = "reactive.enabled", havingValue = "true")
+public class NBAReactiveCompareController {
+
+    private final ComparisonService comparisonService;
+    private final CompareStreamEmitter compareStreamEmitter;
+
+    public NBAReactiveCompareController(ComparisonService comparisonService, CompareStreamEmitter compareStreamEmitter) {
+        this.comparisonService = comparisonService;
+        this.compareStreamEmitter = compareStreamEmitter;
+    }
+
+    @PostMapping("/compare")
+    public Mono<ResponseEntity<CompareResultDTO>> compareAthletes(@RequestBody CompareRequestDTO request) {
+        Deadline deadline = Deadline.current();
+        return comparisonService.compareAthletesReactive(request.getaID(), request.getbID(), request.getType(), null)
+                .map(result -> PartialContentAdvice.respond(deadline, result))
+                .contextWrite(Deadline.toContext());
+    }
+
+    @GetMapping(path = "/compare/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public Flux<ServerSentEvent<Object>> compareAthletesStream(@RequestParam("a") long aID,
+                                                               @RequestParam("b") long bID,
+                                                               @RequestParam(value = "type", defaultValue = "0") int type) {
+        return compareStreamEmitter.streamReactive(listener -> comparisonService.compareAthletesReactive(aID, bID, type, listener));
+    }
+}
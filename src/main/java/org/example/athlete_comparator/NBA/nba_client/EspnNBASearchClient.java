@@ -3,11 +3,13 @@ package org.example.athlete_comparator.NBA.nba_client;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.example.athlete_comparator.NBA.nba_dto.PlayerSearchResultDTO;
+import org.example.athlete_comparator.shared_client.EspnFetcher;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.http.client.SimpleClientHttpRequestFactory;
 import org.springframework.stereotype.Component;
-import org.springframework.web.client.RestClient;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.regex.Matcher;
@@ -16,25 +18,24 @@ import java.util.regex.Pattern;
 @Component
 public class EspnNBASearchClient {
 
-    private final RestClient restClient;
     private final ObjectMapper objectMapper;
     private final String searchBase;
+    private final String siteBase;
+    private final EspnFetcher espnFetcher;
+    private final Duration searchTtl;
     private static final Pattern UID_ATHLETE = Pattern.compile("a:(\\d+)");
 
     public EspnNBASearchClient(@Value("${espn.nba.api.search}") String searchBase,
-                               @Value("${espn.api.timeout:5000}") int timeout,
+                               @Value("${espn.nba.api.site}") String siteBase,
+                               @Value("${espn.cache.search-ttl:3600}") long searchTtlSeconds,
+                               EspnFetcher espnFetcher,
                                ObjectMapper objectMapper)
     {
         this.searchBase = searchBase;
+        this.siteBase = siteBase;
         this.objectMapper = objectMapper;
-
-        var reqFactory = new SimpleClientHttpRequestFactory();
-        reqFactory.setConnectTimeout(timeout);
-        reqFactory.setReadTimeout(timeout);
-
-        this.restClient = RestClient.builder()
-                .requestFactory(reqFactory)
-                .build();
+        this.espnFetcher = espnFetcher;
+        this.searchTtl = Duration.ofSeconds(searchTtlSeconds);
     }
 
     private static long parseAthleteID(String uid) {
@@ -50,15 +51,30 @@ public class EspnNBASearchClient {
         }
     }
 
+    private JsonNode fetch(String endpoint, String url) {
+        byte[] body = espnFetcher.fetch(endpoint, url, searchTtl);
+        if (body == null || body.length == 0) return null;
+        try {
+            return objectMapper.readTree(body);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Invalid search response from " + url, e);
+        }
+    }
+
     public List<PlayerSearchResultDTO> searchPlayers(String query) {
         String url = searchBase + "?limit=20&query=" + encode(query);
 
-        JsonNode root = restClient.get()
-                .uri(url)
-                .retrieve()
-                .body(JsonNode.class);
+        JsonNode root = fetch("nba:/search", url);
         if (root == null) return List.of();
+        return toSearchResults(root);
+    }
 
+    /**
+     * Maps an ESPN search response to NBA player results
+     * @param root Parsed search response
+     * @return One result per basketball player hit, in ESPN's order
+     */
+    static List<PlayerSearchResultDTO> toSearchResults(JsonNode root) {
         List<PlayerSearchResultDTO> out = new ArrayList<>();
 
         JsonNode results = root.path("results");
@@ -87,4 +103,52 @@ public class EspnNBASearchClient {
         }
         return out;
     }
-}
\ No newline at end of file
+
+    /**
+     * Lists all NBA teams
+     * @return ESPN team IDs
+     */
+    public List<Long> getTeamIds() {
+        JsonNode root = fetch("nba:/teams", siteBase + "/teams");
+        if (root == null) return List.of();
+
+        List<Long> out = new ArrayList<>();
+        for (JsonNode sport : root.path("sports")) {
+            for (JsonNode league : sport.path("leagues")) {
+                for (JsonNode team : league.path("teams")) {
+                    long teamID = team.path("team").path("id").asLong(-1);
+                    if (teamID > 0) out.add(teamID);
+                }
+            }
+        }
+        return out;
+    }
+
+    /**
+     * Fetches a team's current roster as search results, including position, height and weight
+     * @param teamID ESPN team ID
+     * @return One result per rostered player
+     */
+    public List<PlayerSearchResultDTO> getTeamRoster(long teamID) {
+        JsonNode root = fetch("nba:/teams/{id}/roster", siteBase + "/teams/" + teamID + "/roster");
+        if (root == null) return List.of();
+
+        String teamName = root.path("team").path("displayName").asText("");
+        List<PlayerSearchResultDTO> out = new ArrayList<>();
+        for (JsonNode athlete : root.path("athletes")) {
+            long athleteID = athlete.path("id").asLong(-1);
+            if (athleteID <= 0) continue;
+
+            out.add(new PlayerSearchResultDTO(
+                    athleteID,
+                    athlete.path("displayName").asText(""),
+                    "nba",
+                    teamName,
+                    athlete.path("position").path("abbreviation").asText(""),
+                    athlete.path("headshot").path("href").asText(""),
+                    athlete.path("displayHeight").asText(""),
+                    athlete.path("displayWeight").asText("")));
+        }
+        return out;
+    }
+}
@@ -1,21 +1,35 @@
 package org.example.athlete_comparator.NBA.nba_client;
 
 import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.example.athlete_comparator.shared_client.EspnFetcher;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.http.client.SimpleClientHttpRequestFactory;
 import org.springframework.stereotype.Component;
-import org.springframework.web.client.RestClient;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.time.LocalDate;
 
 @Component
 public class EspnNBAStatsClient {
 
-    private final RestClient restClient;
+    private static final String SEASON_AVERAGE_ENDPOINT = "nba:/seasons/{season}/types/{type}/athletes/{id}/statistics";
+
+    private final EspnFetcher espnFetcher;
+    private final ObjectMapper objectMapper;
     private final String coreBase;
     private final String webBase;
+    private final Duration longTtl;
+    private final Duration currentSeasonTtl;
 
     public EspnNBAStatsClient(@Value("${espn.nba.api.base}") String coreBase,
                               @Value("${espn.nba.api.web}") String webBase,
-                              @Value("${espn.api.timeout:5000}") int timeout) {
+                              @Value("${espn.cache.ttl:86400}") long longTtlSeconds,
+                              @Value("${espn.cache.current-season-ttl:900}") long currentSeasonTtlSeconds,
+                              EspnFetcher espnFetcher,
+                              ObjectMapper objectMapper) {
         if (coreBase == null || coreBase.isBlank()) {
             throw new IllegalStateException("espn.api.base is not set");
         }
@@ -25,72 +39,153 @@ public class EspnNBAStatsClient {
 
         this.coreBase = coreBase;
         this.webBase = webBase;
+        this.longTtl = Duration.ofSeconds(longTtlSeconds);
+        this.currentSeasonTtl = Duration.ofSeconds(currentSeasonTtlSeconds);
 
-        var reqFactory = new SimpleClientHttpRequestFactory();
-        reqFactory.setConnectTimeout(timeout);
-        reqFactory.setReadTimeout(timeout);
+        this.espnFetcher = espnFetcher;
+        this.objectMapper = objectMapper;
+    }
 
-        this.restClient = RestClient.builder()
-                .requestFactory(reqFactory)
-                .build();
+    /**
+     * NBA seasons are labelled by the year they end in, so the 2025-26 season is 2026.
+     * @return The season that is currently being played (or the next one during the summer)
+     */
+    public static int currentSeason() {
+        LocalDate today = LocalDate.now();
+        return today.getMonthValue() >= 10 ? today.getYear() + 1 : today.getYear();
     }
 
     /**
-     * Fetches athlete bio data including awards and accolades
-     * @param athleteID The unique ESPN athlete ID
-     * @return JsonNode containing athlete bio information, or null if request fails
+     * Fetches a URL through the response cache
+     * @param endpoint Endpoint template, used as the metrics tag
+     * @param url Full request URL
+     * @param ttl How long the response may be served from cache
+     * @return Raw response body, or null if ESPN has nothing at the URL (404)
+     * @throws RuntimeException if the request fails or is not sent, see EspnFetcher.fetch
      */
-    public JsonNode getAthleteBio(long athleteID) {
-        String url = webBase + "/athletes/" + athleteID + "/bio";
+    private byte[] fetchBytes(String endpoint, String url, Duration ttl) {
         try {
-            return restClient.get()
-                    .uri(url)
-                    .retrieve()
-                    .body(JsonNode.class);
+            return espnFetcher.fetch(endpoint, url, ttl);
+        } catch (HttpClientErrorException.NotFound e) {
+            return null;
+        }
+    }
+
+    private JsonNode fetch(String endpoint, String url, Duration ttl) {
+        return parse(fetchBytes(endpoint, url, ttl));
+    }
+
+    private JsonNode parse(byte[] body) {
+        if (body == null) return null;
+        try {
+            return objectMapper.readTree(body);
         } catch (Exception e) {
             return null;
         }
     }
 
+    /**
+     * Reactive counterpart of fetchBytes: a 404 completes empty, other failures are passed on
+     */
+    private Mono<byte[]> fetchBytesReactive(String endpoint, String url, Duration ttl) {
+        return espnFetcher.fetchReactive(endpoint, url, ttl)
+                .onErrorResume(WebClientResponseException.NotFound.class, e -> Mono.empty());
+    }
+
+    private Mono<JsonNode> fetchReactive(String endpoint, String url, Duration ttl) {
+        return fetchBytesReactive(endpoint, url, ttl).mapNotNull(this::parse);
+    }
+
+    /**
+     * Fetches athlete bio data including awards and accolades
+     * @param athleteID The unique ESPN athlete ID
+     * @return JsonNode containing athlete bio information, or null if ESPN has none
+     */
+    public JsonNode getAthleteBio(long athleteID) {
+        String url = webBase + "/athletes/" + athleteID + "/bio";
+        return fetch("nba:/athletes/{id}/bio", url, longTtl);
+    }
+
     /**
      * Fetches athlete information including name, team, position, and other details
      * @param athleteID The unique ESPN athlete ID
-     * @return JsonNode containing athlete information, or null if request fails
+     * @return JsonNode containing athlete information, or null if ESPN has none
      */
     public JsonNode getAthleteInfo(long athleteID) {
-        String url = coreBase + "/athletes/" + athleteID + "?region=us&lang=dk";
+        return fetch("nba:/athletes/{id}", athleteInfoUrl(athleteID), longTtl);
+    }
+
+    /**
+     * Reactive counterpart of getAthleteInfo
+     * @return Athlete information, empty if ESPN has none
+     */
+    public Mono<JsonNode> getAthleteInfoReactive(long athleteID) {
+        return fetchReactive("nba:/athletes/{id}", athleteInfoUrl(athleteID), longTtl);
+    }
+
+    /**
+     * Returns athlete information only if it is already cached, never calls ESPN
+     * @param athleteID The unique ESPN athlete ID
+     * @return JsonNode containing athlete information, or null if not cached
+     */
+    public JsonNode getCachedAthleteInfo(long athleteID) {
+        byte[] body = espnFetcher.peek(athleteInfoUrl(athleteID));
+        if (body == null) return null;
         try {
-            return restClient.get()
-                    .uri(url)
-                    .retrieve()
-                    .body(JsonNode.class);
+            return objectMapper.readTree(body);
         } catch (Exception e) {
             return null;
         }
     }
 
+    private String athleteInfoUrl(long athleteID) {
+        return coreBase + "/athletes/" + athleteID + "?region=us&lang=dk";
+    }
+
+    private String statisticsLogUrl(long athleteID) {
+        return coreBase + "/athletes/" + athleteID + "/statisticslog?region=us&lang=en";
+    }
+
     public JsonNode getStatisticsLog(long athleteID) {
-        String url = coreBase + "/athletes/" + athleteID + "/statisticslog?region=us&lang=en";
-        try {
-            return restClient.get()
-                    .uri(url)
-                    .retrieve()
-                    .body(JsonNode.class);
-        } catch (Exception e) {
-            return null;
-        }
+        // Gains a new entry whenever a season starts, so it is treated like current-season data
+        return fetch("nba:/athletes/{id}/statisticslog", statisticsLogUrl(athleteID), currentSeasonTtl);
+    }
+
+    /**
+     * Reactive counterpart of getStatisticsLog
+     * @return Statistics log, empty if ESPN has none
+     */
+    public Mono<JsonNode> getStatisticsLogReactive(long athleteID) {
+        return fetchReactive("nba:/athletes/{id}/statisticslog", statisticsLogUrl(athleteID), currentSeasonTtl);
     }
 
     public JsonNode getSeasonAverage(long athleteID, int season, int type) {
-        String url = coreBase + "/seasons/" + season + "/types/" + type
+        return parse(getSeasonAveragePayload(athleteID, season, type));
+    }
+
+    /**
+     * Same request as getSeasonAverage, but returns the raw body for callers that decode it
+     * with a streaming parser instead of building a JsonNode tree
+     * @return Raw response body, or null if ESPN has none
+     */
+    public byte[] getSeasonAveragePayload(long athleteID, int season, int type) {
+        return fetchBytes(SEASON_AVERAGE_ENDPOINT, seasonAverageUrl(athleteID, season, type), seasonTtl(season));
+    }
+
+    /**
+     * Reactive counterpart of getSeasonAveragePayload
+     * @return Raw response body, empty if ESPN has none
+     */
+    public Mono<byte[]> getSeasonAveragePayloadReactive(long athleteID, int season, int type) {
+        return fetchBytesReactive(SEASON_AVERAGE_ENDPOINT, seasonAverageUrl(athleteID, season, type), seasonTtl(season));
+    }
+
+    private String seasonAverageUrl(long athleteID, int season, int type) {
+        return coreBase + "/seasons/" + season + "/types/" + type
                 + "/athletes/" + athleteID + "/statistics/0?region=us&lang=en";
-        try {
-            return restClient.get()
-                    .uri(url)
-                    .retrieve()
-                    .body(JsonNode.class);
-        } catch (Exception e) {
-            return null;
-        }
+    }
+
+    private Duration seasonTtl(int season) {
+        return season >= currentSeason() ? currentSeasonTtl : longTtl;
     }
 }
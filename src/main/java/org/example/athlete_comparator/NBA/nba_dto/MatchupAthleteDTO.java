@@ -0,0 +1,42 @@
+package org.example.athlete_comparator.NBA.nba_dto;
+
+import java.util.List;
+
+public class MatchupAthleteDTO {
+    private long id;
+    private List<SeasonStatDTO> seasonStats;
+    private AccoladesDTO accolades;
+
+    public MatchupAthleteDTO() {
+    }
+
+    public MatchupAthleteDTO(long id, List<SeasonStatDTO> seasonStats, AccoladesDTO accolades) {
+        this.id = id;
+        this.seasonStats = seasonStats;
+        this.accolades = accolades;
+    }
+
+    public long getId() {
+        return id;
+    }
+
+    public void setId(long id) {
+        this.id = id;
+    }
+
+    public List<SeasonStatDTO> getSeasonStats() {
+        return seasonStats;
+    }
+
+    public void setSeasonStats(List<SeasonStatDTO> seasonStats) {
+        this.seasonStats = seasonStats;
+    }
+
+    public AccoladesDTO getAccolades() {
+        return accolades;
+    }
+
+    public void setAccolades(AccoladesDTO accolades) {
+        this.accolades = accolades;
+    }
+}
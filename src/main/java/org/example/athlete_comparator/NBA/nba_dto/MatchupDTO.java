@@ -0,0 +1,40 @@
+package org.example.athlete_comparator.NBA.nba_dto;
+
+public class MatchupDTO {
+    private int type;
+    private MatchupAthleteDTO athleteA;
+    private MatchupAthleteDTO athleteB;
+
+    public MatchupDTO() {
+    }
+
+    public MatchupDTO(int type, MatchupAthleteDTO athleteA, MatchupAthleteDTO athleteB) {
+        this.type = type;
+        this.athleteA = athleteA;
+        this.athleteB = athleteB;
+    }
+
+    public int getType() {
+        return type;
+    }
+
+    public void setType(int type) {
+        this.type = type;
+    }
+
+    public MatchupAthleteDTO getAthleteA() {
+        return athleteA;
+    }
+
+    public void setAthleteA(MatchupAthleteDTO athleteA) {
+        this.athleteA = athleteA;
+    }
+
+    public MatchupAthleteDTO getAthleteB() {
+        return athleteB;
+    }
+
+    public void setAthleteB(MatchupAthleteDTO athleteB) {
+        this.athleteB = athleteB;
+    }
+}
@@ -0,0 +1,140 @@
+package org.example.athlete_comparator.NBA.nba_entity;
+
+import jakarta.persistence.*;
+import org.example.athlete_comparator.NBA.nba_dto.SeasonStatDTO;
+import org.springframework.data.domain.Persistable;
+
+/**
+ * Stored per-game averages for one completed NBA season.
+ *
+ * Completed seasons never change, so StatsService serves them from here instead of ESPN.
+ * Rows with available = false remember that ESPN had no numbers (e.g. no playoff run).
+ * The key is assigned rather than generated so Hibernate can batch inserts, and Persistable
+ * lets saveAll() insert new rows without selecting them first.
+ */
+@Entity
+@IdClass(SeasonStatId.class)
+@Table(name = "season_stat",
+        indexes = @Index(name = "idx_season_stat_athlete_type", columnList = "athlete_id, stat_type"))
+public class SeasonStatEntity implements Persistable<SeasonStatId> {
+
+    @Id
+    @Column(name = "athlete_id")
+    private long athleteId;
+
+    @Id
+    @Column(name = "season")
+    private int season;
+
+    @Id
+    @Column(name = "stat_type")
+    private int type; // 2 = Regular Season | 3 = Postseason
+
+    private boolean available;
+    private int gp;
+    @Column(name = "minutes")
+    private double min;
+    private double pts;
+    private double ast;
+    private double reb;
+    private double stl;
+    private double blk;
+    private double tov;
+    private double fgm, fga, tpm, tpa, ftm, fta;
+    private Double ts;
+    private Double efg;
+    private Double per75Pts, per75Ast, per75Reb;
+
+    @Transient
+    private boolean isNew = true;
+
+    public SeasonStatEntity() {
+    }
+
+    /**
+     * Builds a row from a season fetched from ESPN
+     * @param athleteId ESPN athlete ID
+     * @param dto The mapped season averages
+     * @return New entity ready to be inserted
+     */
+    public static SeasonStatEntity of(long athleteId, SeasonStatDTO dto) {
+        SeasonStatEntity e = new SeasonStatEntity();
+        e.athleteId = athleteId;
+        e.season = dto.getSeason();
+        e.type = dto.getType();
+        e.available = true;
+        e.gp = dto.getGp();
+        e.min = dto.getMin();
+        e.pts = dto.getPts();
+        e.ast = dto.getAst();
+        e.reb = dto.getReb();
+        e.stl = dto.getStl();
+        e.blk = dto.getBlk();
+        e.tov = dto.getTov();
+        e.fgm = dto.getFgm();
+        e.fga = dto.getFga();
+        e.tpm = dto.getTpm();
+        e.tpa = dto.getTpa();
+        e.ftm = dto.getFtm();
+        e.fta = dto.getFta();
+        e.ts = dto.getTs();
+        e.efg = dto.getEfg();
+        e.per75Pts = dto.getPer75Pts();
+        e.per75Ast = dto.getPer75Ast();
+        e.per75Reb = dto.getPer75Reb();
+        return e;
+    }
+
+    /**
+     * Builds a marker row for a season ESPN has no stats for
+     * @param athleteId ESPN athlete ID
+     * @param season Season year
+     * @param type Stats type
+     * @return New entity with available = false
+     */
+    public static SeasonStatEntity unavailable(long athleteId, int season, int type) {
+        SeasonStatEntity e = new SeasonStatEntity();
+        e.athleteId = athleteId;
+        e.season = season;
+        e.type = type;
+        e.available = false;
+        return e;
+    }
+
+    public SeasonStatDTO toDto() {
+        return new SeasonStatDTO(season, type, gp, min, pts, ast, reb, stl, blk, tov,
+                fgm, fga, tpm, tpa, ftm, fta, ts, efg, per75Pts, per75Ast, per75Reb);
+    }
+
+    @Override
+    public SeasonStatId getId() {
+        return new SeasonStatId(athleteId, season, type);
+    }
+
+    @Override
+    public boolean isNew() {
+        return isNew;
+    }
+
+    @PostLoad
+    @PostPersist
+    void markNotNew() {
+        this.isNew = false;
+    }
+
+    public long getAthleteId() {
+        return athleteId;
+    }
+
+    public int getSeason() {
+        return season;
+    }
+
+    public int getType() {
+        return type;
+    }
+
+    public boolean isAvailable() {
+        return available;
+    }
+}
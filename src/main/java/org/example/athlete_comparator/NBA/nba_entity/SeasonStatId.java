@@ -0,0 +1,36 @@
+package org.example.athlete_comparator.NBA.nba_entity;
+
+import java.io.Serializable;
+import java.util.Objects;
+
+/**
+ * Composite primary key for SeasonStatEntity: one row per athlete, season and stats type.
+ */
+public class SeasonStatId implements Serializable {
+    private static final long serialVersionUID = 1L;
+
+    private long athleteId;
+    private int season;
+    private int type;
+
+    public SeasonStatId() {
+    }
+
+    public SeasonStatId(long athleteId, int season, int type) {
+        this.athleteId = athleteId;
+        this.season = season;
+        this.type = type;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof SeasonStatId other)) return false;
+        return athleteId == other.athleteId && season == other.season && type == other.type;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(athleteId, season, type);
+    }
+}
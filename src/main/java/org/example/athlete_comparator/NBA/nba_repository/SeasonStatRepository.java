@@ -0,0 +1,16 @@
+package org.example.athlete_comparator.NBA.nba_repository;
+
+import org.example.athlete_comparator.NBA.nba_entity.SeasonStatEntity;
+import org.example.athlete_comparator.NBA.nba_entity.SeasonStatId;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.util.Collection;
+import java.util.List;
+
+public interface SeasonStatRepository extends JpaRepository<SeasonStatEntity, SeasonStatId> {
+
+    /**
+     * Loads every stored season of the given types for one athlete (uses the athlete/type index)
+     */
+    List<SeasonStatEntity> findByAthleteIdAndTypeIn(long athleteId, Collection<Integer> types);
+}
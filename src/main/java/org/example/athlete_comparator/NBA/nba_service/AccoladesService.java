@@ -1,74 +1,63 @@
 package org.example.athlete_comparator.NBA.nba_service;
 
 import com.fasterxml.jackson.databind.JsonNode;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
 import org.example.athlete_comparator.NBA.nba_client.EspnNBAStatsClient;
 import org.example.athlete_comparator.NBA.nba_dto.AccoladesDTO;
 import org.example.athlete_comparator.NBA.nba_dto.AwardDTO;
+import org.example.athlete_comparator.shared_service.AwardClassifier;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
+import java.time.Duration;
 import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.List;
 
+/**
+ * Builds an athlete's accolades from the ESPN bio, most prestigious award first.
+ * Awards are ranked by the taxonomy in awards/nba.json; the sorted result is cached per
+ * athlete for nba.accolades.cache.ttl seconds.
+ */
 @Service
 public class AccoladesService {
 
     private static final Logger log = LoggerFactory.getLogger(AccoladesService.class);
+    private static final AwardClassifier AWARDS = AwardClassifier.fromResource("awards/nba.json");
     private final EspnNBAStatsClient espnNBAStatsClient;
+    private final Cache<Long, AccoladesDTO> cache;
 
-    public AccoladesService(EspnNBAStatsClient espnNBAStatsClient) {
+    /**
+     * An award with its category's priority, worked out once before sorting
+     */
+    private record RankedAward(int priority, AwardDTO award) {
+    }
+
+    public AccoladesService(EspnNBAStatsClient espnNBAStatsClient,
+                            @Value("${nba.accolades.cache.ttl:86400}") long ttlSeconds,
+                            @Value("${nba.accolades.cache.max-size:5000}") long maxSize,
+                            MeterRegistry meterRegistry) {
         this.espnNBAStatsClient = espnNBAStatsClient;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .recordStats()
+                .build();
+
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "nba.accolades");
     }
 
     /**
-     * Assigns priority order to awards for sorting (lower number = higher priority)
-     * @param awardTitle The title of the award
-     * @return Priority value for sorting
+     * @param athleteId ESPN athlete ID
+     * @return Sorted accolades built earlier for the athlete, or null if there are none cached
      */
-    private int getAwardPriority(String awardTitle) {
-        String title = awardTitle.toLowerCase();
-        
-        // Championships and Finals
-        if (title.contains("champion")) return 1;
-        if (title.contains("finals mvp")) return 2;
-        
-        // Regular Season MVP
-        if (title.contains("mvp") && !title.contains("finals") && !title.contains("all-star")) return 3;
-        
-        // All-NBA Teams (ordered by tier)
-        if (title.contains("all-nba 1st")) return 4;
-        if (title.contains("all-nba 2nd")) return 5;
-        if (title.contains("all-nba 3rd")) return 6;
-        
-        // Defensive Teams
-        if (title.contains("defensive player of the year")) return 7;
-        if (title.contains("all-defensive 1st")) return 8;
-        if (title.contains("all-defensive 2nd")) return 9;
-        
-        // All-Star
-        if (title.contains("all-star mvp")) return 10;
-        if (title.contains("all-star")) return 11;
-        
-        // Scoring and Statistical Leaders
-        if (title.contains("scoring")) return 12;
-        if (title.contains("assists")) return 13;
-        if (title.contains("rebounds")) return 14;
-        
-        // Rookie Awards
-        if (title.contains("rookie of the year")) return 15;
-        if (title.contains("all-rookie 1st")) return 16;
-        if (title.contains("all-rookie 2nd")) return 17;
-        
-        // Special Awards (6th Man, Most Improved, etc)
-        if (title.contains("sixth man")) return 18;
-        if (title.contains("most improved")) return 19;
-        
-        // NBA Cup / In-Season Tournament
-        if (title.contains("nba cup") || title.contains("tournament")) return 20;
-        
-        // Other awards
-        return 99;
+    public AccoladesDTO getCachedAccolades(long athleteId) {
+        return cache.getIfPresent(athleteId);
     }
 
     /**
@@ -77,9 +66,24 @@ public class AccoladesService {
      * @return AccoladesDTO containing player name and list of awards
      */
     public AccoladesDTO getAccolades(long athleteId) {
+        AccoladesDTO cached = cache.getIfPresent(athleteId);
+        if (cached != null) {
+            return cached;
+        }
+        return buildAccolades(athleteId, espnNBAStatsClient.getAthleteBio(athleteId),
+                espnNBAStatsClient.getAthleteInfo(athleteId));
+    }
+
+    /**
+     * Parses accolades from bio and info data the caller has already fetched, and caches them
+     * for the athlete unless the bio or info was missing
+     * @param athleteId ESPN athlete ID
+     * @param bioData Athlete bio from ESPN, may be null
+     * @param athleteInfo Athlete info from ESPN, may be null
+     * @return AccoladesDTO containing player name and list of awards
+     */
+    public AccoladesDTO buildAccolades(long athleteId, JsonNode bioData, JsonNode athleteInfo) {
         try {
-            // Fetch bio data
-            JsonNode bioData = espnNBAStatsClient.getAthleteBio(athleteId);
             if (bioData == null) {
                 log.warn("No bio data found for athlete {}", athleteId);
                 return new AccoladesDTO("Unknown Player", List.of());
@@ -87,19 +91,19 @@ public class AccoladesService {
 
             // Get player name from info endpoint
             String playerName = "Unknown Player";
-            JsonNode athleteInfo = espnNBAStatsClient.getAthleteInfo(athleteId);
             if (athleteInfo != null) {
                 playerName = athleteInfo.path("displayName").asText("Unknown Player");
             }
 
             // Parse awards from bio data
-            List<AwardDTO> awards = new ArrayList<>();
+            List<RankedAward> ranked = new ArrayList<>();
             JsonNode awardsNode = bioData.path("awards");
             
             if (awardsNode.isArray() && awardsNode.size() > 0) {
                 for (JsonNode awardNode : awardsNode) {
                     // Get award name
-                    String title = awardNode.path("name").asText("");
+                    String name = awardNode.path("name").asText("");
+                    String title = name;
                     
                     // Get display count (e.g., "4x", "13x")
                     String displayCount = awardNode.path("displayCount").asText("");
@@ -120,20 +124,26 @@ public class AccoladesService {
                     
                     // Use empty string for year since we're showing seasons in description
                     if (!title.isEmpty()) {
-                        awards.add(new AwardDTO(title, "", description));
+                        // Ranked by the bare name: the count never changes the category, and
+                        // there are far fewer distinct names than "4x ..." titles
+                        ranked.add(new RankedAward(AWARDS.priority(name), new AwardDTO(title, "", description)));
                     }
                 }
             }
 
-            // Sort awards by importance/prestige
-            awards.sort((a1, a2) -> {
-                int priority1 = getAwardPriority(a1.getTitle());
-                int priority2 = getAwardPriority(a2.getTitle());
-                return Integer.compare(priority1, priority2);
-            });
+            // Sort awards by importance/prestige; the sort is stable, so equal ranks keep ESPN's order
+            ranked.sort(Comparator.comparingInt(RankedAward::priority));
+            List<AwardDTO> awards = new ArrayList<>(ranked.size());
+            for (RankedAward award : ranked) {
+                awards.add(award.award());
+            }
 
             log.info("Parsed {} awards for athlete {}", awards.size(), athleteId);
-            return new AccoladesDTO(playerName, awards);
+            AccoladesDTO accolades = new AccoladesDTO(playerName, awards);
+            if (athleteInfo != null) {
+                cache.put(athleteId, accolades);
+            }
+            return accolades;
         } catch (Exception e) {
             log.error("Error fetching accolades for athlete {}", athleteId, e);
             return new AccoladesDTO("Unknown Player", List.of());
@@ -2,14 +2,28 @@ package org.example.athlete_comparator.NBA.nba_service;
 
 import com.fasterxml.jackson.databind.JsonNode;
 import org.example.athlete_comparator.NBA.nba_client.EspnNBAStatsClient;
+import org.example.athlete_comparator.shared_client.Deadline;
+import org.example.athlete_comparator.shared_client.FetchScope;
 import org.example.athlete_comparator.shared_client.OpenAiClient;
+import org.example.athlete_comparator.shared_client.ParallelFetcher;
 import org.example.athlete_comparator.shared_dto.CompareResultDTO;
+import org.example.athlete_comparator.shared_service.CompareResultCache;
+import org.example.athlete_comparator.shared_service.CompareStreamListener;
+import org.example.athlete_comparator.shared_service.SectionStreamParser;
 import org.example.athlete_comparator.NBA.nba_dto.SeasonStatDTO;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
 
+import java.time.Duration;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 @Service
 public class ComparisonService {
@@ -18,11 +32,19 @@ public class ComparisonService {
     private final StatsService statsService;
     private final EspnNBAStatsClient espnNBAStatsClient;
     private final OpenAiClient openAiClient;
+    private final CompareResultCache compareResultCache;
+    private final ParallelFetcher parallelFetcher;
+    private final Duration gatherBudget;
 
-    public ComparisonService(StatsService statsService, EspnNBAStatsClient espnNBAStatsClient, OpenAiClient openAiClient) {
+    public ComparisonService(StatsService statsService, EspnNBAStatsClient espnNBAStatsClient, OpenAiClient openAiClient,
+                             CompareResultCache compareResultCache, ParallelFetcher parallelFetcher,
+                             @Value("${nba.compare.gather-budget-ms:10000}") long gatherBudgetMs) {
         this.statsService = statsService;
         this.espnNBAStatsClient = espnNBAStatsClient;
         this.openAiClient = openAiClient;
+        this.compareResultCache = compareResultCache;
+        this.parallelFetcher = parallelFetcher;
+        this.gatherBudget = Duration.ofMillis(gatherBudgetMs);
     }
 
     /**
@@ -59,6 +81,16 @@ public class ComparisonService {
                 Be specific with numbers and avoid generic statements.
                 """;
 
+    /**
+     * Section headers of the AI response and the CompareResultDTO property each one fills
+     */
+    private static final Map<String, String> SECTION_FIELDS = Map.of(
+            "OVERALL_WINNER", "overallWinner",
+            "ONE_VS_ONE", "oneVsOnePrediction",
+            "PLAYER1_STRENGTHS", "athlete1Strengths",
+            "PLAYER2_STRENGTHS", "athlete2Strengths",
+            "CONCLUSION", "conclusion");
+
     /**
      * Fetches player's display name from ESPN API
      *
@@ -76,11 +108,71 @@ public class ComparisonService {
             }
         } catch (Exception e) {
             log.warn("Failed to fetch player name for athlete {}", athleteId, e);
+            Deadline.markCurrentPartial();
         }
         // Fallback if name cannot be retrieved
         return "Player " + athleteId;
     }
 
+    /**
+     * Fetches a player's career statistics, failing when there are none since the comparison cannot go ahead
+     *
+     * @param athleteId ESPN athlete ID
+     * @param statsType Stats type (0 = all, 2 = regular season, 3 = playoffs)
+     * @return Non-empty list of season statistics
+     */
+    private List<SeasonStatDTO> getRequiredStats(long athleteId, int statsType) {
+        List<SeasonStatDTO> stats = statsService.getSeasonStats(athleteId, statsType);
+        if (stats.isEmpty()) {
+            throw new IllegalStateException("No statistics available for athlete " + athleteId);
+        }
+        return stats;
+    }
+
+    /**
+     * Reactive counterpart of getPlayerName
+     */
+    private Mono<String> getPlayerNameReactive(long athleteId) {
+        return espnNBAStatsClient.getAthleteInfoReactive(athleteId)
+                .map(athleteInfo -> athleteInfo.path("displayName").asText(""))
+                .filter(fullName -> !fullName.isEmpty())
+                .onErrorResume(e -> Mono.deferContextual(ctx -> {
+                    log.warn("Failed to fetch player name for athlete {}", athleteId, e);
+                    Deadline.markPartial(ctx);
+                    return Mono.empty();
+                }))
+                .defaultIfEmpty("Player " + athleteId);
+    }
+
+    /**
+     * Reactive counterpart of getRequiredStats, an IllegalStateException when there are none
+     */
+    private Mono<List<SeasonStatDTO>> getRequiredStatsReactive(long athleteId, int statsType) {
+        return statsService.getSeasonStatsReactive(athleteId, statsType)
+                .filter(stats -> !stats.isEmpty())
+                .switchIfEmpty(Mono.error(() -> new IllegalStateException("No statistics available for athlete " + athleteId)));
+    }
+
+    private static CompareResultDTO unavailableResult(String reason) {
+        CompareResultDTO errorResult = new CompareResultDTO();
+        errorResult.setAnalysis("Unable to compare: " + reason);
+        return errorResult;
+    }
+
+    /**
+     * Ends a reactive compare whose data could not be gathered, carrying the reason for
+     * unavailableResult. Raised only by the gather step, so errors of the comparison itself
+     * are never turned into an "unavailable" answer.
+     */
+    private static final class Unavailable extends RuntimeException {
+
+        private static final long serialVersionUID = 1L;
+
+        Unavailable(String reason) {
+            super(reason, null, false, false);
+        }
+    }
+
     /**
      * Appends a formatted career summary for a player to the prompt
      *
@@ -135,8 +227,8 @@ public class ComparisonService {
      * @param player2Name  Name of second player
      * @return Formatted prompt string for AI analysis
      */
-    private String buildUserPrompt(List<SeasonStatDTO> player1Stats, List<SeasonStatDTO> player2Stats,
-                                   String player1Name, String player2Name) {
+    String buildUserPrompt(List<SeasonStatDTO> player1Stats, List<SeasonStatDTO> player2Stats,
+                           String player1Name, String player2Name) {
         StringBuilder prompt = new StringBuilder();
         prompt.append("Compare these two NBA players based on their career statistics:\n\n");
 
@@ -190,7 +282,7 @@ public class ComparisonService {
      * @param player2Name Name of second player
      * @return Structured comparison result
      */
-    private CompareResultDTO parseAiResponse(String response, String player1Name, String player2Name) {
+    CompareResultDTO parseAiResponse(String response, String player1Name, String player2Name) {
         CompareResultDTO result = new CompareResultDTO();
         result.setAthlete1Name(player1Name);
         result.setAthlete2Name(player2Name);
@@ -267,34 +359,170 @@ public class ComparisonService {
      * @return CompareResultDTO with analysis and comparison results
      */
     public CompareResultDTO compareAthletes(long athleteId1, long athleteId2, Integer type) {
+        return compareAthletes(athleteId1, athleteId2, type, null);
+    }
+
+    /**
+     * Compares two NBA athletes, streaming the AI answer to a listener as it is generated.
+     * Cached results are replayed to the listener section by section.
+     *
+     * @param athleteId1 ESPN ID for first player
+     * @param athleteId2 ESPN ID for second player
+     * @param type       Stats type (0 = all, 2 = regular season, 3 = playoffs)
+     * @param listener   Receives tokens and completed sections, null to wait for the whole answer
+     * @return CompareResultDTO with analysis and comparison results
+     */
+    public CompareResultDTO compareAthletes(long athleteId1, long athleteId2, Integer type,
+                                            CompareStreamListener listener) {
         // Default to type 0 (all stats) if not provided
         int statsType = type != null ? type : 0;
 
-        // Fetch player names from ESPN API
-        String player1Name = getPlayerName(athleteId1);
-        String player2Name = getPlayerName(athleteId2);
+        String player1Name;
+        String player2Name;
+        List<SeasonStatDTO> player1Stats;
+        List<SeasonStatDTO> player2Stats;
+
+        // Fetch both players' names and career statistics at the same time.
+        // Missing stats for either player fail the scope without waiting for the other lookups.
+        try (FetchScope scope = parallelFetcher.openScope()) {
+            Future<String> name1 = scope.fork(() -> getPlayerName(athleteId1));
+            Future<String> name2 = scope.fork(() -> getPlayerName(athleteId2));
+            Future<List<SeasonStatDTO>> stats1 = scope.fork(() -> getRequiredStats(athleteId1, statsType));
+            Future<List<SeasonStatDTO>> stats2 = scope.fork(() -> getRequiredStats(athleteId2, statsType));
+
+            if (!scope.join(gatherBudget)) {
+                log.warn("Gathering data for {} vs {} took longer than {} ms", athleteId1, athleteId2,
+                        gatherBudget.toMillis());
+            }
 
-        // Fetch career statistics for both players
-        List<SeasonStatDTO> player1Stats = statsService.getSeasonStats(athleteId1, statsType);
-        List<SeasonStatDTO> player2Stats = statsService.getSeasonStats(athleteId2, statsType);
+            player1Name = FetchScope.resultOr(name1, "Player " + athleteId1);
+            player2Name = FetchScope.resultOr(name2, "Player " + athleteId2);
+            player1Stats = FetchScope.resultOr(stats1, null);
+            player2Stats = FetchScope.resultOr(stats2, null);
+        } catch (ExecutionException e) {
+            log.info("Cannot compare {} vs {}: {}", athleteId1, athleteId2, e.getCause().getMessage());
+            return unavailableResult("One or both players have no available statistics.");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return unavailableResult("The request was cancelled.");
+        }
 
-        // Validate that we have stats for both players
-        if (player1Stats.isEmpty() || player2Stats.isEmpty()) {
-            CompareResultDTO errorResult = new CompareResultDTO();
-            errorResult.setAnalysis("Unable to compare: One or both players have no available statistics.");
-            return errorResult;
+        // Budget ran out before the stats arrived
+        if (player1Stats == null || player2Stats == null) {
+            return unavailableResult("Statistics took too long to load, please try again.");
         }
 
+        // Results are cached with the lower ID as player 1, so A vs B and B vs A share one entry
+        boolean swapped = athleteId1 > athleteId2;
+        List<SeasonStatDTO> firstStats = swapped ? player2Stats : player1Stats;
+        List<SeasonStatDTO> secondStats = swapped ? player1Stats : player2Stats;
+        String firstName = swapped ? player2Name : player1Name;
+        String secondName = swapped ? player1Name : player2Name;
+
         // Build AI prompts with player data
         String systemPrompt = SYSTEM_PROMPT;
-        String userPrompt = buildUserPrompt(player1Stats, player2Stats, player1Name, player2Name);
+        String userPrompt = buildUserPrompt(firstStats, secondStats, firstName, secondName);
+
+        // Streamed sections are in canonical order too, so a swapped request gets them mirrored
+        CompareStreamListener sink = listener == null ? null : swapped ? listener.mirrored("Player") : listener;
+        AtomicBoolean streamed = new AtomicBoolean(false);
+
+        CompareResultDTO result = compareResultCache.get("nba",
+                Math.min(athleteId1, athleteId2), Math.max(athleteId1, athleteId2), statsType, userPrompt, () -> {
+                    // Send to OpenAI for analysis
+                    String aiResponse;
+                    if (sink == null) {
+                        aiResponse = openAiClient.sendPrompt(systemPrompt, userPrompt);
+                    } else {
+                        streamed.set(true);
+                        SectionStreamParser parser = new SectionStreamParser(SECTION_FIELDS, sink);
+                        aiResponse = openAiClient.streamPrompt(systemPrompt, userPrompt, delta -> {
+                            sink.onToken(delta);
+                            parser.feed(delta);
+                        });
+                        parser.finish();
+                    }
 
-        // Send to OpenAI for analysis
-        String aiResponse = openAiClient.sendPrompt(systemPrompt, userPrompt);
-        
-        log.debug("OpenAI Response: {}", aiResponse);
+                    log.debug("OpenAI Response: {}", aiResponse);
+
+                    // Parse AI response into structured result
+                    return parseAiResponse(aiResponse, firstName, secondName);
+                });
+
+        CompareResultDTO ordered = swapped ? CompareResultCache.mirror(result, "Player") : result;
+        // Cache hit, or the answer came from an identical compare that was already running
+        if (listener != null && !streamed.get()) {
+            listener.replay(ordered);
+        }
+        return ordered;
+    }
+
+    /**
+     * Reactive counterpart of compareAthletes, used when reactive.enabled is set. Names and stats
+     * are gathered without blocking a thread, bounded by the gather budget and the Deadline in
+     * the Reactor context.
+     *
+     * @param athleteId1 ESPN ID for first player
+     * @param athleteId2 ESPN ID for second player
+     * @param type       Stats type (0 = all, 2 = regular season, 3 = playoffs)
+     * @param listener   Receives tokens and completed sections, null to wait for the whole answer
+     * @return CompareResultDTO with analysis and comparison results
+     */
+    public Mono<CompareResultDTO> compareAthletesReactive(long athleteId1, long athleteId2, Integer type,
+                                                          CompareStreamListener listener) {
+        int statsType = type != null ? type : 0;
 
-        // Parse AI response into structured result
-        return parseAiResponse(aiResponse, player1Name, player2Name);
+        // Missing stats for either player fail the zip and cancel the other lookups
+        return Mono.deferContextual(ctx -> Mono.zip(
+                                getPlayerNameReactive(athleteId1),
+                                getPlayerNameReactive(athleteId2),
+                                getRequiredStatsReactive(athleteId1, statsType),
+                                getRequiredStatsReactive(athleteId2, statsType))
+                        .timeout(Deadline.clamp(Deadline.from(ctx), gatherBudget))
+                        .onErrorMap(TimeoutException.class, e -> {
+                            log.warn("Gathering data for {} vs {} took longer than {} ms", athleteId1, athleteId2,
+                                    gatherBudget.toMillis());
+                            return new Unavailable("Statistics took too long to load, please try again.");
+                        })
+                        .onErrorMap(IllegalStateException.class, e -> {
+                            log.info("Cannot compare {} vs {}: {}", athleteId1, athleteId2, e.getMessage());
+                            return new Unavailable("One or both players have no available statistics.");
+                        }))
+                .flatMap(t -> {
+                    // Results are cached with the lower ID as player 1, so A vs B and B vs A share one entry
+                    boolean swapped = athleteId1 > athleteId2;
+                    List<SeasonStatDTO> firstStats = swapped ? t.getT4() : t.getT3();
+                    List<SeasonStatDTO> secondStats = swapped ? t.getT3() : t.getT4();
+                    String firstName = swapped ? t.getT2() : t.getT1();
+                    String secondName = swapped ? t.getT1() : t.getT2();
+                    String userPrompt = buildUserPrompt(firstStats, secondStats, firstName, secondName);
+
+                    CompareStreamListener sink = listener == null ? null : swapped ? listener.mirrored("Player") : listener;
+                    AtomicBoolean streamed = new AtomicBoolean(false);
+
+                    return compareResultCache.getReactive("nba", Math.min(athleteId1, athleteId2),
+                                    Math.max(athleteId1, athleteId2), statsType, userPrompt, () -> {
+                                        Mono<String> aiResponse;
+                                        if (sink == null) {
+                                            aiResponse = openAiClient.sendPromptReactive(SYSTEM_PROMPT, userPrompt);
+                                        } else {
+                                            streamed.set(true);
+                                            SectionStreamParser parser = new SectionStreamParser(SECTION_FIELDS, sink);
+                                            aiResponse = openAiClient.streamPromptReactive(SYSTEM_PROMPT, userPrompt, delta -> {
+                                                sink.onToken(delta);
+                                                parser.feed(delta);
+                                            }).doOnNext(full -> parser.finish());
+                                        }
+                                        return aiResponse.map(response -> parseAiResponse(response, firstName, secondName));
+                                    })
+                            .map(result -> {
+                                CompareResultDTO ordered = swapped ? CompareResultCache.mirror(result, "Player") : result;
+                                if (listener != null && !streamed.get()) {
+                                    listener.replay(ordered);
+                                }
+                                return ordered;
+                            });
+                })
+                .onErrorResume(Unavailable.class, e -> Mono.just(unavailableResult(e.getMessage())));
     }
-}
\ No newline at end of file
+}
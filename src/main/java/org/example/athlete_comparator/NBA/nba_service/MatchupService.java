@@ -0,0 +1,92 @@
+package org.example.athlete_comparator.NBA.nba_service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import org.example.athlete_comparator.NBA.nba_client.EspnNBAStatsClient;
+import org.example.athlete_comparator.NBA.nba_dto.AccoladesDTO;
+import org.example.athlete_comparator.NBA.nba_dto.MatchupAthleteDTO;
+import org.example.athlete_comparator.NBA.nba_dto.MatchupDTO;
+import org.example.athlete_comparator.NBA.nba_dto.SeasonStatDTO;
+import org.example.athlete_comparator.shared_client.FetchScope;
+import org.example.athlete_comparator.shared_client.ParallelFetcher;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+
+/**
+ * Builds everything the NBA page shows for two selected players in one go.
+ * Season stats, bio and info for both players are fetched side by side, each document once.
+ * Bio and info are skipped for players whose accolades are already cached.
+ */
+@Service
+public class MatchupService {
+
+    private static final Logger log = LoggerFactory.getLogger(MatchupService.class);
+    private final StatsService statsService;
+    private final AccoladesService accoladesService;
+    private final EspnNBAStatsClient espnNBAStatsClient;
+    private final ParallelFetcher parallelFetcher;
+    private final Duration budget;
+
+    public MatchupService(StatsService statsService, AccoladesService accoladesService,
+                          EspnNBAStatsClient espnNBAStatsClient, ParallelFetcher parallelFetcher,
+                          @Value("${nba.matchup.budget-ms:8000}") long budgetMs) {
+        this.statsService = statsService;
+        this.accoladesService = accoladesService;
+        this.espnNBAStatsClient = espnNBAStatsClient;
+        this.parallelFetcher = parallelFetcher;
+        this.budget = Duration.ofMillis(budgetMs);
+    }
+
+    /**
+     * Gathers season stats and accolades for two players
+     * @param athleteA ESPN ID for first player
+     * @param athleteB ESPN ID for second player
+     * @param type Stats type: 0 = all stats | 2 = regular season only | 3 = playoffs only
+     * @return Matchup with both players; parts that could not be loaded in time are empty.
+     *         Their lookups are not interrupted, they finish in the background and fill the
+     *         response cache, so they may be shared with other requests.
+     */
+    public MatchupDTO getMatchup(long athleteA, long athleteB, int type) {
+        try (FetchScope scope = parallelFetcher.openScope()) {
+            Future<List<SeasonStatDTO>> statsA = scope.forkOptional(() -> statsService.getSeasonStats(athleteA, type));
+            Future<List<SeasonStatDTO>> statsB = scope.forkOptional(() -> statsService.getSeasonStats(athleteB, type));
+            // Bio and info are only needed for accolades that are not cached yet
+            AccoladesDTO accoladesA = accoladesService.getCachedAccolades(athleteA);
+            AccoladesDTO accoladesB = accoladesService.getCachedAccolades(athleteB);
+            Future<JsonNode> bioA = accoladesA != null ? null : scope.forkOptional(() -> espnNBAStatsClient.getAthleteBio(athleteA));
+            Future<JsonNode> bioB = accoladesB != null ? null : scope.forkOptional(() -> espnNBAStatsClient.getAthleteBio(athleteB));
+            Future<JsonNode> infoA = accoladesA != null ? null : scope.forkOptional(() -> espnNBAStatsClient.getAthleteInfo(athleteA));
+            Future<JsonNode> infoB = accoladesB != null ? null : scope.forkOptional(() -> espnNBAStatsClient.getAthleteInfo(athleteB));
+
+            try {
+                if (!scope.join(budget)) {
+                    log.warn("Matchup {} vs {} took longer than {} ms, returning partial data",
+                            athleteA, athleteB, budget.toMillis());
+                }
+            } catch (ExecutionException e) {
+                // The lookups handle their own errors, so this is unexpected; serve what arrived
+                log.error("Error loading matchup {} vs {}", athleteA, athleteB, e.getCause());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+
+            return new MatchupDTO(type,
+                    athlete(athleteA, statsA, accoladesA, bioA, infoA),
+                    athlete(athleteB, statsB, accoladesB, bioB, infoB));
+        }
+    }
+
+    private MatchupAthleteDTO athlete(long athleteId, Future<List<SeasonStatDTO>> stats, AccoladesDTO cached,
+                                      Future<JsonNode> bio, Future<JsonNode> info) {
+        AccoladesDTO accolades = cached != null ? cached : accoladesService.buildAccolades(athleteId,
+                FetchScope.resultOr(bio, null), FetchScope.resultOr(info, null));
+        List<SeasonStatDTO> seasons = FetchScope.resultOr(stats, null);
+        return new MatchupAthleteDTO(athleteId, seasons != null ? seasons : List.of(), accolades);
+    }
+}
@@ -4,48 +4,182 @@ import com.fasterxml.jackson.databind.JsonNode;
 import org.example.athlete_comparator.NBA.nba_client.EspnNBASearchClient;
 import org.example.athlete_comparator.NBA.nba_client.EspnNBAStatsClient;
 import org.example.athlete_comparator.NBA.nba_dto.PlayerSearchResultDTO;
+import org.example.athlete_comparator.shared_client.Deadline;
+import org.example.athlete_comparator.shared_client.ParallelFetcher;
+import org.example.athlete_comparator.shared_client.RefreshScheduler;
+import org.example.athlete_comparator.shared_service.TypeaheadIndex;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Locale;
+import java.util.Set;
 
+/**
+ * Player search for the NBA page.
+ *
+ * Queries are answered from a local TypeaheadIndex, preloaded with every current roster.
+ * ESPN search is only on the request path when no indexed name has every query word as a
+ * prefix; similar-looking names ("Michael Porter Jr." for "michael jordan") don't count, since
+ * retired players are only found through ESPN. Its results are added to the index. With only
+ * a few matches ESPN is asked in the background instead.
+ */
 @Service
 public class SearchService {
 
+    private static final Logger log = LoggerFactory.getLogger(SearchService.class);
+    private static final int RESULT_LIMIT = 20;
     private final EspnNBASearchClient espnNBASearchClient;
     private final EspnNBAStatsClient espnNBAStatsClient;
+    private final ParallelFetcher parallelFetcher;
+    private final RefreshScheduler refreshScheduler;
+    private final Duration enrichmentBudget;
+    private final boolean indexEnabled;
+    private final int learnBelow;
+    private final TypeaheadIndex<PlayerSearchResultDTO> index;
 
-    public SearchService(EspnNBASearchClient espnNBASearchClient, EspnNBAStatsClient espnNBAStatsClient) {
+    public SearchService(EspnNBASearchClient espnNBASearchClient, EspnNBAStatsClient espnNBAStatsClient,
+                         ParallelFetcher parallelFetcher,
+                         RefreshScheduler refreshScheduler,
+                         @Value("${nba.search.enrichment-budget-ms:800}") long enrichmentBudgetMs,
+                         @Value("${search.index.enabled:true}") boolean indexEnabled,
+                         @Value("${search.index.learn-below:5}") int learnBelow,
+                         @Value("${search.index.min-similarity:0.45}") double minSimilarity,
+                         @Value("${search.index.max-learned:5000}") int maxLearned) {
         this.espnNBASearchClient = espnNBASearchClient;
         this.espnNBAStatsClient = espnNBAStatsClient;
+        this.parallelFetcher = parallelFetcher;
+        this.refreshScheduler = refreshScheduler;
+        this.enrichmentBudget = Duration.ofMillis(enrichmentBudgetMs);
+        this.indexEnabled = indexEnabled;
+        this.learnBelow = learnBelow;
+        this.index = new TypeaheadIndex<>(minSimilarity, maxLearned);
+    }
+
+    private static PlayerSearchResultDTO copy(PlayerSearchResultDTO p) {
+        return new PlayerSearchResultDTO(p.getID(), p.getName(), p.getLeague(), p.getTeam(), p.getPosition(),
+                p.getHeadshotUrl(), p.getDisplayHeight(), p.getDisplayWeight());
+    }
+
+    private static List<TypeaheadIndex.Entry<PlayerSearchResultDTO>> entries(List<PlayerSearchResultDTO> players) {
+        return players.stream()
+                .map(p -> new TypeaheadIndex.Entry<>(p.getID(), p.getName(), copy(p)))
+                .toList();
+    }
+
+    private void learn(List<PlayerSearchResultDTO> players) {
+        index.learn(entries(players));
+    }
+
+    /**
+     * Loads every current NBA roster into the search index. Runs at startup and then
+     * every search.index.refresh-ms, so trades and signings show up without a restart.
+     */
+    @Scheduled(initialDelayString = "${search.index.initial-delay-ms:0}",
+            fixedDelayString = "${search.index.refresh-ms:21600000}")
+    public void refreshIndex() {
+        if (!indexEnabled) return;
+        try {
+            List<List<PlayerSearchResultDTO>> rosters = parallelFetcher.mapOrdered(
+                    espnNBASearchClient.getTeamIds(), espnNBASearchClient::getTeamRoster);
+            List<PlayerSearchResultDTO> players = new ArrayList<>();
+            for (List<PlayerSearchResultDTO> roster : rosters) {
+                if (roster != null) players.addAll(roster);
+            }
+            index.putAll(entries(players));
+            log.info("NBA search index refreshed with {} rostered players ({} total)", players.size(), index.size());
+        } catch (Exception e) {
+            log.warn("Could not refresh NBA search index: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Copies position, height and weight from the athlete info payload onto a search result
+     */
+    private static void applyBio(PlayerSearchResultDTO player, JsonNode bio) {
+        String position = bio.path("position").path("abbreviation").asText("");
+        if (!position.isEmpty()) {
+            player.setPosition(position);
+        }
+
+        String displayHeight = bio.path("displayHeight").asText("");
+        if (!displayHeight.isEmpty()) {
+            player.setDisplayHeight(displayHeight);
+        }
+
+        String displayWeight = bio.path("displayWeight").asText("");
+        if (!displayWeight.isEmpty()) {
+            player.setDisplayWeight(displayWeight);
+        }
     }
 
     public List<PlayerSearchResultDTO> search(String searchText) {
         if (searchText == null || searchText.isBlank()) return List.of();
-        
-        List<PlayerSearchResultDTO> results = espnNBASearchClient.searchPlayers(searchText.trim());
-        
-        // Enrich results with position, height, and weight data from bio endpoint
+        String query = searchText.trim();
+
+        if (!indexEnabled) {
+            return searchEspn(query);
+        }
+
+        TypeaheadIndex.Matches<PlayerSearchResultDTO> local = index.match(query, RESULT_LIMIT);
+        if (!local.prefix().isEmpty()) {
+            if (local.prefix().size() < learnBelow) {
+                refreshScheduler.submit("search:nba:" + query.toLowerCase(Locale.ROOT),
+                        () -> learn(searchEspn(query)));
+            }
+            return local.all().stream().map(SearchService::copy).toList();
+        }
+
+        List<PlayerSearchResultDTO> results;
+        try {
+            results = searchEspn(query);
+        } catch (RuntimeException e) {
+            if (local.fuzzy().isEmpty()) throw e;
+            // Similar names are better than nothing, but must not be cached as the answer
+            log.debug("ESPN search for '{}' failed, answering from the index: {}", query, e.getMessage());
+            Deadline.markCurrentPartial();
+            return local.fuzzy().stream().map(SearchService::copy).toList();
+        }
+        learn(results);
+
+        // ESPN's results first, then the indexed names that look similar
+        List<PlayerSearchResultDTO> merged = new ArrayList<>(results);
+        Set<Long> seen = new HashSet<>();
+        results.forEach(p -> seen.add(p.getID()));
+        for (PlayerSearchResultDTO player : local.fuzzy()) {
+            if (merged.size() >= RESULT_LIMIT) break;
+            if (seen.add(player.getID())) merged.add(copy(player));
+        }
+        return merged;
+    }
+
+    private List<PlayerSearchResultDTO> searchEspn(String query) {
+        List<PlayerSearchResultDTO> results = espnNBASearchClient.searchPlayers(query);
+
+        // Enrich results with position, height, and weight data from the athlete info endpoint.
+        // Cached bios are applied straight away, the rest are fetched concurrently.
+        List<PlayerSearchResultDTO> uncached = new ArrayList<>();
         for (PlayerSearchResultDTO player : results) {
-            try {
-                JsonNode bio = espnNBAStatsClient.getAthleteInfo(player.getID());
-                if (bio != null) {
-                    String position = bio.path("position").path("abbreviation").asText("");
-                    if (!position.isEmpty()) {
-                        player.setPosition(position);
-                    }
-                    
-                    String displayHeight = bio.path("displayHeight").asText("");
-                    if (!displayHeight.isEmpty()) {
-                        player.setDisplayHeight(displayHeight);
-                    }
-                    
-                    String displayWeight = bio.path("displayWeight").asText("");
-                    if (!displayWeight.isEmpty()) {
-                        player.setDisplayWeight(displayWeight);
-                    }
-                }
-            } catch (Exception e) {
-                // Continue without position/height/weight if fetch fails
+            JsonNode bio = espnNBAStatsClient.getCachedAthleteInfo(player.getID());
+            if (bio != null) {
+                applyBio(player, bio);
+            } else {
+                uncached.add(player);
+            }
+        }
+
+        // Players whose bio is not back within the budget are returned without position/height/weight
+        List<JsonNode> bios = parallelFetcher.mapOrdered(uncached,
+                player -> espnNBAStatsClient.getAthleteInfo(player.getID()), enrichmentBudget);
+        for (int i = 0; i < uncached.size(); i++) {
+            if (bios.get(i) != null) {
+                applyBio(uncached.get(i), bios.get(i));
             }
         }
         
@@ -0,0 +1,226 @@
+package org.example.athlete_comparator.NBA.nba_service;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import org.example.athlete_comparator.NBA.nba_dto.SeasonStatDTO;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Single-pass decoder for ESPN season-average payloads (.../statistics/0).
+ * Picks the 14 stats StatsService needs out of a streaming JsonParser, with the same rules as
+ * the old tree lookup: case-insensitive names, first match wins, splits.categories first.
+ */
+final class SeasonAverageDecoder {
+
+    private static final JsonFactory JSON = new JsonFactory();
+
+    private static final int GP = 0, MIN = 1, PTS = 2, AST = 3, REB = 4, STL = 5, BLK = 6, TOV = 7,
+            FGM = 8, FGA = 9, TPM = 10, TPA = 11, FTM = 12, FTA = 13, STAT_COUNT = 14;
+
+    private static final Map<String, Integer> STAT_INDEX = new HashMap<>();
+
+    static {
+        STAT_INDEX.put("gamesplayed", GP);
+        STAT_INDEX.put("avgminutes", MIN);
+        STAT_INDEX.put("avgpoints", PTS);
+        STAT_INDEX.put("avgassists", AST);
+        STAT_INDEX.put("avgrebounds", REB);
+        STAT_INDEX.put("avgsteals", STL);
+        STAT_INDEX.put("avgblocks", BLK);
+        STAT_INDEX.put("avgturnovers", TOV);
+        STAT_INDEX.put("avgfieldgoalsmade", FGM);
+        STAT_INDEX.put("avgfieldgoalsattempted", FGA);
+        STAT_INDEX.put("avgthreepointfieldgoalsmade", TPM);
+        STAT_INDEX.put("avgthreepointfieldgoalsattempted", TPA);
+        STAT_INDEX.put("avgfreethrowsmade", FTM);
+        STAT_INDEX.put("avgfreethrowsattempted", FTA);
+    }
+
+    /**
+     * Values collected from one "categories" array
+     */
+    private static final class Collected {
+        final double[] values = new double[STAT_COUNT];
+        final boolean[] found = new boolean[STAT_COUNT];
+    }
+
+    private SeasonAverageDecoder() {
+    }
+
+    /**
+     * Decodes a season-average payload into a SeasonStatDTO
+     * @param payload Raw response body
+     * @param season Season year the payload belongs to
+     * @param type 2 = Regular | 3 = Playoffs
+     * @return Mapped season, or null if the payload has no "splits" (no stats for that season/type)
+     * @throws IOException if the payload is not valid JSON
+     */
+    static SeasonStatDTO decode(byte[] payload, int season, int type) throws IOException {
+        try (JsonParser parser = JSON.createParser(payload)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                return null;
+            }
+
+            boolean hasSplits = false;
+            Collected fromSplits = null;
+            Collected fromRoot = null;
+
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.currentName();
+                JsonToken token = parser.nextToken();
+
+                if ("splits".equals(field)) {
+                    hasSplits = true;
+                    if (token == JsonToken.START_OBJECT) {
+                        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                            String splitField = parser.currentName();
+                            parser.nextToken();
+                            if ("categories".equals(splitField)) {
+                                fromSplits = readCategories(parser);
+                            } else {
+                                parser.skipChildren();
+                            }
+                        }
+                    } else {
+                        parser.skipChildren();
+                    }
+                } else if ("categories".equals(field)) {
+                    fromRoot = readCategories(parser);
+                } else {
+                    parser.skipChildren();
+                }
+            }
+
+            if (!hasSplits) {
+                return null;
+            }
+
+            Collected stats = fromSplits != null ? fromSplits : fromRoot;
+            return toDto(stats != null ? stats.values : new double[STAT_COUNT], season, type);
+        }
+    }
+
+    /**
+     * Reads a categories array (parser positioned on its first token) and collects the wanted stats
+     */
+    private static Collected readCategories(JsonParser parser) throws IOException {
+        Collected collected = new Collected();
+        if (parser.currentToken() != JsonToken.START_ARRAY) {
+            parser.skipChildren();
+            return collected;
+        }
+
+        while (parser.nextToken() != JsonToken.END_ARRAY) {
+            if (parser.currentToken() != JsonToken.START_OBJECT) {
+                parser.skipChildren();
+                continue;
+            }
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.currentName();
+                JsonToken token = parser.nextToken();
+                if ("stats".equals(field) && token == JsonToken.START_ARRAY) {
+                    while (parser.nextToken() != JsonToken.END_ARRAY) {
+                        readStat(parser, collected);
+                    }
+                } else {
+                    parser.skipChildren();
+                }
+            }
+        }
+        return collected;
+    }
+
+    /**
+     * Reads one stat object ({"name": ..., "value": ...}, fields in any order)
+     */
+    private static void readStat(JsonParser parser, Collected collected) throws IOException {
+        if (parser.currentToken() != JsonToken.START_OBJECT) {
+            parser.skipChildren();
+            return;
+        }
+
+        String name = null;
+        boolean hasValue = false;
+        double value = 0.0;
+        // A missing or null value counts as 0, text that is not a number means "keep looking"
+        boolean usable = true;
+
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            JsonToken token = parser.nextToken();
+
+            if ("name".equals(field)) {
+                name = token.isScalarValue() ? parser.getValueAsString() : null;
+                parser.skipChildren();
+            } else if ("value".equals(field)) {
+                hasValue = true;
+                if (token.isNumeric()) {
+                    value = parser.getDoubleValue();
+                } else if (token == JsonToken.VALUE_STRING) {
+                    try {
+                        value = Double.parseDouble(parser.getText());
+                    } catch (NumberFormatException e) {
+                        usable = false;
+                    }
+                } else if (token == JsonToken.VALUE_NULL) {
+                    value = 0.0;
+                } else {
+                    usable = false;
+                    parser.skipChildren();
+                }
+            } else {
+                parser.skipChildren();
+            }
+        }
+
+        if (name == null || !usable) return;
+        Integer index = STAT_INDEX.get(name.toLowerCase(Locale.ROOT));
+        if (index == null || collected.found[index]) return;
+
+        collected.values[index] = hasValue ? value : 0.0;
+        collected.found[index] = true;
+    }
+
+    private static SeasonStatDTO toDto(double[] v, int season, int type) {
+        SeasonStatDTO dto = new SeasonStatDTO();
+        dto.setSeason(season);
+        dto.setType(type);
+
+        dto.setGp((int) Math.rint(v[GP]));
+        dto.setMin(v[MIN]);
+        dto.setPts(v[PTS]);
+        dto.setAst(v[AST]);
+        dto.setReb(v[REB]);
+        dto.setStl(v[STL]);
+        dto.setBlk(v[BLK]);
+        dto.setTov(v[TOV]);
+
+        dto.setFgm(v[FGM]);
+        dto.setFga(v[FGA]);
+        dto.setTpm(v[TPM]);
+        dto.setTpa(v[TPA]);
+        dto.setFtm(v[FTM]);
+        dto.setFta(v[FTA]);
+
+        // afledte
+        double fga = v[FGA], fta = v[FTA];
+        double fgm = v[FGM], tpm = v[TPM];
+        double pts = v[PTS], mp = v[MIN];
+
+        dto.setTs((fga + 0.44 * fta) > 0 ? pts / (2.0 * (fga + 0.44 * fta)) : null);
+        dto.setEfg(fga > 0 ? (fgm + 0.5 * tpm) / fga : null);
+
+        if (mp > 0) {
+            dto.setPer75Pts(pts / mp * 75.0);
+            dto.setPer75Ast(v[AST] / mp * 75.0);
+            dto.setPer75Reb(v[REB] / mp * 75.0);
+        }
+
+        return dto;
+    }
+}
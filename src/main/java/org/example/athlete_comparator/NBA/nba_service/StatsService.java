@@ -3,8 +3,16 @@ package org.example.athlete_comparator.NBA.nba_service;
 import com.fasterxml.jackson.databind.JsonNode;
 import org.example.athlete_comparator.NBA.nba_client.EspnNBAStatsClient;
 import org.example.athlete_comparator.NBA.nba_dto.SeasonStatDTO;
+import org.example.athlete_comparator.NBA.nba_entity.SeasonStatEntity;
+import org.example.athlete_comparator.NBA.nba_repository.SeasonStatRepository;
+import org.example.athlete_comparator.shared_client.Deadline;
+import org.example.athlete_comparator.shared_client.ParallelFetcher;
 import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
 
+import java.io.IOException;
 import java.util.*;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
@@ -13,12 +21,20 @@ import java.util.regex.Pattern;
 public class StatsService {
 
     private final EspnNBAStatsClient espnNBAStatsClient;
+    private final ParallelFetcher parallelFetcher;
+    private final SeasonStatRepository seasonStatRepository;
     private static final org.slf4j.Logger log = org.slf4j.LoggerFactory.getLogger(StatsService.class);
     private static final Pattern TAIL_INT = Pattern.compile(".*/(\\d+)(?:\\?.*)?$");
     private static final Pattern TYPES_INT = Pattern.compile(".*/types/(\\d+)/.*");
 
-    public StatsService(EspnNBAStatsClient espnNBAStatsClient) {
+    private record SeasonRequest(int season, int type) {
+    }
+
+    public StatsService(EspnNBAStatsClient espnNBAStatsClient, ParallelFetcher parallelFetcher,
+                        SeasonStatRepository seasonStatRepository) {
         this.espnNBAStatsClient = espnNBAStatsClient;
+        this.parallelFetcher = parallelFetcher;
+        this.seasonStatRepository = seasonStatRepository;
     }
 
     private static int tail(JsonNode n) {
@@ -27,82 +43,117 @@ public class StatsService {
         return m.find() ? Integer.parseInt(m.group(1)) : -1;
     }
 
-    private static double nz(Double d) {
-        return d == null ? 0.0 : d;
+    /**
+     * Loads the stored seasons for an athlete, keyed by season and type.
+     * A database problem is logged and treated as "nothing stored" so ESPN is used instead.
+     */
+    private Map<SeasonRequest, SeasonStatEntity> loadStored(long athleteID, int[] types) {
+        Map<SeasonRequest, SeasonStatEntity> stored = new HashMap<>();
+        try {
+            List<Integer> typeList = Arrays.stream(types).boxed().toList();
+            for (SeasonStatEntity entity : seasonStatRepository.findByAthleteIdAndTypeIn(athleteID, typeList)) {
+                stored.put(new SeasonRequest(entity.getSeason(), entity.getType()), entity);
+            }
+        } catch (Exception e) {
+            log.warn("Could not read stored seasons for athlete {}: {}", athleteID, e.getMessage());
+        }
+        return stored;
     }
 
-    private static double r(double v) {
-        return Math.rint(v);
+    /**
+     * Persists newly fetched completed seasons in one batched insert
+     */
+    private void store(long athleteID, List<SeasonStatEntity> entities) {
+        if (entities.isEmpty()) return;
+        try {
+            seasonStatRepository.saveAll(entities);
+        } catch (Exception e) {
+            // Usually a concurrent request stored the same seasons first
+            log.debug("Could not store {} seasons for athlete {}: {}", entities.size(), athleteID, e.getMessage());
+        }
     }
 
-    private SeasonStatDTO mapAveragesToDto(JsonNode avg, int season, int type) {
-        SeasonStatDTO dto = new SeasonStatDTO();
-        dto.setSeason(season);
-        dto.setType(type);
-
-        dto.setGp((int) r(stat(avg, "gamesPlayed")));
-        dto.setMin(stat(avg, "avgMinutes"));
-        dto.setPts(stat(avg, "avgPoints"));
-        dto.setAst(stat(avg, "avgAssists"));
-        dto.setReb(stat(avg, "avgRebounds"));
-        dto.setStl(stat(avg, "avgSteals"));
-        dto.setBlk(stat(avg, "avgBlocks"));
-        dto.setTov(stat(avg, "avgTurnovers"));
-
-        dto.setFgm(stat(avg, "avgFieldGoalsMade"));
-        dto.setFga(stat(avg, "avgFieldGoalsAttempted"));
-        dto.setTpm(stat(avg, "avgThreePointFieldGoalsMade"));
-        dto.setTpa(stat(avg, "avgThreePointFieldGoalsAttempted"));
-        dto.setFtm(stat(avg, "avgFreeThrowsMade"));
-        dto.setFta(stat(avg, "avgFreeThrowsAttempted"));
-
-        // afledte
-        double fga = nz(dto.getFga()), fta = nz(dto.getFta());
-        double fgm = nz(dto.getFgm()), tpm = nz(dto.getTpm());
-        double pts = nz(dto.getPts()), mp  = nz(dto.getMin());
-
-        dto.setTs((fga + 0.44 * fta) > 0 ? pts / (2.0 * (fga + 0.44 * fta)) : null);
-        dto.setEfg(fga > 0 ? (fgm + 0.5 * tpm) / fga : null);
-
-        if (mp > 0) {
-            dto.setPer75Pts(pts / mp * 75.0);
-            dto.setPer75Ast(nz(dto.getAst()) / mp * 75.0);
-            dto.setPer75Reb(nz(dto.getReb()) / mp * 75.0);
-        }
+    /**
+     * @param type 2 = Regular | 3 = Playoffs | 0 = begge
+     */
 
-        return dto;
-    }
+    public List<SeasonStatDTO> getSeasonStats(long athleteID, int type) {
+        List<SeasonRequest> requests = plan(athleteID, espnNBAStatsClient.getStatisticsLog(athleteID), type);
+        if (requests.isEmpty()) return List.of();
 
-    private static double stat(JsonNode root, String name) {
-        JsonNode categories = root.path("splits").path("categories");
-        if (categories.isMissingNode()) {
-            categories = root.path("categories");
-        }
+        // Completed seasons never change, so anything already stored is served from the database
+        int currentSeason = EspnNBAStatsClient.currentSeason();
+        Map<SeasonRequest, SeasonStatEntity> stored = loadStored(athleteID, types(type));
+        List<SeasonRequest> missing = missing(requests, stored, currentSeason);
 
-        for (JsonNode cat : categories) {
-            for (JsonNode st : cat.path("stats")) {
-                if (name.equalsIgnoreCase(st.path("name").asText(""))) {
-                    JsonNode v = st.path("value");
-                    if (v.isNumber()) return v.asDouble();
-                    try { return Double.parseDouble(v.asText("0")); } catch (Exception ignored) {}
-                }
-            }
-        }
-        return 0.0;
+        // Fetch the rest concurrently; results come back in request order
+        List<byte[]> payloads = parallelFetcher.mapOrdered(missing,
+                req -> espnNBAStatsClient.getSeasonAveragePayload(athleteID, req.season(), req.type()));
+
+        List<SeasonStatEntity> toStore = new ArrayList<>();
+        Map<SeasonRequest, SeasonStatDTO> fetched = decode(athleteID, missing, payloads, currentSeason, toStore,
+                Deadline.current());
+        store(athleteID, toStore);
+        return assemble(requests, fetched, stored);
     }
 
     /**
-     * @param type 2 = Regular | 3 = Playoffs | 0 = begge
+     * Reactive counterpart of getSeasonStats. ESPN is called without blocking; the database
+     * reads and writes are blocking JPA calls and run on the bounded elastic scheduler.
      */
+    public Mono<List<SeasonStatDTO>> getSeasonStatsReactive(long athleteID, int type) {
+        return espnNBAStatsClient.getStatisticsLogReactive(athleteID)
+                .map(root -> plan(athleteID, root, type))
+                .switchIfEmpty(Mono.fromSupplier(() -> plan(athleteID, null, type)))
+                .flatMap(requests -> {
+                    if (requests.isEmpty()) return Mono.just(List.<SeasonStatDTO>of());
+                    int currentSeason = EspnNBAStatsClient.currentSeason();
+                    return Mono.fromCallable(() -> loadStored(athleteID, types(type)))
+                            .subscribeOn(Schedulers.boundedElastic())
+                            .flatMap(stored -> {
+                                List<SeasonRequest> missing = missing(requests, stored, currentSeason);
+                                // Optional keeps failed requests in place so payloads line up with missing
+                                return Flux.fromIterable(missing)
+                                        .flatMapSequential(req -> espnNBAStatsClient
+                                                .getSeasonAveragePayloadReactive(athleteID, req.season(), req.type())
+                                                .map(Optional::of)
+                                                .defaultIfEmpty(Optional.empty())
+                                                .onErrorResume(e -> Mono.deferContextual(ctx -> {
+                                                    log.debug("Type {} stats for season {} failed: {}",
+                                                            req.type(), req.season(), e.getMessage());
+                                                    Deadline.markPartial(ctx);
+                                                    return Mono.just(Optional.empty());
+                                                })))
+                                        .collectList()
+                                        .flatMap(results -> Mono.deferContextual(ctx -> {
+                                            List<byte[]> payloads = results.stream().map(p -> p.orElse(null)).toList();
+                                            List<SeasonStatEntity> toStore = new ArrayList<>();
+                                            Map<SeasonRequest, SeasonStatDTO> fetched =
+                                                    decode(athleteID, missing, payloads, currentSeason, toStore,
+                                                            Deadline.from(ctx));
+                                            return Mono.fromRunnable(() -> store(athleteID, toStore))
+                                                    .subscribeOn(Schedulers.boundedElastic())
+                                                    .thenReturn(assemble(requests, fetched, stored));
+                                        }));
+                            });
+                });
+    }
 
-    public List<SeasonStatDTO> getSeasonStats(long athleteID, int type) {
-        JsonNode root = espnNBAStatsClient.getStatisticsLog(athleteID);
-        
+    private static int[] types(int type) {
+        return type == 0 ? new int[]{2, 3} : new int[]{type};
+    }
+
+    /**
+     * One request per season in the statistics log and type: regular season before playoffs when
+     * both are wanted, oldest season first
+     * @return Requests to answer, empty if the log could not be fetched or has no entries
+     */
+    private List<SeasonRequest> plan(long athleteID, JsonNode root, int type) {
         if (root == null) {
             log.warn("Failed to fetch statisticslog for athlete {}", athleteID);
             return List.of();
         }
-        
+
         JsonNode entries = root.path("entries");
 
         if (!entries.isArray() || entries.isEmpty()) {
@@ -110,56 +161,102 @@ public class StatsService {
             return List.of();
         }
 
-        List<SeasonStatDTO> out = new ArrayList<>();
-        
-        // Collect unique seasons
-        Set<Integer> seasons = new HashSet<>();
+        // Collect unique seasons, oldest first
+        Set<Integer> seasons = new TreeSet<>();
         for (JsonNode entry : entries) {
             int season = tail(entry.path("season"));
             if (season > 0) {
                 seasons.add(season);
             }
         }
-        
-        // Fetch stats for each season based on requested type
-        if (type == 0) {
-            // Fetch both regular season and playoffs
-            for (int season : seasons) {
-                // Try regular season (type 2)
-                try {
-                    JsonNode regularStats = espnNBAStatsClient.getSeasonAverage(athleteID, season, 2);
-                    if (regularStats != null && !regularStats.path("splits").isMissingNode()) {
-                        out.add(mapAveragesToDto(regularStats, season, 2));
-                    }
-                } catch (Exception e) {
-                    log.debug("No regular season stats for season {}: {}", season, e.getMessage());
-                }
-                
-                // Try playoffs (type 3)
-                try {
-                    JsonNode playoffStats = espnNBAStatsClient.getSeasonAverage(athleteID, season, 3);
-                    if (playoffStats != null && !playoffStats.path("splits").isMissingNode()) {
-                        out.add(mapAveragesToDto(playoffStats, season, 3));
-                    }
-                } catch (Exception e) {
-                    log.debug("No playoff stats for season {}: {}", season, e.getMessage());
+
+        List<SeasonRequest> requests = new ArrayList<>();
+        for (int season : seasons) {
+            for (int t : types(type)) {
+                requests.add(new SeasonRequest(season, t));
+            }
+        }
+        return requests;
+    }
+
+    /**
+     * @return The current season and every completed season that is not stored yet
+     */
+    private static List<SeasonRequest> missing(List<SeasonRequest> requests,
+                                               Map<SeasonRequest, SeasonStatEntity> stored, int currentSeason) {
+        List<SeasonRequest> missing = new ArrayList<>();
+        for (SeasonRequest req : requests) {
+            if (req.season() >= currentSeason || !stored.containsKey(req)) {
+                missing.add(req);
+            }
+        }
+        return missing;
+    }
+
+    /**
+     * Decodes the fetched payloads, in the same order as missing
+     * @param toStore Receives the completed seasons worth persisting
+     * @param deadline Request's deadline, marked partial if a season could not be fetched; may be null
+     * @return Decoded seasons, keyed by request
+     */
+    private static Map<SeasonRequest, SeasonStatDTO> decode(long athleteID, List<SeasonRequest> missing,
+                                                            List<byte[]> payloads, int currentSeason,
+                                                            List<SeasonStatEntity> toStore, Deadline deadline) {
+        Map<SeasonRequest, SeasonStatDTO> fetched = new HashMap<>();
+        for (int i = 0; i < missing.size(); i++) {
+            SeasonRequest req = missing.get(i);
+            SeasonStatDTO dto;
+            try {
+                byte[] payload = payloads.get(i);
+                if (payload == null) {
+                    // Request failed, nothing is stored so the next call tries again, and the
+                    // answer without this season must not be cached as complete
+                    log.debug("No type {} stats for season {}", req.type(), req.season());
+                    if (deadline != null) deadline.markPartial();
+                    continue;
                 }
+                dto = SeasonAverageDecoder.decode(payload, req.season(), req.type());
+            } catch (IOException e) {
+                log.debug("Unreadable type {} stats for season {}: {}", req.type(), req.season(), e.getMessage());
+                if (deadline != null) deadline.markPartial();
+                continue;
             }
-        } else {
-            // Fetch specific type (2 or 3) for all seasons
-            for (int season : seasons) {
-                try {
-                    JsonNode stats = espnNBAStatsClient.getSeasonAverage(athleteID, season, type);
-                    if (stats != null && !stats.path("splits").isMissingNode()) {
-                        out.add(mapAveragesToDto(stats, season, type));
-                    }
-                } catch (Exception e) {
-                    log.debug("No type {} stats for season {}: {}", type, season, e.getMessage());
+
+            boolean completed = req.season() < currentSeason;
+            if (dto == null) {
+                // ESPN answered, but there are no splits for this season and type
+                if (completed) {
+                    toStore.add(SeasonStatEntity.unavailable(athleteID, req.season(), req.type()));
                 }
+                continue;
+            }
+
+            fetched.put(req, dto);
+            if (completed) {
+                toStore.add(SeasonStatEntity.of(athleteID, dto));
             }
         }
+        return fetched;
+    }
 
-        out.sort(Comparator.comparingInt(SeasonStatDTO::getSeason));
+    /**
+     * @return Seasons in request order, fresh from ESPN where fetched and from the database otherwise
+     */
+    private static List<SeasonStatDTO> assemble(List<SeasonRequest> requests, Map<SeasonRequest, SeasonStatDTO> fetched,
+                                                Map<SeasonRequest, SeasonStatEntity> stored) {
+        List<SeasonStatDTO> out = new ArrayList<>();
+        for (SeasonRequest req : requests) {
+            SeasonStatDTO dto = fetched.get(req);
+            if (dto == null) {
+                SeasonStatEntity entity = stored.get(req);
+                if (entity != null && entity.isAvailable()) {
+                    dto = entity.toDto();
+                }
+            }
+            if (dto != null) {
+                out.add(dto);
+            }
+        }
         return out;
     }
-}
\ No newline at end of file
+}
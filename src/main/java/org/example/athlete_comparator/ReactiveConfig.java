@@ -0,0 +1,48 @@
+package org.example.athlete_comparator;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Configuration;
+import reactor.core.publisher.Hooks;
+
+import java.util.concurrent.CancellationException;
+
+/**
+ * Reactor settings for the reactive compare variant, active when reactive.enabled is set.
+ *
+ * Cancelling a WebClient exchange (a failed zip, a client that left) fails the JDK client's
+ * future after Reactor has let go of it. The onErrorDropped hook logs those at DEBUG instead of
+ * ERROR, and is removed again on shutdown.
+ */
+@Configuration
+@ConditionalOnProperty(name = "reactive.enabled", havingValue = "true")
+public class ReactiveConfig {
+
+    private static final Logger log = LoggerFactory.getLogger(ReactiveConfig.class);
+
+    @PostConstruct
+    void installErrorDroppedHook() {
+        Hooks.onErrorDropped(e -> {
+            if (isCancellation(e)) {
+                log.debug("Ignored error from a cancelled exchange: {}", e.toString());
+            } else {
+                log.warn("Error dropped by a reactive pipeline", e);
+            }
+        });
+    }
+
+    @PreDestroy
+    void resetErrorDroppedHook() {
+        Hooks.resetOnErrorDropped();
+    }
+
+    private static boolean isCancellation(Throwable e) {
+        for (Throwable t = e; t != null; t = t.getCause()) {
+            if (t instanceof CancellationException) return true;
+        }
+        return false;
+    }
+}
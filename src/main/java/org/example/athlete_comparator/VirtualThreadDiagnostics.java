@@ -0,0 +1,183 @@
+package org.example.athlete_comparator;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import jdk.jfr.FlightRecorder;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordingStream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadInfo;
+import java.lang.management.ThreadMXBean;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+/**
+ * Visibility into how the virtual threads that serve requests and fan-out are doing.
+ *
+ * Pinning is counted by Micrometer as jvm.threads.virtual.pinned. This class adds the where:
+ * each distinct stack pinned for longer than diagnostics.virtual-threads.pinned-threshold-ms
+ * is logged once at WARN.
+ *
+ * With diagnostics.virtual-threads.sample-carriers=true the carrier threads are also sampled
+ * every diagnostics.virtual-threads.sample-ms and published as gauges and as the JFR event
+ * athlete_comparator.CarrierUtilization:
+ * - jvm.threads.virtual.parallelism: target number of carriers
+ * - jvm.threads.virtual.carriers: carriers alive
+ * - jvm.threads.virtual.carriers.mounted: carriers running a virtual thread at the sample
+ * - jvm.threads.virtual.carriers.utilization: carrier CPU time over the interval / parallelism
+ * Sampling relies on JDK internals: carriers are found by their ForkJoinPool worker names and
+ * count as mounted while VirtualThread.runContinuation is on their stack. It is off by default.
+ */
+@Component
+public class VirtualThreadDiagnostics {
+
+    private static final Logger log = LoggerFactory.getLogger(VirtualThreadDiagnostics.class);
+    private static final String PINNED_EVENT = "jdk.VirtualThreadPinned";
+    private static final int MAX_LOGGED_SITES = 100;
+    private static final int LOGGED_FRAMES = 12;
+    // Name the JDK gives the workers of its virtual-thread scheduler (and of other unnamed ForkJoinPools)
+    private static final Pattern CARRIER_NAME = Pattern.compile("ForkJoinPool-\\d+-worker-\\d+");
+    private static final int CARRIER_FRAMES = 8;
+
+    private final ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+    private final int parallelism = Integer.getInteger("jdk.virtualThreadScheduler.parallelism",
+            Runtime.getRuntime().availableProcessors());
+    private final Set<String> loggedSites = ConcurrentHashMap.newKeySet();
+    private final Runnable jfrHook = this::emitJfrEvent;
+    private final RecordingStream pinnedStream;
+    private final boolean sampleCarriers;
+
+    private volatile int carriers;
+    private volatile int mounted;
+    private volatile double cpuUtilization;
+    private long lastCpuNanos = -1;
+    private long lastSampleNanos;
+
+    public VirtualThreadDiagnostics(@Value("${diagnostics.virtual-threads.log-pinned:true}") boolean logPinned,
+                                    @Value("${diagnostics.virtual-threads.pinned-threshold-ms:20}") long pinnedThresholdMs,
+                                    @Value("${diagnostics.virtual-threads.sample-carriers:false}") boolean sampleCarriers,
+                                    MeterRegistry meterRegistry) {
+        this.sampleCarriers = sampleCarriers;
+        this.pinnedStream = logPinned ? startPinnedStream(Duration.ofMillis(pinnedThresholdMs)) : null;
+        Gauge.builder("jvm.threads.virtual.parallelism", () -> parallelism)
+                .description("Target number of carrier threads for virtual threads")
+                .register(meterRegistry);
+        if (!sampleCarriers) return;
+
+        Gauge.builder("jvm.threads.virtual.carriers", () -> carriers)
+                .description("Carrier threads alive")
+                .register(meterRegistry);
+        Gauge.builder("jvm.threads.virtual.carriers.mounted", () -> mounted)
+                .description("Carrier threads running a virtual thread when last sampled")
+                .register(meterRegistry);
+        Gauge.builder("jvm.threads.virtual.carriers.utilization", () -> cpuUtilization)
+                .description("Carrier CPU time over the last sample interval, relative to parallelism")
+                .register(meterRegistry);
+
+        FlightRecorder.addPeriodicEvent(CarrierUtilizationEvent.class, jfrHook);
+    }
+
+    private RecordingStream startPinnedStream(Duration threshold) {
+        try {
+            RecordingStream stream = new RecordingStream();
+            stream.enable(PINNED_EVENT).withThreshold(threshold).withStackTrace();
+            stream.onEvent(PINNED_EVENT, this::logPinned);
+            stream.startAsync();
+            return stream;
+        } catch (RuntimeException e) {
+            // JFR can be missing or disabled in some runtimes; metrics still work without it
+            log.info("Pinned virtual thread logging unavailable: {}", e.getMessage());
+            return null;
+        }
+    }
+
+    private void logPinned(RecordedEvent event) {
+        if (event.getStackTrace() == null) return;
+        List<RecordedFrame> frames = event.getStackTrace().getFrames();
+        String site = frames.stream()
+                .limit(LOGGED_FRAMES)
+                .map(f -> f.getMethod().getType().getName() + "." + f.getMethod().getName() + ":" + f.getLineNumber())
+                .collect(Collectors.joining("\n    "));
+        if (loggedSites.size() >= MAX_LOGGED_SITES || !loggedSites.add(site)) return;
+        log.warn("Virtual thread {} pinned its carrier for {} ms at\n    {}",
+                event.getThread() != null ? event.getThread().getJavaName() : "?",
+                event.getDuration().toMillis(), site);
+    }
+
+    /**
+     * Samples the carrier threads. They are platform threads of the JDK's virtual-thread
+     * scheduler, so their CPU time covers whatever virtual threads ran on them.
+     * Only the carriers' stacks are read, and only their top frames.
+     */
+    @Scheduled(fixedDelayString = "${diagnostics.virtual-threads.sample-ms:5000}")
+    public void sample() {
+        if (!sampleCarriers) return;
+        // Names only, no stacks, to find the carriers among all platform threads
+        long[] carrierIds = Arrays.stream(threads.getThreadInfo(threads.getAllThreadIds(), 0))
+                .filter(info -> info != null && CARRIER_NAME.matcher(info.getThreadName()).matches())
+                .mapToLong(ThreadInfo::getThreadId)
+                .toArray();
+
+        int alive = 0;
+        int running = 0;
+        long cpuNanos = 0;
+        for (ThreadInfo info : threads.getThreadInfo(carrierIds, CARRIER_FRAMES)) {
+            if (info == null) continue; // exited since the first call
+            alive++;
+            if (isMounted(info.getStackTrace())) running++;
+            long cpu = threads.isThreadCpuTimeSupported() ? threads.getThreadCpuTime(info.getThreadId()) : -1;
+            if (cpu > 0) cpuNanos += cpu;
+        }
+        // This job may itself be running on a virtual thread, which should not count
+        if (Thread.currentThread().isVirtual() && running > 0) running--;
+
+        long now = System.nanoTime();
+        if (lastCpuNanos >= 0 && now > lastSampleNanos) {
+            // Carriers that exited since the last sample take their CPU time with them
+            long used = Math.max(0, cpuNanos - lastCpuNanos);
+            cpuUtilization = Math.min(1.0, (double) used / ((now - lastSampleNanos) * (double) parallelism));
+        }
+        lastCpuNanos = cpuNanos;
+        lastSampleNanos = now;
+        carriers = alive;
+        mounted = running;
+    }
+
+    private static boolean isMounted(StackTraceElement[] stack) {
+        for (StackTraceElement frame : stack) {
+            if ("java.lang.VirtualThread".equals(frame.getClassName()) && "runContinuation".equals(frame.getMethodName())
+                    || "jdk.internal.vm.Continuation".equals(frame.getClassName()) && "run".equals(frame.getMethodName())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void emitJfrEvent() {
+        CarrierUtilizationEvent event = new CarrierUtilizationEvent();
+        event.parallelism = parallelism;
+        event.carriers = carriers;
+        event.mounted = mounted;
+        event.cpuUtilization = cpuUtilization;
+        event.commit();
+    }
+
+    @PreDestroy
+    public void close() {
+        if (sampleCarriers) FlightRecorder.removePeriodicEvent(jfrHook);
+        if (pinnedStream != null) pinnedStream.close();
+    }
+}
@@ -1,19 +1,58 @@
 package org.example.athlete_comparator;
 
+import org.example.athlete_comparator.shared_api.DeadlineInterceptor;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.support.TaskExecutorAdapter;
+import org.springframework.web.servlet.config.annotation.AsyncSupportConfigurer;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
 import org.springframework.web.servlet.config.annotation.ResourceHandlerRegistry;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
 
+import java.util.concurrent.ExecutorService;
+
 /**
  * Web configuration class for customizing Spring MVC behavior.
-
+ *
  * This configuration tells Spring Boot where to find static resources like
  * CSS stylesheets and JavaScript files. Without this, requests to URLs like
  * /stylesheet/nba_styles.css or /js/nba.app.js wouldn't know where to look.
+ *
+ * It also registers DeadlineInterceptor and hands async responses to the fan-out executor.
  */
 @Configuration
 public class WebConfig implements WebMvcConfigurer {
 
+    private final DeadlineInterceptor deadlineInterceptor;
+    private final ExecutorService fanOutExecutor;
+
+    public WebConfig(DeadlineInterceptor deadlineInterceptor,
+                     @Qualifier("fanOutExecutor") ExecutorService fanOutExecutor) {
+        this.deadlineInterceptor = deadlineInterceptor;
+        this.fanOutExecutor = fanOutExecutor;
+    }
+
+    /**
+     * Registers the interceptor that starts each API request's deadline.
+     *
+     * @param registry The InterceptorRegistry to configure
+     */
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(deadlineInterceptor).addPathPatterns("/api/**");
+    }
+
+    /**
+     * Spring MVC writes streamed Flux responses from a task executor. The fan-out executor's
+     * bean makes Boot skip its own, so without this MVC falls back to SimpleAsyncTaskExecutor.
+     *
+     * @param configurer The AsyncSupportConfigurer to configure
+     */
+    @Override
+    public void configureAsyncSupport(AsyncSupportConfigurer configurer) {
+        configurer.setTaskExecutor(new TaskExecutorAdapter(fanOutExecutor));
+    }
+
     /**
      * Registers resource handlers to serve static files.
      * Maps URL patterns to actual file locations in the classpath (src/main/resources).
@@ -0,0 +1,16 @@
+package org.example.athlete_comparator.shared_api;
+
+/**
+ * How long browsers and the CDN may reuse a read endpoint's response before revalidating it.
+ * The actual max-age for each policy is configured under http.cache.*.
+ */
+public enum CachePolicy {
+    /** Always revalidate with the ETag before reuse */
+    REVALIDATE,
+    /** Search results, seconds to a minute */
+    SEARCH,
+    /** Data that changes during a season or after each fight */
+    SHORT,
+    /** Data that effectively never changes: bios, accolades, completed seasons */
+    LONG
+}
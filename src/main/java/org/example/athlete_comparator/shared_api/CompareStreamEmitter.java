@@ -0,0 +1,145 @@
+package org.example.athlete_comparator.shared_api;
+
+import org.example.athlete_comparator.shared_client.Deadline;
+import org.example.athlete_comparator.shared_dto.CompareResultDTO;
+import org.example.athlete_comparator.shared_service.CompareStreamListener;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.codec.ServerSentEvent;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.function.Function;
+
+/**
+ * Runs a streamed comparison in the background and forwards it to the browser as server-sent events.
+ *
+ * Events sent, in order:
+ * - "token": raw text from OpenAI as it is generated
+ * - "section": {"field": ..., "value": ...} each time a section of the answer is complete
+ * - "result": the final CompareResultDTO, after which the stream is closed
+ * If the browser goes away the comparison still finishes, so the result ends up in the cache.
+ */
+@Component
+public class CompareStreamEmitter {
+
+    private static final Logger log = LoggerFactory.getLogger(CompareStreamEmitter.class);
+    private final ExecutorService executor;
+    private final long timeoutMs;
+
+    public CompareStreamEmitter(@Qualifier("fanOutExecutor") ExecutorService executor,
+                                @Value("${compare.stream.timeout-ms:120000}") long timeoutMs) {
+        this.executor = executor;
+        this.timeoutMs = timeoutMs;
+    }
+
+    /**
+     * Starts a comparison and returns the emitter it streams to
+     * @param compare Runs the comparison, reporting progress to the given listener
+     * @return SseEmitter for the controller to return
+     */
+    public SseEmitter stream(Function<CompareStreamListener, CompareResultDTO> compare) {
+        SseEmitter emitter = new SseEmitter(timeoutMs);
+        Forwarder forwarder = new Forwarder(emitter);
+        emitter.onCompletion(() -> forwarder.open = false);
+        emitter.onTimeout(() -> forwarder.open = false);
+        emitter.onError(e -> forwarder.open = false);
+
+        // The comparison keeps running under the request's deadline after the request thread returns
+        Deadline deadline = Deadline.current();
+        executor.execute(() -> {
+            Deadline.Binding binding = deadline != null ? deadline.bind() : null;
+            try {
+                CompareResultDTO result = compare.apply(forwarder);
+                forwarder.send("result", result);
+                emitter.complete();
+            } catch (Exception e) {
+                log.error("Streamed comparison failed", e);
+                emitter.completeWithError(e);
+            } finally {
+                if (binding != null) binding.close();
+            }
+        });
+        return emitter;
+    }
+
+    /**
+     * Reactive counterpart of stream(), for controllers that return a Flux. The comparison is
+     * subscribed to on its own, under the calling thread's Deadline, so it also keeps running
+     * after the client goes away.
+     * @param compare Creates the comparison, reporting progress to the given listener
+     * @return Events for the controller to return
+     */
+    public Flux<ServerSentEvent<Object>> streamReactive(Function<CompareStreamListener, Mono<CompareResultDTO>> compare) {
+        Sinks.Many<ServerSentEvent<Object>> events = Sinks.many().unicast().onBackpressureBuffer();
+        CompareStreamListener listener = new CompareStreamListener() {
+            @Override
+            public void onToken(String text) {
+                events.tryEmitNext(event("token", Map.of("text", text)));
+            }
+
+            @Override
+            public void onSection(String field, String value) {
+                events.tryEmitNext(event("section", Map.of("field", field, "value", value)));
+            }
+        };
+
+        compare.apply(listener)
+                .contextWrite(Deadline.toContext())
+                .subscribe(result -> {
+                    events.tryEmitNext(event("result", result));
+                    events.tryEmitComplete();
+                }, e -> {
+                    log.error("Streamed comparison failed", e);
+                    events.tryEmitError(e);
+                });
+        return events.asFlux().take(Duration.ofMillis(timeoutMs));
+    }
+
+    private static ServerSentEvent<Object> event(String name, Object data) {
+        return ServerSentEvent.builder(data).event(name).build();
+    }
+
+    /**
+     * Listener that writes to the emitter until the client disconnects
+     */
+    private static class Forwarder implements CompareStreamListener {
+
+        private final SseEmitter emitter;
+        private volatile boolean open = true;
+
+        Forwarder(SseEmitter emitter) {
+            this.emitter = emitter;
+        }
+
+        @Override
+        public void onToken(String text) {
+            send("token", Map.of("text", text));
+        }
+
+        @Override
+        public void onSection(String field, String value) {
+            send("section", Map.of("field", field, "value", value));
+        }
+
+        void send(String name, Object data) {
+            if (!open) return;
+            try {
+                emitter.send(SseEmitter.event().name(name).data(data));
+            } catch (IOException | IllegalStateException e) {
+                // Client went away, keep comparing so the result is cached
+                open = false;
+                log.debug("Stopped streaming comparison: {}", e.getMessage());
+            }
+        }
+    }
+}
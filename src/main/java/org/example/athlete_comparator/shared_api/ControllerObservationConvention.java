@@ -0,0 +1,30 @@
+package org.example.athlete_comparator.shared_api;
+
+import io.micrometer.common.KeyValue;
+import io.micrometer.common.KeyValues;
+import org.springframework.http.server.observation.DefaultServerRequestObservationConvention;
+import org.springframework.http.server.observation.ServerRequestObservationContext;
+import org.springframework.stereotype.Component;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerMapping;
+
+/**
+ * Adds the handling controller and method to the http.server.requests timers, so latency
+ * can be broken down per controller (e.g. controller=AthleteController, handler=getSeasonStats)
+ * next to the standard uri, status and outcome tags.
+ */
+@Component
+public class ControllerObservationConvention extends DefaultServerRequestObservationConvention {
+
+    @Override
+    public KeyValues getLowCardinalityKeyValues(ServerRequestObservationContext context) {
+        String controller = "none";
+        String handler = "none";
+        if (context.getCarrier().getAttribute(HandlerMapping.BEST_MATCHING_HANDLER_ATTRIBUTE) instanceof HandlerMethod method) {
+            controller = method.getBeanType().getSimpleName();
+            handler = method.getMethod().getName();
+        }
+        return super.getLowCardinalityKeyValues(context)
+                .and(KeyValue.of("controller", controller), KeyValue.of("handler", handler));
+    }
+}
@@ -0,0 +1,94 @@
+package org.example.athlete_comparator.shared_api;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.example.athlete_comparator.shared_client.Deadline;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+
+import java.time.Duration;
+
+/**
+ * Starts the Deadline of every API request before the controller runs.
+ *
+ * The budget depends on the endpoint:
+ * - searches:    request.deadline.search-ms
+ * - comparisons: request.deadline.compare-ms (these include the OpenAI call)
+ * - everything else under /api: request.deadline.default-ms
+ * X-Request-Deadline-Ms asks for a different budget, capped at request.deadline.max-ms.
+ */
+@Component
+public class DeadlineInterceptor implements AsyncHandlerInterceptor {
+
+    /**
+     * Request header holding the client's own time budget in milliseconds
+     */
+    public static final String HEADER = "X-Request-Deadline-Ms";
+
+    private static final String BINDING = DeadlineInterceptor.class.getName() + ".binding";
+
+    private final long defaultMs;
+    private final long searchMs;
+    private final long compareMs;
+    private final long maxMs;
+
+    public DeadlineInterceptor(@Value("${request.deadline.default-ms:8000}") long defaultMs,
+                               @Value("${request.deadline.search-ms:2000}") long searchMs,
+                               @Value("${request.deadline.compare-ms:60000}") long compareMs,
+                               @Value("${request.deadline.max-ms:60000}") long maxMs) {
+        this.defaultMs = defaultMs;
+        this.searchMs = searchMs;
+        this.compareMs = compareMs;
+        this.maxMs = maxMs;
+    }
+
+    /**
+     * @param request The incoming request
+     * @return Time budget for the request in milliseconds
+     */
+    long budgetMs(HttpServletRequest request) {
+        String header = request.getHeader(HEADER);
+        if (header != null) {
+            try {
+                long requested = Long.parseLong(header.trim());
+                if (requested > 0) return Math.min(requested, maxMs);
+            } catch (NumberFormatException ignored) {
+                // Fall back to the endpoint's budget
+            }
+        }
+
+        String path = request.getRequestURI();
+        if (path.endsWith("/search")) return searchMs;
+        if (path.contains("/compare")) return compareMs;
+        return defaultMs;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (handler instanceof HandlerMethod && request.getRequestURI().startsWith("/api/")) {
+            Deadline deadline = Deadline.after(Duration.ofMillis(budgetMs(request)));
+            request.setAttribute(BINDING, deadline.bind());
+        }
+        return true;
+    }
+
+    @Override
+    public void afterConcurrentHandlingStarted(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        // Streaming responses continue on another thread, which took the deadline with it
+        unbind(request);
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        unbind(request);
+    }
+
+    private static void unbind(HttpServletRequest request) {
+        if (request.getAttribute(BINDING) instanceof Deadline.Binding binding) {
+            request.removeAttribute(BINDING);
+            binding.close();
+        }
+    }
+}
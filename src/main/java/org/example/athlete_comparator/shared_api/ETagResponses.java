@@ -0,0 +1,118 @@
+package org.example.athlete_comparator.shared_api;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.example.athlete_comparator.shared_client.Deadline;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.HexFormat;
+
+/**
+ * Builds responses carrying an ETag derived from the body.
+ *
+ * The tag is a hash of the JSON the client would receive; a matching If-None-Match gets a 304.
+ * Cache-Control comes from the response's CachePolicy, except that responses cut short by the
+ * request's Deadline are sent with no-store, so a partial body is never reused.
+ */
+@Component
+public class ETagResponses {
+
+    private final ObjectMapper objectMapper;
+    private final Duration searchMaxAge;
+    private final Duration shortMaxAge;
+    private final Duration longMaxAge;
+
+    public ETagResponses(ObjectMapper objectMapper,
+                         @Value("${http.cache.search-max-age:60}") long searchMaxAgeSeconds,
+                         @Value("${http.cache.short-max-age:300}") long shortMaxAgeSeconds,
+                         @Value("${http.cache.long-max-age:86400}") long longMaxAgeSeconds) {
+        this.objectMapper = objectMapper;
+        this.searchMaxAge = Duration.ofSeconds(searchMaxAgeSeconds);
+        this.shortMaxAge = Duration.ofSeconds(shortMaxAgeSeconds);
+        this.longMaxAge = Duration.ofSeconds(longMaxAgeSeconds);
+    }
+
+    /**
+     * Computes the ETag for a response body
+     * @param body Object that will be serialized as the response
+     * @return Quoted strong entity tag
+     */
+    public String eTag(Object body) {
+        try {
+            byte[] json = objectMapper.writeValueAsBytes(body);
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(json);
+            return "\"" + HexFormat.of().formatHex(hash, 0, 16) + "\"";
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Cannot serialize response body", e);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    /**
+     * Checks an If-None-Match header against an entity tag
+     * @param ifNoneMatch Header value, may be null
+     * @param eTag Current entity tag
+     * @return true if the client's copy is current
+     */
+    static boolean matches(String ifNoneMatch, String eTag) {
+        if (ifNoneMatch == null || ifNoneMatch.isBlank()) return false;
+        for (String candidate : ifNoneMatch.split(",")) {
+            String tag = candidate.trim();
+            if (tag.equals("*")) return true;
+            // Weak comparison, proxies may have weakened the tag
+            if (tag.startsWith("W/")) tag = tag.substring(2);
+            if (tag.equals(eTag)) return true;
+        }
+        return false;
+    }
+
+    /**
+     * Wraps a body in a 200 with ETag, or a bodiless 304 if the client already has it.
+     * Browsers keep the response but revalidate it on every use.
+     *
+     * @param body Response body
+     * @param ifNoneMatch The request's If-None-Match header, may be null
+     * @return Response entity to return from the controller
+     */
+    public <T> ResponseEntity<T> respond(T body, String ifNoneMatch) {
+        return respond(body, ifNoneMatch, CachePolicy.REVALIDATE);
+    }
+
+    /**
+     * Wraps a body in a 200 with ETag and the policy's Cache-Control, or a bodiless 304
+     * if the client already has it
+     *
+     * @param body Response body
+     * @param ifNoneMatch The request's If-None-Match header, may be null
+     * @param policy How long the response may be reused without revalidation
+     * @return Response entity to return from the controller
+     */
+    public <T> ResponseEntity<T> respond(T body, String ifNoneMatch, CachePolicy policy) {
+        if (Deadline.isCurrentPartial()) {
+            return ResponseEntity.ok().cacheControl(CacheControl.noStore()).body(body);
+        }
+        String eTag = eTag(body);
+        CacheControl cacheControl = cacheControl(policy);
+        if (matches(ifNoneMatch, eTag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(eTag).cacheControl(cacheControl).build();
+        }
+        return ResponseEntity.ok().eTag(eTag).cacheControl(cacheControl).body(body);
+    }
+
+    private CacheControl cacheControl(CachePolicy policy) {
+        return switch (policy) {
+            case REVALIDATE -> CacheControl.noCache();
+            case SEARCH -> CacheControl.maxAge(searchMaxAge).cachePublic();
+            case SHORT -> CacheControl.maxAge(shortMaxAge).cachePublic();
+            case LONG -> CacheControl.maxAge(longMaxAge).cachePublic();
+        };
+    }
+}
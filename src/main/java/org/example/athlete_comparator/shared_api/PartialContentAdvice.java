@@ -0,0 +1,51 @@
+package org.example.athlete_comparator.shared_api;
+
+import org.example.athlete_comparator.shared_client.Deadline;
+import org.springframework.core.MethodParameter;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyAdvice;
+
+/**
+ * Flags responses that are missing data because the request's Deadline ran out,
+ * with "X-Partial-Content: true". The body itself is whatever could be gathered in time.
+ */
+@ControllerAdvice
+public class PartialContentAdvice implements ResponseBodyAdvice<Object> {
+
+    public static final String HEADER = "X-Partial-Content";
+
+    /**
+     * For async handlers: their body is written after the request's Deadline was unbound, so the
+     * header is set from the deadline the handler captured instead
+     * @param deadline Deadline of the request, may be null
+     * @param body Response body
+     * @return 200 response, with the header if the deadline is partial
+     */
+    public static <T> ResponseEntity<T> respond(Deadline deadline, T body) {
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (deadline != null && deadline.isPartial()) {
+            response.header(HEADER, "true");
+        }
+        return response.body(body);
+    }
+
+    @Override
+    public boolean supports(MethodParameter returnType, Class<? extends HttpMessageConverter<?>> converterType) {
+        return true;
+    }
+
+    @Override
+    public Object beforeBodyWrite(Object body, MethodParameter returnType, MediaType selectedContentType,
+                                  Class<? extends HttpMessageConverter<?>> selectedConverterType,
+                                  ServerHttpRequest request, ServerHttpResponse response) {
+        if (Deadline.isCurrentPartial()) {
+            response.getHeaders().set(HEADER, "true");
+        }
+        return body;
+    }
+}
@@ -0,0 +1,42 @@
+package org.example.athlete_comparator.shared_api;
+
+import org.example.athlete_comparator.shared_client.DeadlineExceededException;
+import org.example.athlete_comparator.shared_client.UpstreamUnavailableException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+import org.springframework.web.client.RestClientException;
+import org.springframework.web.reactive.function.client.WebClientException;
+
+import java.util.Map;
+
+/**
+ * Turns a call rejected by UpstreamGuard into 503 Service Unavailable with a Retry-After,
+ * instead of a generic 500, so clients know to back off and try again. A request whose
+ * Deadline passed before anything usable was gathered ends in 504 Gateway Timeout, and a
+ * failed upstream call that nothing could stand in for ends in 502 Bad Gateway.
+ */
+@RestControllerAdvice
+public class UpstreamExceptionHandler {
+
+    @ExceptionHandler(UpstreamUnavailableException.class)
+    public ResponseEntity<Map<String, String>> upstreamUnavailable(UpstreamUnavailableException e) {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(e.getRetryAfterSeconds()))
+                .body(Map.of("error", "Upstream temporarily unavailable, please retry shortly"));
+    }
+
+    @ExceptionHandler(DeadlineExceededException.class)
+    public ResponseEntity<Map<String, String>> deadlineExceeded(DeadlineExceededException e) {
+        return ResponseEntity.status(HttpStatus.GATEWAY_TIMEOUT)
+                .body(Map.of("error", "The request ran out of time, please retry"));
+    }
+
+    @ExceptionHandler({RestClientException.class, WebClientException.class})
+    public ResponseEntity<Map<String, String>> upstreamFailed(RuntimeException e) {
+        return ResponseEntity.status(HttpStatus.BAD_GATEWAY)
+                .body(Map.of("error", "Upstream request failed, please retry"));
+    }
+}
@@ -0,0 +1,143 @@
+package org.example.athlete_comparator.shared_client;
+
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Count-based circuit breaker for one upstream endpoint family.
+ *
+ * CLOSED: outcomes fill a ring of the last windowSize calls; once minCalls are recorded and
+ * the failure share reaches failureRateThreshold, the breaker opens.
+ * OPEN: calls are rejected for openNanos.
+ * HALF_OPEN: up to halfOpenCalls trial calls; all succeed closes it, one failure reopens it.
+ * State is guarded by a ReentrantLock, so virtual threads waiting on it do not pin.
+ */
+final class CircuitBreaker {
+
+    enum State { CLOSED, OPEN, HALF_OPEN }
+
+    private final int windowSize;
+    private final int minCalls;
+    private final double failureRateThreshold;
+    private final long openNanos;
+    private final int halfOpenCalls;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final boolean[] outcomes;
+    private int recorded;
+    private int failures;
+    private int next;
+
+    private State state = State.CLOSED;
+    private long openedAtNanos;
+    private int trialsStarted;
+    private int trialsSucceeded;
+
+    CircuitBreaker(int windowSize, int minCalls, double failureRateThreshold, long openNanos, int halfOpenCalls) {
+        this.windowSize = windowSize;
+        this.minCalls = minCalls;
+        this.failureRateThreshold = failureRateThreshold;
+        this.openNanos = openNanos;
+        this.halfOpenCalls = halfOpenCalls;
+        this.outcomes = new boolean[windowSize];
+    }
+
+    /**
+     * @return true if a call may go out now; every permitted call must be followed by record()
+     */
+    boolean tryAcquire() {
+        lock.lock();
+        try {
+            if (state == State.OPEN) {
+                if (System.nanoTime() - openedAtNanos < openNanos) return false;
+                state = State.HALF_OPEN;
+                trialsStarted = 0;
+                trialsSucceeded = 0;
+            }
+            if (state == State.HALF_OPEN) {
+                if (trialsStarted >= halfOpenCalls) return false;
+                trialsStarted++;
+            }
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Records the outcome of a permitted call
+     * @param failed true for errors and calls slower than the slow-call threshold
+     */
+    void record(boolean failed) {
+        lock.lock();
+        try {
+            if (state == State.HALF_OPEN) {
+                if (failed) {
+                    open();
+                } else if (++trialsSucceeded >= halfOpenCalls) {
+                    state = State.CLOSED;
+                    recorded = 0;
+                    failures = 0;
+                    next = 0;
+                }
+                return;
+            }
+            if (state == State.OPEN) return;
+
+            if (recorded == windowSize) {
+                if (outcomes[next]) failures--;
+            } else {
+                recorded++;
+            }
+            outcomes[next] = failed;
+            if (failed) failures++;
+            next = (next + 1) % windowSize;
+
+            if (recorded >= minCalls && failures >= failureRateThreshold * recorded) {
+                open();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Gives back a permit whose call was never sent, without recording an outcome
+     */
+    void release() {
+        lock.lock();
+        try {
+            if (state == State.HALF_OPEN && trialsStarted > 0) trialsStarted--;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void open() {
+        state = State.OPEN;
+        openedAtNanos = System.nanoTime();
+    }
+
+    State state() {
+        lock.lock();
+        try {
+            // Report an expired OPEN as HALF_OPEN, it is only waiting for the next call
+            if (state == State.OPEN && System.nanoTime() - openedAtNanos >= openNanos) return State.HALF_OPEN;
+            return state;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * @return Seconds until an OPEN breaker lets trial calls through, at least 1
+     */
+    long retryAfterSeconds() {
+        lock.lock();
+        try {
+            long remaining = openNanos - (System.nanoTime() - openedAtNanos);
+            return Math.max(1, remaining / 1_000_000_000L);
+        } finally {
+            lock.unlock();
+        }
+    }
+}
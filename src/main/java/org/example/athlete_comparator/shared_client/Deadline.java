@@ -0,0 +1,194 @@
+package org.example.athlete_comparator.shared_client;
+
+import reactor.util.context.Context;
+import reactor.util.context.ContextView;
+
+import java.time.Duration;
+import java.util.concurrent.Callable;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
+
+/**
+ * Overall time budget of the request being served.
+ *
+ * DeadlineInterceptor starts one per API request; FetchScope and ParallelFetcher carry it to
+ * the tasks they fork. Downstream code works with what is left and calls markPartial() when it
+ * drops data, which the client sees as the X-Partial-Content header. Upstream calls keep
+ * their full timeout, callers just stop waiting for them (see RequestCoalescer).
+ * Reactive pipelines carry the deadline in their Reactor Context instead (toContext / from).
+ */
+public final class Deadline {
+
+    private static final ThreadLocal<Deadline> CURRENT = new ThreadLocal<>();
+
+    private final long expiresAtNanos;
+    private final AtomicBoolean partial = new AtomicBoolean();
+
+    private Deadline(long expiresAtNanos) {
+        this.expiresAtNanos = expiresAtNanos;
+    }
+
+    /**
+     * @param budget Time from now until the deadline
+     * @return New deadline, not yet bound to any thread
+     */
+    public static Deadline after(Duration budget) {
+        return new Deadline(System.nanoTime() + budget.toNanos());
+    }
+
+    /**
+     * @return Deadline bound to the calling thread, or null if it has none
+     */
+    public static Deadline current() {
+        return CURRENT.get();
+    }
+
+    /**
+     * Binds this deadline to the calling thread until the returned binding is closed
+     * @return Binding that restores the thread's previous deadline on close
+     */
+    public Binding bind() {
+        Deadline previous = CURRENT.get();
+        CURRENT.set(this);
+        return () -> {
+            if (previous != null) {
+                CURRENT.set(previous);
+            } else {
+                CURRENT.remove();
+            }
+        };
+    }
+
+    /**
+     * Wraps a task so it runs under the calling thread's deadline, wherever it is executed
+     * @param task Task to be handed to an executor
+     * @return Task bound to the current deadline, or the task itself if there is none
+     */
+    public static <T> Callable<T> propagate(Callable<T> task) {
+        Deadline deadline = current();
+        if (deadline == null) return task;
+        return () -> {
+            Binding binding = deadline.bind();
+            try {
+                return task.call();
+            } finally {
+                binding.close();
+            }
+        };
+    }
+
+    /**
+     * Captures the calling thread's deadline for a reactive pipeline
+     * @return Function for contextWrite that stores the deadline, a no-op if there is none
+     */
+    public static Function<Context, Context> toContext() {
+        Deadline deadline = current();
+        return ctx -> deadline != null ? ctx.put(Deadline.class, deadline) : ctx;
+    }
+
+    /**
+     * @param ctx Reactor context of the running pipeline
+     * @return The deadline stored in it, or null if it has none
+     */
+    public static Deadline from(ContextView ctx) {
+        return ctx.getOrDefault(Deadline.class, null);
+    }
+
+    /**
+     * @return Time left, zero once expired
+     */
+    public Duration remaining() {
+        return Duration.ofNanos(Math.max(0, expiresAtNanos - System.nanoTime()));
+    }
+
+    public boolean isExpired() {
+        return expiresAtNanos - System.nanoTime() <= 0;
+    }
+
+    /**
+     * Shortens a wait to whatever the current thread's deadline still allows
+     * @param budget The wait the caller had in mind
+     * @return The smaller of the budget and the time left, or the budget if there is no deadline
+     */
+    public static Duration clamp(Duration budget) {
+        return clamp(current(), budget);
+    }
+
+    /**
+     * Same as clamp(budget), for a deadline taken from a Reactor context
+     * @param deadline Deadline to respect, may be null
+     * @param budget The wait the caller had in mind
+     * @return The smaller of the budget and the time left, or the budget if there is no deadline
+     */
+    public static Duration clamp(Deadline deadline, Duration budget) {
+        if (deadline == null) return budget;
+        Duration remaining = deadline.remaining();
+        return remaining.compareTo(budget) < 0 ? remaining : budget;
+    }
+
+    /**
+     * Records that the response is missing data because the deadline ran out
+     */
+    public void markPartial() {
+        partial.set(true);
+    }
+
+    public boolean isPartial() {
+        return partial.get();
+    }
+
+    /**
+     * Marks the current thread's deadline, if any, as partial
+     */
+    public static void markCurrentPartial() {
+        Deadline deadline = current();
+        if (deadline != null) deadline.markPartial();
+    }
+
+    /**
+     * Reactive counterpart of markCurrentPartial
+     * @param ctx Reactor context of the running pipeline
+     */
+    public static void markPartial(ContextView ctx) {
+        Deadline deadline = from(ctx);
+        if (deadline != null) deadline.markPartial();
+    }
+
+    /**
+     * @return true if the current thread has a deadline that was marked partial
+     */
+    public static boolean isCurrentPartial() {
+        Deadline deadline = current();
+        return deadline != null && deadline.isPartial();
+    }
+
+    /**
+     * Fails fast if the current thread's deadline has passed
+     * @param what What was about to start, for the exception message
+     * @throws DeadlineExceededException if the deadline has passed (and marks it partial)
+     */
+    public static void check(String what) {
+        check(current(), what);
+    }
+
+    /**
+     * Same as check(what), for a deadline taken from a Reactor context
+     * @param deadline Deadline to check, may be null
+     * @param what What was about to start, for the exception message
+     * @throws DeadlineExceededException if the deadline has passed (and marks it partial)
+     */
+    public static void check(Deadline deadline, String what) {
+        if (deadline != null && deadline.isExpired()) {
+            deadline.markPartial();
+            throw new DeadlineExceededException("Request deadline passed before " + what);
+        }
+    }
+
+    /**
+     * Scope of a bind() call, closing it does not throw
+     */
+    public interface Binding extends AutoCloseable {
+        @Override
+        void close();
+    }
+}
@@ -0,0 +1,15 @@
+package org.example.athlete_comparator.shared_client;
+
+/**
+ * Thrown once the request's Deadline has passed, instead of starting an upstream call or
+ * while waiting for one that other requests share. Either way it says nothing about the
+ * upstream's health.
+ */
+public class DeadlineExceededException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    public DeadlineExceededException(String message) {
+        super(message);
+    }
+}
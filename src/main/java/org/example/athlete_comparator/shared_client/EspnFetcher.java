@@ -0,0 +1,213 @@
+package org.example.athlete_comparator.shared_client;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestClient;
+import org.springframework.web.client.RestClientResponseException;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+
+/**
+ * The one path every ESPN request takes:
+ * response cache -> coalescer -> UpstreamGuard -> HTTP GET.
+ * A stale cached copy with validators makes the GET conditional, and a 304 renews it.
+ *
+ * Metrics are tagged with the endpoint template (e.g. "nba:/athletes/{id}/bio"):
+ * - espn.client.calls: timer around the whole fetch, tagged outcome
+ * - espn.upstream.requests: timer around the HTTP exchange, tagged status
+ * - espn.upstream.response.size: bytes per body received
+ * - espn.cache.revalidations: tagged result=not_modified or modified
+ */
+@Component
+public class EspnFetcher {
+
+    private final RestClient restClient;
+    private final WebClient webClient;
+    private final EspnResponseCache responseCache;
+    private final RequestCoalescer coalescer;
+    private final UpstreamGuard upstreamGuard;
+    private final MeterRegistry meterRegistry;
+    private final Counter notModified;
+    private final Counter modified;
+
+    public EspnFetcher(HttpTransport httpTransport, EspnResponseCache responseCache, RequestCoalescer coalescer,
+                       UpstreamGuard upstreamGuard, MeterRegistry meterRegistry) {
+        this.restClient = httpTransport.restClient("espn");
+        this.webClient = httpTransport.webClientBuilder("espn").build();
+        this.responseCache = responseCache;
+        this.coalescer = coalescer;
+        this.upstreamGuard = upstreamGuard;
+        this.meterRegistry = meterRegistry;
+        this.notModified = Counter.builder("espn.cache.revalidations")
+                .description("Conditional requests answered with 304 Not Modified")
+                .tag("result", "not_modified")
+                .register(meterRegistry);
+        this.modified = Counter.builder("espn.cache.revalidations")
+                .description("Conditional requests answered with a new body")
+                .tag("result", "modified")
+                .register(meterRegistry);
+    }
+
+    private Timer.Sample start() {
+        return Timer.start(meterRegistry);
+    }
+
+    private void stop(Timer.Sample sample, String endpoint, String outcome) {
+        sample.stop(Timer.builder("espn.client.calls")
+                .description("ESPN client calls, response cache included")
+                .tag("endpoint", endpoint)
+                .tag("outcome", outcome)
+                .publishPercentileHistogram()
+                .register(meterRegistry));
+    }
+
+    /**
+     * Fetches a URL, serving it from the response cache while fresh
+     * @param endpoint Endpoint template for metrics, e.g. "nba:/athletes/{id}/bio"
+     * @param url Full request URL
+     * @param ttl How long the response may be served from cache
+     * @return Raw response body, or null if ESPN returned nothing
+     * @throws org.springframework.web.client.RestClientException if the request fails
+     * @throws UpstreamUnavailableException if the circuit is open or ESPN is at its concurrency limit
+     * @throws DeadlineExceededException if the request's deadline passed before ESPN was called
+     */
+    public byte[] fetch(String endpoint, String url, Duration ttl) {
+        Timer.Sample sample = start();
+        try {
+            // Cache miss: concurrent callers for the same URL share one request.
+            // Nothing new starts once the request's deadline has passed; the cache may still answer stale.
+            byte[] body = responseCache.get(url, ttl, stale -> {
+                Deadline.check(url);
+                return coalescer.execute(url,
+                        () -> upstreamGuard.call("espn", url, true, () -> request(endpoint, url, stale)));
+            });
+            stop(sample, endpoint, body != null ? "success" : "empty");
+            return body;
+        } catch (RuntimeException e) {
+            stop(sample, endpoint, UpstreamGuard.outcome(e));
+            throw e;
+        }
+    }
+
+    /**
+     * Reactive counterpart of fetch(), for the reactive variant
+     * @param endpoint Endpoint template for metrics, e.g. "nba:/athletes/{id}/bio"
+     * @param url Full request URL
+     * @param ttl How long the response may be served from cache
+     * @return Raw response body, empty if ESPN returned nothing; fails like fetch() throws
+     */
+    public Mono<byte[]> fetchReactive(String endpoint, String url, Duration ttl) {
+        return Mono.defer(() -> {
+            Timer.Sample sample = start();
+            return responseCache.getReactive(url, ttl, stale -> Mono.deferContextual(ctx -> {
+                        Deadline.check(Deadline.from(ctx), url);
+                        return coalescer.executeReactive(url,
+                                () -> upstreamGuard.callReactive("espn", url, true, () -> requestReactive(endpoint, url, stale)));
+                    }))
+                    .doOnSuccess(body -> stop(sample, endpoint, body != null ? "success" : "empty"))
+                    .doOnError(e -> stop(sample, endpoint, UpstreamGuard.outcome(e)));
+        });
+    }
+
+    /**
+     * Returns a cached body without ever calling ESPN
+     * @param url Full request URL
+     * @return Cached body, or null if the URL is not cached
+     */
+    public byte[] peek(String url) {
+        return responseCache.peek(url);
+    }
+
+    private EspnResponseCache.Validated request(String endpoint, String url, EspnResponseCache.Validated stale) {
+        Timer.Sample sample = start();
+        ResponseEntity<byte[]> response;
+        try {
+            response = exchange(url, stale);
+        } catch (RestClientResponseException e) {
+            sample.stop(upstreamTimer(endpoint, String.valueOf(e.getStatusCode().value())));
+            throw e;
+        } catch (RuntimeException e) {
+            sample.stop(upstreamTimer(endpoint, UpstreamGuard.outcome(e)));
+            throw e;
+        }
+        sample.stop(upstreamTimer(endpoint, String.valueOf(response.getStatusCode().value())));
+        return validated(endpoint, response, stale);
+    }
+
+    private Mono<EspnResponseCache.Validated> requestReactive(String endpoint, String url, EspnResponseCache.Validated stale) {
+        return Mono.defer(() -> {
+            Timer.Sample sample = start();
+            return webClient.get()
+                    .uri(url)
+                    .headers(headers -> conditional(headers, stale))
+                    .retrieve()
+                    .toEntity(byte[].class)
+                    .doOnError(e -> sample.stop(upstreamTimer(endpoint, e instanceof WebClientResponseException response
+                            ? String.valueOf(response.getStatusCode().value())
+                            : UpstreamGuard.outcome(e))))
+                    .map(response -> {
+                        sample.stop(upstreamTimer(endpoint, String.valueOf(response.getStatusCode().value())));
+                        return validated(endpoint, response, stale);
+                    });
+        });
+    }
+
+    /**
+     * Records the body size and turns a response into what the cache stores, the stale
+     * copy itself when ESPN answered 304
+     */
+    private EspnResponseCache.Validated validated(String endpoint, ResponseEntity<byte[]> response,
+                                                  EspnResponseCache.Validated stale) {
+        if (response.getBody() != null) {
+            DistributionSummary.builder("espn.upstream.response.size")
+                    .description("Size of ESPN response bodies")
+                    .baseUnit("bytes")
+                    .tag("endpoint", endpoint)
+                    .register(meterRegistry)
+                    .record(response.getBody().length);
+        }
+
+        if (stale != null) {
+            if (response.getStatusCode().isSameCodeAs(HttpStatus.NOT_MODIFIED)) {
+                notModified.increment();
+                return stale;
+            }
+            modified.increment();
+        }
+        return new EspnResponseCache.Validated(response.getBody(),
+                response.getHeaders().getETag(),
+                response.getHeaders().getFirst(HttpHeaders.LAST_MODIFIED));
+    }
+
+    private ResponseEntity<byte[]> exchange(String url, EspnResponseCache.Validated stale) {
+        return restClient.get()
+                .uri(url)
+                .headers(headers -> conditional(headers, stale))
+                .retrieve()
+                .toEntity(byte[].class);
+    }
+
+    private static void conditional(HttpHeaders headers, EspnResponseCache.Validated stale) {
+        if (stale == null) return;
+        if (stale.eTag() != null) headers.setIfNoneMatch(stale.eTag());
+        if (stale.lastModified() != null) headers.set(HttpHeaders.IF_MODIFIED_SINCE, stale.lastModified());
+    }
+
+    private Timer upstreamTimer(String endpoint, String status) {
+        return Timer.builder("espn.upstream.requests")
+                .description("HTTP exchanges with ESPN")
+                .tag("endpoint", endpoint)
+                .tag("status", status)
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+}
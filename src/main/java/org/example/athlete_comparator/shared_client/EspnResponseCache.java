@@ -0,0 +1,244 @@
+package org.example.athlete_comparator.shared_client;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.function.Function;
+
+/**
+ * In-memory cache of raw ESPN response bodies, keyed by request URL.
+ *
+ * Caffeine bounds it by total body size (espn.cache.max-bytes); every entry has its own TTL.
+ * Expired entries are kept for espn.cache.revalidate-window so a conditional request can renew
+ * them. Entries read near the end of their TTL are refreshed ahead in the background, stale
+ * ones are served while they revalidate or when ESPN fails (espn.cache.stale-while-revalidate,
+ * espn.cache.stale-if-error). Background refreshes go through RefreshScheduler.
+ * Published under the "espn.responses" cache name, plus espn.cache.stale tagged reason.
+ */
+@Component
+public class EspnResponseCache {
+
+    /**
+     * A response body together with the validators needed to revalidate it
+     */
+    public record Validated(byte[] body, String eTag, String lastModified) {
+
+        /**
+         * @return true if ESPN sent an ETag or Last-Modified that a conditional request can use
+         */
+        public boolean hasValidators() {
+            return eTag != null || lastModified != null;
+        }
+    }
+
+    private record Entry(Validated response, long freshUntilNanos, long ttlNanos) {
+    }
+
+    private final Cache<String, Entry> cache;
+    private final RefreshScheduler refreshScheduler;
+    private final double refreshAhead;
+    private final long staleWhileRevalidateNanos;
+    private final long staleIfErrorNanos;
+    private final Counter staleRevalidating;
+    private final Counter staleOnError;
+
+    public EspnResponseCache(@Value("${espn.cache.max-bytes:67108864}") long maxBytes,
+                             @Value("${espn.cache.revalidate-window:86400}") long revalidateWindowSeconds,
+                             @Value("${espn.cache.refresh-ahead:0.2}") double refreshAhead,
+                             @Value("${espn.cache.stale-while-revalidate:3600}") long staleWhileRevalidateSeconds,
+                             @Value("${espn.cache.stale-if-error:86400}") long staleIfErrorSeconds,
+                             RefreshScheduler refreshScheduler,
+                             MeterRegistry meterRegistry) {
+        this.refreshScheduler = refreshScheduler;
+        this.refreshAhead = refreshAhead;
+        this.staleWhileRevalidateNanos = Duration.ofSeconds(staleWhileRevalidateSeconds).toNanos();
+        this.staleIfErrorNanos = Duration.ofSeconds(staleIfErrorSeconds).toNanos();
+        long windowNanos = Duration.ofSeconds(revalidateWindowSeconds).toNanos();
+        long keepNanos = Math.max(staleWhileRevalidateNanos, staleIfErrorNanos);
+        this.cache = Caffeine.newBuilder()
+                .maximumWeight(maxBytes)
+                .weigher((String url, Entry entry) -> url.length() + entry.response().body().length)
+                .expireAfter(new Expiry<String, Entry>() {
+                    @Override
+                    public long expireAfterCreate(String url, Entry entry, long currentTime) {
+                        return retention(entry);
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(String url, Entry entry, long currentTime, long currentDuration) {
+                        return retention(entry);
+                    }
+
+                    @Override
+                    public long expireAfterRead(String url, Entry entry, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+
+                    // Stale entries stay around for revalidation, or as a fallback when ESPN fails
+                    private long retention(Entry entry) {
+                        return entry.ttlNanos() + (entry.response().hasValidators() ? Math.max(windowNanos, keepNanos) : keepNanos);
+                    }
+                })
+                .recordStats()
+                .build();
+
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "espn.responses");
+        this.staleRevalidating = Counter.builder("espn.cache.stale")
+                .description("Stale bodies served while a background refresh runs")
+                .tag("reason", "revalidating")
+                .register(meterRegistry);
+        this.staleOnError = Counter.builder("espn.cache.stale")
+                .description("Stale bodies served because ESPN failed")
+                .tag("reason", "error")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Returns the cached body for a URL while it is fresh (or recently stale), otherwise loads it.
+     * The loader receives the stale entry when there is one with validators, so it can send a
+     * conditional request; returning that same instance means "not modified" and renews it.
+     * The loader may be called on a background thread to refresh an entry ahead of time.
+     *
+     * @param url Full request URL, used as the cache key
+     * @param ttl How long a loaded body stays fresh; zero disables caching for this call
+     * @param loader Performs the actual request given the stale entry (or null), may return null on failure
+     * @return Response body, or null if nothing usable is cached and the loader returned null
+     * @throws RuntimeException whatever the loader threw, if there is no stale body to fall back on
+     */
+    public byte[] get(String url, Duration ttl, Function<Validated, Validated> loader) {
+        if (ttl.isZero() || ttl.isNegative()) {
+            Validated loaded = loader.apply(null);
+            return usable(loaded) ? loaded.body() : null;
+        }
+
+        Entry cached = cache.getIfPresent(url);
+        long now = System.nanoTime();
+        byte[] servable = servable(url, ttl, cached, now, loader);
+        if (servable != null) {
+            return servable;
+        }
+
+        Validated loaded;
+        try {
+            loaded = load(url, ttl, cached, loader);
+        } catch (RuntimeException e) {
+            if (!staleIfError(cached, now)) throw e;
+            staleOnError.increment();
+            return cached.response().body();
+        }
+        if (loaded == null && staleIfError(cached, now)) {
+            staleOnError.increment();
+            return cached.response().body();
+        }
+        return loaded != null ? loaded.body() : null;
+    }
+
+    /**
+     * Reactive counterpart of get(): the same freshness rules, with a loader that returns a Mono.
+     * Background refreshes run the loader on RefreshScheduler's threads and wait for it there.
+     *
+     * @param url Full request URL, used as the cache key
+     * @param ttl How long a loaded body stays fresh; zero disables caching for this call
+     * @param loader Creates the actual request given the stale entry (or null); may complete empty on failure
+     * @return Response body, empty if nothing usable is cached and the loader produced nothing
+     */
+    public Mono<byte[]> getReactive(String url, Duration ttl, Function<Validated, Mono<Validated>> loader) {
+        return Mono.defer(() -> {
+            if (ttl.isZero() || ttl.isNegative()) {
+                return loader.apply(null).filter(EspnResponseCache::usable).map(Validated::body);
+            }
+
+            Entry cached = cache.getIfPresent(url);
+            long now = System.nanoTime();
+            byte[] servable = servable(url, ttl, cached, now, stale -> loader.apply(stale).block());
+            if (servable != null) {
+                return Mono.just(servable);
+            }
+
+            Validated stale = cached != null && cached.response().hasValidators() ? cached.response() : null;
+            Mono<byte[]> fallback = Mono.fromSupplier(() -> {
+                staleOnError.increment();
+                return cached.response().body();
+            });
+            return loader.apply(stale)
+                    .filter(EspnResponseCache::usable)
+                    .map(loaded -> {
+                        cache.put(url, new Entry(loaded, System.nanoTime() + ttl.toNanos(), ttl.toNanos()));
+                        return loaded.body();
+                    })
+                    .onErrorResume(e -> staleIfError(cached, now) ? fallback : Mono.error(e))
+                    .switchIfEmpty(Mono.defer(() -> staleIfError(cached, now) ? fallback : Mono.empty()));
+        });
+    }
+
+    /**
+     * Returns the cached body if it may be served without waiting for ESPN, starting a
+     * background refresh when it is due
+     * @return Cached body, or null if the caller has to load it
+     */
+    private byte[] servable(String url, Duration ttl, Entry cached, long now, Function<Validated, Validated> loader) {
+        if (cached == null) return null;
+        long age = now - (cached.freshUntilNanos() - cached.ttlNanos());
+        if (age < cached.ttlNanos()) {
+            if (age >= cached.ttlNanos() * (1 - refreshAhead)) {
+                refreshInBackground(url, ttl, cached, loader);
+            }
+            return cached.response().body();
+        }
+        if (age < cached.ttlNanos() + staleWhileRevalidateNanos) {
+            refreshInBackground(url, ttl, cached, loader);
+            staleRevalidating.increment();
+            return cached.response().body();
+        }
+        return null;
+    }
+
+    private boolean staleIfError(Entry cached, long now) {
+        return cached != null && now - cached.freshUntilNanos() < staleIfErrorNanos;
+    }
+
+    private static boolean usable(Validated loaded) {
+        return loaded != null && loaded.body() != null && loaded.body().length > 0;
+    }
+
+    private Validated load(String url, Duration ttl, Entry cached, Function<Validated, Validated> loader) {
+        Validated stale = cached != null && cached.response().hasValidators() ? cached.response() : null;
+        Validated loaded = loader.apply(stale);
+        // Failed or empty responses are never cached, the next caller simply retries
+        if (!usable(loaded)) {
+            return null;
+        }
+        cache.put(url, new Entry(loaded, System.nanoTime() + ttl.toNanos(), ttl.toNanos()));
+        return loaded;
+    }
+
+    private void refreshInBackground(String url, Duration ttl, Entry cached, Function<Validated, Validated> loader) {
+        refreshScheduler.submit(url, () -> load(url, ttl, cached, loader));
+    }
+
+    /**
+     * Looks up a cached body without ever calling upstream, stale entries included
+     * @param url Full request URL
+     * @return Cached body, or null if the URL is not cached
+     */
+    public byte[] peek(String url) {
+        Entry cached = cache.getIfPresent(url);
+        return cached != null ? cached.response().body() : null;
+    }
+
+    /**
+     * @return Snapshot of the hit, miss and eviction counters
+     */
+    public CacheStats stats() {
+        return cache.stats();
+    }
+}
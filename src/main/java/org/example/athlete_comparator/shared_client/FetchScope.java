@@ -0,0 +1,151 @@
+package org.example.athlete_comparator.shared_client;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * A group of upstream lookups that run concurrently and are joined together.
+ *
+ * The first task that throws fails the scope, and join never waits past the Deadline.
+ * Tasks still running when join returns are cancelled without interrupting them, so a shared
+ * ESPN call is never failed for the other requests waiting on it.
+ * Obtain one from ParallelFetcher.openScope() and use it in a try-with-resources block.
+ */
+public class FetchScope implements AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(FetchScope.class);
+    private final ExecutorService executor;
+    private final List<Future<?>> tasks = new ArrayList<>();
+    private final List<CompletableFuture<Void>> finished = new ArrayList<>();
+    private final CompletableFuture<Void> failed = new CompletableFuture<>();
+
+    /**
+     * @param executor Executor to fork onto, null to run every task inline when forked
+     */
+    FetchScope(ExecutorService executor) {
+        this.executor = executor;
+    }
+
+    /**
+     * Starts a task in this scope
+     * @param task Blocking lookup; throwing from it fails the scope
+     * @return Future holding the task's result once the scope has been joined
+     */
+    public <T> Future<T> fork(Callable<T> task) {
+        CompletableFuture<Void> settled = new CompletableFuture<>();
+        Callable<T> bound = Deadline.propagate(task);
+        FutureTask<T> future = new FutureTask<>(() -> {
+            try {
+                return bound.call();
+            } catch (Exception e) {
+                failed.completeExceptionally(e);
+                throw e;
+            }
+        }) {
+            @Override
+            protected void done() {
+                // Only once the result is set, so join never cancels a task that has just finished
+                settled.complete(null);
+            }
+        };
+        tasks.add(future);
+        finished.add(settled);
+
+        if (failed.isDone()) {
+            // Scope already failed, no point starting more work
+            future.cancel(false);
+        } else if (executor == null) {
+            future.run();
+        } else {
+            executor.execute(future);
+        }
+        return future;
+    }
+
+    /**
+     * Starts a task the caller can do without. If it throws, its result is null instead of
+     * failing the scope, and the request's Deadline is marked partial.
+     * @param task Blocking lookup
+     * @return Future holding the task's result, or null, once the scope has been joined
+     */
+    public <T> Future<T> forkOptional(Callable<T> task) {
+        return fork(() -> {
+            try {
+                return task.call();
+            } catch (Exception e) {
+                log.debug("Optional lookup failed: {}", e.getMessage());
+                Deadline.markCurrentPartial();
+                return null;
+            }
+        });
+    }
+
+    /**
+     * Waits until every task has finished, one has failed or the budget is used up.
+     * Whatever is still running afterwards is cancelled (not interrupted) and its result
+     * discarded; if the budget ran out the request's Deadline is marked partial.
+     *
+     * @param budget Maximum time to wait, cut short by the request's Deadline
+     * @return true if all tasks finished in time, false if the budget ran out first
+     * @throws ExecutionException   wrapping the first exception thrown by a task
+     * @throws UpstreamUnavailableException if that is what the first failing task threw, unwrapped
+     * @throws DeadlineExceededException if that is what the first failing task threw, unwrapped
+     * @throws InterruptedException if the calling thread was interrupted while waiting
+     */
+    public boolean join(Duration budget) throws ExecutionException, InterruptedException {
+        Duration wait = Deadline.clamp(budget);
+        try {
+            // failed goes first: if both are already complete, anyOf takes the first one
+            CompletableFuture.anyOf(failed, CompletableFuture.allOf(finished.toArray(new CompletableFuture<?>[0])))
+                    .get(wait.toNanos(), TimeUnit.NANOSECONDS);
+            return true;
+        } catch (ExecutionException e) {
+            // ESPN was not called or ran out of time: let the request fail with 503 or 504
+            Throwable cause = e.getCause();
+            if (cause instanceof UpstreamUnavailableException || cause instanceof DeadlineExceededException) {
+                throw (RuntimeException) cause;
+            }
+            throw e;
+        } catch (TimeoutException e) {
+            log.debug("Fetch scope budget of {} ms used up", wait.toMillis());
+            Deadline.markCurrentPartial();
+            return false;
+        } finally {
+            cancelUnfinished();
+        }
+    }
+
+    /**
+     * Result of a forked task, or a fallback if it failed, was cancelled or did not finish
+     * @param future   Future returned by fork
+     * @param fallback Value to use instead
+     * @return The task's result or the fallback
+     */
+    public static <T> T resultOr(Future<T> future, T fallback) {
+        return future.state() == Future.State.SUCCESS ? future.resultNow() : fallback;
+    }
+
+    private void cancelUnfinished() {
+        for (Future<?> task : tasks) {
+            // Tasks that have not started never will, running ones finish unobserved
+            task.cancel(false);
+        }
+    }
+
+    @Override
+    public void close() {
+        cancelUnfinished();
+    }
+}
@@ -0,0 +1,430 @@
+package org.example.athlete_comparator.shared_client;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.MonoSink;
+import reactor.core.scheduler.Schedulers;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongSupplier;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+/**
+ * Adaptive cap on the number of requests in flight against a single upstream host.
+ *
+ * The limit starts at espn.api.max-concurrent-per-host and adjusts with AIMD: it grows while
+ * the host is healthy and is multiplied by upstream.limiter.backoff on failures, or when the
+ * recent average latency exceeds the long-run one by upstream.limiter.latency-tolerance.
+ * OpenAI keeps a fixed limit instead, since its latency depends on the answer length.
+ * Callers at the limit wait in one FIFO queue, blocking and reactive alike, and get an
+ * UpstreamUnavailableException after upstream.limiter.max-wait-ms (or twice the host's average
+ * latency, if longer).
+ * Published per host: upstream.limiter.limit, upstream.limiter.in_flight and upstream.limiter.rejected.
+ */
+@Component
+public class HostConcurrencyLimiter {
+
+    // Weights of the latest call in the recent and the long-run average latency
+    private static final double RECENT_WEIGHT = 0.1;
+    private static final double BASELINE_WEIGHT = 0.01;
+
+    private final int initialLimit;
+    private final int minLimit;
+    private final int maxLimit;
+    private final long maxWaitNanos;
+    private final double latencyTolerance;
+    private final double backoff;
+    private final Map<String, FixedLimit> fixedLimits;
+    private final MeterRegistry meterRegistry;
+    private final LongSupplier nanoTime;
+    private final Map<String, HostLimit> limits = new ConcurrentHashMap<>();
+
+    /**
+     * Limit for an upstream whose latency says nothing about its load
+     */
+    private record FixedLimit(int limit, long maxWaitNanos) {
+    }
+
+    @Autowired
+    public HostConcurrencyLimiter(@Value("${espn.api.max-concurrent-per-host:8}") int initialLimit,
+                                  @Value("${upstream.limiter.min:1}") int minLimit,
+                                  @Value("${upstream.limiter.max:32}") int maxLimit,
+                                  @Value("${upstream.limiter.max-wait-ms:250}") long maxWaitMs,
+                                  @Value("${upstream.limiter.latency-tolerance:2.0}") double latencyTolerance,
+                                  @Value("${upstream.limiter.backoff:0.7}") double backoff,
+                                  @Value("${upstream.limiter.openai.max-concurrent:16}") int openAiLimit,
+                                  @Value("${upstream.limiter.openai.max-wait-ms:5000}") long openAiMaxWaitMs,
+                                  MeterRegistry meterRegistry) {
+        this(initialLimit, minLimit, maxLimit, maxWaitMs, latencyTolerance, backoff, openAiLimit, openAiMaxWaitMs,
+                meterRegistry, System::nanoTime);
+    }
+
+    /**
+     * @param nanoTime Clock the latencies and back-off interval are measured with, System::nanoTime
+     *                 outside tests
+     */
+    HostConcurrencyLimiter(int initialLimit, int minLimit, int maxLimit, long maxWaitMs, double latencyTolerance,
+                           double backoff, int openAiLimit, long openAiMaxWaitMs, MeterRegistry meterRegistry,
+                           LongSupplier nanoTime) {
+        if (minLimit < 1 || initialLimit < minLimit || maxLimit < initialLimit) {
+            throw new IllegalStateException("Concurrency limits must satisfy 1 <= min <= initial <= max");
+        }
+        if (openAiLimit < 1) {
+            throw new IllegalStateException("upstream.limiter.openai.max-concurrent must be at least 1");
+        }
+        this.initialLimit = initialLimit;
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.maxWaitNanos = Duration.ofMillis(maxWaitMs).toNanos();
+        this.latencyTolerance = latencyTolerance;
+        this.backoff = backoff;
+        this.fixedLimits = Map.of(
+                "openai", new FixedLimit(openAiLimit, Duration.ofMillis(openAiMaxWaitMs).toNanos())
+        );
+        this.meterRegistry = meterRegistry;
+        this.nanoTime = nanoTime;
+    }
+
+    static String host(String url) {
+        try {
+            String host = URI.create(url).getHost();
+            return host != null ? host : url;
+        } catch (Exception e) {
+            return url;
+        }
+    }
+
+    private HostLimit limit(String upstream, String url) {
+        return limits.computeIfAbsent(host(url), host -> new HostLimit(host, fixedLimits.get(upstream)));
+    }
+
+    /**
+     * Runs a call while holding a slot for the host of the given URL. Any exception thrown
+     * by the call counts as a failure for the limit.
+     *
+     * @param upstream "espn" or "openai", as in HttpTransport
+     * @param url The URL the call is going to
+     * @param call The actual request
+     * @return Whatever the call returns
+     * @throws UpstreamUnavailableException if no slot frees up within upstream.limiter.max-wait-ms
+     */
+    public <T> T call(String upstream, String url, Supplier<T> call) {
+        return call(upstream, url, call, e -> true);
+    }
+
+    /**
+     * Like call(upstream, url, call), but lets the caller decide which exceptions count as a
+     * failure (a 404 means the host is healthy, a timeout does not)
+     */
+    <T> T call(String upstream, String url, Supplier<T> call, Predicate<Throwable> isFailure) {
+        HostLimit limit = limit(upstream, url);
+        limit.acquire();
+
+        long start = nanoTime.getAsLong();
+        boolean failed = false;
+        try {
+            return call.get();
+        } catch (RuntimeException e) {
+            failed = isFailure.test(e);
+            throw e;
+        } finally {
+            limit.release(nanoTime.getAsLong() - start, failed);
+        }
+    }
+
+    /**
+     * Reactive counterpart of call(upstream, url, call, isFailure): the slot is taken without
+     * blocking and released when the returned Mono terminates or is cancelled
+     * @param deadline The request's deadline from the Reactor context, may be null
+     */
+    <T> Mono<T> callReactive(String upstream, String url, Supplier<Mono<T>> call, Predicate<Throwable> isFailure,
+                             Deadline deadline) {
+        HostLimit limit = limit(upstream, url);
+        return Mono.usingWhen(limit.acquireReactive(deadline),
+                permit -> call.get(),
+                permit -> Mono.fromRunnable(() -> permit.release(false)),
+                (permit, e) -> Mono.fromRunnable(() -> permit.release(isFailure.test(e))),
+                permit -> Mono.fromRunnable(permit::abandon));
+    }
+
+    /**
+     * A slot held by a reactive call. Released exactly once, whichever way the call ends.
+     */
+    private final class Permit {
+
+        private final HostLimit limit;
+        private final long startNanos = nanoTime.getAsLong();
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        Permit(HostLimit limit) {
+            this.limit = limit;
+        }
+
+        void release(boolean failed) {
+            if (released.compareAndSet(false, true)) limit.release(nanoTime.getAsLong() - startNanos, failed);
+        }
+
+        /**
+         * The call was cancelled, so its latency says nothing about the host
+         */
+        void abandon() {
+            if (released.compareAndSet(false, true)) limit.releaseUnused();
+        }
+    }
+
+    /**
+     * A caller waiting for a slot. Leaves the queue exactly once: granted a slot, timed out or
+     * cancelled. Blocking callers have no sink, they wait on the lock's condition instead.
+     */
+    private static final class Waiter {
+
+        static final int WAITING = 0, GRANTED = 1, GONE = 2;
+
+        final MonoSink<Permit> sink;
+        final AtomicInteger state = new AtomicInteger(WAITING);
+        volatile Permit permit;
+
+        Waiter(MonoSink<Permit> sink) {
+            this.sink = sink;
+        }
+    }
+
+    private final class HostLimit {
+
+        private final String host;
+        private final ReentrantLock lock = new ReentrantLock();
+        private final Condition released = lock.newCondition();
+        private final Counter rejected;
+        private final Deque<Waiter> waiters = new ArrayDeque<>();
+        private final FixedLimit fixed;
+        private volatile double limit;
+        private volatile int inFlight;
+        private double recentNanos;
+        private double baselineNanos;
+        private long lastDecreaseNanos;
+
+        /**
+         * @param fixed Fixed limit and wait for the host, null to adapt the limit
+         */
+        HostLimit(String host, FixedLimit fixed) {
+            this.host = host;
+            this.fixed = fixed;
+            this.limit = fixed != null ? fixed.limit() : initialLimit;
+            // A new host gets one back-off interval before its first decrease
+            this.lastDecreaseNanos = nanoTime.getAsLong();
+            Gauge.builder("upstream.limiter.limit", this, l -> l.limit)
+                    .description("Current adaptive concurrency limit")
+                    .tag("host", host)
+                    .register(meterRegistry);
+            Gauge.builder("upstream.limiter.in_flight", this, l -> l.inFlight)
+                    .description("Requests currently holding a slot")
+                    .tag("host", host)
+                    .register(meterRegistry);
+            this.rejected = Counter.builder("upstream.limiter.rejected")
+                    .description("Calls shed because no slot freed up in time")
+                    .tag("host", host)
+                    .register(meterRegistry);
+        }
+
+        void acquire() {
+            List<Waiter> granted = List.of();
+            lock.lock();
+            Waiter waiter = null;
+            try {
+                if (inFlight < (int) limit && waiters.isEmpty()) {
+                    inFlight++;
+                    return;
+                }
+                Deadline deadline = Deadline.current();
+                long remaining = deadline == null
+                        ? maxWait()
+                        : Math.min(maxWait(), deadline.remaining().toNanos());
+                if (remaining <= 0) {
+                    throw atLimit();
+                }
+                // Queue behind the callers already waiting, reactive ones included
+                waiter = new Waiter(null);
+                waiters.add(waiter);
+                while (waiter.state.get() == Waiter.WAITING) {
+                    if (remaining <= 0) {
+                        waiter.state.set(Waiter.GONE);
+                        waiters.remove(waiter);
+                        throw atLimit();
+                    }
+                    remaining = released.awaitNanos(remaining);
+                }
+                // Granted by grant(), which already took the slot
+            } catch (InterruptedException e) {
+                if (waiter.state.compareAndSet(Waiter.WAITING, Waiter.GONE)) {
+                    waiters.remove(waiter);
+                } else {
+                    // Granted just as the thread was interrupted: pass the slot on
+                    inFlight--;
+                    granted = grant();
+                }
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while waiting for " + host, e);
+            } finally {
+                lock.unlock();
+                granted.forEach(w -> w.sink.success(w.permit));
+            }
+        }
+
+        /**
+         * Slots turn over about once per average call, so a host that is slow but keeping up
+         * gets a longer wait than max-wait-ms before callers are shed. Called with the lock held.
+         */
+        private long maxWait() {
+            if (fixed != null) return fixed.maxWaitNanos();
+            return Math.max(maxWaitNanos, (long) (2 * baselineNanos));
+        }
+
+        private UpstreamUnavailableException atLimit() {
+            rejected.increment();
+            return new UpstreamUnavailableException(host + " is at its concurrency limit of " + (int) limit, 1);
+        }
+
+        Mono<Permit> acquireReactive(Deadline deadline) {
+            return Mono.create(sink -> {
+                Waiter waiter;
+                long wait;
+                lock.lock();
+                try {
+                    if (inFlight < (int) limit && waiters.isEmpty()) {
+                        inFlight++;
+                        sink.success(new Permit(this));
+                        return;
+                    }
+                    wait = deadline == null ? maxWait() : Math.min(maxWait(), deadline.remaining().toNanos());
+                    if (wait <= 0) {
+                        sink.error(atLimit());
+                        return;
+                    }
+                    waiter = new Waiter(sink);
+                    waiters.add(waiter);
+                } finally {
+                    lock.unlock();
+                }
+
+                Disposable timer = Schedulers.parallel().schedule(() -> {
+                    if (leave(waiter)) sink.error(atLimit());
+                }, wait, TimeUnit.NANOSECONDS);
+                sink.onCancel(() -> {
+                    timer.dispose();
+                    // Granted just as the caller went away: nobody will use the slot
+                    if (!leave(waiter) && waiter.permit != null) waiter.permit.abandon();
+                });
+            });
+        }
+
+        /**
+         * Takes a waiter out of the queue without granting it a slot
+         * @return false if it had already been granted one or was gone
+         */
+        private boolean leave(Waiter waiter) {
+            if (!waiter.state.compareAndSet(Waiter.WAITING, Waiter.GONE)) return false;
+            lock.lock();
+            try {
+                waiters.remove(waiter);
+            } finally {
+                lock.unlock();
+            }
+            return true;
+        }
+
+        /**
+         * Hands free slots to queued callers, in arrival order. Called with the lock held; blocking
+         * callers wake up on the next signal, the returned reactive waiters are completed by the
+         * caller once the lock is released.
+         */
+        private List<Waiter> grant() {
+            List<Waiter> granted = List.of();
+            while (inFlight < (int) limit && !waiters.isEmpty()) {
+                Waiter waiter = waiters.poll();
+                // Set before the state flips, so a cancel that sees GRANTED also sees the permit
+                if (waiter.sink != null) waiter.permit = new Permit(this);
+                if (!waiter.state.compareAndSet(Waiter.WAITING, Waiter.GRANTED)) continue;
+                inFlight++;
+                if (waiter.sink == null) continue;
+                if (granted.isEmpty()) granted = new ArrayList<>();
+                granted.add(waiter);
+            }
+            return granted;
+        }
+
+        void releaseUnused() {
+            List<Waiter> granted;
+            lock.lock();
+            try {
+                inFlight--;
+                granted = grant();
+                released.signalAll();
+            } finally {
+                lock.unlock();
+            }
+            granted.forEach(waiter -> waiter.sink.success(waiter.permit));
+        }
+
+        /**
+         * Adjusts the limit after a call, called with the lock held
+         */
+        private void adapt(long latencyNanos, boolean failed, boolean saturated) {
+            if (!failed) {
+                if (baselineNanos == 0) {
+                    recentNanos = latencyNanos;
+                    baselineNanos = latencyNanos;
+                } else {
+                    recentNanos += (latencyNanos - recentNanos) * RECENT_WEIGHT;
+                    baselineNanos += (latencyNanos - baselineNanos) * BASELINE_WEIGHT;
+                }
+            }
+            long now = nanoTime.getAsLong();
+            boolean slow = recentNanos > baselineNanos * latencyTolerance;
+            if (failed || slow) {
+                if (now - lastDecreaseNanos > Math.max(baselineNanos, TimeUnit.MILLISECONDS.toNanos(100))) {
+                    limit = Math.max(minLimit, limit * backoff);
+                    lastDecreaseNanos = now;
+                }
+            } else if (saturated) {
+                // Only grow while the limit is actually being used
+                limit = Math.min(maxLimit, limit + 1 / limit);
+            }
+        }
+
+        void release(long latencyNanos, boolean failed) {
+            List<Waiter> granted;
+            lock.lock();
+            try {
+                boolean saturated = inFlight >= limit / 2;
+                inFlight--;
+                if (fixed == null) {
+                    adapt(latencyNanos, failed, saturated);
+                }
+                granted = grant();
+                released.signalAll();
+            } finally {
+                lock.unlock();
+            }
+            granted.forEach(waiter -> waiter.sink.success(waiter.permit));
+        }
+    }
+}
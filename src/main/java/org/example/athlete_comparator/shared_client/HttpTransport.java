@@ -0,0 +1,166 @@
+package org.example.athlete_comparator.shared_client;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.client.ClientHttpRequestInterceptor;
+import org.springframework.http.client.JdkClientHttpRequestFactory;
+import org.springframework.http.client.reactive.JdkClientHttpConnector;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestClient;
+import org.springframework.web.reactive.function.client.ExchangeFilterFunction;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+
+import javax.net.ssl.SSLContext;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpTimeoutException;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Shared HTTP transport for every outbound client (ESPN and OpenAI).
+ *
+ * Each upstream gets one reusable java.net.http.HttpClient with its own connect and read
+ * timeouts; all share one SSLContext so TLS sessions are resumed. Requests always get the full
+ * read timeout, since calls can be shared between requests (see RequestCoalescer).
+ * The reactive variant's WebClient runs on the same HttpClient.
+ * Published: http.client.pool.in_flight and http.client.pool.requests, per upstream and host.
+ */
+@Component
+public class HttpTransport {
+
+    private static final int MAX_BODY_BYTES = 16 * 1024 * 1024;
+
+    private record UpstreamConfig(Duration connectTimeout, Duration readTimeout) {
+    }
+
+    private final Map<String, UpstreamConfig> upstreams;
+    private final Map<String, HttpClient> httpClients = new ConcurrentHashMap<>();
+    private final Map<String, AtomicInteger> inFlight = new ConcurrentHashMap<>();
+    private final Map<String, Counter> requestCounters = new ConcurrentHashMap<>();
+    private final SSLContext sslContext;
+    private final MeterRegistry meterRegistry;
+
+    public HttpTransport(@Value("${http.espn.connect-timeout:2000}") int espnConnectTimeout,
+                         @Value("${espn.api.timeout:5000}") int espnReadTimeout,
+                         @Value("${http.openai.connect-timeout:5000}") int openAiConnectTimeout,
+                         @Value("${http.openai.read-timeout:60000}") int openAiReadTimeout,
+                         MeterRegistry meterRegistry) throws NoSuchAlgorithmException {
+        this.upstreams = Map.of(
+                "espn", new UpstreamConfig(Duration.ofMillis(espnConnectTimeout), Duration.ofMillis(espnReadTimeout)),
+                "openai", new UpstreamConfig(Duration.ofMillis(openAiConnectTimeout), Duration.ofMillis(openAiReadTimeout))
+        );
+        this.sslContext = SSLContext.getDefault();
+        this.meterRegistry = meterRegistry;
+    }
+
+    private UpstreamConfig config(String upstream) {
+        UpstreamConfig config = upstreams.get(upstream);
+        if (config == null) {
+            throw new IllegalArgumentException("Unknown upstream: " + upstream);
+        }
+        return config;
+    }
+
+    private HttpClient httpClient(String upstream) {
+        return httpClients.computeIfAbsent(upstream, name -> HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_2)
+                .connectTimeout(config(name).connectTimeout())
+                .followRedirects(HttpClient.Redirect.NORMAL)
+                .sslContext(sslContext)
+                .build());
+    }
+
+    /**
+     * Counts every request and keeps track of how many are in flight per upstream and host
+     */
+    private ClientHttpRequestInterceptor poolMetrics(String upstream) {
+        return (request, body, execution) -> {
+            AtomicInteger active = track(upstream, request.getURI());
+            active.incrementAndGet();
+            try {
+                return execution.execute(request, body);
+            } finally {
+                active.decrementAndGet();
+            }
+        };
+    }
+
+    private AtomicInteger track(String upstream, URI uri) {
+        String host = String.valueOf(uri.getHost());
+        String key = upstream + "|" + host;
+
+        AtomicInteger active = inFlight.computeIfAbsent(key, k -> meterRegistry.gauge(
+                "http.client.pool.in_flight",
+                Tags.of("upstream", upstream, "host", host),
+                new AtomicInteger()));
+        requestCounters.computeIfAbsent(key, k -> Counter.builder("http.client.pool.requests")
+                .tag("upstream", upstream)
+                .tag("host", host)
+                .register(meterRegistry)).increment();
+        return active;
+    }
+
+    /**
+     * Reactive counterpart of poolMetrics, plus the read timeout
+     */
+    private ExchangeFilterFunction exchangeFilter(String upstream) {
+        Duration timeout = config(upstream).readTimeout();
+        return (request, next) -> Mono.defer(() -> {
+            AtomicInteger active = track(upstream, request.url());
+            active.incrementAndGet();
+            return next.exchange(request)
+                    .timeout(timeout)
+                    .onErrorMap(TimeoutException.class,
+                            e -> new HttpTimeoutException("No response from " + request.url().getHost()
+                                    + " within " + timeout.toMillis() + " ms"))
+                    .doFinally(signal -> active.decrementAndGet());
+        });
+    }
+
+    /**
+     * Creates a WebClient builder wired to the shared transport of an upstream, for the
+     * reactive variant. Callers add their own base URL and default headers before building.
+     *
+     * @param upstream "espn" or "openai"
+     * @return WebClient.Builder on the pooled HttpClient, with pool metrics and read timeout
+     */
+    public WebClient.Builder webClientBuilder(String upstream) {
+        return WebClient.builder()
+                .clientConnector(new JdkClientHttpConnector(httpClient(upstream)))
+                // Some ESPN documents (rosters, statistics logs) are larger than the 256 KB default
+                .codecs(codecs -> codecs.defaultCodecs().maxInMemorySize(MAX_BODY_BYTES))
+                .filter(exchangeFilter(upstream));
+    }
+
+    /**
+     * Creates a RestClient builder wired to the shared transport of an upstream.
+     * Callers add their own base URL and default headers before building.
+     *
+     * @param upstream "espn" or "openai"
+     * @return RestClient.Builder using the pooled HttpClient and the upstream's read timeout
+     */
+    public RestClient.Builder builder(String upstream) {
+        var reqFactory = new JdkClientHttpRequestFactory(httpClient(upstream));
+        reqFactory.setReadTimeout(config(upstream).readTimeout());
+
+        return RestClient.builder()
+                .requestFactory(reqFactory)
+                .requestInterceptor(poolMetrics(upstream));
+    }
+
+    /**
+     * @param upstream "espn" or "openai"
+     * @return Ready-to-use RestClient on the shared transport
+     */
+    public RestClient restClient(String upstream) {
+        return builder(upstream).build();
+    }
+}
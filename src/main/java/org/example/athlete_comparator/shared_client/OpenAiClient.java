@@ -4,79 +4,306 @@ import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.node.ArrayNode;
 import com.fasterxml.jackson.databind.node.ObjectNode;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.ParameterizedTypeReference;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
+import org.springframework.http.codec.ServerSentEvent;
 import org.springframework.stereotype.Component;
 import org.springframework.web.client.RestClient;
+import org.springframework.web.client.RestClientResponseException;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
 
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Chat completions client for the comparison write-ups.
+ *
+ * Metrics, all tagged with the model:
+ * - openai.requests: timer per call, tagged mode=blocking or stream and outcome
+ * - openai.stream.first_token: time until the first streamed delta arrived
+ * - openai.tokens: prompt and completion tokens as reported by OpenAI, tagged type
+ */
 @Component
 public class OpenAiClient {
 
     private static final Logger log = LoggerFactory.getLogger(OpenAiClient.class);
+    private static final ParameterizedTypeReference<ServerSentEvent<String>> EVENT = new ParameterizedTypeReference<>() {
+    };
     private final RestClient restClient;
+    private final WebClient webClient;
+    private final UpstreamGuard upstreamGuard;
+    private final String url;
     private final ObjectMapper objectMapper;
     private final String model;
     private final double temperature;
     private final int maxTokens;
+    private final MeterRegistry meterRegistry;
+    private final Counter promptTokens;
+    private final Counter completionTokens;
+    private final Timer firstToken;
 
     public OpenAiClient(@Value("${app.api-key}") String apiKey,
                         @Value("${app.url}") String url,
                         @Value("${app.model}") String model,
                         @Value("${app.temperature}") double temperature,
-                        @Value("${app.max_tokens}") int maxTokens) {
+                        @Value("${app.max_tokens}") int maxTokens,
+                        HttpTransport httpTransport,
+                        UpstreamGuard upstreamGuard,
+                        MeterRegistry meterRegistry) {
+        this.upstreamGuard = upstreamGuard;
+        this.url = url;
         this.model = model;
         this.temperature = temperature;
         this.maxTokens = maxTokens;
         this.objectMapper = new ObjectMapper();
+        this.meterRegistry = meterRegistry;
+        this.promptTokens = Counter.builder("openai.tokens")
+                .description("Prompt tokens billed by OpenAI")
+                .tag("model", model)
+                .tag("type", "prompt")
+                .register(meterRegistry);
+        this.completionTokens = Counter.builder("openai.tokens")
+                .description("Completion tokens billed by OpenAI")
+                .tag("model", model)
+                .tag("type", "completion")
+                .register(meterRegistry);
+        this.firstToken = Timer.builder("openai.stream.first_token")
+                .description("Time from sending a streamed prompt to its first content delta")
+                .tag("model", model)
+                .publishPercentileHistogram()
+                .register(meterRegistry);
 
-        this.restClient = RestClient.builder()
+        this.restClient = httpTransport.builder("openai")
+                .baseUrl(url)
+                .defaultHeader(HttpHeaders.AUTHORIZATION, "Bearer " + apiKey)
+                .defaultHeader(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+                .build();
+        this.webClient = httpTransport.webClientBuilder("openai")
                 .baseUrl(url)
                 .defaultHeader(HttpHeaders.AUTHORIZATION, "Bearer " + apiKey)
                 .defaultHeader(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
                 .build();
     }
 
-    public String sendPrompt(String systemPrompt, String userPrompt) {
-        try {
-            ObjectNode requestBody = objectMapper.createObjectNode();
-            requestBody.put("model", model);
-            requestBody.put("temperature", temperature);
-            requestBody.put("max_tokens", maxTokens);
+    /**
+     * Builds the chat completions request body
+     */
+    private ObjectNode buildRequest(String systemPrompt, String userPrompt, boolean stream) {
+        ObjectNode requestBody = objectMapper.createObjectNode();
+        requestBody.put("model", model);
+        requestBody.put("temperature", temperature);
+        requestBody.put("max_tokens", maxTokens);
+        if (stream) {
+            requestBody.put("stream", true);
+            // Adds a final chunk carrying the token usage
+            requestBody.putObject("stream_options").put("include_usage", true);
+        }
 
-            ArrayNode messages = objectMapper.createArrayNode();
-            requestBody.set("messages", messages);
+        ArrayNode messages = objectMapper.createArrayNode();
+        requestBody.set("messages", messages);
 
-            ObjectNode systemMessage = objectMapper.createObjectNode();
-            systemMessage.put("role", "system");
-            systemMessage.put("content", systemPrompt);
-            messages.add(systemMessage);
+        ObjectNode systemMessage = objectMapper.createObjectNode();
+        systemMessage.put("role", "system");
+        systemMessage.put("content", systemPrompt);
+        messages.add(systemMessage);
 
-            ObjectNode userMessage = objectMapper.createObjectNode();
-            userMessage.put("role", "user");
-            userMessage.put("content", userPrompt);
-            messages.add(userMessage);
+        ObjectNode userMessage = objectMapper.createObjectNode();
+        userMessage.put("role", "user");
+        userMessage.put("content", userPrompt);
+        messages.add(userMessage);
 
-            JsonNode response = restClient.post()
-                    .body(requestBody)
-                    .retrieve()
-                    .body(JsonNode.class);
+        return requestBody;
+    }
 
-            if (response != null && response.has("choices") && response.get("choices").isArray()) {
-                JsonNode firstChoice = response.get("choices").get(0);
-                if (firstChoice.has("message") && firstChoice.get("message").has("content")) {
-                    return firstChoice.get("message").get("content").asText();
-                }
+    private void stop(Timer.Sample sample, String mode, String outcome) {
+        sample.stop(Timer.builder("openai.requests")
+                .description("Chat completion calls")
+                .tag("model", model)
+                .tag("mode", mode)
+                .tag("outcome", outcome)
+                .publishPercentileHistogram()
+                .register(meterRegistry));
+    }
+
+    /**
+     * Counts the tokens from a response's (or final stream chunk's) usage object, if present
+     */
+    private void recordUsage(JsonNode usage) {
+        if (usage == null || !usage.isObject()) return;
+        promptTokens.increment(usage.path("prompt_tokens").asDouble(0));
+        completionTokens.increment(usage.path("completion_tokens").asDouble(0));
+    }
+
+    /**
+     * Records usage and takes the answer out of a blocking chat completion response
+     */
+    private String content(JsonNode response, Timer.Sample sample) {
+        if (response != null) {
+            recordUsage(response.get("usage"));
+        }
+        if (response != null && response.has("choices") && response.get("choices").isArray()) {
+            JsonNode firstChoice = response.get("choices").get(0);
+            if (firstChoice.has("message") && firstChoice.get("message").has("content")) {
+                stop(sample, "blocking", "success");
+                return firstChoice.get("message").get("content").asText();
             }
+        }
 
-            log.error("Unexpected response format from OpenAI: {}", response);
-            return "Error: Unable to get response from AI";
+        log.error("Unexpected response format from OpenAI: {}", response);
+        stop(sample, "blocking", "bad_response");
+        return "Error: Unable to get response from AI";
+    }
+
+    /**
+     * Handles one "data:" payload of a streamed response
+     * @return The content delta it carried, empty if none
+     */
+    private String onChunk(String data, StringBuilder full, long started, Consumer<String> onDelta) throws IOException {
+        JsonNode chunk = objectMapper.readTree(data);
+        recordUsage(chunk.get("usage"));
+        String delta = chunk.path("choices").path(0).path("delta").path("content").asText("");
+        if (!delta.isEmpty()) {
+            if (full.isEmpty()) {
+                firstToken.record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+            }
+            full.append(delta);
+            onDelta.accept(delta);
+        }
+        return delta;
+    }
+
+    public String sendPrompt(String systemPrompt, String userPrompt) {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        try {
+            ObjectNode requestBody = buildRequest(systemPrompt, userPrompt, false);
+
+            // Not retried, a repeated completion costs tokens
+            JsonNode response = upstreamGuard.call("openai", url, false, () -> restClient.post()
+                    .body(requestBody)
+                    .retrieve()
+                    .body(JsonNode.class));
+
+            return content(response, sample);
 
         } catch (Exception e) {
             log.error("Error calling OpenAI API", e);
+            stop(sample, "blocking", UpstreamGuard.outcome(e));
+            return "Error: " + e.getMessage();
+        }
+    }
+
+    /**
+     * Sends a prompt with stream=true and hands every content delta to the caller as it arrives.
+     * OpenAI answers with server-sent events, one "data: {chunk}" line per delta and "data: [DONE]" at the end.
+     *
+     * @param systemPrompt System prompt
+     * @param userPrompt   User prompt
+     * @param onDelta      Called on the calling thread for each piece of content, in order
+     * @return The complete response text, or an "Error: ..." string like sendPrompt
+     */
+    public String streamPrompt(String systemPrompt, String userPrompt, Consumer<String> onDelta) {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        long started = System.nanoTime();
+        try {
+            ObjectNode requestBody = buildRequest(systemPrompt, userPrompt, true);
+
+            String text = upstreamGuard.call("openai", url, false, () -> restClient.post()
+                    .accept(MediaType.TEXT_EVENT_STREAM)
+                    .body(requestBody)
+                    .exchange((request, response) -> {
+                        if (response.getStatusCode().isError()) {
+                            // Thrown so the circuit breaker sees the status, reported as an "Error: ..." below
+                            throw new RestClientResponseException("OpenAI streaming request failed",
+                                    response.getStatusCode(), response.getStatusText(), null, null, null);
+                        }
+
+                        StringBuilder full = new StringBuilder();
+                        try (BufferedReader reader = new BufferedReader(
+                                new InputStreamReader(response.getBody(), StandardCharsets.UTF_8))) {
+                            String line;
+                            while ((line = reader.readLine()) != null) {
+                                if (!line.startsWith("data:")) continue;
+                                String data = line.substring("data:".length()).trim();
+                                if ("[DONE]".equals(data)) break;
+                                onChunk(data, full, started, onDelta);
+                            }
+                        }
+                        return full.toString();
+                    }));
+            stop(sample, "stream", "success");
+            return text;
+
+        } catch (Exception e) {
+            log.error("Error calling OpenAI streaming API", e);
+            stop(sample, "stream", UpstreamGuard.outcome(e));
             return "Error: " + e.getMessage();
         }
     }
+
+    /**
+     * Reactive counterpart of sendPrompt
+     * @return The response text, or an "Error: ..." string; never fails
+     */
+    public Mono<String> sendPromptReactive(String systemPrompt, String userPrompt) {
+        return Mono.defer(() -> {
+            Timer.Sample sample = Timer.start(meterRegistry);
+            ObjectNode requestBody = buildRequest(systemPrompt, userPrompt, false);
+
+            // Not retried, a repeated completion costs tokens
+            return upstreamGuard.callReactive("openai", url, false, () -> webClient.post()
+                            .bodyValue(requestBody)
+                            .retrieve()
+                            .bodyToMono(JsonNode.class))
+                    .map(response -> content(response, sample))
+                    .switchIfEmpty(Mono.fromSupplier(() -> content(null, sample)))
+                    .onErrorResume(e -> {
+                        log.error("Error calling OpenAI API", e);
+                        stop(sample, "blocking", UpstreamGuard.outcome(e));
+                        return Mono.just("Error: " + e.getMessage());
+                    });
+        });
+    }
+
+    /**
+     * Reactive counterpart of streamPrompt: reads the server-sent events without holding a thread
+     * @param onDelta Called for each piece of content, in order, on whichever thread delivered it
+     * @return The complete response text, or an "Error: ..." string; never fails
+     */
+    public Mono<String> streamPromptReactive(String systemPrompt, String userPrompt, Consumer<String> onDelta) {
+        return Mono.defer(() -> {
+            Timer.Sample sample = Timer.start(meterRegistry);
+            long started = System.nanoTime();
+            ObjectNode requestBody = buildRequest(systemPrompt, userPrompt, true);
+            StringBuilder full = new StringBuilder();
+
+            return upstreamGuard.callReactive("openai", url, false, () -> webClient.post()
+                            .accept(MediaType.TEXT_EVENT_STREAM)
+                            .bodyValue(requestBody)
+                            .retrieve()
+                            .bodyToFlux(EVENT)
+                            .mapNotNull(ServerSentEvent::data)
+                            .map(String::trim)
+                            .takeWhile(data -> !"[DONE]".equals(data))
+                            .concatMap(data -> Mono.fromCallable(() -> onChunk(data, full, started, onDelta)))
+                            .then(Mono.fromSupplier(full::toString)))
+                    .doOnSuccess(text -> stop(sample, "stream", "success"))
+                    .onErrorResume(e -> {
+                        log.error("Error calling OpenAI streaming API", e);
+                        stop(sample, "stream", UpstreamGuard.outcome(e));
+                        return Mono.just("Error: " + e.getMessage());
+                    });
+        });
+    }
 }
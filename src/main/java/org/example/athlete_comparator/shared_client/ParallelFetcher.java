@@ -0,0 +1,163 @@
+package org.example.athlete_comparator.shared_client;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Function;
+
+/**
+ * Runs one upstream lookup per input concurrently and hands the results back in input order.
+ * With espn.fanout.enabled=false the lookups run inline, one after another.
+ * Once the caller's Deadline passes, unfinished lookups come back as null.
+ * A lookup that throws also comes back as null and marks the Deadline partial.
+ */
+@Component
+public class ParallelFetcher {
+
+    private static final Logger log = LoggerFactory.getLogger(ParallelFetcher.class);
+    private final ExecutorService executor;
+    private final boolean enabled;
+
+    public ParallelFetcher(@Qualifier("fanOutExecutor") ExecutorService executor,
+                           @Value("${espn.fanout.enabled:true}") boolean enabled) {
+        this.executor = executor;
+        this.enabled = enabled;
+    }
+
+    private <T, R> CompletableFuture<R> submit(Function<T, R> lookup, T input) {
+        Callable<R> task = Deadline.propagate(() -> applySafely(lookup, input));
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                return task.call();
+            } catch (Exception e) {
+                // applySafely never throws
+                return null;
+            }
+        }, executor);
+    }
+
+    private static <T, R> R applySafely(Function<T, R> lookup, T input) {
+        try {
+            return lookup.apply(input);
+        } catch (Exception e) {
+            // The caller gets an incomplete answer, which must not be cached as the whole one
+            log.debug("Lookup failed for {}: {}", input, e.getMessage());
+            Deadline.markCurrentPartial();
+            return null;
+        }
+    }
+
+    /**
+     * Applies the lookup to every input and returns the results in the same order as the inputs.
+     * A lookup that throws yields null at its position instead of failing the whole batch,
+     * and the request's Deadline is marked partial.
+     *
+     * @param inputs Values to look up
+     * @param lookup Blocking lookup, typically an ESPN client call
+     * @return One result per input, null where the lookup failed or returned nothing
+     */
+    public <T, R> List<R> mapOrdered(List<T> inputs, Function<T, R> lookup) {
+        List<R> out = new ArrayList<>(inputs.size());
+
+        if (!enabled || inputs.size() < 2) {
+            for (T input : inputs) {
+                out.add(applySafely(lookup, input));
+            }
+            return out;
+        }
+
+        List<CompletableFuture<R>> futures = new ArrayList<>(inputs.size());
+        for (T input : inputs) {
+            futures.add(submit(lookup, input));
+        }
+        Deadline deadline = Deadline.current();
+        for (CompletableFuture<R> future : futures) {
+            try {
+                out.add(deadline == null
+                        ? future.get()
+                        : future.get(deadline.remaining().toNanos(), TimeUnit.NANOSECONDS));
+            } catch (TimeoutException e) {
+                deadline.markPartial();
+                out.add(future.getNow(null));
+            } catch (InterruptedException e) {
+                // Caller was interrupted, stop waiting and keep the interrupt; the lookups run on
+                Thread.currentThread().interrupt();
+                while (out.size() < inputs.size()) out.add(null);
+                return out;
+            } catch (ExecutionException e) {
+                // applySafely never throws, so this cannot happen
+                out.add(null);
+            }
+        }
+        return out;
+    }
+
+    /**
+     * Opens a scope for running a few different lookups side by side, see FetchScope
+     *
+     * @return New scope; close it when done
+     */
+    public FetchScope openScope() {
+        return new FetchScope(enabled ? executor : null);
+    }
+
+    /**
+     * Like mapOrdered, but stops waiting once the time budget is used up.
+     * Lookups that have not finished by then yield null; they keep running in the background,
+     * so their responses still end up in the response cache for the next caller.
+     *
+     * @param inputs Values to look up
+     * @param lookup Blocking lookup, typically an ESPN client call
+     * @param budget Maximum time to wait for the whole batch, cut short by the request's Deadline
+     * @return One result per input, null where the lookup failed, returned nothing or was too slow
+     */
+    public <T, R> List<R> mapOrdered(List<T> inputs, Function<T, R> lookup, Duration budget) {
+        Duration wait = Deadline.clamp(budget);
+        long deadline = System.nanoTime() + wait.toNanos();
+        List<R> out = new ArrayList<>(inputs.size());
+
+        if (!enabled) {
+            for (T input : inputs) {
+                out.add(System.nanoTime() < deadline ? applySafely(lookup, input) : null);
+            }
+            return out;
+        }
+
+        List<CompletableFuture<R>> futures = new ArrayList<>(inputs.size());
+        for (T input : inputs) {
+            futures.add(submit(lookup, input));
+        }
+
+        try {
+            CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[0]))
+                    .get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            log.debug("Time budget of {} ms used up, returning partial results", wait.toMillis());
+            if (wait.compareTo(budget) < 0) {
+                // The request's deadline cut the wait short, not the caller's own budget
+                Deadline.markCurrentPartial();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            // applySafely never throws, so this cannot happen
+        }
+
+        for (CompletableFuture<R> future : futures) {
+            out.add(future.getNow(null));
+        }
+        return out;
+    }
+}
@@ -0,0 +1,119 @@
+package org.example.athlete_comparator.shared_client;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Runs background ESPN work at a bounded rate: cache refreshes from EspnResponseCache
+ * and the ESPN searches that grow the search indexes.
+ *
+ * A key runs at most once at a time, at most espn.refresh.max-pending tasks run at once and
+ * new ones start at no more than espn.refresh.rate per second. A task that is turned away is
+ * dropped, the caller already has an answer and the next access asks again.
+ *
+ * Outcomes are counted as espn.cache.refreshes, tagged result=scheduled, throttled or failed.
+ */
+@Component
+public class RefreshScheduler {
+
+    private static final Logger log = LoggerFactory.getLogger(RefreshScheduler.class);
+
+    private final ExecutorService executor;
+    private final double ratePerSecond;
+    private final int maxPending;
+    private final Set<String> pending = ConcurrentHashMap.newKeySet();
+    private final Counter scheduled;
+    private final Counter throttled;
+    private final Counter failed;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private double tokens;
+    private long lastRefillNanos = System.nanoTime();
+
+    public RefreshScheduler(@Qualifier("fanOutExecutor") ExecutorService executor,
+                            @Value("${espn.refresh.rate:5}") double ratePerSecond,
+                            @Value("${espn.refresh.max-pending:32}") int maxPending,
+                            MeterRegistry meterRegistry) {
+        this.executor = executor;
+        this.ratePerSecond = ratePerSecond;
+        this.maxPending = maxPending;
+        this.tokens = Math.max(1, ratePerSecond);
+        this.scheduled = Counter.builder("espn.cache.refreshes")
+                .description("Background refreshes started")
+                .tag("result", "scheduled")
+                .register(meterRegistry);
+        this.throttled = Counter.builder("espn.cache.refreshes")
+                .description("Background refreshes dropped by the rate or pending limit")
+                .tag("result", "throttled")
+                .register(meterRegistry);
+        this.failed = Counter.builder("espn.cache.refreshes")
+                .description("Background refreshes that threw")
+                .tag("result", "failed")
+                .register(meterRegistry);
+        meterRegistry.gauge("espn.cache.refreshes.pending", pending, Set::size);
+    }
+
+    private boolean tryAcquire() {
+        lock.lock();
+        try {
+            long now = System.nanoTime();
+            double burst = Math.max(1, ratePerSecond);
+            tokens = Math.min(burst, tokens + (now - lastRefillNanos) / 1e9 * ratePerSecond);
+            lastRefillNanos = now;
+            if (tokens < 1) return false;
+            tokens -= 1;
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Starts a refresh in the background unless one is already running for the key or the
+     * rate limit has been reached
+     * @param key Identifies the work, e.g. the request URL of a cache refresh
+     * @param refresh The work to do
+     * @return true if the refresh was started
+     */
+    public boolean submit(String key, Runnable refresh) {
+        if (ratePerSecond <= 0 || pending.size() >= maxPending || !pending.add(key)) {
+            throttled.increment();
+            return false;
+        }
+        if (!tryAcquire()) {
+            pending.remove(key);
+            throttled.increment();
+            return false;
+        }
+
+        try {
+            executor.execute(() -> {
+                try {
+                    refresh.run();
+                } catch (Exception e) {
+                    failed.increment();
+                    log.debug("Background refresh of {} failed: {}", key, e.getMessage());
+                } finally {
+                    pending.remove(key);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            // Executor is shutting down
+            pending.remove(key);
+            return false;
+        }
+        scheduled.increment();
+        return true;
+    }
+}
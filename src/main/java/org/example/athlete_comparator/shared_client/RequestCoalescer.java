@@ -0,0 +1,167 @@
+package org.example.athlete_comparator.shared_client;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * Single-flight wrapper for upstream calls.
+ *
+ * When several threads ask for the same key at the same time, only the first one starts the
+ * call; everyone gets the same result or exception. The call runs on its own virtual thread,
+ * detached from every caller, with the upstream's full timeout. Each caller, including the one
+ * that started it, waits no longer than its own Deadline, so a caller that gives up or is
+ * interrupted never cuts the call short for the others. Once the call finishes the key is
+ * released again; serving old data is the job of EspnResponseCache. Blocking and reactive
+ * callers share the same in-flight calls.
+ *
+ * Counts are published as upstream.coalescer.calls, tagged role=leader or role=collapsed.
+ */
+@Component
+public class RequestCoalescer {
+
+    private final Map<String, CompletableFuture<Object>> inFlight = new ConcurrentHashMap<>();
+    private final ExecutorService executor;
+    private final Counter leaders;
+    private final Counter collapsed;
+
+    public RequestCoalescer(@Qualifier("fanOutExecutor") ExecutorService executor, MeterRegistry meterRegistry) {
+        this.executor = executor;
+        this.leaders = Counter.builder("upstream.coalescer.calls")
+                .description("Upstream calls actually performed")
+                .tag("role", "leader")
+                .register(meterRegistry);
+        this.collapsed = Counter.builder("upstream.coalescer.calls")
+                .description("Upstream calls that joined an identical call already in flight")
+                .tag("role", "collapsed")
+                .register(meterRegistry);
+        meterRegistry.gauge("upstream.coalescer.in_flight", inFlight, Map::size);
+    }
+
+    /**
+     * Performs the call, or joins an identical call that is already running
+     * @param key Identifies identical calls, normally the request URL
+     * @param call The blocking upstream call, run without the caller's Deadline
+     * @return Result of the call (shared between all callers that joined it)
+     * @throws DeadlineExceededException if the caller's deadline passed before the call finished
+     */
+    public <T> T execute(String key, Supplier<T> call) {
+        CompletableFuture<Object> mine = new CompletableFuture<>();
+        CompletableFuture<Object> running = inFlight.putIfAbsent(key, mine);
+
+        if (running != null) {
+            collapsed.increment();
+        } else {
+            leaders.increment();
+            start(key, mine, call);
+            running = mine;
+        }
+        return await(key, running);
+    }
+
+    private void start(String key, CompletableFuture<Object> mine, Supplier<?> call) {
+        Runnable task = () -> {
+            Object result;
+            try {
+                result = call.get();
+            } catch (Throwable e) {
+                // Errors too, or the callers would wait for a result that never comes
+                finish(key, mine, null, e);
+                return;
+            }
+            finish(key, mine, result, null);
+        };
+        try {
+            executor.execute(task);
+        } catch (RejectedExecutionException e) {
+            // Executor is shutting down, run the call on the caller's thread
+            task.run();
+        }
+    }
+
+    /**
+     * Releases the key, then hands the outcome to the callers. The other way round a caller
+     * arriving in between would be given this outcome instead of starting a fresh call.
+     */
+    private void finish(String key, CompletableFuture<Object> mine, Object result, Throwable error) {
+        inFlight.remove(key, mine);
+        if (error != null) {
+            mine.completeExceptionally(error);
+        } else {
+            mine.complete(result);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T await(String key, CompletableFuture<Object> running) {
+        Deadline deadline = Deadline.current();
+        try {
+            if (deadline == null) {
+                return (T) running.get();
+            }
+            // Wait no longer than this caller's own deadline allows, the call itself may take longer
+            return (T) running.get(deadline.remaining().toNanos(), TimeUnit.NANOSECONDS);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException re) throw re;
+            if (e.getCause() instanceof Error error) throw error;
+            throw new CompletionException(e.getCause());
+        } catch (TimeoutException e) {
+            deadline.markPartial();
+            throw new DeadlineExceededException("Request deadline passed while waiting for " + key);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for " + key, e);
+        }
+    }
+
+    /**
+     * Reactive counterpart of execute(): joins an identical call already in flight, or starts it.
+     * The call is subscribed to on its own, without the caller's Reactor context, so it runs
+     * with the upstream's full timeout. Each caller waits no longer than the Deadline in its own
+     * context allows, and cancelling only detaches that caller; the call keeps running for the
+     * others and still completes for whoever joins it later.
+     * @param key Identifies identical calls, normally the request URL
+     * @param call Creates the upstream call, subscribed to once per key in flight
+     * @return Result of the call, empty if it completed without a value
+     */
+    @SuppressWarnings("unchecked")
+    public <T> Mono<T> executeReactive(String key, Supplier<Mono<T>> call) {
+        return Mono.deferContextual(ctx -> {
+            CompletableFuture<Object> mine = new CompletableFuture<>();
+            CompletableFuture<Object> running = inFlight.putIfAbsent(key, mine);
+
+            if (running != null) {
+                collapsed.increment();
+            } else {
+                leaders.increment();
+                Mono.defer(call).subscribe(
+                        value -> finish(key, mine, value, null),
+                        e -> finish(key, mine, null, e),
+                        () -> finish(key, mine, null, null));
+                running = mine;
+            }
+
+            // Cancelling the wait must not cancel the shared future
+            Mono<T> joined = Mono.fromFuture((CompletableFuture<T>) (CompletableFuture<?>) running, true);
+            Deadline deadline = Deadline.from(ctx);
+            if (deadline == null) return joined;
+            return joined.timeout(deadline.remaining(), Mono.defer(() -> {
+                deadline.markPartial();
+                return Mono.error(new DeadlineExceededException("Request deadline passed while waiting for " + key));
+            }));
+        });
+    }
+}
@@ -0,0 +1,349 @@
+package org.example.athlete_comparator.shared_client;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestClientResponseException;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Mono;
+
+import java.net.SocketTimeoutException;
+import java.net.URI;
+import java.net.http.HttpTimeoutException;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+import java.util.regex.Pattern;
+
+/**
+ * Resilience layer in front of every ESPN and OpenAI call.
+ *
+ * A call passes through, in order:
+ * 1. a circuit breaker per host and endpoint family (e.g. espn "statistics", "search");
+ * 2. HostConcurrencyLimiter, which sheds load when an ESPN host slows down
+ *    (OpenAI gets a fixed limit, its latency depends on the answer, not on its load);
+ * 3. the call itself, retried once on timeouts, I/O errors, 5xx and 429 while the budget allows.
+ * Every call adds upstream.retry.budget-ratio of a retry token to its upstream's budget, every
+ * retry spends one, so retries stay a bounded share of the load.
+ * Published: upstream.circuit.state, upstream.circuit.rejected and upstream.retries.
+ */
+@Component
+public class UpstreamGuard {
+
+    private static final Pattern SKIPPED_SEGMENT = Pattern.compile("\\d+|v\\d+|");
+
+    private final HostConcurrencyLimiter hostLimiter;
+    private final MeterRegistry meterRegistry;
+    private final Map<String, Long> slowCallNanos;
+    private final int windowSize;
+    private final int minCalls;
+    private final double failureRateThreshold;
+    private final long openNanos;
+    private final int halfOpenCalls;
+    private final int maxAttempts;
+    private final long retryBackoffMs;
+    private final double budgetRatio;
+    private final double maxTokens;
+
+    private final Map<String, CircuitBreaker> breakers = new ConcurrentHashMap<>();
+    private final Map<String, Counter> rejections = new ConcurrentHashMap<>();
+    private final Map<String, RetryBudget> budgets = new ConcurrentHashMap<>();
+
+    public UpstreamGuard(HostConcurrencyLimiter hostLimiter,
+                         @Value("${upstream.circuit.espn.slow-call-ms:3000}") long espnSlowCallMs,
+                         @Value("${upstream.circuit.openai.slow-call-ms:60000}") long openAiSlowCallMs,
+                         @Value("${upstream.circuit.window-size:20}") int windowSize,
+                         @Value("${upstream.circuit.min-calls:10}") int minCalls,
+                         @Value("${upstream.circuit.failure-rate:0.5}") double failureRateThreshold,
+                         @Value("${upstream.circuit.open-ms:30000}") long openMs,
+                         @Value("${upstream.circuit.half-open-calls:3}") int halfOpenCalls,
+                         @Value("${upstream.retry.max-attempts:2}") int maxAttempts,
+                         @Value("${upstream.retry.backoff-ms:100}") long retryBackoffMs,
+                         @Value("${upstream.retry.budget-ratio:0.1}") double budgetRatio,
+                         @Value("${upstream.retry.max-tokens:10}") double maxTokens,
+                         MeterRegistry meterRegistry) {
+        this.hostLimiter = hostLimiter;
+        this.meterRegistry = meterRegistry;
+        this.slowCallNanos = Map.of(
+                "espn", Duration.ofMillis(espnSlowCallMs).toNanos(),
+                "openai", Duration.ofMillis(openAiSlowCallMs).toNanos()
+        );
+        this.windowSize = windowSize;
+        this.minCalls = Math.min(minCalls, windowSize);
+        this.failureRateThreshold = failureRateThreshold;
+        this.openNanos = Duration.ofMillis(openMs).toNanos();
+        this.halfOpenCalls = halfOpenCalls;
+        this.maxAttempts = Math.max(1, maxAttempts);
+        this.retryBackoffMs = retryBackoffMs;
+        this.budgetRatio = budgetRatio;
+        this.maxTokens = maxTokens;
+    }
+
+    /**
+     * Groups URLs into endpoint families: the last path segment that is not an ID or a
+     * version, so /athletes/1966/statistics/0 and /athletes/3112335/statistics/0 share a breaker
+     * @param url Full request URL
+     * @return Family name, e.g. "statistics", "search" or "completions"
+     */
+    static String family(String url) {
+        try {
+            String path = URI.create(url).getPath();
+            String[] segments = path != null ? path.split("/") : new String[0];
+            for (int i = segments.length - 1; i >= 0; i--) {
+                if (!SKIPPED_SEGMENT.matcher(segments[i]).matches()) return segments[i];
+            }
+        } catch (Exception ignored) {
+            // Fall through to the catch-all family
+        }
+        return "other";
+    }
+
+    /**
+     * Decides whether an exception says something about the upstream's health
+     * @param e Exception thrown by a call
+     * @return true for timeouts, I/O errors, 5xx and 429; false for other 4xx, our own rejections,
+     *         calls aborted by an interrupt and anything after the request's deadline passed
+     */
+    static boolean isFailure(Throwable e) {
+        // The JDK client turns an interrupt into an IOException, which says nothing about the host
+        if (Thread.currentThread().isInterrupted()) return false;
+        return isFailure(e, Deadline.current());
+    }
+
+    /**
+     * Same as isFailure(e), for a deadline taken from a Reactor context
+     */
+    static boolean isFailure(Throwable e, Deadline deadline) {
+        if (e instanceof UpstreamUnavailableException || e instanceof DeadlineExceededException) return false;
+        // A timeout cut short by the request's own deadline is not the upstream's fault
+        if (deadline != null && deadline.isExpired()) return false;
+        int status = status(e);
+        return status < 0 || status >= 500 || status == 429;
+    }
+
+    /**
+     * @return HTTP status of an error response from RestClient or WebClient, -1 for anything else
+     */
+    private static int status(Throwable e) {
+        if (e instanceof RestClientResponseException response) return response.getStatusCode().value();
+        if (e instanceof WebClientResponseException response) return response.getStatusCode().value();
+        return -1;
+    }
+
+    /**
+     * Names the way a call failed, for metric tags
+     * @param e Exception thrown by an upstream call
+     * @return deadline, rejected, client_error, server_error, timeout or io_error
+     */
+    public static String outcome(Throwable e) {
+        if (e instanceof DeadlineExceededException) return "deadline";
+        if (e instanceof UpstreamUnavailableException) return "rejected";
+        int status = status(e);
+        if (status >= 0) {
+            return status >= 400 && status < 500 ? "client_error" : "server_error";
+        }
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof HttpTimeoutException || cause instanceof SocketTimeoutException
+                    || cause instanceof TimeoutException) return "timeout";
+        }
+        return "io_error";
+    }
+
+    private CircuitBreaker breaker(String upstream, String host, String family) {
+        return breakers.computeIfAbsent(host + "|" + family, key -> {
+            CircuitBreaker breaker = new CircuitBreaker(windowSize, minCalls, failureRateThreshold, openNanos, halfOpenCalls);
+            Gauge.builder("upstream.circuit.state", breaker, b -> b.state().ordinal())
+                    .description("Circuit breaker state: 0 closed, 1 open, 2 half-open")
+                    .tag("upstream", upstream)
+                    .tag("host", host)
+                    .tag("family", family)
+                    .register(meterRegistry);
+            return breaker;
+        });
+    }
+
+    private Counter rejections(String upstream, String host, String family) {
+        return rejections.computeIfAbsent(host + "|" + family, key -> Counter.builder("upstream.circuit.rejected")
+                .description("Calls rejected because the circuit was open")
+                .tag("upstream", upstream)
+                .tag("host", host)
+                .tag("family", family)
+                .register(meterRegistry));
+    }
+
+    private RetryBudget budget(String upstream) {
+        return budgets.computeIfAbsent(upstream, name -> new RetryBudget(name, budgetRatio, maxTokens, meterRegistry));
+    }
+
+    /**
+     * Runs an upstream call through the breaker, the adaptive limiter and the retry budget
+     * @param upstream "espn" or "openai", as in HttpTransport
+     * @param url The URL the call is going to
+     * @param retryable Whether the call may be repeated (plain GETs; not streams or paid calls)
+     * @param call The actual request
+     * @return Whatever the call returns
+     * @throws UpstreamUnavailableException if the circuit is open or the host is at its limit
+     */
+    public <T> T call(String upstream, String url, boolean retryable, Supplier<T> call) {
+        String host = HostConcurrencyLimiter.host(url);
+        String family = family(url);
+        CircuitBreaker breaker = breaker(upstream, host, family);
+        RetryBudget budget = budget(upstream);
+        long slowNanos = slowCallNanos.getOrDefault(upstream, Long.MAX_VALUE);
+        budget.deposit();
+
+        for (int attempt = 1; ; attempt++) {
+            if (!breaker.tryAcquire()) {
+                rejections(upstream, host, family).increment();
+                throw new UpstreamUnavailableException("Circuit for " + host + " " + family + " is open",
+                        breaker.retryAfterSeconds());
+            }
+
+            long start = System.nanoTime();
+            try {
+                T result = hostLimiter.call(upstream, url, call, UpstreamGuard::isFailure);
+                breaker.record(System.nanoTime() - start > slowNanos);
+                return result;
+            } catch (UpstreamUnavailableException e) {
+                // Shed by the limiter before anything was sent, the breaker learned nothing
+                breaker.release();
+                throw e;
+            } catch (RuntimeException e) {
+                boolean failed = isFailure(e);
+                breaker.record(failed || System.nanoTime() - start > slowNanos);
+                Deadline deadline = Deadline.current();
+                if (deadline != null && deadline.isExpired()) {
+                    deadline.markPartial();
+                }
+                if (!failed || !retryable || attempt >= maxAttempts || Thread.currentThread().isInterrupted()
+                        || (deadline != null && deadline.remaining().toMillis() < retryBackoffMs * 2)
+                        || !budget.trySpend()) {
+                    throw e;
+                }
+            }
+
+            try {
+                // Jitter keeps a burst of failed calls from retrying in lockstep
+                Thread.sleep(retryBackoffMs / 2 + ThreadLocalRandom.current().nextLong(retryBackoffMs + 1));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while waiting to retry " + url, e);
+            }
+        }
+    }
+
+    /**
+     * Reactive counterpart of call(): the same breaker, limiter and retry budget, without
+     * blocking a thread while waiting for a slot or for the retry pause
+     * @param upstream "espn" or "openai", as in HttpTransport
+     * @param url The URL the call is going to
+     * @param retryable Whether the call may be repeated (plain GETs; not streams or paid calls)
+     * @param call Creates the actual request, once per attempt
+     * @return Whatever the call emits; fails with UpstreamUnavailableException if the circuit
+     *         is open or the host is at its limit
+     */
+    public <T> Mono<T> callReactive(String upstream, String url, boolean retryable, Supplier<Mono<T>> call) {
+        return Mono.deferContextual(ctx -> {
+            budget(upstream).deposit();
+            return attempt(upstream, url, retryable, call, Deadline.from(ctx), 1);
+        });
+    }
+
+    private <T> Mono<T> attempt(String upstream, String url, boolean retryable, Supplier<Mono<T>> call,
+                                Deadline deadline, int attempt) {
+        String host = HostConcurrencyLimiter.host(url);
+        String family = family(url);
+        CircuitBreaker breaker = breaker(upstream, host, family);
+        long slowNanos = slowCallNanos.getOrDefault(upstream, Long.MAX_VALUE);
+
+        return Mono.defer(() -> {
+            if (!breaker.tryAcquire()) {
+                rejections(upstream, host, family).increment();
+                return Mono.error(new UpstreamUnavailableException("Circuit for " + host + " " + family + " is open",
+                        breaker.retryAfterSeconds()));
+            }
+
+            long start = System.nanoTime();
+            return hostLimiter.callReactive(upstream, url, call, e -> isFailure(e, deadline), deadline)
+                    .doOnCancel(breaker::release)
+                    .doOnSuccess(result -> breaker.record(System.nanoTime() - start > slowNanos))
+                    .onErrorResume(e -> {
+                        if (e instanceof UpstreamUnavailableException) {
+                            // Shed by the limiter before anything was sent, the breaker learned nothing
+                            breaker.release();
+                            return Mono.error(e);
+                        }
+                        boolean failed = isFailure(e, deadline);
+                        breaker.record(failed || System.nanoTime() - start > slowNanos);
+                        if (deadline != null && deadline.isExpired()) {
+                            deadline.markPartial();
+                        }
+                        if (!failed || !retryable || attempt >= maxAttempts
+                                || (deadline != null && deadline.remaining().toMillis() < retryBackoffMs * 2)
+                                || !budget(upstream).trySpend()) {
+                            return Mono.error(e);
+                        }
+                        // Jitter keeps a burst of failed calls from retrying in lockstep
+                        long pause = retryBackoffMs / 2 + ThreadLocalRandom.current().nextLong(retryBackoffMs + 1);
+                        return Mono.delay(Duration.ofMillis(pause))
+                                .then(attempt(upstream, url, retryable, call, deadline, attempt + 1));
+                    });
+        });
+    }
+
+    private static final class RetryBudget {
+
+        private final double ratio;
+        private final double maxTokens;
+        private final Counter retried;
+        private final Counter exhausted;
+        private final ReentrantLock lock = new ReentrantLock();
+        private double tokens;
+
+        RetryBudget(String upstream, double ratio, double maxTokens, MeterRegistry meterRegistry) {
+            this.ratio = ratio;
+            this.maxTokens = maxTokens;
+            this.tokens = maxTokens;
+            this.retried = Counter.builder("upstream.retries")
+                    .description("Failed calls that were retried")
+                    .tag("upstream", upstream)
+                    .tag("result", "retried")
+                    .register(meterRegistry);
+            this.exhausted = Counter.builder("upstream.retries")
+                    .description("Failed calls not retried because the retry budget was spent")
+                    .tag("upstream", upstream)
+                    .tag("result", "budget_exhausted")
+                    .register(meterRegistry);
+        }
+
+        void deposit() {
+            lock.lock();
+            try {
+                tokens = Math.min(maxTokens, tokens + ratio);
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        boolean trySpend() {
+            lock.lock();
+            try {
+                if (tokens < 1) {
+                    exhausted.increment();
+                    return false;
+                }
+                tokens -= 1;
+            } finally {
+                lock.unlock();
+            }
+            retried.increment();
+            return true;
+        }
+    }
+}
@@ -0,0 +1,24 @@
+package org.example.athlete_comparator.shared_client;
+
+/**
+ * Thrown instead of calling an upstream when its circuit is open or its concurrency
+ * limit is exhausted. The call was never sent, so it is always safe to try again later.
+ */
+public class UpstreamUnavailableException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+    private final long retryAfterSeconds;
+
+    /**
+     * @param message Which upstream and why it was not called
+     * @param retryAfterSeconds Rough hint for when the upstream may accept calls again
+     */
+    public UpstreamUnavailableException(String message, long retryAfterSeconds) {
+        super(message);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+}
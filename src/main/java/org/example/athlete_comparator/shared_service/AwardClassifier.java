@@ -0,0 +1,184 @@
+package org.example.athlete_comparator.shared_service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Sorts award titles into the categories of a taxonomy, e.g. "NBA Champion" -> championship.
+ *
+ * The taxonomy (e.g. awards/nba.json) is an ordered list of categories with phrases a title must
+ * contain ("any") or must not ("none"); the first match wins. All phrases are compiled into one
+ * Aho-Corasick automaton, so a title is scanned once, and each distinct title is memoised.
+ */
+public final class AwardClassifier {
+
+    private static final int MAX_MEMOISED_TITLES = 10_000;
+
+    /**
+     * One category of a taxonomy. Lower priority sorts first.
+     */
+    public record Category(String name, int priority, List<String> any, List<String> none) {
+
+        public Category {
+            any = any != null ? any : List.of();
+            none = none != null ? none : List.of();
+        }
+    }
+
+    /**
+     * Categories in the order they are tried, and the category for titles none of them match
+     */
+    public record Taxonomy(String sport, List<Category> categories, Category fallback) {
+    }
+
+    /**
+     * A category with its phrases replaced by their IDs in the automaton
+     */
+    private record Rule(Category category, BitSet any, BitSet none) {
+    }
+
+    private final String sport;
+    private final Category fallback;
+    private final List<Rule> rules = new ArrayList<>();
+    private final Cache<String, Category> memo = Caffeine.newBuilder().maximumSize(MAX_MEMOISED_TITLES).build();
+
+    // Automaton: goto edges, failure links and the phrases recognised in each state
+    private final List<Map<Character, Integer>> edges = new ArrayList<>();
+    private final List<BitSet> outputs = new ArrayList<>();
+    private int[] fail;
+
+    public AwardClassifier(Taxonomy taxonomy) {
+        this.sport = taxonomy.sport();
+        this.fallback = taxonomy.fallback();
+        if (fallback == null) {
+            throw new IllegalStateException("Award taxonomy for " + sport + " has no fallback category");
+        }
+
+        Map<String, Integer> phraseIds = new LinkedHashMap<>();
+        for (Category category : taxonomy.categories()) {
+            rules.add(new Rule(category, ids(category.any(), phraseIds), ids(category.none(), phraseIds)));
+        }
+        build(phraseIds);
+    }
+
+    /**
+     * Loads a taxonomy from the classpath
+     * @param resource Path of the JSON taxonomy, e.g. "awards/nba.json"
+     * @return Classifier for the taxonomy
+     */
+    public static AwardClassifier fromResource(String resource) {
+        try (InputStream in = AwardClassifier.class.getClassLoader().getResourceAsStream(resource)) {
+            if (in == null) {
+                throw new IllegalStateException("Award taxonomy " + resource + " not found");
+            }
+            return new AwardClassifier(new ObjectMapper().readValue(in, Taxonomy.class));
+        } catch (IOException e) {
+            throw new IllegalStateException("Unreadable award taxonomy " + resource, e);
+        }
+    }
+
+    private static BitSet ids(List<String> phrases, Map<String, Integer> phraseIds) {
+        BitSet ids = new BitSet();
+        for (String phrase : phrases) {
+            ids.set(phraseIds.computeIfAbsent(phrase.toLowerCase(Locale.ROOT), p -> phraseIds.size()));
+        }
+        return ids;
+    }
+
+    /**
+     * Builds the trie of all phrases, then the failure links breadth first
+     */
+    private void build(Map<String, Integer> phraseIds) {
+        newState();
+        phraseIds.forEach((phrase, id) -> {
+            int state = 0;
+            for (int i = 0; i < phrase.length(); i++) {
+                Integer next = edges.get(state).get(phrase.charAt(i));
+                if (next == null) {
+                    next = newState();
+                    edges.get(state).put(phrase.charAt(i), next);
+                }
+                state = next;
+            }
+            outputs.get(state).set(id);
+        });
+
+        fail = new int[edges.size()];
+        Deque<Integer> queue = new ArrayDeque<>(edges.get(0).values());
+        while (!queue.isEmpty()) {
+            int state = queue.poll();
+            for (Map.Entry<Character, Integer> edge : edges.get(state).entrySet()) {
+                int child = edge.getValue();
+                fail[child] = step(fail[state], edge.getKey());
+                // A state also recognises every phrase that ends in its longest proper suffix
+                outputs.get(child).or(outputs.get(fail[child]));
+                queue.add(child);
+            }
+        }
+    }
+
+    private int newState() {
+        edges.add(new HashMap<>());
+        outputs.add(new BitSet());
+        return edges.size() - 1;
+    }
+
+    private int step(int state, char c) {
+        while (true) {
+            Integer next = edges.get(state).get(c);
+            if (next != null) return next;
+            if (state == 0) return 0;
+            state = fail[state];
+        }
+    }
+
+    /**
+     * @param title Award title as ESPN writes it
+     * @return The first category of the taxonomy that matches, or the fallback category
+     */
+    public Category classify(String title) {
+        if (title == null || title.isEmpty()) return fallback;
+        return memo.get(title, this::match);
+    }
+
+    /**
+     * @return Sort priority of the title's category, lower first
+     */
+    public int priority(String title) {
+        return classify(title).priority();
+    }
+
+    private Category match(String title) {
+        String text = title.toLowerCase(Locale.ROOT);
+        BitSet found = new BitSet();
+        int state = 0;
+        for (int i = 0; i < text.length(); i++) {
+            state = step(state, text.charAt(i));
+            found.or(outputs.get(state));
+        }
+
+        for (Rule rule : rules) {
+            if (rule.any().intersects(found) && !rule.none().intersects(found)) {
+                return rule.category();
+            }
+        }
+        return fallback;
+    }
+
+    public String sport() {
+        return sport;
+    }
+}
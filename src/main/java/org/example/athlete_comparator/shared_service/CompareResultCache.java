@@ -0,0 +1,153 @@
+package org.example.athlete_comparator.shared_service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.example.athlete_comparator.shared_client.Deadline;
+import org.example.athlete_comparator.shared_client.RequestCoalescer;
+import org.example.athlete_comparator.shared_dto.CompareResultDTO;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.HexFormat;
+import java.util.function.Supplier;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Cache for AI comparison results.
+ *
+ * Results are stored in canonical order (lower athlete ID first), so "B vs A" is served
+ * mirrored from the "A vs B" entry. The key includes a hash of the prompt, so new stats mean a
+ * new key. Only parsed results are cached, and concurrent identical compares share one call.
+ */
+@Component
+public class CompareResultCache {
+
+    private record Key(String sport, long athlete1, long athlete2, int type, String fingerprint) {
+    }
+
+    private final Cache<Key, CompareResultDTO> cache;
+    private final RequestCoalescer coalescer;
+
+    public CompareResultCache(@Value("${compare.cache.ttl:21600}") long ttlSeconds,
+                              @Value("${compare.cache.max-size:5000}") long maxSize,
+                              RequestCoalescer coalescer,
+                              MeterRegistry meterRegistry) {
+        this.coalescer = coalescer;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .recordStats()
+                .build();
+
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "compare.results");
+    }
+
+    private static String fingerprint(String prompt) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(prompt.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(hash);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    /**
+     * Returns the cached result for a canonical comparison, or runs the comparison and caches it
+     * @param sport "nba" or "mma"
+     * @param athlete1 ID of athlete 1 in canonical order (the lower ID)
+     * @param athlete2 ID of athlete 2 in canonical order (the higher ID)
+     * @param type Stats type, 0 where the sport has none
+     * @param prompt The user prompt built from both athletes' data, in canonical order
+     * @param compare Calls OpenAI and parses the answer
+     * @return Comparison result in canonical order
+     */
+    public CompareResultDTO get(String sport, long athlete1, long athlete2, int type, String prompt,
+                                Supplier<CompareResultDTO> compare) {
+        Key key = new Key(sport, athlete1, athlete2, type, fingerprint(prompt));
+        CompareResultDTO cached = cache.getIfPresent(key);
+        if (cached != null) {
+            return cached;
+        }
+
+        // The call runs detached from this thread, so the deadline is read here; the prompt is already built
+        boolean partial = Deadline.isCurrentPartial();
+        return coalescer.execute("compare:" + key, () -> {
+            CompareResultDTO result = compare.get();
+            // No parsed sections means OpenAI failed or answered in the wrong format,
+            // and a prompt built from partial data must not be reused
+            if (result != null && result.getOverallWinner() != null && !partial) {
+                cache.put(key, result);
+            }
+            return result;
+        });
+    }
+
+    /**
+     * Reactive counterpart of get(). Whether the prompt was built from partial data is read from
+     * the Deadline in the Reactor context.
+     * @param compare Creates the OpenAI call and parse, only subscribed to on a cache miss
+     * @return Comparison result in canonical order
+     */
+    public Mono<CompareResultDTO> getReactive(String sport, long athlete1, long athlete2, int type, String prompt,
+                                              Supplier<Mono<CompareResultDTO>> compare) {
+        Key key = new Key(sport, athlete1, athlete2, type, fingerprint(prompt));
+        CompareResultDTO cached = cache.getIfPresent(key);
+        if (cached != null) {
+            return Mono.just(cached);
+        }
+
+        return Mono.deferContextual(ctx -> {
+            // The call is subscribed to without this context, so the deadline is read here
+            Deadline deadline = Deadline.from(ctx);
+            boolean partial = deadline != null && deadline.isPartial();
+            return coalescer.executeReactive("compare:" + key, () -> compare.get()
+                    .doOnNext(result -> {
+                        if (result.getOverallWinner() != null && !partial) {
+                            cache.put(key, result);
+                        }
+                    }));
+        });
+    }
+
+    /**
+     * Swaps "Player 1"/"Player 2" style references (and PLAYER1_/PLAYER2_ labels) in a text
+     */
+    static String swapOrdinals(String text, String label) {
+        if (text == null) return null;
+        Matcher m = Pattern.compile("(?i)\\b(" + label + ")( ?)([12])(?![0-9])").matcher(text);
+        StringBuilder sb = new StringBuilder();
+        while (m.find()) {
+            String other = "1".equals(m.group(3)) ? "2" : "1";
+            m.appendReplacement(sb, Matcher.quoteReplacement(m.group(1) + m.group(2) + other));
+        }
+        m.appendTail(sb);
+        return sb.toString();
+    }
+
+    /**
+     * Mirrors a result so athlete 1 and athlete 2 trade places
+     * @param result Result to mirror (left untouched)
+     * @param label How the prompt refers to the athletes, "Player" or "Fighter"
+     * @return New result with names, strengths and ordinal references swapped
+     */
+    public static CompareResultDTO mirror(CompareResultDTO result, String label) {
+        return new CompareResultDTO(
+                result.getAthlete2Name(),
+                result.getAthlete1Name(),
+                swapOrdinals(result.getOverallWinner(), label),
+                swapOrdinals(result.getOneVsOnePrediction(), label),
+                swapOrdinals(result.getAnalysis(), label),
+                result.getAthlete2Strengths(),
+                result.getAthlete1Strengths(),
+                swapOrdinals(result.getConclusion(), label)
+        );
+    }
+}
@@ -0,0 +1,98 @@
+package org.example.athlete_comparator.shared_service;
+
+import org.example.athlete_comparator.shared_dto.CompareResultDTO;
+
+/**
+ * Receives the progress of a streamed comparison.
+ * Section fields use the CompareResultDTO property names, so the frontend can fill them in directly.
+ */
+public interface CompareStreamListener {
+
+    /**
+     * Called for every piece of raw text OpenAI sends
+     * @param text Content delta
+     */
+    void onToken(String text);
+
+    /**
+     * Called once a section of the answer is complete
+     * @param field CompareResultDTO property the section belongs to
+     * @param value Section text
+     */
+    void onSection(String field, String value);
+
+    /**
+     * Sends all sections of an already finished result, used when the result came from the cache
+     * @param result Finished comparison
+     */
+    default void replay(CompareResultDTO result) {
+        if (result.getOverallWinner() != null) onSection("overallWinner", result.getOverallWinner());
+        if (result.getOneVsOnePrediction() != null) onSection("oneVsOnePrediction", result.getOneVsOnePrediction());
+        if (result.getAthlete1Strengths() != null) onSection("athlete1Strengths", result.getAthlete1Strengths());
+        if (result.getAthlete2Strengths() != null) onSection("athlete2Strengths", result.getAthlete2Strengths());
+        if (result.getConclusion() != null) onSection("conclusion", result.getConclusion());
+    }
+
+    /**
+     * Wraps this listener so text produced in canonical order reaches it with athlete 1 and 2 swapped,
+     * the streaming counterpart of CompareResultCache.mirror.
+     * A reference can be split across tokens ("Player" then " 1"), so the end of a token that
+     * could still become one is held back until the next token or section arrives.
+     * @param label How the prompt refers to the athletes, "Player" or "Fighter"
+     * @return Mirroring listener
+     */
+    default CompareStreamListener mirrored(String label) {
+        CompareStreamListener target = this;
+        return new CompareStreamListener() {
+            private final StringBuilder held = new StringBuilder();
+            // Last character passed on, so a reference right after a word isn't taken for one
+            private char previous = ' ';
+
+            @Override
+            public void onToken(String text) {
+                held.append(text);
+                flush(held.length() - partialReference(held, label));
+            }
+
+            @Override
+            public void onSection(String field, String value) {
+                flush(held.length());
+                switch (field) {
+                    case "athlete1Strengths" -> target.onSection("athlete2Strengths", value);
+                    case "athlete2Strengths" -> target.onSection("athlete1Strengths", value);
+                    default -> target.onSection(field, CompareResultCache.swapOrdinals(value, label));
+                }
+            }
+
+            private void flush(int length) {
+                if (length == 0) return;
+                String text = held.substring(0, length);
+                target.onToken(CompareResultCache.swapOrdinals(previous + text, label).substring(1));
+                previous = text.charAt(length - 1);
+                held.delete(0, length);
+            }
+        };
+    }
+
+    /**
+     * @return Length of the longest tail of the text that may be the start of a reference like
+     * "Player 1", or a complete one that a following digit could still turn into "Player 12"
+     */
+    private static int partialReference(CharSequence text, String label) {
+        for (int k = Math.min(text.length(), label.length() + 2); k > 0; k--) {
+            int start = text.length() - k;
+            if (start > 0 && isWordChar(text.charAt(start - 1))) continue;
+            String tail = text.subSequence(start, text.length()).toString();
+            for (String reference : new String[]{label + " 1", label + " 2", label + "1", label + "2"}) {
+                if (k <= reference.length() && reference.regionMatches(true, 0, tail, 0, k)) {
+                    return k;
+                }
+            }
+        }
+        return 0;
+    }
+
+    private static boolean isWordChar(char c) {
+        return Character.isLetterOrDigit(c) || c == '_';
+    }
+}
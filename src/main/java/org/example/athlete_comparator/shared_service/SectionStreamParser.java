@@ -0,0 +1,73 @@
+package org.example.athlete_comparator.shared_service;
+
+import java.util.Map;
+
+/**
+ * Incremental version of the services' parseAiResponse.
+ * A section starts with a line beginning "KEY:" and is handed to the listener once the next
+ * header arrives or the stream ends, joined exactly like the non-streaming parser does.
+ */
+public class SectionStreamParser {
+
+    private final Map<String, String> fields;
+    private final CompareStreamListener listener;
+    private final StringBuilder pending = new StringBuilder();
+    private StringBuilder currentSection;
+    private String currentField;
+
+    /**
+     * @param fields   Section header (e.g. "OVERALL_WINNER") to CompareResultDTO property
+     * @param listener Receives completed sections
+     */
+    public SectionStreamParser(Map<String, String> fields, CompareStreamListener listener) {
+        this.fields = fields;
+        this.listener = listener;
+    }
+
+    /**
+     * Feeds the next piece of streamed text
+     * @param text Content delta
+     */
+    public void feed(String text) {
+        pending.append(text);
+        int newline;
+        while ((newline = pending.indexOf("\n")) >= 0) {
+            processLine(pending.substring(0, newline));
+            pending.delete(0, newline + 1);
+        }
+    }
+
+    /**
+     * Flushes the last line and section once the stream has ended
+     */
+    public void finish() {
+        if (!pending.isEmpty()) {
+            processLine(pending.toString());
+            pending.setLength(0);
+        }
+        emitCurrent();
+    }
+
+    private void processLine(String line) {
+        for (Map.Entry<String, String> entry : fields.entrySet()) {
+            String header = entry.getKey() + ":";
+            if (line.startsWith(header)) {
+                emitCurrent();
+                currentField = entry.getValue();
+                currentSection = new StringBuilder(line.substring(header.length()).trim());
+                return;
+            }
+        }
+        if (currentField != null && !line.trim().isEmpty()) {
+            // Continuation of current section
+            currentSection.append(" ").append(line.trim());
+        }
+    }
+
+    private void emitCurrent() {
+        if (currentField != null) {
+            listener.onSection(currentField, currentSection.toString().trim());
+            currentField = null;
+        }
+    }
+}
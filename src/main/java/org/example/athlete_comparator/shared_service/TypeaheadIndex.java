@@ -0,0 +1,321 @@
+package org.example.athlete_comparator.shared_service;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.regex.Pattern;
+
+/**
+ * In-memory name index for search-as-you-type.
+ *
+ * Every query word must be a prefix of a word of the normalized name, so "leb ja" finds
+ * "LeBron James"; a trigram index adds typo-tolerant matches when that yields too little.
+ * Entries added with putAll stay, learned ones are capped and the oldest are dropped first.
+ * Readers use an immutable snapshot and never lock, updates swap in a rebuilt one.
+ *
+ * @param <T> Value returned for a match, typically a search result DTO
+ */
+public class TypeaheadIndex<T> {
+
+    private static final Pattern MARKS = Pattern.compile("\\p{M}+");
+    private static final Pattern NON_ALNUM = Pattern.compile("[^a-z0-9 ]+");
+    private static final Pattern SPACES = Pattern.compile("\\s+");
+
+    /**
+     * One searchable athlete
+     */
+    public record Entry<T>(long id, String name, T value) {
+    }
+
+    /**
+     * Result of a lookup: names every query word prefixes, then typo-tolerant matches
+     */
+    public record Matches<T>(List<T> prefix, List<T> fuzzy) {
+
+        /**
+         * @return Prefix matches followed by fuzzy matches
+         */
+        public List<T> all() {
+            List<T> all = new ArrayList<>(prefix);
+            all.addAll(fuzzy);
+            return all;
+        }
+    }
+
+    private final double minSimilarity;
+    private final int maxLearned;
+    private final Map<Long, Entry<T>> entries = new LinkedHashMap<>();
+    // Oldest first, so the cap drops whatever was learned longest ago
+    private final Map<Long, Entry<T>> learned = new LinkedHashMap<>();
+    private final ReentrantLock writeLock = new ReentrantLock();
+    private volatile Snapshot<T> snapshot = new Snapshot<>(List.of());
+
+    /**
+     * @param minSimilarity Minimum trigram (Dice) similarity, 0..1, for a fuzzy match
+     * @param maxLearned Maximum number of entries added through learn()
+     */
+    public TypeaheadIndex(double minSimilarity, int maxLearned) {
+        this.minSimilarity = minSimilarity;
+        this.maxLearned = maxLearned;
+    }
+
+    /**
+     * Normalizes a name or query for matching
+     * @param text Raw text
+     * @return Lower-case ASCII words separated by single spaces
+     */
+    static String normalize(String text) {
+        if (text == null) return "";
+        String decomposed = Normalizer.normalize(text.toLowerCase(Locale.ROOT), Normalizer.Form.NFD);
+        String stripped = MARKS.matcher(decomposed).replaceAll("");
+        // "O'Neal" and "Gilgeous-Alexander" are searched as "oneal" and "gilgeous alexander"
+        stripped = stripped.replace("'", "").replace("’", "").replace('-', ' ').replace('.', ' ');
+        return SPACES.matcher(NON_ALNUM.matcher(stripped).replaceAll(" ")).replaceAll(" ").trim();
+    }
+
+    /**
+     * Adds entries that stay in the index, replacing any existing entry with the same ID
+     * @param updates Entries to add or replace, e.g. the current rosters
+     */
+    public void putAll(Collection<Entry<T>> updates) {
+        if (updates.isEmpty()) return;
+        // Search requests add what they learn from ESPN, so writers may be virtual threads;
+        // a lock (not a monitor) lets them unmount while another rebuild is running
+        writeLock.lock();
+        try {
+            for (Entry<T> entry : updates) {
+                if (entry.name() == null || entry.name().isBlank()) continue;
+                learned.remove(entry.id());
+                entries.put(entry.id(), entry);
+            }
+            rebuild();
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * Adds entries learned from search results. Athletes already in the index are only marked as
+     * recently seen, so the snapshot is rebuilt only when a new name comes in or old ones age out.
+     * @param updates Entries to add
+     */
+    public void learn(Collection<Entry<T>> updates) {
+        if (updates.isEmpty()) return;
+        writeLock.lock();
+        try {
+            boolean changed = false;
+            for (Entry<T> entry : updates) {
+                if (entry.name() == null || entry.name().isBlank() || entries.containsKey(entry.id())) continue;
+                Entry<T> previous = learned.remove(entry.id());
+                learned.put(entry.id(), previous != null ? previous : entry);
+                changed |= previous == null;
+            }
+            Iterator<Long> oldest = learned.keySet().iterator();
+            while (learned.size() > maxLearned) {
+                oldest.next();
+                oldest.remove();
+                changed = true;
+            }
+            if (changed) rebuild();
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    private void rebuild() {
+        List<Entry<T>> all = new ArrayList<>(entries.size() + learned.size());
+        all.addAll(entries.values());
+        all.addAll(learned.values());
+        snapshot = new Snapshot<>(all);
+    }
+
+    /**
+     * @return Number of athletes in the index
+     */
+    public int size() {
+        return snapshot.entries.size();
+    }
+
+    /**
+     * Finds athletes whose name matches a partial query
+     * @param query What the user has typed so far
+     * @param limit Maximum number of results
+     * @return Prefix matches first (best first), then fuzzy matches
+     */
+    public List<T> search(String query, int limit) {
+        return match(query, limit).all();
+    }
+
+    /**
+     * Like search, but keeps prefix and fuzzy matches apart, so callers can tell a real hit
+     * from names that merely look similar
+     * @param query What the user has typed so far
+     * @param limit Maximum number of results, both lists together
+     * @return Prefix matches (best first) and fuzzy matches (most similar first)
+     */
+    public Matches<T> match(String query, int limit) {
+        String normalized = normalize(query);
+        if (normalized.isEmpty() || limit <= 0) return new Matches<>(List.of(), List.of());
+
+        Snapshot<T> current = snapshot;
+        List<Integer> prefixMatches = current.prefixMatches(normalized);
+        Set<Integer> fuzzyMatches = new LinkedHashSet<>();
+        if (prefixMatches.size() < limit) {
+            fuzzyMatches.addAll(current.fuzzyMatches(normalized, minSimilarity));
+            prefixMatches.forEach(fuzzyMatches::remove);
+        }
+
+        List<T> prefix = new ArrayList<>();
+        for (int index : prefixMatches) {
+            if (prefix.size() == limit) break;
+            prefix.add(current.entries.get(index).value());
+        }
+        List<T> fuzzy = new ArrayList<>();
+        for (int index : fuzzyMatches) {
+            if (prefix.size() + fuzzy.size() == limit) break;
+            fuzzy.add(current.entries.get(index).value());
+        }
+        return new Matches<>(prefix, fuzzy);
+    }
+
+    private static final class TrieNode {
+        private final Map<Character, TrieNode> children = new HashMap<>();
+        private final List<Integer> ids = new ArrayList<>();
+    }
+
+    private static final class Snapshot<T> {
+
+        private final List<Entry<T>> entries;
+        private final String[] names;
+        private final TrieNode root = new TrieNode();
+        private final Map<String, List<Integer>> trigrams = new HashMap<>();
+        private final int[] trigramCounts;
+
+        Snapshot(List<Entry<T>> entries) {
+            this.entries = entries;
+            this.names = new String[entries.size()];
+            this.trigramCounts = new int[entries.size()];
+
+            for (int i = 0; i < entries.size(); i++) {
+                names[i] = normalize(entries.get(i).name());
+                for (String word : names[i].split(" ")) {
+                    insert(word, i);
+                }
+                Set<String> grams = trigramsOf(names[i]);
+                trigramCounts[i] = grams.size();
+                for (String gram : grams) {
+                    trigrams.computeIfAbsent(gram, g -> new ArrayList<>()).add(i);
+                }
+            }
+        }
+
+        private void insert(String word, int index) {
+            TrieNode node = root;
+            for (int i = 0; i < word.length(); i++) {
+                node = node.children.computeIfAbsent(word.charAt(i), c -> new TrieNode());
+                List<Integer> ids = node.ids;
+                // Two words of one name can share a prefix, keep each entry once per node
+                if (ids.isEmpty() || ids.get(ids.size() - 1) != index) {
+                    ids.add(index);
+                }
+            }
+        }
+
+        private List<Integer> wordPrefix(String prefix) {
+            TrieNode node = root;
+            for (int i = 0; i < prefix.length() && node != null; i++) {
+                node = node.children.get(prefix.charAt(i));
+            }
+            return node != null ? node.ids : List.of();
+        }
+
+        /**
+         * Entries where every query word prefixes a word of the name, best first
+         */
+        List<Integer> prefixMatches(String query) {
+            String[] words = query.split(" ");
+            // Start from the rarest word so the intersection stays small
+            List<Integer> smallest = null;
+            for (String word : words) {
+                List<Integer> ids = wordPrefix(word);
+                if (smallest == null || ids.size() < smallest.size()) smallest = ids;
+            }
+
+            List<Integer> out = new ArrayList<>();
+            for (int index : smallest) {
+                if (allWordsMatch(names[index], words)) out.add(index);
+            }
+            out.sort(Comparator.<Integer>comparingInt(i -> names[i].startsWith(query) ? 0 : 1)
+                    .thenComparingInt(i -> names[i].length())
+                    .thenComparing(i -> names[i]));
+            return out;
+        }
+
+        private static boolean allWordsMatch(String name, String[] queryWords) {
+            String[] nameWords = name.split(" ");
+            for (String queryWord : queryWords) {
+                boolean found = false;
+                for (String nameWord : nameWords) {
+                    if (nameWord.startsWith(queryWord)) {
+                        found = true;
+                        break;
+                    }
+                }
+                if (!found) return false;
+            }
+            return true;
+        }
+
+        /**
+         * Entries whose trigram similarity to the query reaches the threshold, most similar first
+         */
+        List<Integer> fuzzyMatches(String query, double minSimilarity) {
+            Set<String> queryGrams = trigramsOf(query);
+            if (query.length() < 3 || queryGrams.isEmpty()) return List.of();
+
+            int[] shared = new int[entries.size()];
+            for (String gram : queryGrams) {
+                for (int index : trigrams.getOrDefault(gram, List.of())) {
+                    shared[index]++;
+                }
+            }
+
+            List<Integer> out = new ArrayList<>();
+            double[] score = new double[entries.size()];
+            for (int i = 0; i < shared.length; i++) {
+                if (shared[i] == 0) continue;
+                // Dice coefficient with the name side capped at the query's size, so a partial
+                // query such as "lebrn" is not penalized for the rest of "lebron james"
+                double dice = 2.0 * shared[i] / (queryGrams.size() + Math.min(trigramCounts[i], queryGrams.size()));
+                if (dice >= minSimilarity) {
+                    score[i] = dice;
+                    out.add(i);
+                }
+            }
+            out.sort(Comparator.<Integer>comparingDouble(i -> -score[i]).thenComparing(i -> names[i]));
+            return out;
+        }
+
+        private static Set<String> trigramsOf(String text) {
+            Set<String> grams = new LinkedHashSet<>();
+            for (String word : text.split(" ")) {
+                if (word.isEmpty()) continue;
+                String padded = "  " + word + " ";
+                for (int i = 0; i + 3 <= padded.length(); i++) {
+                    grams.add(padded.substring(i, i + 3));
+                }
+            }
+            return grams;
+        }
+    }
+}
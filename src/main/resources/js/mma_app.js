@@ -92,15 +92,17 @@ async function searchFighters(query, resultsDiv) {
 // Fetch and display fighter info and stats
 async function fetchAndDisplayFighterData() {
     try {
-        // Fetch info, stats, and records for both fighters in parallel
-        const [infoA_data, infoB_data, statsA_data, statsB_data, recordA_data, recordB_data] = await Promise.all([
-            fetch(`${API_BASE}/fighters/${selectedFighterA.id}/info`).then(r => r.json()),
-            fetch(`${API_BASE}/fighters/${selectedFighterB.id}/info`).then(r => r.json()),
-            fetch(`${API_BASE}/fighters/${selectedFighterA.id}/stats`).then(r => r.json()),
-            fetch(`${API_BASE}/fighters/${selectedFighterB.id}/stats`).then(r => r.json()),
-            fetch(`${API_BASE}/fighters/${selectedFighterA.id}/record`).then(r => r.json()),
-            fetch(`${API_BASE}/fighters/${selectedFighterB.id}/record`).then(r => r.json())
-        ]);
+        // Info, stats, and records for both fighters come back in one response
+        const response = await fetch(
+            `${API_BASE}/fighters/bundle?ids=${selectedFighterA.id},${selectedFighterB.id}`);
+        if (!response.ok) throw new Error('Fighter bundle request failed');
+        const bundles = await response.json();
+
+        // Bundles are keyed by ID, the same fighter selected twice only comes back once
+        const bundleA = bundles.find(b => String(b.id) === String(selectedFighterA.id)) || {};
+        const bundleB = bundles.find(b => String(b.id) === String(selectedFighterB.id)) || {};
+        const [infoA_data, statsA_data, recordA_data] = [bundleA.info, bundleA.stats, bundleA.record];
+        const [infoB_data, statsB_data, recordB_data] = [bundleB.info, bundleB.stats, bundleB.record];
 
         displayFighterInfo(infoA_data, infoA);
         displayFighterInfo(infoB_data, infoB);
@@ -336,6 +338,80 @@ function displayComparisonResults(result) {
     comparisonResults.scrollIntoView({ behavior: 'smooth', block: 'nearest' });
 }
 
+// Element that shows each streamed section of the comparison
+const SECTION_ELEMENTS = {
+    overallWinner: 'overallWinner',
+    oneVsOnePrediction: 'oneVsOne',
+    athlete1Strengths: 'athlete1Strengths',
+    athlete2Strengths: 'athlete2Strengths',
+    conclusion: 'conclusion'
+};
+
+// Clears the result panel and shows it, so streamed sections appear as they arrive
+function prepareStreamingResults() {
+    Object.values(SECTION_ELEMENTS).forEach(id => document.getElementById(id).textContent = '');
+    document.getElementById('athlete1NameStrengths').textContent = `${selectedFighterA.name} Strengths`;
+    document.getElementById('athlete2NameStrengths').textContent = `${selectedFighterB.name} Strengths`;
+    document.getElementById('fullAnalysis').textContent = '';
+    comparisonResults.classList.remove('hidden');
+}
+
+// Compares using the non-streaming endpoint
+async function compareOnce() {
+    const response = await fetch(`${API_BASE}/compare`, {
+        method: 'POST',
+        headers: {
+            'Content-Type': 'application/json'
+        },
+        body: JSON.stringify({
+            aID: selectedFighterA.id,
+            bID: selectedFighterB.id
+        })
+    });
+
+    if (!response.ok) throw new Error('Comparison failed');
+    return response.json();
+}
+
+// Streams the comparison over server-sent events, resolves with the final result
+function compareStreaming() {
+    return new Promise((resolve, reject) => {
+        const source = new EventSource(
+            `${API_BASE}/compare/stream?a=${selectedFighterA.id}&b=${selectedFighterB.id}`);
+        let started = false;
+
+        const start = () => {
+            if (!started) {
+                started = true;
+                loading.classList.add('hidden');
+                prepareStreamingResults();
+            }
+        };
+
+        source.addEventListener('token', event => {
+            start();
+            document.getElementById('fullAnalysis').textContent += JSON.parse(event.data).text;
+        });
+
+        source.addEventListener('section', event => {
+            start();
+            const section = JSON.parse(event.data);
+            const id = SECTION_ELEMENTS[section.field];
+            if (id) document.getElementById(id).textContent = section.value;
+        });
+
+        source.addEventListener('result', event => {
+            source.close();
+            resolve(JSON.parse(event.data));
+        });
+
+        source.onerror = () => {
+            source.close();
+            reject(Object.assign(new Error('Comparison stream failed'), { started }));
+        };
+    });
+}
+
 // Compare fighters
 async function compareFighters() {
     if (!selectedFighterA || !selectedFighterB) return;
@@ -345,20 +421,18 @@ async function compareFighters() {
     compareBtn.disabled = true;
 
     try {
-        const response = await fetch(`${API_BASE}/compare`, {
-            method: 'POST',
-            headers: {
-                'Content-Type': 'application/json'
-            },
-            body: JSON.stringify({
-                aID: selectedFighterA.id,
-                bID: selectedFighterB.id
-            })
-        });
-
-        if (!response.ok) throw new Error('Comparison failed');
-        
-        const result = await response.json();
+        let result;
+        if (window.EventSource) {
+            try {
+                result = await compareStreaming();
+            } catch (streamError) {
+                // Nothing shown yet, so fall back to the regular endpoint
+                if (streamError.started) throw streamError;
+                result = await compareOnce();
+            }
+        } else {
+            result = await compareOnce();
+        }
         displayComparisonResults(result);
     } catch (error) {
         console.error('Comparison error:', error);
@@ -204,13 +204,16 @@ async function fetchAndDisplayStats() {
     const statsType = getSelectedStatsType();
 
     try {
-        // Fetch stats and accolades for both players in parallel
-        const [statsDataA, statsDataB, accoladesDataA, accoladesDataB] = await Promise.all([
-            fetch(`${API_BASE}/athletes/${selectedPlayerA.id}/season-stats?type=${statsType}`).then(r => r.json()),
-            fetch(`${API_BASE}/athletes/${selectedPlayerB.id}/season-stats?type=${statsType}`).then(r => r.json()),
-            fetch(`${API_BASE}/athletes/${selectedPlayerA.id}/accolades`).then(r => r.json()),
-            fetch(`${API_BASE}/athletes/${selectedPlayerB.id}/accolades`).then(r => r.json())
-        ]);
+        // Stats and accolades for both players come back in one response
+        const response = await fetch(
+            `${API_BASE}/matchup?a=${selectedPlayerA.id}&b=${selectedPlayerB.id}&type=${statsType}`);
+        if (!response.ok) throw new Error('Matchup request failed');
+        const matchup = await response.json();
+
+        const statsDataA = matchup.athleteA.seasonStats;
+        const statsDataB = matchup.athleteB.seasonStats;
+        const accoladesDataA = matchup.athleteA.accolades;
+        const accoladesDataB = matchup.athleteB.accolades;
 
         displayPlayerStats(statsDataA, selectedPlayerA, statsA);
         displayPlayerStats(statsDataB, selectedPlayerB, statsB);
@@ -371,6 +374,81 @@ function displayComparisonResults(result) {
     comparisonResults.scrollIntoView({ behavior: 'smooth', block: 'nearest' });
 }
 
+// Element that shows each streamed section of the comparison
+const SECTION_ELEMENTS = {
+    overallWinner: 'overallWinner',
+    oneVsOnePrediction: 'oneVsOne',
+    athlete1Strengths: 'athlete1Strengths',
+    athlete2Strengths: 'athlete2Strengths',
+    conclusion: 'conclusion'
+};
+
+// Clears the result panel and shows it, so streamed sections appear as they arrive
+function prepareStreamingResults() {
+    Object.values(SECTION_ELEMENTS).forEach(id => document.getElementById(id).textContent = '');
+    document.getElementById('athlete1NameStrengths').textContent = `${selectedPlayerA.name} Strengths`;
+    document.getElementById('athlete2NameStrengths').textContent = `${selectedPlayerB.name} Strengths`;
+    document.getElementById('fullAnalysis').textContent = '';
+    comparisonResults.classList.remove('hidden');
+}
+
+// Compares using the non-streaming endpoint
+async function compareOnce(statsType) {
+    const response = await fetch(`${API_BASE}/compare`, {
+        method: 'POST',
+        headers: {
+            'Content-Type': 'application/json'
+        },
+        body: JSON.stringify({
+            aID: selectedPlayerA.id,
+            bID: selectedPlayerB.id,
+            type: statsType
+        })
+    });
+
+    if (!response.ok) throw new Error('Comparison failed');
+    return response.json();
+}
+
+// Streams the comparison over server-sent events, resolves with the final result
+function compareStreaming(statsType) {
+    return new Promise((resolve, reject) => {
+        const source = new EventSource(
+            `${API_BASE}/compare/stream?a=${selectedPlayerA.id}&b=${selectedPlayerB.id}&type=${statsType}`);
+        let started = false;
+
+        const start = () => {
+            if (!started) {
+                started = true;
+                loading.classList.add('hidden');
+                prepareStreamingResults();
+            }
+        };
+
+        source.addEventListener('token', event => {
+            start();
+            document.getElementById('fullAnalysis').textContent += JSON.parse(event.data).text;
+        });
+
+        source.addEventListener('section', event => {
+            start();
+            const section = JSON.parse(event.data);
+            const id = SECTION_ELEMENTS[section.field];
+            if (id) document.getElementById(id).textContent = section.value;
+        });
+
+        source.addEventListener('result', event => {
+            source.close();
+            resolve(JSON.parse(event.data));
+        });
+
+        source.onerror = () => {
+            source.close();
+            reject(Object.assign(new Error('Comparison stream failed'), { started }));
+        };
+    });
+}
+
 // Compare players
 async function comparePlayers() {
     if (!selectedPlayerA || !selectedPlayerB) return;
@@ -382,21 +460,18 @@ async function comparePlayers() {
     compareBtn.disabled = true;
 
     try {
-        const response = await fetch(`${API_BASE}/compare`, {
-            method: 'POST',
-            headers: {
-                'Content-Type': 'application/json'
-            },
-            body: JSON.stringify({
-                aID: selectedPlayerA.id,
-                bID: selectedPlayerB.id,
-                type: statsType
-            })
-        });
-
-        if (!response.ok) throw new Error('Comparison failed');
-        
-        const result = await response.json();
+        let result;
+        if (window.EventSource) {
+            try {
+                result = await compareStreaming(statsType);
+            } catch (streamError) {
+                // Nothing shown yet, so fall back to the regular endpoint
+                if (streamError.started) throw streamError;
+                result = await compareOnce(statsType);
+            }
+        } else {
+            result = await compareOnce(statsType);
+        }
         displayComparisonResults(result);
     } catch (error) {
         console.error('Comparison error:', error);
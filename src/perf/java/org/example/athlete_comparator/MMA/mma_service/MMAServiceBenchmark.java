@@ -0,0 +1,75 @@
+package org.example.athlete_comparator.MMA.mma_service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import org.example.athlete_comparator.MMA.mma_dto.FighterInfoDTO;
+import org.example.athlete_comparator.perf.Fixtures;
+import org.example.athlete_comparator.shared_dto.CompareResultDTO;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * CPU-side work of an MMA comparison, against recorded ESPN payloads: decoding fighter statistics,
+ * mapping the athlete document, and building the prompt and parsing the AI's answer.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MMAServiceBenchmark {
+
+    private byte[] statistics;
+    private JsonNode athlete;
+    private MMAFetchContext.Fighter fighter1;
+    private MMAFetchContext.Fighter fighter2;
+    private String aiResponse;
+    private MMAStatsService statsService;
+    private MMAComparisonService comparisonService;
+
+    @Setup
+    public void setUp() throws IOException {
+        statistics = Fixtures.bytes("mma/statistics.json");
+        athlete = Fixtures.json("mma/athlete.json");
+        aiResponse = Fixtures.text("mma/ai-response.txt");
+
+        fighter1 = new MMAFetchContext.Fighter(3022677, athlete, Fixtures.json("mma/records.json"),
+                FighterStatDecoder.decode(statistics).stats());
+        fighter2 = new MMAFetchContext.Fighter(3088812, Fixtures.json("mma/opponent.json"),
+                Fixtures.json("mma/opponent-records.json"), FighterStatDecoder.decode(statistics).stats());
+
+        statsService = new MMAStatsService(null);
+        comparisonService = new MMAComparisonService(null, null, null, null, null, 10_000);
+    }
+
+    @Benchmark
+    public FighterStatDecoder.Decoded decodeStatistics() throws IOException {
+        return FighterStatDecoder.decode(statistics);
+    }
+
+    @Benchmark
+    public FighterInfoDTO toFighterInfo() {
+        return statsService.toFighterInfo(3022677, athlete);
+    }
+
+    @Benchmark
+    public String buildUserPrompt() {
+        return comparisonService.buildUserPrompt(fighter1, fighter2);
+    }
+
+    @Benchmark
+    public CompareResultDTO parseAiResponse() {
+        return comparisonService.parseAiResponse(aiResponse, fighter1.name(), fighter2.name());
+    }
+}
@@ -0,0 +1,53 @@
+package org.example.athlete_comparator.NBA.nba_client;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.example.athlete_comparator.NBA.nba_dto.PlayerSearchResultDTO;
+import org.example.athlete_comparator.perf.Fixtures;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Mapping a recorded ESPN search response to player results, on its own and including the
+ * JSON parse that precedes it on a cache hit.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class NBASearchBenchmark {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private byte[] payload;
+    private JsonNode root;
+
+    @Setup
+    public void setUp() throws IOException {
+        payload = Fixtures.bytes("nba/search.json");
+        root = objectMapper.readTree(payload);
+    }
+
+    @Benchmark
+    public List<PlayerSearchResultDTO> mapResults() {
+        return EspnNBASearchClient.toSearchResults(root);
+    }
+
+    @Benchmark
+    public List<PlayerSearchResultDTO> parseAndMapResults() throws IOException {
+        return EspnNBASearchClient.toSearchResults(objectMapper.readTree(payload));
+    }
+}
@@ -0,0 +1,86 @@
+package org.example.athlete_comparator.NBA.nba_service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.example.athlete_comparator.NBA.nba_dto.AccoladesDTO;
+import org.example.athlete_comparator.NBA.nba_dto.SeasonStatDTO;
+import org.example.athlete_comparator.perf.Fixtures;
+import org.example.athlete_comparator.shared_dto.CompareResultDTO;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * CPU-side work of an NBA comparison, against recorded ESPN payloads: decoding season averages,
+ * building and sorting accolades, and building the prompt and parsing the AI's answer.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class NBAServiceBenchmark {
+
+    // A long career, the prompt lists every season of both players
+    private static final int SEASONS = 20;
+
+    private byte[] seasonAverage;
+    private JsonNode bio;
+    private JsonNode athlete;
+    private List<SeasonStatDTO> player1Stats;
+    private List<SeasonStatDTO> player2Stats;
+    private String aiResponse;
+    private AccoladesService accoladesService;
+    private ComparisonService comparisonService;
+
+    @Setup
+    public void setUp() throws IOException {
+        seasonAverage = Fixtures.bytes("nba/season-average.json");
+        bio = Fixtures.json("nba/athlete-bio.json");
+        athlete = Fixtures.json("nba/athlete.json");
+        aiResponse = Fixtures.text("nba/ai-response.txt");
+
+        player1Stats = new ArrayList<>();
+        player2Stats = new ArrayList<>();
+        for (int season = 2025 - SEASONS; season < 2025; season++) {
+            player1Stats.add(SeasonAverageDecoder.decode(seasonAverage, season, 2));
+            player2Stats.add(SeasonAverageDecoder.decode(seasonAverage, season + 5, 2));
+        }
+
+        accoladesService = new AccoladesService(null, 86_400, 5_000, new SimpleMeterRegistry());
+        comparisonService = new ComparisonService(null, null, null, null, null, 10_000);
+    }
+
+    @Benchmark
+    public SeasonStatDTO decodeSeasonAverage() throws IOException {
+        return SeasonAverageDecoder.decode(seasonAverage, 2024, 2);
+    }
+
+    @Benchmark
+    public AccoladesDTO buildAccolades() {
+        return accoladesService.buildAccolades(1966, bio, athlete);
+    }
+
+    @Benchmark
+    public String buildUserPrompt() {
+        return comparisonService.buildUserPrompt(player1Stats, player2Stats, "LeBron James", "Stephen Curry");
+    }
+
+    @Benchmark
+    public CompareResultDTO parseAiResponse() {
+        return comparisonService.parseAiResponse(aiResponse, "LeBron James", "Stephen Curry");
+    }
+}
@@ -0,0 +1,73 @@
+package org.example.athlete_comparator.perf;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Map;
+
+/**
+ * Re-records the ESPN fixtures from the live API.
+
+ * Run from the project root with network access:
+ * mvn -Pperf test-compile exec:java -Dexec.mainClass=org.example.athlete_comparator.perf.FixtureRecorder
+ * The AI responses are not recorded, they are kept by hand next to the ESPN payloads.
+ */
+public final class FixtureRecorder {
+
+    private static final String NBA_CORE = "https://sports.core.api.espn.com/v2/sports/basketball/leagues/nba";
+    private static final String NBA_WEB = "https://site.web.api.espn.com/apis/common/v3/sports/basketball/nba";
+    private static final String NBA_SITE = "https://site.api.espn.com/apis/site/v2/sports/basketball/nba";
+    private static final String MMA_CORE = "https://sports.core.api.espn.com/v2/sports/mma";
+    private static final String MMA_SITE = "https://site.api.espn.com/apis/site/v2/sports/mma/ufc";
+    private static final String SEARCH = "https://site.web.api.espn.com/apis/search/v2";
+
+    private static final Map<String, String> FIXTURES = Map.ofEntries(
+            Map.entry("nba/season-average.json", NBA_CORE + "/seasons/2024/types/2/athletes/1966/statistics/0?region=us&lang=en"),
+            Map.entry("nba/statistics-log.json", NBA_CORE + "/athletes/1966/statisticslog?region=us&lang=en"),
+            Map.entry("nba/athlete-bio.json", NBA_WEB + "/athletes/1966/bio"),
+            Map.entry("nba/athlete.json", NBA_CORE + "/athletes/1966?region=us&lang=en"),
+            Map.entry("nba/search.json", SEARCH + "?limit=20&query=james"),
+            Map.entry("nba/teams.json", NBA_SITE + "/teams"),
+            Map.entry("nba/roster.json", NBA_SITE + "/teams/13/roster"),
+            Map.entry("mma/statistics.json", MMA_CORE + "/athletes/3022677/statistics/0?lang=en&region=us"),
+            Map.entry("mma/athlete.json", MMA_CORE + "/athletes/3022677"),
+            Map.entry("mma/records.json", MMA_CORE + "/athletes/3022677/records?lang=en&region=us"),
+            Map.entry("mma/opponent.json", MMA_CORE + "/athletes/3088812"),
+            Map.entry("mma/opponent-records.json", MMA_CORE + "/athletes/3088812/records?lang=en&region=us"),
+            Map.entry("mma/search.json", SEARCH + "?limit=50&query=jon"),
+            Map.entry("mma/scoreboard.json", MMA_SITE + "/scoreboard")
+    );
+
+    private FixtureRecorder() {
+    }
+
+    public static void main(String[] args) throws IOException, InterruptedException {
+        Path root = Path.of(args.length > 0 ? args[0] : "src/perf/resources/fixtures");
+        HttpClient client = HttpClient.newBuilder()
+                .connectTimeout(Duration.ofSeconds(5))
+                .followRedirects(HttpClient.Redirect.NORMAL)
+                .build();
+
+        for (Map.Entry<String, String> fixture : FIXTURES.entrySet()) {
+            HttpRequest request = HttpRequest.newBuilder(URI.create(fixture.getValue()))
+                    .timeout(Duration.ofSeconds(10))
+                    .header("Accept", "application/json")
+                    .GET()
+                    .build();
+            HttpResponse<byte[]> response = client.send(request, HttpResponse.BodyHandlers.ofByteArray());
+            if (response.statusCode() != 200) {
+                System.err.println("Skipping " + fixture.getKey() + ": HTTP " + response.statusCode());
+                continue;
+            }
+            Path target = root.resolve(fixture.getKey());
+            Files.createDirectories(target.getParent());
+            Files.write(target, response.body());
+            System.out.println("Recorded " + target + " (" + response.body().length + " bytes)");
+        }
+    }
+}
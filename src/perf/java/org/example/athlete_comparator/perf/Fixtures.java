@@ -0,0 +1,48 @@
+package org.example.athlete_comparator.perf;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Recorded ESPN payloads and AI responses, used by the benchmarks and StubUpstreamServer.
+
+ * Fixtures live in src/perf/resources/fixtures/{nba,mma}. FixtureRecorder refreshes the ESPN ones
+ * from the live API.
+ */
+public final class Fixtures {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private Fixtures() {
+    }
+
+    /**
+     * @param name Path below fixtures/, e.g. "nba/season-average.json"
+     * @return Raw bytes of the fixture
+     */
+    public static byte[] bytes(String name) {
+        try (InputStream in = Fixtures.class.getResourceAsStream("/fixtures/" + name)) {
+            if (in == null) throw new IllegalArgumentException("No fixture named " + name);
+            return in.readAllBytes();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read fixture " + name, e);
+        }
+    }
+
+    public static JsonNode json(String name) {
+        try {
+            return MAPPER.readTree(bytes(name));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Invalid JSON in fixture " + name, e);
+        }
+    }
+
+    public static String text(String name) {
+        return new String(bytes(name), StandardCharsets.UTF_8);
+    }
+}
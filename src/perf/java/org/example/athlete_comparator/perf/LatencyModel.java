@@ -0,0 +1,39 @@
+package org.example.athlete_comparator.perf;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Simulated upstream behaviour: a log-normal latency fitted to a median and a p99, and a share
+ * of requests that fail. Log-normal gives the long right tail real APIs have, so a p99 of 10x
+ * the median produces the occasional very slow call the client-side timeouts are there for.
+ */
+record LatencyModel(double medianMs, double p99Ms, double errorRate) {
+
+    // z-score of the 99th percentile of a standard normal distribution
+    private static final double Z_99 = 2.326;
+
+    static LatencyModel from(Options options, String upstream, double medianMs, double p99Ms) {
+        return new LatencyModel(
+                options.getDouble(upstream + "-median-ms", medianMs),
+                options.getDouble(upstream + "-p99-ms", p99Ms),
+                options.getDouble(upstream + "-error-rate", 0.0));
+    }
+
+    /**
+     * @return Latency for one request in milliseconds
+     */
+    long sampleMs() {
+        if (medianMs <= 0) return 0;
+        double sigma = p99Ms > medianMs ? Math.log(p99Ms / medianMs) / Z_99 : 0;
+        return Math.round(medianMs * Math.exp(sigma * ThreadLocalRandom.current().nextGaussian()));
+    }
+
+    boolean shouldFail() {
+        return errorRate > 0 && ThreadLocalRandom.current().nextDouble() < errorRate;
+    }
+
+    @Override
+    public String toString() {
+        return "median " + medianMs + "ms, p99 " + p99Ms + "ms, errors " + (errorRate * 100) + "%";
+    }
+}
@@ -0,0 +1,291 @@
+package org.example.athlete_comparator.perf;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * End-to-end load driver for the public API, meant to run against the service in the "stub"
+ * profile (see StubUpstreamServer) on the same box.
+
+ * Sends a weighted mix of search, season-stats, accolades, fighter and compare requests and prints
+ * throughput and p50/p99/p99.9 latency per operation. Athlete IDs come from a fixed pool in which a
+ * hot fifth gets --hot-share of the traffic, so the caches see a realistic mix of hits and misses.
+
+ * Closed loop by default: --concurrency users, each sending its next request as soon as the last
+ * one finished. With --rate=N requests are started on a fixed schedule instead, and latency is
+ * measured from the scheduled start, so a stalled server is not hidden by the driver backing off.
+
+ * mvn -Pperf test-compile exec:java -Dexec.mainClass=org.example.athlete_comparator.perf.LoadDriver \
+ *     -Dexec.args="--target=http://localhost:8080 --concurrency=64 --duration=60s"
+
+ * Options: --target, --concurrency (32), --rate (0 = closed loop), --duration (60s), --warmup (10s),
+ * --mix (search:40,season-stats:20,accolades:10,fighters:20,compare:10), --athletes (200),
+ * --hot-share (0.8), --seed
+ */
+public final class LoadDriver {
+
+    private static final String[] QUERIES = {
+            "leb", "lebron", "step", "curry", "kev", "durant", "giannis", "jok", "luka", "tatum",
+            "jon", "jones", "alex", "pere", "islam", "volk", "topuria", "aspin", "max", "conor"
+    };
+    private static final long HIGHEST_TRACKABLE_MICROS = TimeUnit.MINUTES.toMicros(10);
+
+    enum Operation {
+        SEARCH("search"), SEASON_STATS("season-stats"), ACCOLADES("accolades"), FIGHTERS("fighters"), COMPARE("compare");
+
+        final String label;
+
+        Operation(String label) {
+            this.label = label;
+        }
+
+        static Operation of(String label) {
+            for (Operation op : values()) {
+                if (op.label.equals(label)) return op;
+            }
+            throw new IllegalArgumentException("Unknown operation " + label);
+        }
+    }
+
+    /**
+     * Latencies and outcomes of one operation
+     */
+    private static final class Stats {
+        final Histogram latencyMicros = new ConcurrentHistogram(HIGHEST_TRACKABLE_MICROS, 3);
+        final LongAdder errors = new LongAdder();
+        final LongAdder partial = new LongAdder();
+    }
+
+    private final HttpClient client;
+    private final String target;
+    private final Operation[] mix;
+    private final int athletes;
+    private final double hotShare;
+    private final Map<Operation, Stats> stats = new EnumMap<>(Operation.class);
+    private final LongAdder completed = new LongAdder();
+    private volatile boolean recording;
+
+    LoadDriver(String target, Operation[] mix, int athletes, double hotShare) {
+        this.target = target.endsWith("/") ? target.substring(0, target.length() - 1) : target;
+        this.mix = mix;
+        this.athletes = athletes;
+        this.hotShare = hotShare;
+        this.client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(5))
+                .executor(Executors.newVirtualThreadPerTaskExecutor())
+                .build();
+        for (Operation op : Operation.values()) {
+            stats.put(op, new Stats());
+        }
+    }
+
+    /**
+     * Expands "search:40,compare:10" into a 100-slot table picked from uniformly
+     */
+    static Operation[] parseMix(String spec) {
+        List<Operation> slots = new ArrayList<>();
+        for (String part : spec.split(",")) {
+            String[] kv = part.trim().split(":");
+            int weight = Integer.parseInt(kv[1]);
+            for (int i = 0; i < weight; i++) slots.add(Operation.of(kv[0]));
+        }
+        if (slots.isEmpty()) throw new IllegalArgumentException("Empty mix " + spec);
+        return slots.toArray(new Operation[0]);
+    }
+
+    private long athlete(Random random, long base) {
+        int hot = Math.max(1, athletes / 5);
+        int index = random.nextDouble() < hotShare ? random.nextInt(hot) : hot + random.nextInt(Math.max(1, athletes - hot));
+        return base + index;
+    }
+
+    private long nbaAthlete(Random random) {
+        return athlete(random, 1_000_000);
+    }
+
+    private long mmaFighter(Random random) {
+        return athlete(random, 2_000_000);
+    }
+
+    private HttpRequest request(Operation op, Random random) {
+        String sport = random.nextBoolean() ? "nba" : "mma";
+        HttpRequest.Builder builder = switch (op) {
+            case SEARCH -> get("/api/" + sport + "/search?q=" + QUERIES[random.nextInt(QUERIES.length)]);
+            case SEASON_STATS -> get("/api/nba/athletes/" + nbaAthlete(random) + "/season-stats?type=" + (random.nextBoolean() ? 2 : 0));
+            case ACCOLADES -> get("/api/nba/athletes/" + nbaAthlete(random) + "/accolades");
+            case FIGHTERS -> get("/api/mma/fighters/" + mmaFighter(random) + "/" + switch (random.nextInt(3)) {
+                case 0 -> "info";
+                case 1 -> "record";
+                default -> "stats";
+            });
+            case COMPARE -> {
+                boolean nba = "nba".equals(sport);
+                long a = nba ? nbaAthlete(random) : mmaFighter(random);
+                long b = nba ? nbaAthlete(random) : mmaFighter(random);
+                String body = "{\"aID\":" + a + ",\"bID\":" + b + ",\"type\":2}";
+                yield HttpRequest.newBuilder(URI.create(target + "/api/" + sport + "/compare"))
+                        .header("Content-Type", "application/json")
+                        .POST(HttpRequest.BodyPublishers.ofString(body));
+            }
+        };
+        return builder.timeout(Duration.ofSeconds(90)).build();
+    }
+
+    private HttpRequest.Builder get(String path) {
+        return HttpRequest.newBuilder(URI.create(target + path)).GET();
+    }
+
+    /**
+     * Sends one request and records it, with latency counted from startNanos
+     */
+    private void execute(Operation op, Random random, long startNanos) {
+        boolean failed;
+        boolean partial = false;
+        try {
+            HttpResponse<Void> response = client.send(request(op, random), HttpResponse.BodyHandlers.discarding());
+            failed = response.statusCode() >= 400;
+            partial = response.headers().firstValue("X-Partial-Content").isPresent();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return;
+        } catch (Exception e) {
+            failed = true;
+        }
+        long micros = TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - startNanos);
+
+        completed.increment();
+        if (!recording) return;
+        Stats s = stats.get(op);
+        s.latencyMicros.recordValue(Math.min(micros, HIGHEST_TRACKABLE_MICROS));
+        if (failed) s.errors.increment();
+        if (partial) s.partial.increment();
+    }
+
+    private void runClosedLoop(int concurrency, long endNanos, long seed) throws InterruptedException {
+        try (ExecutorService users = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int u = 0; u < concurrency; u++) {
+                Random random = new Random(seed + u);
+                users.submit(() -> {
+                    while (System.nanoTime() < endNanos && !Thread.currentThread().isInterrupted()) {
+                        execute(mix[random.nextInt(mix.length)], random, System.nanoTime());
+                    }
+                });
+            }
+        }
+    }
+
+    private void runOpenLoop(double rate, long startNanos, long endNanos, long seed) {
+        long intervalNanos = (long) (TimeUnit.SECONDS.toNanos(1) / rate);
+        Random scheduleRandom = new Random(seed);
+        try (ExecutorService requests = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (long i = 0; ; i++) {
+                long scheduled = startNanos + i * intervalNanos;
+                if (scheduled >= endNanos) break;
+                long wait = scheduled - System.nanoTime();
+                if (wait > 0) TimeUnit.NANOSECONDS.sleep(wait);
+                Operation op = mix[scheduleRandom.nextInt(mix.length)];
+                long requestSeed = scheduleRandom.nextLong();
+                requests.submit(() -> execute(op, new Random(requestSeed), scheduled));
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void printReport(Duration measured) {
+        double seconds = measured.toNanos() / 1e9;
+        Histogram all = new Histogram(HIGHEST_TRACKABLE_MICROS, 3);
+        long allErrors = 0;
+        long allPartial = 0;
+
+        System.out.println();
+        System.out.printf("%-14s %10s %8s %8s %10s %10s %10s %10s %10s%n",
+                "operation", "requests", "errors", "partial", "req/s", "p50 ms", "p99 ms", "p99.9 ms", "max ms");
+        for (Operation op : Operation.values()) {
+            Stats s = stats.get(op);
+            if (s.latencyMicros.getTotalCount() == 0) continue;
+            all.add(s.latencyMicros);
+            allErrors += s.errors.sum();
+            allPartial += s.partial.sum();
+            printRow(op.label, s.latencyMicros, s.errors.sum(), s.partial.sum(), seconds);
+        }
+        printRow("all", all, allErrors, allPartial, seconds);
+    }
+
+    private static void printRow(String label, Histogram h, long errors, long partial, double seconds) {
+        System.out.printf("%-14s %10d %8d %8d %10.1f %10.1f %10.1f %10.1f %10.1f%n",
+                label, h.getTotalCount(), errors, partial, h.getTotalCount() / seconds,
+                h.getValueAtPercentile(50) / 1000.0, h.getValueAtPercentile(99) / 1000.0,
+                h.getValueAtPercentile(99.9) / 1000.0, h.getMaxValue() / 1000.0);
+    }
+
+    public static void main(String[] args) throws InterruptedException {
+        Options options = new Options(args);
+        Duration duration = options.getDuration("duration", Duration.ofSeconds(60));
+        Duration warmup = options.getDuration("warmup", Duration.ofSeconds(10));
+        int concurrency = options.getInt("concurrency", 32);
+        double rate = options.getDouble("rate", 0);
+        long seed = Long.parseLong(options.get("seed", String.valueOf(ThreadLocalRandom.current().nextLong())));
+
+        LoadDriver driver = new LoadDriver(
+                options.get("target", "http://localhost:8080"),
+                parseMix(options.get("mix", "search:40,season-stats:20,accolades:10,fighters:20,compare:10")),
+                options.getInt("athletes", 200),
+                options.getDouble("hot-share", 0.8));
+
+        System.out.println("Target " + driver.target + ", " + (rate > 0 ? rate + " req/s open loop" : concurrency + " users closed loop")
+                + ", warmup " + warmup.toSeconds() + "s, measuring " + duration.toSeconds() + "s, seed " + seed);
+
+        long start = System.nanoTime();
+        long measureFrom = start + warmup.toNanos();
+        long end = measureFrom + duration.toNanos();
+
+        Thread progress = Thread.ofVirtual().start(() -> {
+            long last = 0;
+            try {
+                while (true) {
+                    TimeUnit.SECONDS.sleep(10);
+                    long now = driver.completed.sum();
+                    System.out.printf("  %3ds  %8.1f req/s%s%n", TimeUnit.NANOSECONDS.toSeconds(System.nanoTime() - start),
+                            (now - last) / 10.0, driver.recording ? "" : "  (warmup)");
+                    last = now;
+                }
+            } catch (InterruptedException ignored) {
+                // Run finished
+            }
+        });
+        Thread.ofVirtual().start(() -> {
+            try {
+                TimeUnit.NANOSECONDS.sleep(measureFrom - System.nanoTime());
+                driver.recording = true;
+            } catch (InterruptedException ignored) {
+                // Run finished
+            }
+        });
+
+        if (rate > 0) {
+            driver.runOpenLoop(rate, start, end, seed);
+        } else {
+            driver.runClosedLoop(concurrency, end, seed);
+        }
+        progress.interrupt();
+        driver.printReport(duration);
+    }
+}
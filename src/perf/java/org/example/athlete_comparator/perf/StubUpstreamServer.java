@@ -0,0 +1,254 @@
+package org.example.athlete_comparator.perf;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.regex.Pattern;
+
+/**
+ * Stand-in for ESPN and OpenAI, so the service can be load-tested without touching either.
+
+ * Serves the recorded fixtures for every ESPN endpoint the clients call (core v2, common v3,
+ * site v2 and search v2), whatever athlete ID is asked for, and answers chat completions with the
+ * recorded AI responses, blocking or streamed. Each upstream has its own LatencyModel and error
+ * rate; failed ESPN calls get a 503, failed OpenAI calls a 429.
+
+ * Start it, then start the service with the "stub" profile (see application-stub.properties):
+ * mvn -Pperf test-compile exec:java -Dexec.mainClass=org.example.athlete_comparator.perf.StubUpstreamServer \
+ *     -Dexec.args="--port=9099 --espn-median-ms=40 --espn-p99-ms=400 --espn-error-rate=0.01"
+
+ * Options: --port, --{espn,openai}-median-ms, --{espn,openai}-p99-ms, --{espn,openai}-error-rate,
+ * --openai-token-delay-ms (pause between streamed chunks; OpenAI latency is the time to the first one)
+ */
+public final class StubUpstreamServer {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+    private static final Pattern CHUNK = Pattern.compile("(?<=\\s)");
+
+    private final LatencyModel espn;
+    private final LatencyModel openAi;
+    private final long tokenDelayMs;
+    private final List<Route> routes = new ArrayList<>();
+    private final byte[] search;
+    private final String nbaAnswer = Fixtures.text("nba/ai-response.txt");
+    private final String mmaAnswer = Fixtures.text("mma/ai-response.txt");
+    private final Map<String, LongAdder> served = new ConcurrentHashMap<>();
+    private HttpServer server;
+
+    /**
+     * A path pattern and the fixture served for it
+     */
+    private record Route(Pattern path, String name, byte[] body) {
+    }
+
+    public StubUpstreamServer(LatencyModel espn, LatencyModel openAi, long tokenDelayMs) {
+        this.espn = espn;
+        this.openAi = openAi;
+        this.tokenDelayMs = tokenDelayMs;
+        this.search = mergedSearch();
+
+        route("/v2/sports/basketball/leagues/nba/athletes/\\d+/statisticslog", "nba/statistics-log.json");
+        route("/v2/sports/basketball/leagues/nba/seasons/\\d+/types/\\d+/athletes/\\d+/statistics/0", "nba/season-average.json");
+        route("/v2/sports/basketball/leagues/nba/athletes/\\d+", "nba/athlete.json");
+        route("/apis/common/v3/sports/basketball/nba/athletes/\\d+/bio", "nba/athlete-bio.json");
+        route("/apis/site/v2/sports/basketball/nba/teams", "nba/teams.json");
+        route("/apis/site/v2/sports/basketball/nba/teams/\\d+/roster", "nba/roster.json");
+        route("/v2/sports/mma/athletes/\\d+/records", "mma/records.json");
+        route("/v2/sports/mma/athletes/\\d+/statistics/0", "mma/statistics.json");
+        route("/v2/sports/mma/athletes/\\d+", "mma/athlete.json");
+        route("/apis/site/v2/sports/mma/ufc/scoreboard", "mma/scoreboard.json");
+    }
+
+    private void route(String path, String fixture) {
+        routes.add(new Route(Pattern.compile(path), fixture, Fixtures.bytes(fixture)));
+    }
+
+    /**
+     * Search v2 is one endpoint for every sport and each client keeps only its own hits, so both
+     * recorded result lists are served together
+     */
+    private static byte[] mergedSearch() {
+        JsonNode nba = Fixtures.json("nba/search.json");
+        JsonNode mma = Fixtures.json("mma/search.json");
+        ArrayNode players = (ArrayNode) nba.path("results").path(0).path("contents");
+        players.addAll((ArrayNode) mma.path("results").path(0).path("contents"));
+        try {
+            return MAPPER.writeValueAsBytes(nba);
+        } catch (IOException e) {
+            throw new IllegalStateException("Failed to merge search fixtures", e);
+        }
+    }
+
+    public void start(int port) throws IOException {
+        server = HttpServer.create(new InetSocketAddress(port), 1024);
+        server.setExecutor(Executors.newVirtualThreadPerTaskExecutor());
+        server.createContext("/", this::handle);
+        server.start();
+    }
+
+    public void stop() {
+        if (server != null) server.stop(0);
+    }
+
+    public int port() {
+        return server.getAddress().getPort();
+    }
+
+    /**
+     * @return Requests served so far per fixture (and "search", "openai", "error", "not_found")
+     */
+    public Map<String, Long> served() {
+        Map<String, Long> out = new TreeMap<>();
+        served.forEach((name, count) -> out.put(name, count.sum()));
+        return out;
+    }
+
+    private void count(String name) {
+        served.computeIfAbsent(name, key -> new LongAdder()).increment();
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            String path = exchange.getRequestURI().getPath();
+            if (path.equals("/v1/chat/completions")) {
+                handleCompletion(exchange);
+                return;
+            }
+
+            pause(espn.sampleMs());
+            if (espn.shouldFail()) {
+                count("error");
+                send(exchange, 503, "{\"code\":503,\"message\":\"Service Unavailable\"}".getBytes(StandardCharsets.UTF_8));
+                return;
+            }
+            if (path.equals("/apis/search/v2")) {
+                count("search");
+                send(exchange, 200, search);
+                return;
+            }
+            for (Route route : routes) {
+                if (route.path().matcher(path).matches()) {
+                    count(route.name());
+                    send(exchange, 200, route.body());
+                    return;
+                }
+            }
+            count("not_found");
+            send(exchange, 404, "{\"code\":404,\"message\":\"Not Found\"}".getBytes(StandardCharsets.UTF_8));
+        }
+    }
+
+    private void handleCompletion(HttpExchange exchange) throws IOException {
+        JsonNode request = MAPPER.readTree(exchange.getRequestBody());
+        String prompt = request.path("messages").toString();
+        String answer = prompt.contains("MMA fighters") ? mmaAnswer : nbaAnswer;
+        int promptTokens = prompt.length() / 4;
+        int completionTokens = answer.length() / 4;
+
+        pause(openAi.sampleMs());
+        if (openAi.shouldFail()) {
+            count("error");
+            exchange.getResponseHeaders().set("Retry-After", "1");
+            send(exchange, 429, "{\"error\":{\"message\":\"Rate limit reached\",\"type\":\"requests\"}}".getBytes(StandardCharsets.UTF_8));
+            return;
+        }
+        count("openai");
+
+        if (!request.path("stream").asBoolean(false)) {
+            ObjectNode response = completion("chat.completion", request);
+            ObjectNode choice = response.putArray("choices").addObject();
+            choice.put("index", 0);
+            choice.putObject("message").put("role", "assistant").put("content", answer);
+            choice.put("finish_reason", "stop");
+            usage(response, promptTokens, completionTokens);
+            send(exchange, 200, MAPPER.writeValueAsBytes(response));
+            return;
+        }
+
+        exchange.getResponseHeaders().set("Content-Type", "text/event-stream");
+        exchange.sendResponseHeaders(200, 0);
+        OutputStream out = exchange.getResponseBody();
+        String[] chunks = CHUNK.split(answer);
+        for (int i = 0; i < chunks.length; i++) {
+            if (i > 0) pause(tokenDelayMs);
+            ObjectNode chunk = completion("chat.completion.chunk", request);
+            ObjectNode choice = chunk.putArray("choices").addObject();
+            choice.put("index", 0);
+            choice.putObject("delta").put("content", chunks[i]);
+            event(out, MAPPER.writeValueAsString(chunk));
+        }
+        ObjectNode last = completion("chat.completion.chunk", request);
+        last.putArray("choices");
+        usage(last, promptTokens, completionTokens);
+        event(out, MAPPER.writeValueAsString(last));
+        event(out, "[DONE]");
+    }
+
+    private static ObjectNode completion(String object, JsonNode request) {
+        ObjectNode node = MAPPER.createObjectNode();
+        node.put("id", "chatcmpl-stub");
+        node.put("object", object);
+        node.put("created", System.currentTimeMillis() / 1000);
+        node.put("model", request.path("model").asText("stub"));
+        return node;
+    }
+
+    private static void usage(ObjectNode node, int promptTokens, int completionTokens) {
+        node.putObject("usage")
+                .put("prompt_tokens", promptTokens)
+                .put("completion_tokens", completionTokens)
+                .put("total_tokens", promptTokens + completionTokens);
+    }
+
+    private static void event(OutputStream out, String data) throws IOException {
+        out.write(("data: " + data + "\n\n").getBytes(StandardCharsets.UTF_8));
+        out.flush();
+    }
+
+    private static void send(HttpExchange exchange, int status, byte[] body) throws IOException {
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, body.length);
+        exchange.getResponseBody().write(body);
+    }
+
+    private static void pause(long ms) {
+        if (ms <= 0) return;
+        try {
+            Thread.sleep(ms);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    public static void main(String[] args) throws IOException {
+        Options options = new Options(args);
+        StubUpstreamServer stub = new StubUpstreamServer(
+                LatencyModel.from(options, "espn", 40, 400),
+                LatencyModel.from(options, "openai", 600, 3000),
+                options.getInt("openai-token-delay-ms", 15));
+        stub.start(options.getInt("port", 9099));
+
+        System.out.println("Stub upstreams listening on port " + stub.port());
+        System.out.println("  ESPN:   " + stub.espn);
+        System.out.println("  OpenAI: " + stub.openAi + " (time to first token), " + stub.tokenDelayMs + "ms per chunk");
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            stub.stop();
+            System.out.println("Served: " + stub.served());
+        }));
+    }
+}
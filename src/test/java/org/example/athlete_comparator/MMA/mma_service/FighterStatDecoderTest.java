@@ -0,0 +1,205 @@
+package org.example.athlete_comparator.MMA.mma_service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.example.athlete_comparator.MMA.mma_dto.FighterStatDTO;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class FighterStatDecoderTest {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private static final List<String> NAMES = List.of("takedownAccuracy", "strikeLPM", "strikeAccuracy",
+            "takedownAvg", "submissionAvg", "koPercentage", "tkoPercentage", "decisionPercentage");
+
+    /**
+     * Decodes with both the streaming decoder and the old tree walk and checks they agree
+     */
+    private static FighterStatDecoder.Decoded decodeBoth(String json) throws IOException {
+        byte[] payload = json.getBytes(StandardCharsets.UTF_8);
+        FighterStatDecoder.Decoded streamed = FighterStatDecoder.decode(payload);
+        FighterStatDecoder.Decoded walked = TreeWalk.map(MAPPER.readTree(payload));
+        assertThat(streamed).as(json).usingRecursiveComparison().isEqualTo(walked);
+        return streamed;
+    }
+
+    @Test
+    void mapsTheStatsFromEveryCategory() throws IOException {
+        FighterStatDecoder.Decoded decoded = decodeBoth("""
+                {"splits": {"categories": [
+                  {"name": "striking", "stats": [
+                    {"name": "strikeLPM", "value": 4.39},
+                    {"name": "strikeAccuracy", "value": 49.2}]},
+                  {"name": "grappling", "stats": [
+                    {"name": "takedownAvg", "value": 1.8},
+                    {"name": "submissionAvg", "value": 0.5}]},
+                  {"name": "results", "stats": [
+                    {"name": "koPercentage", "value": 0.41}]}]}}
+                """);
+
+        FighterStatDTO stats = decoded.stats();
+        assertThat(decoded.hasCategories()).isTrue();
+        assertThat(stats.getStrikeLPM()).isEqualTo(4.39);
+        assertThat(stats.getTakedownAvg()).isEqualTo(1.8);
+        assertThat(stats.getKoPercentage()).isEqualTo(0.41);
+        assertThat(stats.getDecisionPercentage()).isZero();
+    }
+
+    @Test
+    void missingOrEmptyCategoriesAreReported() throws IOException {
+        assertThat(decodeBoth("{\"splits\": {\"categories\": []}}").hasCategories()).isFalse();
+        assertThat(decodeBoth("{\"splits\": {}}").hasCategories()).isFalse();
+        assertThat(decodeBoth("{\"categories\": [{\"stats\": []}]}").hasCategories()).isFalse();
+        assertThat(decodeBoth("{\"splits\": {\"categories\": [{\"stats\": []}]}}").hasCategories()).isTrue();
+    }
+
+    @Test
+    void laterOccurrencesWinAndNamesAreExact() throws IOException {
+        FighterStatDTO stats = decodeBoth("""
+                {"splits": {"categories": [
+                  {"stats": [{"name": "strikeLPM", "value": 3.1}, {"name": "STRIKELPM", "value": 9.9}]},
+                  {"stats": [{"value": 5.2, "name": "strikeLPM"}]}]}}
+                """).stats();
+        assertThat(stats.getStrikeLPM()).isEqualTo(5.2);
+    }
+
+    @Test
+    void valuesThatAreNotNumbersCountAsZero() throws IOException {
+        FighterStatDTO stats = decodeBoth("""
+                {"splits": {"categories": [{"stats": [
+                  {"name": "strikeLPM", "value": 3.1},
+                  {"name": "strikeLPM", "value": "n/a"},
+                  {"name": "takedownAvg", "value": "2.25"},
+                  {"name": "koPercentage", "value": null},
+                  {"name": "tkoPercentage"}]}]}}
+                """).stats();
+        assertThat(stats.getStrikeLPM()).isZero();
+        assertThat(stats.getTakedownAvg()).isEqualTo(2.25);
+        assertThat(stats.getKoPercentage()).isZero();
+    }
+
+    @Test
+    void invalidJsonIsReported() {
+        byte[] truncated = "{\"splits\": {\"categories\": [".getBytes(StandardCharsets.UTF_8);
+        assertThatThrownBy(() -> FighterStatDecoder.decode(truncated)).isInstanceOf(IOException.class);
+    }
+
+    @Test
+    void agreesWithTheTreeWalkOnRandomPayloads() throws IOException {
+        Random random = new Random(6);
+        for (int i = 0; i < 5000; i++) {
+            decodeBoth(MAPPER.writeValueAsString(randomPayload(random)));
+        }
+    }
+
+    private static ObjectNode randomPayload(Random random) {
+        ObjectNode root = MAPPER.createObjectNode();
+        root.put("status", "success");
+        switch (random.nextInt(5)) {
+            case 0 -> {
+            }
+            case 1 -> root.putNull("splits");
+            case 2 -> root.putArray("splits");
+            case 3 -> root.putObject("splits").putNull("categories");
+            default -> root.putObject("splits").set("categories", randomCategories(random));
+        }
+        return root;
+    }
+
+    private static ArrayNode randomCategories(Random random) {
+        ArrayNode categories = MAPPER.createArrayNode();
+        for (int c = random.nextInt(4); c > 0; c--) {
+            if (random.nextInt(10) == 0) {
+                categories.add(c);
+                continue;
+            }
+            ArrayNode stats = categories.addObject().put("name", "category" + c).putArray("stats");
+            for (int s = random.nextInt(10); s > 0; s--) {
+                if (random.nextInt(15) == 0) {
+                    stats.add("stat");
+                    continue;
+                }
+                randomStat(random, stats.addObject());
+            }
+        }
+        return categories;
+    }
+
+    private static void randomStat(Random random, ObjectNode stat) {
+        boolean valueFirst = random.nextBoolean();
+        if (valueFirst) randomValue(random, stat);
+
+        String name = NAMES.get(random.nextInt(NAMES.size()));
+        switch (random.nextInt(5)) {
+            case 0 -> stat.put("name", name.toLowerCase(Locale.ROOT));
+            case 1 -> stat.putObject("name").put("value", name);
+            case 2 -> {
+            }
+            default -> stat.put("name", name);
+        }
+        stat.put("displayValue", "-");
+
+        if (!valueFirst) randomValue(random, stat);
+    }
+
+    private static void randomValue(Random random, ObjectNode stat) {
+        switch (random.nextInt(8)) {
+            case 0 -> {
+            }
+            case 1 -> stat.putNull("value");
+            case 2 -> stat.put("value", "n/a");
+            case 3 -> stat.put("value", String.valueOf(random.nextInt(1000) / 10.0));
+            case 4 -> stat.put("value", random.nextBoolean());
+            case 5 -> stat.put("value", random.nextInt(100));
+            case 6 -> stat.putObject("value").put("amount", 1.5);
+            default -> stat.put("value", random.nextDouble() * 100);
+        }
+    }
+
+    /**
+     * The JsonNode mapping MMAStatsService used before the streaming decoder
+     */
+    private static final class TreeWalk {
+
+        static FighterStatDecoder.Decoded map(JsonNode root) {
+            FighterStatDTO dto = new FighterStatDTO();
+
+            JsonNode categories = root.path("splits").path("categories");
+            if (!categories.isArray() || categories.isEmpty()) {
+                return new FighterStatDecoder.Decoded(dto, false);
+            }
+
+            for (JsonNode category : categories) {
+                for (JsonNode stat : category.path("stats")) {
+                    String name = stat.path("name").asText("");
+                    double value = stat.path("value").asDouble(0.0);
+
+                    switch (name) {
+                        case "takedownAccuracy" -> dto.setTakedownAccuracy(value);
+                        case "strikeLPM" -> dto.setStrikeLPM(value);
+                        case "strikeAccuracy" -> dto.setStrikeAccuracy(value);
+                        case "takedownAvg" -> dto.setTakedownAvg(value);
+                        case "submissionAvg" -> dto.setSubmissionAvg(value);
+                        case "koPercentage" -> dto.setKoPercentage(value);
+                        case "tkoPercentage" -> dto.setTkoPercentage(value);
+                        case "decisionPercentage" -> dto.setDecisionPercentage(value);
+                        default -> {
+                        }
+                    }
+                }
+            }
+            return new FighterStatDecoder.Decoded(dto, true);
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package org.example.athlete_comparator.MMA.mma_service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.example.athlete_comparator.MMA.mma_client.EspnMMASearchClient;
+import org.example.athlete_comparator.MMA.mma_client.EspnMMAStatsClient;
+import org.example.athlete_comparator.MMA.mma_dto.FighterSearchResultDTO;
+import org.example.athlete_comparator.shared_client.ParallelFetcher;
+import org.example.athlete_comparator.shared_client.RefreshScheduler;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class MMASearchServiceTest {
+
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    private final EspnMMASearchClient searchClient = mock(EspnMMASearchClient.class);
+    private final EspnMMAStatsClient statsClient = mock(EspnMMAStatsClient.class);
+    private final MMASearchService searchService = new MMASearchService(searchClient, statsClient,
+            new ParallelFetcher(executor, false),
+            new RefreshScheduler(executor, 100, 32, new SimpleMeterRegistry()),
+            10, 800, true, 0, 0.45, 100);
+
+    private static FighterSearchResultDTO fighter(long id, String name) {
+        FighterSearchResultDTO dto = new FighterSearchResultDTO();
+        dto.setID(id);
+        dto.setName(name);
+        return dto;
+    }
+
+    @BeforeEach
+    void loadScoreboard() {
+        when(searchClient.getScoreboardFighters()).thenReturn(List.of(
+                fighter(4350812, "Khalil Rountree Jr."),
+                fighter(3949584, "Islam Makhachev")));
+        searchService.refreshIndex();
+    }
+
+    @AfterEach
+    void shutdown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void scoreboardFighterIsAnsweredFromTheIndex() {
+        assertThat(searchService.search("islam")).extracting(FighterSearchResultDTO::getName)
+                .containsExactly("Islam Makhachev");
+        verify(searchClient, never()).searchFighters(anyString());
+    }
+
+    @Test
+    void retiredFighterIsSearchedOnEspnDespiteSimilarNames() {
+        when(searchClient.searchFighters("khabib")).thenReturn(List.of(fighter(2611557, "Khabib Nurmagomedov")));
+
+        assertThat(searchService.search("khabib")).extracting(FighterSearchResultDTO::getName)
+                .startsWith("Khabib Nurmagomedov")
+                .doesNotHaveDuplicates();
+    }
+}
@@ -0,0 +1,100 @@
+package org.example.athlete_comparator.NBA.nba_service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.example.athlete_comparator.NBA.nba_client.EspnNBASearchClient;
+import org.example.athlete_comparator.NBA.nba_client.EspnNBAStatsClient;
+import org.example.athlete_comparator.NBA.nba_dto.PlayerSearchResultDTO;
+import org.example.athlete_comparator.shared_client.Deadline;
+import org.example.athlete_comparator.shared_client.ParallelFetcher;
+import org.example.athlete_comparator.shared_client.RefreshScheduler;
+import org.example.athlete_comparator.shared_client.UpstreamUnavailableException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class SearchServiceTest {
+
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    private final EspnNBASearchClient searchClient = mock(EspnNBASearchClient.class);
+    private final EspnNBAStatsClient statsClient = mock(EspnNBAStatsClient.class);
+    // learn-below 0: no background ESPN searches, so every ESPN call in a test is on the request path
+    private final SearchService searchService = new SearchService(searchClient, statsClient,
+            new ParallelFetcher(executor, false),
+            new RefreshScheduler(executor, 100, 32, new SimpleMeterRegistry()),
+            800, true, 0, 0.45, 100);
+
+    private static PlayerSearchResultDTO player(long id, String name) {
+        return new PlayerSearchResultDTO(id, name, "NBA", null, null, null, null, null);
+    }
+
+    private static List<String> names(List<PlayerSearchResultDTO> players) {
+        return players.stream().map(PlayerSearchResultDTO::getName).toList();
+    }
+
+    @BeforeEach
+    void loadRosters() {
+        when(searchClient.getTeamIds()).thenReturn(List.of(1L));
+        when(searchClient.getTeamRoster(1L)).thenReturn(List.of(
+                player(4433134, "Jordan Miller"),
+                player(4278104, "Michael Porter Jr."),
+                player(4395625, "Jordan Poole"),
+                player(4397020, "Kobe Brown"),
+                player(1966, "LeBron James")));
+        searchService.refreshIndex();
+    }
+
+    @AfterEach
+    void shutdown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void rosteredPlayerIsAnsweredFromTheIndex() {
+        assertThat(names(searchService.search("leb"))).containsExactly("LeBron James");
+        verify(searchClient, never()).searchPlayers(anyString());
+    }
+
+    @Test
+    void retiredPlayerIsSearchedOnEspnDespiteSimilarNames() {
+        when(searchClient.searchPlayers("michael jordan")).thenReturn(List.of(player(1035, "Michael Jordan")));
+
+        List<String> results = names(searchService.search("michael jordan"));
+        assertThat(results).first().isEqualTo("Michael Jordan");
+        assertThat(results).doesNotHaveDuplicates();
+
+        // Learned, so the next search is a prefix hit in the index
+        assertThat(names(searchService.search("michael jor"))).first().isEqualTo("Michael Jordan");
+        verify(searchClient, times(1)).searchPlayers(anyString());
+    }
+
+    @Test
+    void similarNamesAreServedUncachedWhenEspnFails() {
+        when(searchClient.searchPlayers("kobe bryant"))
+                .thenThrow(new UpstreamUnavailableException("circuit open", 30));
+        Deadline deadline = Deadline.after(Duration.ofSeconds(5));
+
+        List<PlayerSearchResultDTO> results;
+        try (Deadline.Binding ignored = deadline.bind()) {
+            results = searchService.search("kobe bryant");
+        }
+        assertThat(names(results)).contains("Kobe Brown");
+        assertThat(deadline.isPartial()).isTrue();
+
+        when(searchClient.searchPlayers("zzz")).thenThrow(new UpstreamUnavailableException("circuit open", 30));
+        assertThatThrownBy(() -> searchService.search("zzz")).isInstanceOf(UpstreamUnavailableException.class);
+    }
+}
@@ -0,0 +1,258 @@
+package org.example.athlete_comparator.NBA.nba_service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.example.athlete_comparator.NBA.nba_dto.SeasonStatDTO;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class SeasonAverageDecoderTest {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private static final List<String> NAMES = List.of("gamesPlayed", "avgMinutes", "avgPoints", "avgAssists",
+            "avgRebounds", "avgSteals", "avgBlocks", "avgTurnovers", "avgFieldGoalsMade", "avgFieldGoalsAttempted",
+            "avgThreePointFieldGoalsMade", "avgThreePointFieldGoalsAttempted", "avgFreeThrowsMade",
+            "avgFreeThrowsAttempted");
+
+    private static SeasonStatDTO decode(String json) throws IOException {
+        return SeasonAverageDecoder.decode(json.getBytes(StandardCharsets.UTF_8), 2024, 2);
+    }
+
+    /**
+     * Decodes with both the streaming decoder and the old tree walk and checks they agree
+     */
+    private static SeasonStatDTO decodeBoth(byte[] payload) throws IOException {
+        SeasonStatDTO streamed = SeasonAverageDecoder.decode(payload, 2024, 2);
+        SeasonStatDTO walked = TreeWalk.map(MAPPER.readTree(payload), 2024, 2);
+        assertThat(streamed).as(new String(payload, StandardCharsets.UTF_8))
+                .usingRecursiveComparison().isEqualTo(walked);
+        return streamed;
+    }
+
+    @Test
+    void mapsTheStatsAndDerivedValues() throws IOException {
+        SeasonStatDTO dto = decodeBoth("""
+                {"splits": {"categories": [
+                  {"name": "general", "stats": [
+                    {"name": "gamesPlayed", "value": 71.0},
+                    {"name": "avgMinutes", "value": 35.3},
+                    {"name": "avgRebounds", "value": 7.3}]},
+                  {"name": "offensive", "stats": [
+                    {"name": "avgPoints", "value": 25.7},
+                    {"name": "avgAssists", "value": 8.3},
+                    {"name": "avgFieldGoalsMade", "value": 9.6},
+                    {"name": "avgFieldGoalsAttempted", "value": 17.9},
+                    {"name": "avgThreePointFieldGoalsMade", "value": 2.1},
+                    {"name": "avgFreeThrowsAttempted", "value": 5.7}]}]}}
+                """.getBytes(StandardCharsets.UTF_8));
+
+        assertThat(dto.getSeason()).isEqualTo(2024);
+        assertThat(dto.getType()).isEqualTo(2);
+        assertThat(dto.getGp()).isEqualTo(71);
+        assertThat(dto.getPts()).isEqualTo(25.7);
+        assertThat(dto.getEfg()).isEqualTo((9.6 + 0.5 * 2.1) / 17.9);
+        assertThat(dto.getPer75Reb()).isEqualTo(7.3 / 35.3 * 75.0);
+    }
+
+    @Test
+    void payloadWithoutSplitsHasNoSeason() throws IOException {
+        assertThat(decode("{\"categories\": [{\"stats\": [{\"name\": \"avgPoints\", \"value\": 30}]}]}")).isNull();
+        assertThat(decode("[]")).isNull();
+    }
+
+    @Test
+    void rootCategoriesAreUsedWhenSplitsHasNone() throws IOException {
+        SeasonStatDTO dto = decodeBoth("""
+                {"categories": [{"stats": [{"name": "avgPoints", "value": 30}]}], "splits": {}}
+                """.getBytes(StandardCharsets.UTF_8));
+        assertThat(dto.getPts()).isEqualTo(30.0);
+    }
+
+    @Test
+    void firstCaseInsensitiveMatchWins() throws IOException {
+        SeasonStatDTO dto = decodeBoth("""
+                {"splits": {"categories": [
+                  {"stats": [{"name": "AVGPOINTS", "value": 12}, {"name": "avgPoints", "value": 99}]}]}}
+                """.getBytes(StandardCharsets.UTF_8));
+        assertThat(dto.getPts()).isEqualTo(12.0);
+    }
+
+    @Test
+    void textValuesAreParsedAndUnparseableOnesSkipped() throws IOException {
+        SeasonStatDTO dto = decodeBoth("""
+                {"splits": {"categories": [{"stats": [
+                  {"name": "avgPoints", "value": "n/a"},
+                  {"name": "avgPoints", "value": "27.1"},
+                  {"name": "avgAssists", "value": null},
+                  {"name": "avgAssists", "value": 9},
+                  {"value": 6.4, "name": "avgRebounds"},
+                  {"name": "avgSteals"}]}]}}
+                """.getBytes(StandardCharsets.UTF_8));
+        assertThat(dto.getPts()).isEqualTo(27.1);
+        assertThat(dto.getAst()).as("null counts as 0 and ends the search").isZero();
+        assertThat(dto.getReb()).isEqualTo(6.4);
+        assertThat(dto.getStl()).isZero();
+    }
+
+    @Test
+    void invalidJsonIsReported() {
+        assertThatThrownBy(() -> decode("{\"splits\": {\"categories\": [")).isInstanceOf(IOException.class);
+    }
+
+    @Test
+    void agreesWithTheTreeWalkOnRandomPayloads() throws IOException {
+        Random random = new Random(6);
+        for (int i = 0; i < 5000; i++) {
+            decodeBoth(MAPPER.writeValueAsBytes(randomPayload(random)));
+        }
+    }
+
+    private static ObjectNode randomPayload(Random random) {
+        ObjectNode root = MAPPER.createObjectNode();
+        root.put("status", "success");
+        switch (random.nextInt(5)) {
+            case 0 -> {
+            }
+            case 1 -> root.putNull("splits");
+            case 2 -> root.putArray("splits");
+            case 3 -> root.putObject("splits").put("id", "0");
+            default -> root.putObject("splits").set("categories", randomCategories(random));
+        }
+        if (random.nextInt(3) == 0) {
+            root.set("categories", randomCategories(random));
+        }
+        return root;
+    }
+
+    private static JsonNode randomCategories(Random random) {
+        if (random.nextInt(10) == 0) {
+            return MAPPER.getNodeFactory().nullNode();
+        }
+        ArrayNode categories = MAPPER.createArrayNode();
+        for (int c = random.nextInt(4); c > 0; c--) {
+            if (random.nextInt(10) == 0) {
+                categories.add(c);
+                continue;
+            }
+            ObjectNode category = categories.addObject().put("name", "category" + c);
+            ArrayNode stats = category.putArray("stats");
+            for (int s = random.nextInt(12); s > 0; s--) {
+                if (random.nextInt(15) == 0) {
+                    stats.add("stat");
+                    continue;
+                }
+                randomStat(random, stats.addObject());
+            }
+        }
+        return categories;
+    }
+
+    private static void randomStat(Random random, ObjectNode stat) {
+        boolean valueFirst = random.nextBoolean();
+        if (valueFirst) randomValue(random, stat);
+
+        String name = NAMES.get(random.nextInt(NAMES.size()));
+        switch (random.nextInt(6)) {
+            case 0 -> stat.put("name", name.toUpperCase(Locale.ROOT));
+            case 1 -> stat.put("name", name.toLowerCase(Locale.ROOT));
+            case 2 -> stat.put("name", name + "Total");
+            case 3 -> stat.putObject("name").put("value", name);
+            default -> stat.put("name", name);
+        }
+        stat.put("displayValue", "-");
+
+        if (!valueFirst) randomValue(random, stat);
+    }
+
+    private static void randomValue(Random random, ObjectNode stat) {
+        switch (random.nextInt(8)) {
+            case 0 -> {
+            }
+            case 1 -> stat.putNull("value");
+            case 2 -> stat.put("value", "n/a");
+            case 3 -> stat.put("value", String.valueOf(random.nextInt(400) / 10.0));
+            case 4 -> stat.put("value", random.nextBoolean());
+            case 5 -> stat.put("value", random.nextInt(82));
+            case 6 -> stat.putArray("value").add(1.5);
+            default -> stat.put("value", random.nextDouble() * 40);
+        }
+    }
+
+    /**
+     * The JsonNode mapping StatsService used before the streaming decoder
+     */
+    private static final class TreeWalk {
+
+        static SeasonStatDTO map(JsonNode avg, int season, int type) {
+            if (avg.path("splits").isMissingNode()) {
+                return null;
+            }
+
+            SeasonStatDTO dto = new SeasonStatDTO();
+            dto.setSeason(season);
+            dto.setType(type);
+
+            dto.setGp((int) Math.rint(stat(avg, "gamesPlayed")));
+            dto.setMin(stat(avg, "avgMinutes"));
+            dto.setPts(stat(avg, "avgPoints"));
+            dto.setAst(stat(avg, "avgAssists"));
+            dto.setReb(stat(avg, "avgRebounds"));
+            dto.setStl(stat(avg, "avgSteals"));
+            dto.setBlk(stat(avg, "avgBlocks"));
+            dto.setTov(stat(avg, "avgTurnovers"));
+
+            dto.setFgm(stat(avg, "avgFieldGoalsMade"));
+            dto.setFga(stat(avg, "avgFieldGoalsAttempted"));
+            dto.setTpm(stat(avg, "avgThreePointFieldGoalsMade"));
+            dto.setTpa(stat(avg, "avgThreePointFieldGoalsAttempted"));
+            dto.setFtm(stat(avg, "avgFreeThrowsMade"));
+            dto.setFta(stat(avg, "avgFreeThrowsAttempted"));
+
+            double fga = dto.getFga(), fta = dto.getFta();
+            double fgm = dto.getFgm(), tpm = dto.getTpm();
+            double pts = dto.getPts(), mp = dto.getMin();
+
+            dto.setTs((fga + 0.44 * fta) > 0 ? pts / (2.0 * (fga + 0.44 * fta)) : null);
+            dto.setEfg(fga > 0 ? (fgm + 0.5 * tpm) / fga : null);
+
+            if (mp > 0) {
+                dto.setPer75Pts(pts / mp * 75.0);
+                dto.setPer75Ast(dto.getAst() / mp * 75.0);
+                dto.setPer75Reb(dto.getReb() / mp * 75.0);
+            }
+            return dto;
+        }
+
+        private static double stat(JsonNode root, String name) {
+            JsonNode categories = root.path("splits").path("categories");
+            if (categories.isMissingNode()) {
+                categories = root.path("categories");
+            }
+
+            for (JsonNode cat : categories) {
+                for (JsonNode st : cat.path("stats")) {
+                    if (name.equalsIgnoreCase(st.path("name").asText(""))) {
+                        JsonNode v = st.path("value");
+                        if (v.isNumber()) return v.asDouble();
+                        try {
+                            return Double.parseDouble(v.asText("0"));
+                        } catch (Exception ignored) {
+                        }
+                    }
+                }
+            }
+            return 0.0;
+        }
+    }
+}
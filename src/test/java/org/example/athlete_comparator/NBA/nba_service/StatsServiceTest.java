@@ -0,0 +1,90 @@
+package org.example.athlete_comparator.NBA.nba_service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.example.athlete_comparator.NBA.nba_client.EspnNBAStatsClient;
+import org.example.athlete_comparator.NBA.nba_dto.SeasonStatDTO;
+import org.example.athlete_comparator.NBA.nba_repository.SeasonStatRepository;
+import org.example.athlete_comparator.shared_client.Deadline;
+import org.example.athlete_comparator.shared_client.ParallelFetcher;
+import org.example.athlete_comparator.shared_client.UpstreamUnavailableException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class StatsServiceTest {
+
+    private static final long JORDAN = 1035;
+    private static final byte[] SEASON = """
+            {"splits": {"categories": [{"name": "offensive", "stats": [{"name": "avgPoints", "value": 30.1}]}]}}
+            """.getBytes(StandardCharsets.UTF_8);
+
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    private final EspnNBAStatsClient client = mock(EspnNBAStatsClient.class);
+    private final StatsService statsService = new StatsService(client, new ParallelFetcher(executor, true),
+            mock(SeasonStatRepository.class));
+    private final Deadline deadline = Deadline.after(Duration.ofSeconds(5));
+
+    @BeforeEach
+    void statisticsLog() throws Exception {
+        JsonNode log = new ObjectMapper().readTree("""
+                {"entries": [
+                  {"season": {"$ref": "http://espn/v2/sports/basketball/leagues/nba/seasons/1996?lang=en"}},
+                  {"season": {"$ref": "http://espn/v2/sports/basketball/leagues/nba/seasons/1997?lang=en"}},
+                  {"season": {"$ref": "http://espn/v2/sports/basketball/leagues/nba/seasons/1998?lang=en"}}]}
+                """);
+        when(client.getStatisticsLog(JORDAN)).thenReturn(log);
+    }
+
+    @AfterEach
+    void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private List<SeasonStatDTO> seasonStats() {
+        try (Deadline.Binding ignored = deadline.bind()) {
+            return statsService.getSeasonStats(JORDAN, 2);
+        }
+    }
+
+    @Test
+    void completeCareerIsNotPartial() {
+        when(client.getSeasonAveragePayload(JORDAN, 1996, 2)).thenReturn(SEASON);
+        when(client.getSeasonAveragePayload(JORDAN, 1997, 2)).thenReturn(SEASON);
+        when(client.getSeasonAveragePayload(JORDAN, 1998, 2)).thenReturn(SEASON);
+
+        assertThat(seasonStats()).extracting(SeasonStatDTO::getSeason).containsExactly(1996, 1997, 1998);
+        assertThat(deadline.isPartial()).isFalse();
+    }
+
+    @Test
+    void seasonWhoseFetchFailedMarksTheRequestPartial() {
+        when(client.getSeasonAveragePayload(JORDAN, 1996, 2)).thenReturn(SEASON);
+        when(client.getSeasonAveragePayload(JORDAN, 1997, 2))
+                .thenThrow(new UpstreamUnavailableException("circuit open", 30));
+        when(client.getSeasonAveragePayload(JORDAN, 1998, 2)).thenReturn(SEASON);
+
+        assertThat(seasonStats()).extracting(SeasonStatDTO::getSeason).containsExactly(1996, 1998);
+        assertThat(deadline.isPartial()).isTrue();
+    }
+
+    @Test
+    void seasonMissingAtEspnMarksTheRequestPartial() {
+        when(client.getSeasonAveragePayload(JORDAN, 1996, 2)).thenReturn(SEASON);
+        when(client.getSeasonAveragePayload(JORDAN, 1997, 2)).thenReturn(null);
+        when(client.getSeasonAveragePayload(JORDAN, 1998, 2)).thenReturn("{".getBytes(StandardCharsets.UTF_8));
+
+        assertThat(seasonStats()).extracting(SeasonStatDTO::getSeason).containsExactly(1996);
+        assertThat(deadline.isPartial()).isTrue();
+    }
+}
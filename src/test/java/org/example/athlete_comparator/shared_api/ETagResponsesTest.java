@@ -0,0 +1,80 @@
+package org.example.athlete_comparator.shared_api;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.example.athlete_comparator.shared_client.Deadline;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ETagResponsesTest {
+
+    private static final Map<String, Object> BODY = Map.of("id", 1966, "name", "LeBron James");
+
+    private final ETagResponses responses = new ETagResponses(new ObjectMapper(), 60, 300, 86400);
+
+    @Test
+    void eTagDependsOnlyOnTheSerializedBody() {
+        String eTag = responses.eTag(List.of("a", "b"));
+        assertThat(eTag).matches("\"[0-9a-f]{32}\"");
+        assertThat(responses.eTag(List.of("a", "b"))).isEqualTo(eTag);
+        assertThat(responses.eTag(List.of("b", "a"))).isNotEqualTo(eTag);
+    }
+
+    @Test
+    void freshResponseCarriesTheTagAndPolicy() {
+        ResponseEntity<Map<String, Object>> response = responses.respond(BODY, null, CachePolicy.LONG);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(response.getBody()).isSameAs(BODY);
+        assertThat(response.getHeaders().getETag()).isEqualTo(responses.eTag(BODY));
+        assertThat(response.getHeaders().getCacheControl()).isEqualTo("max-age=86400, public");
+        assertThat(responses.respond(BODY, null).getHeaders().getCacheControl()).isEqualTo("no-cache");
+    }
+
+    @Test
+    void matchingIfNoneMatchGetsABodiless304() {
+        String eTag = responses.eTag(BODY);
+
+        ResponseEntity<Map<String, Object>> response = responses.respond(BODY, eTag, CachePolicy.SEARCH);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.NOT_MODIFIED);
+        assertThat(response.hasBody()).isFalse();
+        assertThat(response.getHeaders().getETag()).isEqualTo(eTag);
+        assertThat(response.getHeaders().getCacheControl()).isEqualTo("max-age=60, public");
+    }
+
+    @Test
+    void ifNoneMatchAcceptsListsWeakTagsAndWildcard() {
+        String eTag = "\"abc\"";
+        assertThat(ETagResponses.matches("\"xyz\", " + eTag, eTag)).isTrue();
+        assertThat(ETagResponses.matches("W/" + eTag, eTag)).isTrue();
+        assertThat(ETagResponses.matches("*", eTag)).isTrue();
+        assertThat(ETagResponses.matches("\"xyz\"", eTag)).isFalse();
+        assertThat(ETagResponses.matches(" ", eTag)).isFalse();
+        assertThat(ETagResponses.matches(null, eTag)).isFalse();
+    }
+
+    @Test
+    void partialResponseIsNeverStoredOrTagged() {
+        String eTag = responses.eTag(BODY);
+        Deadline deadline = Deadline.after(Duration.ofSeconds(5));
+        deadline.markPartial();
+
+        ResponseEntity<Map<String, Object>> response;
+        try (Deadline.Binding ignored = deadline.bind()) {
+            response = responses.respond(BODY, eTag, CachePolicy.LONG);
+        }
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(response.getBody()).isSameAs(BODY);
+        assertThat(response.getHeaders().getCacheControl()).isEqualTo("no-store");
+        assertThat(response.getHeaders().containsKey(HttpHeaders.ETAG)).isFalse();
+    }
+}
@@ -0,0 +1,105 @@
+package org.example.athlete_comparator.shared_client;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CircuitBreakerTest {
+
+    private static final long OPEN_NANOS = TimeUnit.MILLISECONDS.toNanos(50);
+
+    private final CircuitBreaker breaker = new CircuitBreaker(10, 4, 0.5, OPEN_NANOS, 2);
+
+    private void call(boolean failed) {
+        assertThat(breaker.tryAcquire()).isTrue();
+        breaker.record(failed);
+    }
+
+    private void waitOutOpenPeriod() throws InterruptedException {
+        TimeUnit.NANOSECONDS.sleep(OPEN_NANOS + TimeUnit.MILLISECONDS.toNanos(10));
+    }
+
+    @Test
+    void staysClosedUntilMinCallsAreRecorded() {
+        call(true);
+        call(true);
+        call(true);
+        assertThat(breaker.state()).isEqualTo(CircuitBreaker.State.CLOSED);
+
+        call(true);
+        assertThat(breaker.state()).isEqualTo(CircuitBreaker.State.OPEN);
+        assertThat(breaker.tryAcquire()).isFalse();
+    }
+
+    @Test
+    void opensAtTheFailureRateThreshold() {
+        call(false);
+        call(false);
+        call(false);
+        call(true);
+        call(true);
+        assertThat(breaker.state()).isEqualTo(CircuitBreaker.State.CLOSED);
+
+        call(true);
+        assertThat(breaker.state()).isEqualTo(CircuitBreaker.State.OPEN);
+    }
+
+    @Test
+    void onlyTheLastWindowSizeCallsCount() {
+        CircuitBreaker small = new CircuitBreaker(4, 4, 0.5, OPEN_NANOS, 2);
+        for (boolean failed : new boolean[]{false, false, false, true}) {
+            assertThat(small.tryAcquire()).isTrue();
+            small.record(failed);
+        }
+        assertThat(small.state()).isEqualTo(CircuitBreaker.State.CLOSED);
+
+        // 2 of the last 4 failed; counting the first success as well it would be 2 of 5
+        assertThat(small.tryAcquire()).isTrue();
+        small.record(true);
+        assertThat(small.state()).isEqualTo(CircuitBreaker.State.OPEN);
+    }
+
+    @Test
+    void halfOpenLetsTrialCallsThroughAndClosesWhenTheySucceed() throws InterruptedException {
+        for (int i = 0; i < 4; i++) call(true);
+        waitOutOpenPeriod();
+        assertThat(breaker.state()).isEqualTo(CircuitBreaker.State.HALF_OPEN);
+
+        assertThat(breaker.tryAcquire()).isTrue();
+        assertThat(breaker.tryAcquire()).isTrue();
+        assertThat(breaker.tryAcquire()).as("only halfOpenCalls trials").isFalse();
+        breaker.record(false);
+        breaker.record(false);
+        assertThat(breaker.state()).isEqualTo(CircuitBreaker.State.CLOSED);
+
+        // Closed with a clean window: three failures are below minCalls again
+        call(true);
+        call(true);
+        call(true);
+        assertThat(breaker.state()).isEqualTo(CircuitBreaker.State.CLOSED);
+    }
+
+    @Test
+    void failedTrialOpensAgain() throws InterruptedException {
+        for (int i = 0; i < 4; i++) call(true);
+        waitOutOpenPeriod();
+
+        assertThat(breaker.tryAcquire()).isTrue();
+        breaker.record(true);
+        assertThat(breaker.state()).isEqualTo(CircuitBreaker.State.OPEN);
+        assertThat(breaker.tryAcquire()).isFalse();
+    }
+
+    @Test
+    void releasedTrialPermitCanBeUsedAgain() throws InterruptedException {
+        for (int i = 0; i < 4; i++) call(true);
+        waitOutOpenPeriod();
+
+        assertThat(breaker.tryAcquire()).isTrue();
+        assertThat(breaker.tryAcquire()).isTrue();
+        breaker.release();
+        assertThat(breaker.tryAcquire()).isTrue();
+    }
+}
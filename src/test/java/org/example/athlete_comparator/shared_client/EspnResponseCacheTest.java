@@ -0,0 +1,213 @@
+package org.example.athlete_comparator.shared_client;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class EspnResponseCacheTest {
+
+    private static final String URL = "https://site.web.api.espn.com/apis/common/v3/sports/basketball/nba/athletes/1966/bio";
+    private static final Duration TTL = Duration.ofMillis(200);
+
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    private final RefreshScheduler refreshScheduler = new RefreshScheduler(executor, 100, 32, meterRegistry);
+
+    @AfterEach
+    void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private EspnResponseCache cache(double refreshAhead, long staleWhileRevalidateSeconds, long staleIfErrorSeconds) {
+        return new EspnResponseCache(1 << 20, 3600, refreshAhead, staleWhileRevalidateSeconds, staleIfErrorSeconds,
+                refreshScheduler, meterRegistry);
+    }
+
+    private static EspnResponseCache.Validated body(String text) {
+        return new EspnResponseCache.Validated(text.getBytes(StandardCharsets.UTF_8), null, null);
+    }
+
+    private static String text(byte[] body) {
+        return body != null ? new String(body, StandardCharsets.UTF_8) : null;
+    }
+
+    private double stale(String reason) {
+        return meterRegistry.get("espn.cache.stale").tag("reason", reason).counter().count();
+    }
+
+    /**
+     * Waits for a background refresh to replace the cached body
+     */
+    private static void awaitCached(EspnResponseCache cache, String expected) throws InterruptedException {
+        long until = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!expected.equals(text(cache.peek(URL)))) {
+            assertThat(System.nanoTime()).as("background refresh finished in time").isLessThan(until);
+            Thread.sleep(5);
+        }
+    }
+
+    private static void expire() throws InterruptedException {
+        Thread.sleep(TTL.toMillis() + 50);
+    }
+
+    @Test
+    void freshEntryIsServedWithoutLoading() {
+        EspnResponseCache cache = cache(0, 0, 0);
+        AtomicInteger loads = new AtomicInteger();
+
+        for (int i = 0; i < 3; i++) {
+            assertThat(text(cache.get(URL, TTL, stale -> body("v" + loads.incrementAndGet())))).isEqualTo("v1");
+        }
+        assertThat(loads).hasValue(1);
+    }
+
+    @Test
+    void zeroTtlBypassesTheCache() {
+        EspnResponseCache cache = cache(0, 0, 0);
+        AtomicInteger loads = new AtomicInteger();
+
+        cache.get(URL, Duration.ZERO, stale -> body("v" + loads.incrementAndGet()));
+        cache.get(URL, Duration.ZERO, stale -> body("v" + loads.incrementAndGet()));
+        assertThat(loads).hasValue(2);
+        assertThat(cache.peek(URL)).isNull();
+    }
+
+    @Test
+    void failedOrEmptyLoadsAreNotCached() {
+        EspnResponseCache cache = cache(0, 0, 0);
+
+        assertThat(cache.get(URL, TTL, stale -> null)).isNull();
+        assertThat(cache.get(URL, TTL, stale -> body(""))).isNull();
+        assertThat(text(cache.get(URL, TTL, stale -> body("v1")))).isEqualTo("v1");
+    }
+
+    @Test
+    void entryReadNearTheEndOfItsTtlIsRefreshedAhead() throws InterruptedException {
+        EspnResponseCache cache = cache(0.5, 0, 0);
+        Duration ttl = Duration.ofSeconds(1);
+        cache.get(URL, ttl, stale -> body("v1"));
+        Thread.sleep(600);
+
+        // Still fresh, so served at once while the refresh runs in the background
+        assertThat(text(cache.get(URL, ttl, stale -> body("v2")))).isEqualTo("v1");
+        awaitCached(cache, "v2");
+        assertThat(stale("revalidating")).isZero();
+    }
+
+    @Test
+    void staleEntryIsServedWhileItRevalidates() throws InterruptedException {
+        EspnResponseCache cache = cache(0, 3600, 0);
+        cache.get(URL, TTL, stale -> body("v1"));
+        expire();
+
+        assertThat(text(cache.get(URL, TTL, stale -> body("v2")))).isEqualTo("v1");
+        assertThat(stale("revalidating")).isEqualTo(1);
+        awaitCached(cache, "v2");
+        assertThat(text(cache.get(URL, TTL, stale -> body("v3")))).isEqualTo("v2");
+    }
+
+    @Test
+    void withoutStaleWhileRevalidateAnExpiredEntryIsLoadedInline() throws InterruptedException {
+        EspnResponseCache cache = cache(0, 0, 0);
+        cache.get(URL, TTL, stale -> body("v1"));
+        expire();
+
+        assertThat(text(cache.get(URL, TTL, stale -> body("v2")))).isEqualTo("v2");
+    }
+
+    @Test
+    void staleEntryIsServedWhenEspnFails() throws InterruptedException {
+        EspnResponseCache cache = cache(0, 0, 3600);
+        cache.get(URL, TTL, stale -> body("v1"));
+        expire();
+
+        assertThat(text(cache.get(URL, TTL, stale -> {
+            throw new IllegalStateException("ESPN is down");
+        }))).isEqualTo("v1");
+        assertThat(text(cache.get(URL, TTL, stale -> null))).isEqualTo("v1");
+        assertThat(stale("error")).isEqualTo(2);
+    }
+
+    @Test
+    void failureIsRethrownWithoutStaleIfError() throws InterruptedException {
+        EspnResponseCache cache = cache(0, 0, 0);
+        cache.get(URL, TTL, stale -> body("v1"));
+        expire();
+
+        assertThatThrownBy(() -> cache.get(URL, TTL, stale -> {
+            throw new IllegalStateException("ESPN is down");
+        })).isInstanceOf(IllegalStateException.class);
+    }
+
+    @Test
+    void notModifiedRenewsTheEntry() throws InterruptedException {
+        EspnResponseCache cache = cache(0, 0, 0);
+        EspnResponseCache.Validated first = new EspnResponseCache.Validated(
+                "v1".getBytes(StandardCharsets.UTF_8), "\"abc\"", null);
+        cache.get(URL, TTL, stale -> first);
+        expire();
+
+        AtomicReference<EspnResponseCache.Validated> offered = new AtomicReference<>();
+        // Handing the stale entry back is how the fetcher reports a 304
+        assertThat(text(cache.get(URL, TTL, stale -> {
+            offered.set(stale);
+            return stale;
+        }))).isEqualTo("v1");
+        assertThat(offered.get()).isSameAs(first);
+
+        AtomicInteger loads = new AtomicInteger();
+        cache.get(URL, TTL, stale -> body("v" + loads.incrementAndGet()));
+        assertThat(loads).as("renewed entry is fresh again").hasValue(0);
+    }
+
+    @Test
+    void entryWithoutValidatorsIsLoadedUnconditionally() throws InterruptedException {
+        EspnResponseCache cache = cache(0, 0, 0);
+        cache.get(URL, TTL, stale -> body("v1"));
+        expire();
+
+        AtomicReference<EspnResponseCache.Validated> offered = new AtomicReference<>(body("sentinel"));
+        cache.get(URL, TTL, stale -> {
+            offered.set(stale);
+            return body("v2");
+        });
+        assertThat(offered.get()).isNull();
+    }
+
+    @Test
+    void reactiveGetServesStaleWhenEspnFails() throws InterruptedException {
+        EspnResponseCache cache = cache(0, 0, 3600);
+        cache.getReactive(URL, TTL, stale -> Mono.just(body("v1"))).block();
+        expire();
+
+        byte[] served = cache.getReactive(URL, TTL, stale -> Mono.<EspnResponseCache.Validated>error(
+                new IllegalStateException("ESPN is down"))).block();
+        assertThat(text(served)).isEqualTo("v1");
+        assertThat(stale("error")).isEqualTo(1);
+    }
+
+    @Test
+    void reactiveGetServesFreshEntriesWithoutLoading() {
+        EspnResponseCache cache = cache(0, 0, 0);
+        AtomicInteger loads = new AtomicInteger();
+
+        cache.getReactive(URL, TTL, stale -> Mono.fromSupplier(() -> body("v" + loads.incrementAndGet()))).block();
+        byte[] served = cache.getReactive(URL, TTL,
+                stale -> Mono.fromSupplier(() -> body("v" + loads.incrementAndGet()))).block();
+        assertThat(text(served)).isEqualTo("v1");
+        assertThat(loads).hasValue(1);
+    }
+}
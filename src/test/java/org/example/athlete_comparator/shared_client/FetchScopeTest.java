@@ -0,0 +1,101 @@
+package org.example.athlete_comparator.shared_client;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class FetchScopeTest {
+
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    private final ParallelFetcher fetcher = new ParallelFetcher(executor, true);
+    private final Deadline deadline = Deadline.after(Duration.ofSeconds(5));
+
+    @AfterEach
+    void shutdown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void failureBeforeJoinStillFailsTheScope() throws Exception {
+        try (FetchScope scope = fetcher.openScope()) {
+            Future<String> failing = scope.fork(() -> {
+                throw new IllegalStateException("No statistics available");
+            });
+            while (!failing.isDone()) Thread.onSpinWait();
+
+            assertThatThrownBy(() -> scope.join(Duration.ofSeconds(1)))
+                    .isInstanceOf(ExecutionException.class)
+                    .hasCauseInstanceOf(IllegalStateException.class);
+        }
+    }
+
+    @Test
+    void finishedTasksKeepTheirResults() throws Exception {
+        for (int i = 0; i < 1000; i++) {
+            try (FetchScope scope = fetcher.openScope()) {
+                Future<String> name = scope.fork(() -> "LeBron James");
+
+                assertThat(scope.join(Duration.ofSeconds(1))).isTrue();
+                assertThat(FetchScope.resultOr(name, "Player 1966")).isEqualTo("LeBron James");
+            }
+        }
+    }
+
+    @Test
+    void inlineScopeRunsTasksWhenForked() throws Exception {
+        try (FetchScope scope = new ParallelFetcher(executor, false).openScope()) {
+            Future<String> name = scope.fork(() -> "LeBron James");
+            assertThat(name.isDone()).isTrue();
+            assertThat(scope.join(Duration.ofSeconds(1))).isTrue();
+            assertThat(FetchScope.resultOr(name, null)).isEqualTo("LeBron James");
+        }
+    }
+
+    @Test
+    void failedOptionalLookupYieldsNullAndMarksTheDeadlinePartial() throws Exception {
+        try (Deadline.Binding ignored = deadline.bind(); FetchScope scope = fetcher.openScope()) {
+            Future<String> name = scope.fork(() -> "LeBron James");
+            Future<String> bio = scope.forkOptional(() -> {
+                throw new UpstreamUnavailableException("circuit open", 30);
+            });
+
+            assertThat(scope.join(Duration.ofSeconds(1))).isTrue();
+            assertThat(FetchScope.resultOr(name, null)).isEqualTo("LeBron James");
+            assertThat(FetchScope.resultOr(bio, "fallback")).isNull();
+        }
+        assertThat(deadline.isPartial()).isTrue();
+    }
+
+    @Test
+    void rejectedRequiredLookupIsThrownUnwrapped() {
+        try (FetchScope scope = fetcher.openScope()) {
+            scope.fork(() -> {
+                throw new UpstreamUnavailableException("circuit open", 30);
+            });
+            assertThatThrownBy(() -> scope.join(Duration.ofSeconds(1)))
+                    .isInstanceOf(UpstreamUnavailableException.class);
+        }
+    }
+
+    @Test
+    void failedBatchLookupMarksTheDeadlinePartial() {
+        List<String> results;
+        try (Deadline.Binding ignored = deadline.bind()) {
+            results = fetcher.mapOrdered(List.of(1, 2), id -> {
+                if (id == 2) throw new IllegalStateException("ESPN returned 500");
+                return "season " + id;
+            });
+        }
+        assertThat(results).containsExactly("season 1", null);
+        assertThat(deadline.isPartial()).isTrue();
+    }
+}
@@ -0,0 +1,234 @@
+package org.example.athlete_comparator.shared_client;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class HostConcurrencyLimiterTest {
+
+    private static final String ESPN_URL = "https://site.api.espn.com/apis/site/v2/sports/basketball/nba/athletes/1966";
+    private static final String ESPN_HOST = "site.api.espn.com";
+    private static final String OPENAI_URL = "https://api.openai.com/v1/chat/completions";
+
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    // Latencies and back-off intervals are measured on this clock, waiting for a slot is not
+    private final AtomicLong clock = new AtomicLong();
+
+    @AfterEach
+    void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private HostConcurrencyLimiter limiter(int initial, int min, int max, long maxWaitMs) {
+        return new HostConcurrencyLimiter(initial, min, max, maxWaitMs, 2.0, 0.5, 2, 5000, meterRegistry, clock::get);
+    }
+
+    private void advance(long millis) {
+        clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(millis));
+    }
+
+    /**
+     * A call that takes the given time on the test clock
+     */
+    private String takes(long millis) {
+        advance(millis);
+        return "ok";
+    }
+
+    private double limit(String host) {
+        return meterRegistry.get("upstream.limiter.limit").tag("host", host).gauge().value();
+    }
+
+    private double inFlight(String host) {
+        return meterRegistry.get("upstream.limiter.in_flight").tag("host", host).gauge().value();
+    }
+
+    private static void fail(HostConcurrencyLimiter limiter, String upstream, String url) {
+        assertThatThrownBy(() -> limiter.call(upstream, url, () -> {
+            throw new IllegalStateException("upstream failed");
+        })).isInstanceOf(IllegalStateException.class);
+    }
+
+    /**
+     * Takes the host's only slot on another thread until the returned latch is released
+     */
+    private CountDownLatch hold(HostConcurrencyLimiter limiter) throws InterruptedException {
+        CountDownLatch taken = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        executor.execute(() -> limiter.call("espn", ESPN_URL, () -> {
+            taken.countDown();
+            await(release);
+            return null;
+        }));
+        assertThat(taken.await(5, TimeUnit.SECONDS)).isTrue();
+        return release;
+    }
+
+    @Test
+    void failureBacksOffMultiplicativelyAtMostOncePerInterval() {
+        HostConcurrencyLimiter limiter = limiter(8, 1, 32, 250);
+        // The interval starts when the host is first seen
+        fail(limiter, "espn", ESPN_URL);
+        assertThat(limit(ESPN_HOST)).isEqualTo(8.0);
+
+        advance(101);
+        fail(limiter, "espn", ESPN_URL);
+        assertThat(limit(ESPN_HOST)).isEqualTo(4.0);
+
+        // A burst of failures is one event, not one halving per call
+        advance(50);
+        fail(limiter, "espn", ESPN_URL);
+        assertThat(limit(ESPN_HOST)).isEqualTo(4.0);
+
+        advance(51);
+        fail(limiter, "espn", ESPN_URL);
+        assertThat(limit(ESPN_HOST)).isEqualTo(2.0);
+    }
+
+    @Test
+    void failuresTheCallerDoesNotCountLeaveTheLimitAlone() {
+        HostConcurrencyLimiter limiter = limiter(8, 1, 32, 250);
+        assertThatThrownBy(() -> limiter.call("espn", ESPN_URL, () -> {
+            throw new IllegalArgumentException("404");
+        }, e -> false)).isInstanceOf(IllegalArgumentException.class);
+        assertThat(limit(ESPN_HOST)).isEqualTo(8.0);
+    }
+
+    @Test
+    void limitGrowsAdditivelyOnlyWhileItIsUsed() {
+        HostConcurrencyLimiter limiter = limiter(2, 1, 32, 250);
+        // One call at a time uses half of a limit of 2: grows by 1/limit
+        limiter.call("espn", ESPN_URL, () -> "ok");
+        assertThat(limit(ESPN_HOST)).isEqualTo(2.5);
+
+        // ...but not a quarter of a limit of 8
+        String otherUrl = "https://sports.core.api.espn.com/v2/sports/basketball/leagues/nba/athletes/1966";
+        limiter(8, 1, 32, 250).call("espn", otherUrl, () -> "ok");
+        assertThat(limit("sports.core.api.espn.com")).isEqualTo(8.0);
+    }
+
+    @Test
+    void slowdownAgainstTheLongRunAverageBacksOff() {
+        HostConcurrencyLimiter limiter = limiter(8, 1, 32, 250);
+        limiter.call("espn", ESPN_URL, () -> takes(2));
+        assertThat(limit(ESPN_HOST)).isEqualTo(8.0);
+
+        // Recent average 2 + 0.1 * 58 = 7.8 ms against a baseline of 2.58 ms
+        advance(100);
+        limiter.call("espn", ESPN_URL, () -> takes(60));
+        assertThat(limit(ESPN_HOST)).isEqualTo(4.0);
+    }
+
+    @Test
+    void limitStaysWithinMinAndMax() {
+        HostConcurrencyLimiter atMin = limiter(1, 1, 1, 250);
+        fail(atMin, "espn", ESPN_URL);
+        assertThat(limit(ESPN_HOST)).isEqualTo(1.0);
+        atMin.call("espn", ESPN_URL, () -> "ok");
+        assertThat(limit(ESPN_HOST)).isEqualTo(1.0);
+    }
+
+    @Test
+    void openAiKeepsItsFixedLimit() {
+        HostConcurrencyLimiter limiter = limiter(8, 1, 32, 250);
+        limiter.call("openai", OPENAI_URL, () -> takes(2));
+        // An adaptive host would have halved its limit here
+        advance(101);
+        fail(limiter, "openai", OPENAI_URL);
+        limiter.call("openai", OPENAI_URL, () -> takes(60));
+        assertThat(limit("api.openai.com")).isEqualTo(2.0);
+    }
+
+    @Test
+    void callerAtTheLimitIsShedAfterMaxWait() throws InterruptedException {
+        HostConcurrencyLimiter limiter = limiter(1, 1, 1, 50);
+        CountDownLatch release = hold(limiter);
+
+        long start = System.nanoTime();
+        assertThatThrownBy(() -> limiter.call("espn", ESPN_URL, () -> "never"))
+                .isInstanceOf(UpstreamUnavailableException.class);
+        assertThat(System.nanoTime() - start).isGreaterThanOrEqualTo(TimeUnit.MILLISECONDS.toNanos(50));
+        assertThat(meterRegistry.get("upstream.limiter.rejected").tag("host", ESPN_HOST).counter().count())
+                .isEqualTo(1);
+        release.countDown();
+    }
+
+    @Test
+    void blockingAndReactiveWaitersAreServedInArrivalOrder() throws Exception {
+        HostConcurrencyLimiter limiter = limiter(1, 1, 1, 5000);
+        CountDownLatch release = hold(limiter);
+        List<String> order = new CopyOnWriteArrayList<>();
+
+        Future<?> first = executor.submit(() -> limiter.call("espn", ESPN_URL, () -> order.add("blocking 1")));
+        Thread.sleep(100);
+        CountDownLatch second = new CountDownLatch(1);
+        limiter.callReactive("espn", ESPN_URL, () -> Mono.fromCallable(() -> order.add("reactive")),
+                        e -> true, null)
+                .subscribe(added -> second.countDown());
+        Future<?> third = executor.submit(() -> limiter.call("espn", ESPN_URL, () -> order.add("blocking 2")));
+        Thread.sleep(100);
+        assertThat(order).isEmpty();
+
+        release.countDown();
+        first.get(5, TimeUnit.SECONDS);
+        assertThat(second.await(5, TimeUnit.SECONDS)).isTrue();
+        third.get(5, TimeUnit.SECONDS);
+        assertThat(order).containsExactly("blocking 1", "reactive", "blocking 2");
+        assertThat(inFlight(ESPN_HOST)).isZero();
+    }
+
+    @Test
+    void cancelledReactiveWaiterGivesUpItsPlace() throws Exception {
+        HostConcurrencyLimiter limiter = limiter(1, 1, 1, 5000);
+        CountDownLatch release = hold(limiter);
+        AtomicBoolean ran = new AtomicBoolean();
+
+        Disposable waiting = limiter.callReactive("espn", ESPN_URL,
+                () -> Mono.fromRunnable(() -> ran.set(true)), e -> true, null).subscribe();
+        waiting.dispose();
+        release.countDown();
+
+        assertThat(limiter.call("espn", ESPN_URL, () -> "next")).isEqualTo("next");
+        assertThat(ran).isFalse();
+        assertThat(inFlight(ESPN_HOST)).isZero();
+    }
+
+    @Test
+    void reactiveWaiterPastItsDeadlineIsShed() throws InterruptedException {
+        HostConcurrencyLimiter limiter = limiter(1, 1, 1, 5000);
+        CountDownLatch release = hold(limiter);
+        Deadline deadline = Deadline.after(Duration.ofMillis(50));
+
+        assertThatThrownBy(() -> limiter.callReactive("espn", ESPN_URL, () -> Mono.just("never"), e -> true, deadline)
+                .block(Duration.ofSeconds(5)))
+                .isInstanceOf(UpstreamUnavailableException.class);
+        release.countDown();
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            if (!latch.await(5, TimeUnit.SECONDS)) throw new IllegalStateException("Test call never released");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,219 @@
+package org.example.athlete_comparator.shared_client;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class RequestCoalescerTest {
+
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final RequestCoalescer coalescer = new RequestCoalescer(executor, meterRegistry);
+
+    @AfterEach
+    void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private double count(String role) {
+        return meterRegistry.get("upstream.coalescer.calls").tag("role", role).counter().count();
+    }
+
+    /**
+     * Waits until the given number of callers have joined the call in flight
+     */
+    private void awaitCollapsed(int callers) throws InterruptedException {
+        long until = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (count("collapsed") < callers) {
+            assertThat(System.nanoTime()).as("callers joined in time").isLessThan(until);
+            Thread.sleep(5);
+        }
+    }
+
+    @Test
+    void concurrentCallersShareOneCall() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger calls = new AtomicInteger();
+        List<Future<String>> results = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            results.add(executor.submit(() -> coalescer.execute("k", () -> {
+                calls.incrementAndGet();
+                await(release);
+                return "body";
+            })));
+        }
+        awaitCollapsed(7);
+        release.countDown();
+
+        for (Future<String> result : results) {
+            assertThat(result.get(5, TimeUnit.SECONDS)).isEqualTo("body");
+        }
+        assertThat(calls).hasValue(1);
+        assertThat(count("leader")).isEqualTo(1);
+    }
+
+    @Test
+    void exceptionReachesEveryCaller() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        IllegalArgumentException failure = new IllegalArgumentException("boom");
+        Future<Object> first = executor.submit(() -> coalescer.execute("k", () -> {
+            await(release);
+            throw failure;
+        }));
+        Future<Object> second = executor.submit(() -> coalescer.execute("k", () -> "unused"));
+        awaitCollapsed(1);
+        release.countDown();
+
+        for (Future<Object> result : List.of(first, second)) {
+            assertThatThrownBy(() -> result.get(5, TimeUnit.SECONDS)).hasCause(failure);
+        }
+    }
+
+    @Test
+    void errorIsRethrownAndReleasesTheKey() {
+        assertThatThrownBy(() -> coalescer.execute("k", () -> {
+            throw new StackOverflowError();
+        })).isInstanceOf(StackOverflowError.class);
+
+        // A stuck entry would hand the old failure to the next caller
+        assertThat(coalescer.execute("k", () -> "again")).isEqualTo("again");
+    }
+
+    @Test
+    void keyIsReleasedOnceTheCallCompletes() {
+        AtomicInteger calls = new AtomicInteger();
+        coalescer.execute("k", calls::incrementAndGet);
+        coalescer.execute("k", calls::incrementAndGet);
+        assertThat(calls).hasValue(2);
+    }
+
+    @Test
+    void callerPastItsDeadlineStopsWaitingWithoutCancellingTheCall() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger calls = new AtomicInteger();
+        Deadline deadline = Deadline.after(Duration.ofMillis(50));
+
+        try (Deadline.Binding ignored = deadline.bind()) {
+            assertThatThrownBy(() -> coalescer.execute("k", () -> {
+                calls.incrementAndGet();
+                await(release);
+                return "body";
+            })).isInstanceOf(DeadlineExceededException.class);
+        }
+        assertThat(deadline.isPartial()).isTrue();
+
+        // The call is still running and a caller without a deadline gets its result
+        Future<String> late = executor.submit(() -> coalescer.execute("k", () -> "second call"));
+        awaitCollapsed(1);
+        release.countDown();
+        assertThat(late.get(5, TimeUnit.SECONDS)).isEqualTo("body");
+        assertThat(calls).hasValue(1);
+    }
+
+    @Test
+    void interruptedLeaderDoesNotFailTheOthers() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Future<String> leader = executor.submit(() -> coalescer.execute("k", () -> {
+            started.countDown();
+            await(release);
+            return "body";
+        }));
+        assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+        Future<String> follower = executor.submit(() -> coalescer.execute("k", () -> "unused"));
+        awaitCollapsed(1);
+
+        leader.cancel(true);
+        release.countDown();
+        assertThat(follower.get(5, TimeUnit.SECONDS)).isEqualTo("body");
+    }
+
+    @Test
+    void reactiveCallersJoinABlockingCall() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        Future<String> blocking = executor.submit(() -> coalescer.execute("k", () -> {
+            await(release);
+            return "body";
+        }));
+        awaitLeader();
+
+        Mono<String> reactive = coalescer.executeReactive("k", () -> Mono.just("unused"));
+        Future<String> joined = executor.submit(() -> reactive.block(Duration.ofSeconds(5)));
+        awaitCollapsed(1);
+        release.countDown();
+
+        assertThat(joined.get(5, TimeUnit.SECONDS)).isEqualTo("body");
+        assertThat(blocking.get(5, TimeUnit.SECONDS)).isEqualTo("body");
+    }
+
+    @Test
+    void cancelledReactiveCallerDoesNotCancelTheSharedCall() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger calls = new AtomicInteger();
+        Mono<String> call = Mono.fromCallable(() -> {
+            calls.incrementAndGet();
+            await(release);
+            return "body";
+        }).subscribeOn(Schedulers.boundedElastic());
+
+        Disposable first = coalescer.executeReactive("k", () -> call).subscribe();
+        first.dispose();
+        Mono<String> second = coalescer.executeReactive("k", () -> call);
+        Future<String> joined = executor.submit(() -> second.block(Duration.ofSeconds(5)));
+        awaitCollapsed(1);
+        release.countDown();
+
+        assertThat(joined.get(5, TimeUnit.SECONDS)).isEqualTo("body");
+        assertThat(calls).hasValue(1);
+    }
+
+    @Test
+    void reactiveCallerPastItsDeadlineGetsDeadlineExceeded() {
+        Deadline deadline = Deadline.after(Duration.ofMillis(50));
+        Mono<String> slow = coalescer.executeReactive("k", () -> Mono.<String>never())
+                .contextWrite(ctx -> ctx.put(Deadline.class, deadline));
+
+        assertThatThrownBy(() -> slow.block(Duration.ofSeconds(5)))
+                .isInstanceOf(DeadlineExceededException.class);
+        assertThat(deadline.isPartial()).isTrue();
+    }
+
+    @Test
+    void reactiveCallCompletingEmptyGivesEmpty() {
+        assertThat(coalescer.executeReactive("k", Mono::<String>empty).blockOptional(Duration.ofSeconds(5))).isEmpty();
+    }
+
+    private void awaitLeader() throws InterruptedException {
+        long until = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (count("leader") < 1) {
+            assertThat(System.nanoTime()).as("call started in time").isLessThan(until);
+            Thread.sleep(5);
+        }
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            if (!latch.await(5, TimeUnit.SECONDS)) throw new IllegalStateException("Test call never released");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,158 @@
+package org.example.athlete_comparator.shared_client;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.HttpServerErrorException;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class UpstreamGuardTest {
+
+    private static final String URL = "https://site.web.api.espn.com/apis/common/v3/sports/basketball/nba/athletes/1966/stats";
+
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    /**
+     * Guard whose breaker needs minCalls failures to open, and whose retry budget starts with
+     * maxTokens and earns budgetRatio per call
+     */
+    private UpstreamGuard guard(int minCalls, double budgetRatio, double maxTokens) {
+        HostConcurrencyLimiter limiter = new HostConcurrencyLimiter(8, 1, 32, 250, 2.0, 0.7, 16, 5000, meterRegistry);
+        return new UpstreamGuard(limiter, 3000, 60000, 100, minCalls, 0.5, 30000, 1,
+                2, 2, budgetRatio, maxTokens, meterRegistry);
+    }
+
+    private double retries(String result) {
+        return meterRegistry.get("upstream.retries").tag("result", result).counter().count();
+    }
+
+    private static RuntimeException serverError() {
+        return HttpServerErrorException.create(HttpStatus.SERVICE_UNAVAILABLE, "Service Unavailable", null, null, null);
+    }
+
+    @Test
+    void failedCallIsRetriedOnce() {
+        UpstreamGuard guard = guard(100, 0.1, 10);
+        AtomicInteger attempts = new AtomicInteger();
+
+        String result = guard.call("espn", URL, true, () -> {
+            if (attempts.incrementAndGet() == 1) throw serverError();
+            return "ok";
+        });
+
+        assertThat(result).isEqualTo("ok");
+        assertThat(attempts).hasValue(2);
+        assertThat(retries("retried")).isEqualTo(1);
+    }
+
+    @Test
+    void retriesStopOnceTheBudgetIsSpent() {
+        UpstreamGuard guard = guard(100, 0, 2);
+        AtomicInteger attempts = new AtomicInteger();
+
+        for (int i = 0; i < 5; i++) {
+            assertThatThrownBy(() -> guard.call("espn", URL, true, () -> {
+                attempts.incrementAndGet();
+                throw serverError();
+            })).isInstanceOf(HttpServerErrorException.class);
+        }
+
+        // Five calls, plus the two retries the budget held
+        assertThat(attempts).hasValue(7);
+        assertThat(retries("retried")).isEqualTo(2);
+        assertThat(retries("budget_exhausted")).isEqualTo(3);
+    }
+
+    @Test
+    void everyCallEarnsAShareOfARetry() {
+        UpstreamGuard guard = guard(100, 0.5, 1);
+        AtomicInteger attempts = new AtomicInteger();
+        Runnable failing = () -> assertThatThrownBy(() -> guard.call("espn", URL, true, () -> {
+            attempts.incrementAndGet();
+            throw serverError();
+        })).isInstanceOf(HttpServerErrorException.class);
+
+        failing.run(); // spends the starting token
+        failing.run(); // half a token, not enough
+        failing.run(); // a whole token again
+        assertThat(attempts).hasValue(5);
+    }
+
+    @Test
+    void clientErrorsAndNonRetryableCallsAreNotRetried() {
+        UpstreamGuard guard = guard(100, 0.1, 10);
+        AtomicInteger attempts = new AtomicInteger();
+
+        assertThatThrownBy(() -> guard.call("espn", URL, true, () -> {
+            attempts.incrementAndGet();
+            throw HttpClientErrorException.create(HttpStatus.NOT_FOUND, "Not Found", null, null, null);
+        })).isInstanceOf(HttpClientErrorException.class);
+        assertThatThrownBy(() -> guard.call("openai", "https://api.openai.com/v1/chat/completions", false, () -> {
+            attempts.incrementAndGet();
+            throw serverError();
+        })).isInstanceOf(HttpServerErrorException.class);
+
+        assertThat(attempts).hasValue(2);
+    }
+
+    @Test
+    void openCircuitRejectsWithoutCalling() {
+        UpstreamGuard guard = guard(2, 0, 0);
+        for (int i = 0; i < 2; i++) {
+            assertThatThrownBy(() -> guard.call("espn", URL, true, () -> {
+                throw serverError();
+            })).isInstanceOf(HttpServerErrorException.class);
+        }
+
+        AtomicInteger attempts = new AtomicInteger();
+        assertThatThrownBy(() -> guard.call("espn", URL, true, attempts::incrementAndGet))
+                .isInstanceOf(UpstreamUnavailableException.class);
+        assertThat(attempts).hasValue(0);
+
+        // Other endpoint families on the same host are unaffected
+        String search = "https://site.web.api.espn.com/apis/search/v2";
+        assertThat(guard.call("espn", search, true, () -> "ok")).isEqualTo("ok");
+    }
+
+    @Test
+    void reactiveCallsShareTheRetryPolicy() {
+        UpstreamGuard guard = guard(100, 0.1, 10);
+        AtomicInteger attempts = new AtomicInteger();
+
+        Mono<String> call = guard.callReactive("espn", URL, true, () -> Mono.defer(() ->
+                attempts.incrementAndGet() == 1 ? Mono.error(serverError()) : Mono.just("ok")));
+
+        assertThat(call.block(Duration.ofSeconds(5))).isEqualTo("ok");
+        assertThat(attempts).hasValue(2);
+    }
+
+    @Test
+    void onlyUpstreamTroubleCountsAsFailure() {
+        assertThat(UpstreamGuard.isFailure(serverError())).isTrue();
+        assertThat(UpstreamGuard.isFailure(HttpClientErrorException.create(HttpStatus.TOO_MANY_REQUESTS,
+                "Too Many Requests", null, null, null))).isTrue();
+        assertThat(UpstreamGuard.isFailure(new IllegalStateException("connection reset"))).isTrue();
+        assertThat(UpstreamGuard.isFailure(HttpClientErrorException.create(HttpStatus.NOT_FOUND,
+                "Not Found", null, null, null))).isFalse();
+        assertThat(UpstreamGuard.isFailure(new UpstreamUnavailableException("at limit", 1))).isFalse();
+
+        Deadline expired = Deadline.after(Duration.ZERO);
+        assertThat(UpstreamGuard.isFailure(new IllegalStateException("timeout"), expired)).isFalse();
+    }
+
+    @Test
+    void familyIsTheLastSegmentThatIsNotAnIdOrVersion() {
+        assertThat(UpstreamGuard.family("https://x/apis/common/v3/sports/nba/athletes/1966/statistics/0"))
+                .isEqualTo("statistics");
+        assertThat(UpstreamGuard.family("https://api.openai.com/v1/chat/completions")).isEqualTo("completions");
+        assertThat(UpstreamGuard.family("not a url")).isEqualTo("other");
+    }
+}
@@ -0,0 +1,114 @@
+package org.example.athlete_comparator.shared_service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class AwardClassifierTest {
+
+    private static final AwardClassifier NBA = AwardClassifier.fromResource("awards/nba.json");
+
+    private static final List<String> FRAGMENTS = List.of("champion", "championship", "finals", "finals mvp", "mvp",
+            "all-star", "all-star mvp", "all-nba", "all-nba 1st", "all-nba 2nd", "all-nba 3rd", "1st", "2nd", "3rd",
+            "defensive player of the year", "defensive player", "all-defensive 1st", "all-defensive 2nd",
+            "scoring", "assists", "rebounds", "rookie of the year", "all-rookie 1st", "all-rookie 2nd",
+            "sixth man", "most improved", "nba cup", "tournament", "team", "of the year", "nba", "cup", "all-",
+            "player", "man", "-", " ");
+
+    @Test
+    void titlesAreSortedIntoTheirCategories() {
+        assertThat(NBA.classify("NBA Champion").name()).isEqualTo("championship");
+        assertThat(NBA.classify("NBA Finals MVP").name()).isEqualTo("finals-mvp");
+        assertThat(NBA.classify("NBA Most Valuable Player (MVP)").name()).isEqualTo("mvp");
+        assertThat(NBA.classify("NBA All-Star Game MVP").name()).isEqualTo("all-star");
+        assertThat(NBA.classify("All-Star MVP").name()).isEqualTo("all-star-mvp");
+        assertThat(NBA.classify("All-NBA 2nd Team").name()).isEqualTo("all-nba-2nd");
+        assertThat(NBA.classify("NBA Cup Champion").name()).as("first category wins").isEqualTo("championship");
+        assertThat(NBA.classify("Emirates NBA Cup All-Tournament Team").name()).isEqualTo("cup");
+        assertThat(NBA.priority("NBA Sixth Man of the Year")).isEqualTo(18);
+    }
+
+    @Test
+    void unmatchedAndEmptyTitlesFallBack() {
+        assertThat(NBA.classify("Player of the Week").name()).isEqualTo("other");
+        assertThat(NBA.priority("")).isEqualTo(99);
+        assertThat(NBA.priority(null)).isEqualTo(99);
+        assertThat(NBA.sport()).isEqualTo("nba");
+    }
+
+    @Test
+    void phrasesEndingInsideOtherPhrasesAreFound() {
+        AwardClassifier classifier = new AwardClassifier(new AwardClassifier.Taxonomy("test", List.of(
+                new AwardClassifier.Category("she", 1, List.of("she"), null),
+                new AwardClassifier.Category("he", 2, List.of("he"), List.of("hers")),
+                new AwardClassifier.Category("his", 3, List.of("his"), null)),
+                new AwardClassifier.Category("other", 99, null, null)));
+
+        assertThat(classifier.classify("USHE").name()).isEqualTo("she");
+        assertThat(classifier.classify("other").name()).isEqualTo("he");
+        assertThat(classifier.classify("hers this").name()).isEqualTo("his");
+        assertThat(classifier.classify("hi").name()).isEqualTo("other");
+    }
+
+    @Test
+    void taxonomyWithoutFallbackIsRejected() {
+        assertThatThrownBy(() -> new AwardClassifier(new AwardClassifier.Taxonomy("test", List.of(), null)))
+                .isInstanceOf(IllegalStateException.class);
+        assertThatThrownBy(() -> AwardClassifier.fromResource("awards/missing.json"))
+                .isInstanceOf(IllegalStateException.class);
+    }
+
+    @Test
+    void agreesWithTheOldChainOfContainsChecks() {
+        for (String fragment : FRAGMENTS) {
+            assertThat(NBA.priority(fragment)).as(fragment).isEqualTo(oldPriority(fragment));
+        }
+
+        Random random = new Random(25);
+        StringBuilder title = new StringBuilder();
+        for (int i = 0; i < 200_000; i++) {
+            title.setLength(0);
+            for (int parts = 1 + random.nextInt(4); parts > 0; parts--) {
+                String fragment = FRAGMENTS.get(random.nextInt(FRAGMENTS.size()));
+                title.append(random.nextBoolean() ? fragment : fragment.toUpperCase(Locale.ROOT));
+                if (random.nextBoolean()) title.append(' ');
+            }
+            String text = title.toString();
+            assertThat(NBA.priority(text)).as(text).isEqualTo(oldPriority(text));
+        }
+    }
+
+    /**
+     * The hard-coded ranking AccoladesService used before the taxonomy
+     */
+    private static int oldPriority(String awardTitle) {
+        String title = awardTitle.toLowerCase(Locale.ROOT);
+
+        if (title.contains("champion")) return 1;
+        if (title.contains("finals mvp")) return 2;
+        if (title.contains("mvp") && !title.contains("finals") && !title.contains("all-star")) return 3;
+        if (title.contains("all-nba 1st")) return 4;
+        if (title.contains("all-nba 2nd")) return 5;
+        if (title.contains("all-nba 3rd")) return 6;
+        if (title.contains("defensive player of the year")) return 7;
+        if (title.contains("all-defensive 1st")) return 8;
+        if (title.contains("all-defensive 2nd")) return 9;
+        if (title.contains("all-star mvp")) return 10;
+        if (title.contains("all-star")) return 11;
+        if (title.contains("scoring")) return 12;
+        if (title.contains("assists")) return 13;
+        if (title.contains("rebounds")) return 14;
+        if (title.contains("rookie of the year")) return 15;
+        if (title.contains("all-rookie 1st")) return 16;
+        if (title.contains("all-rookie 2nd")) return 17;
+        if (title.contains("sixth man")) return 18;
+        if (title.contains("most improved")) return 19;
+        if (title.contains("nba cup") || title.contains("tournament")) return 20;
+        return 99;
+    }
+}
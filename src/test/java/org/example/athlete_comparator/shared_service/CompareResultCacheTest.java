@@ -0,0 +1,134 @@
+package org.example.athlete_comparator.shared_service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.example.athlete_comparator.shared_client.Deadline;
+import org.example.athlete_comparator.shared_client.RequestCoalescer;
+import org.example.athlete_comparator.shared_dto.CompareResultDTO;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CompareResultCacheTest {
+
+    private static final String PROMPT = "PLAYER1_STATS: ... PLAYER2_STATS: ...";
+
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    private final CompareResultCache cache = new CompareResultCache(3600, 100,
+            new RequestCoalescer(executor, meterRegistry), meterRegistry);
+
+    @AfterEach
+    void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private static CompareResultDTO result(String winner) {
+        return new CompareResultDTO("LeBron James", "Stephen Curry", winner, "Player 1 wins in six",
+                "Player 1 scores more, player2 shoots better", "Size", "Shooting", "Player 1 by a hair");
+    }
+
+    @Test
+    void swapsOrdinalReferencesOnly() {
+        assertThat(CompareResultCache.swapOrdinals("Player 1 beats Player 2", "Player"))
+                .isEqualTo("Player 2 beats Player 1");
+        assertThat(CompareResultCache.swapOrdinals("PLAYER1_PTS vs player2_pts", "Player"))
+                .isEqualTo("PLAYER2_PTS vs player1_pts");
+        assertThat(CompareResultCache.swapOrdinals("Player 12 and multiplayer 1 stay", "Player"))
+                .isEqualTo("Player 12 and multiplayer 1 stay");
+        assertThat(CompareResultCache.swapOrdinals("Fighter 2 by KO, Player 1 untouched", "Fighter"))
+                .isEqualTo("Fighter 1 by KO, Player 1 untouched");
+        assertThat(CompareResultCache.swapOrdinals(null, "Player")).isNull();
+    }
+
+    @Test
+    void mirrorTradesNamesStrengthsAndOrdinals() {
+        CompareResultDTO original = result("Player 1");
+        CompareResultDTO mirrored = CompareResultCache.mirror(original, "Player");
+
+        assertThat(mirrored.getAthlete1Name()).isEqualTo("Stephen Curry");
+        assertThat(mirrored.getAthlete2Name()).isEqualTo("LeBron James");
+        assertThat(mirrored.getOverallWinner()).isEqualTo("Player 2");
+        assertThat(mirrored.getOneVsOnePrediction()).isEqualTo("Player 2 wins in six");
+        assertThat(mirrored.getAnalysis()).isEqualTo("Player 2 scores more, player1 shoots better");
+        assertThat(mirrored.getAthlete1Strengths()).isEqualTo("Shooting");
+        assertThat(mirrored.getAthlete2Strengths()).isEqualTo("Size");
+        assertThat(mirrored.getConclusion()).isEqualTo("Player 2 by a hair");
+
+        assertThat(original.getOverallWinner()).as("original left untouched").isEqualTo("Player 1");
+        assertThat(CompareResultCache.mirror(mirrored, "Player")).usingRecursiveComparison().isEqualTo(original);
+    }
+
+    @Test
+    void resultIsCachedPerPrompt() {
+        AtomicInteger calls = new AtomicInteger();
+
+        cache.get("nba", 1966, 3975, 2, PROMPT, () -> result("Player " + calls.incrementAndGet()));
+        CompareResultDTO again = cache.get("nba", 1966, 3975, 2, PROMPT,
+                () -> result("Player " + calls.incrementAndGet()));
+        assertThat(again.getOverallWinner()).isEqualTo("Player 1");
+        assertThat(calls).hasValue(1);
+
+        // New stats mean a new prompt, and so a new comparison
+        cache.get("nba", 1966, 3975, 2, PROMPT + " updated", () -> result("Player " + calls.incrementAndGet()));
+        cache.get("nba", 1966, 3975, 3, PROMPT, () -> result("Player " + calls.incrementAndGet()));
+        assertThat(calls).hasValue(3);
+    }
+
+    @Test
+    void unparsedResultsAreNotCached() {
+        AtomicInteger calls = new AtomicInteger();
+
+        cache.get("mma", 1, 2, 0, PROMPT, () -> {
+            calls.incrementAndGet();
+            return new CompareResultDTO();
+        });
+        cache.get("mma", 1, 2, 0, PROMPT, () -> {
+            calls.incrementAndGet();
+            return null;
+        });
+        cache.get("mma", 1, 2, 0, PROMPT, () -> result("Fighter " + calls.incrementAndGet()));
+        assertThat(calls).hasValue(3);
+    }
+
+    @Test
+    void resultBuiltFromPartialDataIsNotCached() {
+        AtomicInteger calls = new AtomicInteger();
+        Deadline deadline = Deadline.after(Duration.ofSeconds(5));
+        deadline.markPartial();
+
+        try (Deadline.Binding ignored = deadline.bind()) {
+            cache.get("nba", 1966, 3975, 2, PROMPT, () -> result("Player " + calls.incrementAndGet()));
+        }
+        cache.get("nba", 1966, 3975, 2, PROMPT, () -> result("Player " + calls.incrementAndGet()));
+        assertThat(calls).hasValue(2);
+    }
+
+    @Test
+    void reactiveGetSharesTheCache() {
+        AtomicInteger calls = new AtomicInteger();
+
+        cache.getReactive("nba", 1966, 3975, 2, PROMPT,
+                () -> Mono.fromSupplier(() -> result("Player " + calls.incrementAndGet()))).block();
+        CompareResultDTO cached = cache.get("nba", 1966, 3975, 2, PROMPT,
+                () -> result("Player " + calls.incrementAndGet()));
+        assertThat(cached.getOverallWinner()).isEqualTo("Player 1");
+
+        Deadline partial = Deadline.after(Duration.ofSeconds(5));
+        partial.markPartial();
+        cache.getReactive("nba", 1966, 3975, 3, PROMPT,
+                        () -> Mono.fromSupplier(() -> result("Player " + calls.incrementAndGet())))
+                .contextWrite(ctx -> ctx.put(Deadline.class, partial))
+                .block();
+        cache.getReactive("nba", 1966, 3975, 3, PROMPT,
+                () -> Mono.fromSupplier(() -> result("Player " + calls.incrementAndGet()))).block();
+        assertThat(calls).hasValue(3);
+    }
+}
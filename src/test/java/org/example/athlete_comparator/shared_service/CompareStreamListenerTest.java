@@ -0,0 +1,91 @@
+package org.example.athlete_comparator.shared_service;
+
+import org.example.athlete_comparator.shared_dto.CompareResultDTO;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CompareStreamListenerTest {
+
+    private static final String TEXT = "Player 1 edges Player 2. PLAYER1_PTS beats player2_pts, "
+            + "but Player 12 and multiplayer 1 are left alone; Player\n2 is not a reference, Player 2 is.";
+
+    private final StringBuilder tokens = new StringBuilder();
+    private final List<String> sections = new ArrayList<>();
+    private final CompareStreamListener target = new CompareStreamListener() {
+        @Override
+        public void onToken(String text) {
+            tokens.append(text);
+        }
+
+        @Override
+        public void onSection(String field, String value) {
+            sections.add(field + "=" + value);
+        }
+    };
+
+    @Test
+    void sectionsAreMirrored() {
+        CompareStreamListener mirrored = target.mirrored("Player");
+        mirrored.onSection("overallWinner", "Player 1");
+        mirrored.onSection("athlete1Strengths", "Size");
+        mirrored.onSection("athlete2Strengths", "Shooting");
+
+        assertThat(sections).containsExactly("overallWinner=Player 2",
+                "athlete2Strengths=Size", "athlete1Strengths=Shooting");
+    }
+
+    @Test
+    void replayGoesThroughTheMirror() {
+        target.mirrored("Fighter").replay(new CompareResultDTO("A", "B", "Fighter 2", "Fighter 2 by KO",
+                null, "Wrestling", "Power", "Fighter 2"));
+
+        assertThat(sections).containsExactly("overallWinner=Fighter 1", "oneVsOnePrediction=Fighter 1 by KO",
+                "athlete2Strengths=Wrestling", "athlete1Strengths=Power", "conclusion=Fighter 1");
+    }
+
+    @Test
+    void referenceSplitAcrossTokensIsHeldBackUntilComplete() {
+        CompareStreamListener mirrored = target.mirrored("Player");
+        mirrored.onToken("Edge: Play");
+        assertThat(tokens).hasToString("Edge: ");
+
+        mirrored.onToken("er 1");
+        assertThat(tokens).as("could still become Player 12").hasToString("Edge: ");
+
+        mirrored.onToken(" by far");
+        assertThat(tokens).hasToString("Edge: Player 2 by far");
+    }
+
+    @Test
+    void heldTextIsFlushedBeforeTheNextSection() {
+        CompareStreamListener mirrored = target.mirrored("Player");
+        mirrored.onToken("Winner: Player 2");
+        mirrored.onSection("overallWinner", "Player 2");
+
+        assertThat(tokens).hasToString("Winner: Player 1");
+        assertThat(sections).containsExactly("overallWinner=Player 1");
+    }
+
+    @Test
+    void tokenSplitsDoNotChangeTheMirroredText() {
+        String expected = CompareResultCache.swapOrdinals(TEXT, "Player");
+
+        Random random = new Random(10);
+        for (int run = 0; run < 500; run++) {
+            tokens.setLength(0);
+            CompareStreamListener mirrored = target.mirrored("Player");
+            for (int i = 0; i < TEXT.length(); ) {
+                int end = Math.min(TEXT.length(), i + 1 + random.nextInt(6));
+                mirrored.onToken(TEXT.substring(i, end));
+                i = end;
+            }
+            mirrored.onSection("conclusion", "");
+            assertThat(tokens).hasToString(expected);
+        }
+    }
+}
@@ -0,0 +1,109 @@
+package org.example.athlete_comparator.shared_service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SectionStreamParserTest {
+
+    private static final Map<String, String> FIELDS = Map.of(
+            "OVERALL_WINNER", "overallWinner",
+            "ONE_VS_ONE", "oneVsOnePrediction",
+            "PLAYER1_STRENGTHS", "athlete1Strengths",
+            "PLAYER2_STRENGTHS", "athlete2Strengths",
+            "CONCLUSION", "conclusion");
+
+    private static final String ANSWER = """
+            OVERALL_WINNER: Player 1
+            ONE_VS_ONE: Player 1 wins
+            a close series in seven.
+
+            PLAYER1_STRENGTHS: Size,
+               playmaking
+            PLAYER2_STRENGTHS: Shooting
+            CONCLUSION: Player 1 by a hair""";
+
+    private final List<String> sections = new ArrayList<>();
+    private final SectionStreamParser parser = new SectionStreamParser(FIELDS, recorder());
+
+    /**
+     * Listener that records completed sections as "field=value"
+     */
+    private CompareStreamListener recorder() {
+        return new CompareStreamListener() {
+            @Override
+            public void onToken(String text) {
+            }
+
+            @Override
+            public void onSection(String field, String value) {
+                sections.add(field + "=" + value);
+            }
+        };
+    }
+
+    @Test
+    void sectionIsEmittedOnceTheNextHeaderArrives() {
+        parser.feed("OVERALL_WINNER: Player 1\nONE_VS_");
+        assertThat(sections).isEmpty();
+
+        parser.feed("ONE: Player 1 in six\n");
+        assertThat(sections).containsExactly("overallWinner=Player 1");
+
+        parser.finish();
+        assertThat(sections).containsExactly("overallWinner=Player 1", "oneVsOnePrediction=Player 1 in six");
+    }
+
+    @Test
+    void continuationLinesAreJoinedWithSingleSpaces() {
+        parser.feed(ANSWER);
+        parser.finish();
+
+        assertThat(sections).containsExactly(
+                "overallWinner=Player 1",
+                "oneVsOnePrediction=Player 1 wins a close series in seven.",
+                "athlete1Strengths=Size, playmaking",
+                "athlete2Strengths=Shooting",
+                "conclusion=Player 1 by a hair");
+    }
+
+    @Test
+    void textBeforeTheFirstHeaderAndUnknownHeadersAreIgnored() {
+        parser.feed("Sure! Here is the comparison:\n\nOVERALL_WINNER: Player 2\nVERDICT: close\n");
+        parser.finish();
+
+        assertThat(sections).containsExactly("overallWinner=Player 2 VERDICT: close");
+    }
+
+    @Test
+    void emptyStreamEmitsNothing() {
+        parser.feed("");
+        parser.finish();
+        assertThat(sections).isEmpty();
+    }
+
+    @Test
+    void howTheTextIsSplitIntoTokensDoesNotMatter() {
+        parser.feed(ANSWER);
+        parser.finish();
+        List<String> whole = List.copyOf(sections);
+
+        Random random = new Random(10);
+        for (int run = 0; run < 200; run++) {
+            sections.clear();
+            SectionStreamParser chunked = new SectionStreamParser(FIELDS, recorder());
+            for (int i = 0; i < ANSWER.length(); ) {
+                int end = Math.min(ANSWER.length(), i + 1 + random.nextInt(8));
+                chunked.feed(ANSWER.substring(i, end));
+                i = end;
+            }
+            chunked.finish();
+            assertThat(sections).isEqualTo(whole);
+        }
+    }
+}
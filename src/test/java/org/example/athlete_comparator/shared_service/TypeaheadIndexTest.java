@@ -0,0 +1,120 @@
+package org.example.athlete_comparator.shared_service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Locale;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TypeaheadIndexTest {
+
+    private final TypeaheadIndex<String> index = new TypeaheadIndex<>(0.45, 3);
+
+    private static TypeaheadIndex.Entry<String> entry(long id, String name) {
+        return new TypeaheadIndex.Entry<>(id, name, name);
+    }
+
+    @BeforeEach
+    void fill() {
+        index.putAll(List.of(
+                entry(1966, "LeBron James"),
+                entry(3975, "Stephen Curry"),
+                entry(4066648, "Bronny James"),
+                entry(3112335, "Nikola Jokić"),
+                entry(4278073, "Shai Gilgeous-Alexander"),
+                entry(614, "Shaquille O'Neal"),
+                entry(6583, "James Harden"),
+                entry(1, "Seth Curry")
+        ));
+    }
+
+    @Test
+    void normalizesCaseAccentsAndPunctuation() {
+        assertThat(TypeaheadIndex.normalize("  Nikola   JOKIĆ ")).isEqualTo("nikola jokic");
+        assertThat(TypeaheadIndex.normalize("Shaquille O'Neal")).isEqualTo("shaquille oneal");
+        assertThat(TypeaheadIndex.normalize("Gilgeous-Alexander")).isEqualTo("gilgeous alexander");
+        assertThat(TypeaheadIndex.normalize(null)).isEmpty();
+    }
+
+    @Test
+    void everyQueryWordMustPrefixAWordOfTheName() {
+        assertThat(index.search("leb ja", 10)).containsExactly("LeBron James");
+        assertThat(index.search("jokic", 10)).containsExactly("Nikola Jokić");
+        assertThat(index.search("alex", 10)).containsExactly("Shai Gilgeous-Alexander");
+        assertThat(index.search("oneal", 10)).containsExactly("Shaquille O'Neal");
+    }
+
+    @Test
+    void namesStartingWithTheQueryComeFirstThenShorterNames() {
+        // "james harden" starts with the query; the other two are as long, so alphabetical
+        assertThat(index.search("james", 3)).containsExactly("James Harden", "Bronny James", "LeBron James");
+        assertThat(index.search("curry", 10)).containsExactly("Seth Curry", "Stephen Curry");
+    }
+
+    @Test
+    void typosFallBackToTrigramMatches() {
+        assertThat(index.search("lebrn", 10)).first().isEqualTo("LeBron James");
+        assertThat(index.search("stephan cury", 10)).first().isEqualTo("Stephen Curry");
+        assertThat(index.search("xyzzy", 10)).isEmpty();
+    }
+
+    @Test
+    void fuzzyMatchesComeAfterPrefixMatches() {
+        List<String> results = index.search("bron", 10);
+        assertThat(results).startsWith("Bronny James");
+        assertThat(results).doesNotHaveDuplicates();
+    }
+
+    @Test
+    void respectsTheLimit() {
+        assertThat(index.search("j", 2)).hasSize(2);
+        assertThat(index.search("james", 0)).isEmpty();
+        assertThat(index.search("   ", 10)).isEmpty();
+    }
+
+    @Test
+    void updatesReplaceEntriesWithTheSameId() {
+        index.putAll(List.of(entry(1966, "LeBron Raymone James"), entry(2, ""), entry(3, "Ja Morant")));
+
+        assertThat(index.size()).isEqualTo(9);
+        assertThat(index.search("raymone", 10)).containsExactly("LeBron Raymone James");
+        assertThat(index.search("ja mor", 10)).containsExactly("Ja Morant");
+    }
+
+    @Test
+    void prefixAndFuzzyMatchesAreKeptApart() {
+        TypeaheadIndex.Matches<String> retired = index.match("stephen jordan", 10);
+        assertThat(retired.prefix()).isEmpty();
+
+        TypeaheadIndex.Matches<String> matches = index.match("curry", 10);
+        assertThat(matches.prefix()).containsExactly("Seth Curry", "Stephen Curry");
+        assertThat(matches.fuzzy()).doesNotContainAnyElementsOf(matches.prefix());
+    }
+
+    @Test
+    void learnedEntriesAreCappedOldestFirst() {
+        index.learn(List.of(entry(1, "Seth Curry"), entry(23, "Michael Jordan"), entry(33, "Larry Bird")));
+        index.learn(List.of(entry(24, "Kobe Bryant")));
+        // Seen again, so no longer the oldest
+        index.learn(List.of(entry(23, "Michael Jordan")));
+        index.learn(List.of(entry(8, "Tim Duncan")));
+
+        assertThat(index.size()).as("rostered players stay, learned ones are capped at 3").isEqualTo(11);
+        assertThat(index.match("larry bird", 10).prefix()).isEmpty();
+        assertThat(index.search("michael jordan", 10)).containsExactly("Michael Jordan");
+        assertThat(index.search("seth", 10)).containsExactly("Seth Curry");
+    }
+
+    @Test
+    void normalizationDoesNotDependOnTheDefaultLocale() {
+        Locale defaultLocale = Locale.getDefault();
+        Locale.setDefault(Locale.forLanguageTag("tr-TR"));
+        try {
+            assertThat(TypeaheadIndex.normalize("Kyrie IRVING")).isEqualTo("kyrie irving");
+        } finally {
+            Locale.setDefault(defaultLocale);
+        }
+    }
+}